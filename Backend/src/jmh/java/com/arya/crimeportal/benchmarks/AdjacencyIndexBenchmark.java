@@ -0,0 +1,96 @@
+package com.arya.crimeportal.benchmarks;
+
+import com.arya.crimeportal.service.AdjacencyIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traversals behind /api/graph on a synthetic graph of about a million edges: criminals linked to 1-6 crimes
+ * (popular crimes are picked more often), and every FIR linked to one crime. Most of it is one giant component.
+ * {@code component} is answered from the component labels; {@code componentAfterRemoval} deletes and re-adds a
+ * FIR first, so it pays for relabelling the whole graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class AdjacencyIndexBenchmark {
+
+    private static final int CRIMINALS = 250_000;
+    private static final int CRIMES = 400_000;
+    private static final int FIRS = 200_000;
+    private static final String[] FIR_STATUSES = {"PENDING", "REGISTERED", "INVESTIGATING", "CLOSED"};
+
+    private AdjacencyIndex index;
+    private String[] starts;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        index = new AdjacencyIndex();
+        for (int i = 0; i < CRIMES; i++) index.setStatus("crimes/c" + i, "OPEN");
+        for (int i = 0; i < CRIMINALS; i++) {
+            String key = "criminals/p" + i;
+            index.setStatus(key, "AT_LARGE");
+            int links = 1 + random.nextInt(6);
+            List<String> crimes = new ArrayList<>(links);
+            for (int j = 0; j < links; j++) crimes.add("crimes/c" + skewed(random, CRIMES));
+            index.link(key, crimes, true);
+        }
+        for (int i = 0; i < FIRS; i++) {
+            String key = "firs/f" + i;
+            index.setStatus(key, FIR_STATUSES[random.nextInt(FIR_STATUSES.length)]);
+            index.link(key, List.of("crimes/c" + random.nextInt(CRIMES)), true);
+        }
+        starts = new String[1024];
+        for (int i = 0; i < starts.length; i++) starts[i] = "criminals/p" + random.nextInt(CRIMINALS);
+        System.out.println("nodes=" + index.nodeCount() + " edges=" + index.edgeCount());
+    }
+
+    // Squaring a uniform draw favours low ids: about a third of the links go to the first tenth of crimes
+    private static int skewed(Random random, int bound) {
+        double u = random.nextDouble();
+        return (int) (u * u * bound);
+    }
+
+    private String start() {
+        next = (next + 1) & (starts.length - 1);
+        return starts[next];
+    }
+
+    @Benchmark
+    public AdjacencyIndex.Neighborhood coOffenders() {
+        return index.neighbors(start(), 2, "criminals", Set.of(), Set.of(), 1000);
+    }
+
+    @Benchmark
+    public AdjacencyIndex.Neighborhood openFirsWithinFourHops() {
+        return index.neighbors(start(), 4, "firs", Set.of(), Set.of("CLOSED"), 1000);
+    }
+
+    @Benchmark
+    public List<AdjacencyIndex.Node> shortestPath() {
+        return index.shortestPath(start(), start(), 12);
+    }
+
+    @Benchmark
+    public AdjacencyIndex.Component component() {
+        return index.component(start(), 200);
+    }
+
+    @Benchmark
+    public AdjacencyIndex.Component componentAfterRemoval() {
+        index.remove("firs/f0");
+        index.setStatus("firs/f0", "PENDING");
+        index.link("firs/f0", List.of("crimes/c0"), true);
+        return index.component(start(), 200);
+    }
+}
@@ -0,0 +1,42 @@
+package com.arya.crimeportal.benchmarks;
+
+import com.arya.crimeportal.util.DocumentMapper;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Decoding query results into response maps, as the crime/FIR/criminal list endpoints do. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentConversionBenchmark {
+
+    // 200 is the list endpoints' default limit
+    @Param({"200", "1000"})
+    int size;
+
+    private List<QueryDocumentSnapshot> crimes;
+    private List<QueryDocumentSnapshot> criminals;
+
+    @Setup
+    public void setup() {
+        crimes = SyntheticData.crimes(size, 1);
+        criminals = SyntheticData.criminals(size, 3);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> crimeItems() {
+        return DocumentMapper.toItems(crimes, "crimeId");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> criminalItems() {
+        return DocumentMapper.toItems(criminals, "criminalId");
+    }
+}
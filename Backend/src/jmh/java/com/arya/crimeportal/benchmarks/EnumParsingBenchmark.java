@@ -0,0 +1,32 @@
+package com.arya.crimeportal.benchmarks;
+
+import com.arya.crimeportal.enums.CrimeCategory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** CrimeCategory.fromString over a realistic mix of enum names, display names and unknown values. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumParsingBenchmark {
+
+    private static final String[] INPUTS = {
+            "THEFT", "theft", "Drug Offense", "DOMESTIC_VIOLENCE", "Cybercrime", "OTHER", "vandalism", "Arson", null
+    };
+
+    @Benchmark
+    @OperationsPerInvocation(9)
+    public void crimeCategoryFromString(Blackhole bh) {
+        for (String input : INPUTS) bh.consume(CrimeCategory.fromString(input));
+    }
+
+    @Benchmark
+    public CrimeCategory crimeCategoryLastValue() {
+        return CrimeCategory.fromString("Other");
+    }
+}
@@ -0,0 +1,38 @@
+package com.arya.crimeportal.benchmarks;
+
+import com.arya.crimeportal.util.DocumentMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson serialization of a list response ({"count", "items"}) with Spring's default ObjectMapper setup. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListSerializationBenchmark {
+
+    @Param({"200", "1000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> response;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Map<String, Object>> items = DocumentMapper.toItems(SyntheticData.crimes(size, 1), "crimeId");
+        response = Map.of("count", items.size(), "items", items);
+    }
+
+    @Benchmark
+    public byte[] serializeCrimeList() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,73 @@
+package com.arya.crimeportal.benchmarks;
+
+import com.arya.crimeportal.util.ColumnarRows;
+import com.arya.crimeportal.util.DocumentMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization time of a crime list response in each negotiable encoding: JSON (default), Smile, CBOR
+ * and the columnar JSON variant. Payload sizes, raw and gzipped (as sent with server compression on),
+ * are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    @Param({"json", "smile", "cbor", "columnar-json"})
+    String format;
+
+    @Param({"200", "1000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private List<Map<String, Object>> items;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        items = DocumentMapper.toItems(SyntheticData.crimes(size, 1), "crimeId");
+        byte[] payload = serialize();
+        System.out.printf("%n%s, %d items: %d bytes, %d gzipped%n", format, size, payload.length, gzip(payload).length);
+    }
+
+    // The response is built per call, as the controller and ColumnarResponseAdvice do per request
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("count", items.size());
+        if (format.startsWith("columnar")) {
+            ColumnarRows rows = ColumnarRows.of(items);
+            response.put("columns", rows.columns());
+            response.put("rows", rows);
+        } else {
+            response.put("items", items);
+        }
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(payload);
+        }
+        return out.toByteArray();
+    }
+}
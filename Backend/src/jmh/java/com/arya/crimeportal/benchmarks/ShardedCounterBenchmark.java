@@ -0,0 +1,76 @@
+package com.arya.crimeportal.benchmarks;
+
+import com.arya.crimeportal.service.FirestoreCalls;
+import com.arya.crimeportal.service.FirestoreMetrics;
+import com.arya.crimeportal.service.ShardedCounter;
+import com.arya.crimeportal.storage.InMemoryFirestoreRpc;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of a {@link ShardedCounter} under 64 concurrent writers, against the in-memory backend with
+ * writes to any one document spaced {@value #WRITE_INTERVAL_MS} ms apart. That stands in for Firestore's
+ * sustained write rate per document, scaled up so a run takes seconds; a counter's throughput should grow
+ * with its shard count until the writers, not the documents, are the limit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(64)
+@Fork(1)
+public class ShardedCounterBenchmark {
+
+    private static final long WRITE_INTERVAL_MS = 10;
+    private static final Map<String, Long> DELTAS = Map.of("total", 1L, "status:REPORTED", 1L, "severity:HIGH", 1L);
+
+    @Param({"1", "4", "16", "64"})
+    public int shards;
+
+    private Firestore db;
+    private FirestoreCalls calls;
+    private ShardedCounter counter;
+
+    @Setup
+    public void setup() {
+        InMemoryFirestoreRpc rpc = new InMemoryFirestoreRpc("bench", "(default)",
+                new InMemoryFirestoreRpc.Faults(0, 0, 0, 0, 0, WRITE_INTERVAL_MS));
+        db = FirestoreOptions.newBuilder()
+                .setProjectId("bench")
+                .setCredentials(NoCredentials.getInstance())
+                .setServiceRpcFactory(rpc.factory())
+                .build()
+                .getService();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FirestoreMetrics metrics = new FirestoreMetrics(registry);
+        // Defaults, without hedging or the circuit breaker
+        calls = new FirestoreCalls(metrics, registry, 30000, 3, 25, 400, false, 5, 0.05, false, 20, 10, 50, 5000, 3);
+        counter = new ShardedCounter(db, calls, metrics, "crimes", shards, 1000);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.out.println("shards=" + shards + " counted=" + counter.read().get("total"));
+        calls.shutdown();
+        db.close();
+    }
+
+    @Benchmark
+    public List<WriteResult> increment() throws Exception {
+        WriteBatch batch = db.batch();
+        counter.increment(batch, DELTAS);
+        List<WriteResult> results = batch.commit().get();
+        counter.committed(DELTAS);
+        return results;
+    }
+}
@@ -0,0 +1,112 @@
+package com.arya.crimeportal.benchmarks;
+
+import com.arya.crimeportal.enums.CrimeCategory;
+import com.arya.crimeportal.enums.CrimeStatus;
+import com.arya.crimeportal.enums.CriminalStatus;
+import com.arya.crimeportal.enums.FIRStatus;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SyntheticDocuments;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Deterministic documents shaped like the production collections (same fields, similar string
+ * lengths, createdAt spread over the last six months).
+ */
+public final class SyntheticData {
+
+    private static final String[] SEVERITIES = {"LOW", "MEDIUM", "HIGH", "CRITICAL"};
+    private static final String[] LOCATIONS = {
+            "Sector 5, Rohini", "MG Road", "Connaught Place", "Andheri West", "Salt Lake City",
+            "Banjara Hills", "Koramangala", "Civil Lines", "Park Street", "Hazratganj"
+    };
+
+    private SyntheticData() {}
+
+    public static List<QueryDocumentSnapshot> crimes(int count, long seed) {
+        Random random = new Random(seed);
+        List<QueryDocumentSnapshot> docs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> fields = new HashMap<>();
+            String createdAt = recent(random).toString();
+            fields.put("title", "Reported incident #" + i + " near " + pick(random, LOCATIONS));
+            fields.put("description", "Complainant reports the incident occurred late evening; witnesses present, CCTV footage requested.");
+            fields.put("location", pick(random, LOCATIONS));
+            fields.put("date", createdAt);
+            fields.put("category", pick(random, CrimeCategory.values()).name());
+            fields.put("severity", pick(random, SEVERITIES));
+            fields.put("status", pick(random, CrimeStatus.values()).name());
+            fields.put("officerId", "officer-" + random.nextInt(50));
+            fields.put("reportedBy", "user-" + random.nextInt(2000));
+            fields.put("reportedByName", "Citizen " + random.nextInt(2000));
+            fields.put("createdAt", createdAt);
+            fields.put("updatedAt", createdAt);
+            docs.add(SyntheticDocuments.of("crimes", id(random), fields));
+        }
+        return docs;
+    }
+
+    public static List<QueryDocumentSnapshot> firs(int count, long seed) {
+        Random random = new Random(seed);
+        List<QueryDocumentSnapshot> docs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> fields = new HashMap<>();
+            String createdAt = recent(random).toString();
+            fields.put("firNumber", "FIR-2024-" + (100000 + i));
+            fields.put("complainantName", "Complainant " + random.nextInt(5000));
+            fields.put("contact", "98" + (10000000 + random.nextInt(89999999)));
+            fields.put("details", "Stolen two-wheeler from residential parking; registration and chassis numbers provided.");
+            fields.put("incidentLocation", pick(random, LOCATIONS));
+            fields.put("incidentDate", createdAt);
+            fields.put("crimeId", id(random));
+            fields.put("status", pick(random, FIRStatus.values()).name());
+            fields.put("officerId", "officer-" + random.nextInt(50));
+            fields.put("officerName", "Inspector " + random.nextInt(50));
+            fields.put("userId", "user-" + random.nextInt(2000));
+            fields.put("createdAt", createdAt);
+            fields.put("updatedAt", createdAt);
+            docs.add(SyntheticDocuments.of("firs", id(random), fields));
+        }
+        return docs;
+    }
+
+    public static List<QueryDocumentSnapshot> criminals(int count, long seed) {
+        Random random = new Random(seed);
+        List<QueryDocumentSnapshot> docs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> fields = new HashMap<>();
+            String createdAt = recent(random).toString();
+            fields.put("name", "Suspect " + i);
+            fields.put("alias", "Alias" + random.nextInt(1000));
+            fields.put("gender", random.nextBoolean() ? "Male" : "Female");
+            fields.put("age", 18 + random.nextInt(50));
+            fields.put("status", pick(random, CriminalStatus.values()).name());
+            fields.put("dangerLevel", pick(random, SEVERITIES));
+            fields.put("address", "House " + random.nextInt(500) + ", " + pick(random, LOCATIONS));
+            fields.put("identificationMarks", "Scar on left forearm");
+            fields.put("lastSeenLocation", pick(random, LOCATIONS));
+            fields.put("crimeIds", List.of(id(random), id(random)));
+            fields.put("createdAt", createdAt);
+            fields.put("updatedAt", createdAt);
+            docs.add(SyntheticDocuments.of("criminals", id(random), fields));
+        }
+        return docs;
+    }
+
+    private static Instant recent(Random random) {
+        return Instant.now().minusSeconds(random.nextInt(180 * 86400));
+    }
+
+    private static String id(Random random) {
+        // Firestore auto-ids are 20 alphanumeric characters
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        char[] id = new char[20];
+        for (int i = 0; i < id.length; i++) id[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        return new String(id);
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,65 @@
+package com.arya.crimeportal.controller;
+
+import com.arya.crimeportal.benchmarks.SyntheticData;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** The per-request aggregation work behind /api/dashboard/stats and /charts/monthly. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardAggregationBenchmark {
+
+    @Param({"1000", "10000"})
+    int size;
+
+    private DashboardController controller;
+    private List<QueryDocumentSnapshot> crimes;
+    private List<QueryDocumentSnapshot> firs;
+    private List<QueryDocumentSnapshot> criminals;
+
+    @Setup
+    public void setup() {
+        controller = new DashboardController(null, null, null);
+        crimes = SyntheticData.crimes(size, 1);
+        firs = SyntheticData.firs(size / 2, 2);
+        criminals = SyntheticData.criminals(size / 4, 3);
+    }
+
+    @Benchmark
+    public Map<String, Object> deltas() {
+        return controller.calculateDeltas(crimes, firs, criminals);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> crimeTrend() {
+        return controller.calculateCrimeTrend(crimes, 30);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> monthlyTrends() {
+        return controller.calculateMonthlyTrends(crimes, firs, criminals, 6);
+    }
+
+    @Benchmark
+    public Map<String, Integer> statusBreakdown() {
+        return controller.calculateStatusBreakdown(crimes);
+    }
+
+    @Benchmark
+    public Map<String, Integer> categoryBreakdown() {
+        return controller.calculateCategoryBreakdown(crimes);
+    }
+
+    @Benchmark
+    public Map<String, Integer> severityBreakdown() {
+        return controller.calculateSeverityBreakdown(crimes);
+    }
+}
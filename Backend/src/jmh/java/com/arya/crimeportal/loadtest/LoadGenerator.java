@@ -0,0 +1,318 @@
+package com.arya.crimeportal.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the REST API with a weighted operation mix and reports throughput and p50/p99/p99.9 latency per
+ * operation. Meant to run against a server started with {@code STORAGE_BACKEND=memory} (the in-process
+ * Firestore stand-in, optionally with injected latency/errors), which accepts {@code local:<uid>:<ROLE>}
+ * tokens; pass {@code --token} to run against a real deployment instead.
+ *
+ * Workers run closed-loop by default. With {@code --rate} they issue requests on a fixed schedule and
+ * latency is measured from the scheduled start, so a stalled server shows up in the tail instead of
+ * silently lowering the request rate (coordinated omission).
+ *
+ * Options: --url, --mix (dashboard-heavy | write-heavy | entity-reads | create-me), --threads, --duration (s), --warmup (s),
+ * --seed (documents created before the run), --rate (total requests/s), --token, --out (JSON report file).
+ */
+public final class LoadGenerator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String[] LOCATIONS = {"Connaught Place", "Karol Bagh", "Saket", "Dwarka", "Rohini", "Lajpat Nagar"};
+    private static final String[] CATEGORIES = {"THEFT", "ASSAULT", "FRAUD", "BURGLARY", "CYBERCRIME", "OTHER"};
+    private static final String[] SEVERITIES = {"LOW", "MEDIUM", "HIGH", "CRITICAL"};
+    private static final String[] STATUSES = {"REPORTED", "INVESTIGATING", "SOLVED", "CLOSED"};
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final String token;
+    private final List<String> crimeIds = new CopyOnWriteArrayList<>();
+
+    private LoadGenerator(String baseUrl, String token) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.token = token;
+    }
+
+    // ---- Operations and mixes ----
+
+    @FunctionalInterface
+    private interface Call {
+        HttpRequest build(LoadGenerator gen, Random random);
+    }
+
+    private record Operation(String name, int weight, Call call) {}
+
+    private static final Map<String, List<Operation>> MIXES = Map.of(
+            "dashboard-heavy", List.of(
+                    new Operation("GET /api/dashboard/stats", 40, (g, r) -> g.get("/api/dashboard/stats")),
+                    new Operation("GET /api/dashboard/summary", 15, (g, r) -> g.get("/api/dashboard/summary")),
+                    new Operation("GET /api/dashboard/recent-activity", 10, (g, r) -> g.get("/api/dashboard/recent-activity")),
+                    new Operation("GET /api/stats", 5, (g, r) -> g.get("/api/stats")),
+                    new Operation("GET /api/crimes", 15, (g, r) -> g.get("/api/crimes?limit=50")),
+                    new Operation("GET /api/crimes/{id}", 10, (g, r) -> g.get("/api/crimes/" + g.randomCrimeId(r))),
+                    new Operation("POST /api/crimes", 5, (g, r) -> g.post("/api/crimes", crimeBody(r)))),
+            "write-heavy", List.of(
+                    new Operation("POST /api/crimes", 35, (g, r) -> g.post("/api/crimes", crimeBody(r))),
+                    new Operation("PUT /api/crimes/{id}", 20, (g, r) -> g.put("/api/crimes/" + g.randomCrimeId(r),
+                            Map.of("status", pick(r, STATUSES), "severity", pick(r, SEVERITIES)))),
+                    new Operation("POST /api/firs", 20, (g, r) -> g.post("/api/firs", firBody(r))),
+                    new Operation("POST /api/criminals", 10, (g, r) -> g.post("/api/criminals", criminalBody(r))),
+                    new Operation("GET /api/crimes/{id}", 10, (g, r) -> g.get("/api/crimes/" + g.randomCrimeId(r))),
+                    new Operation("GET /api/crimes", 5, (g, r) -> g.get("/api/crimes?limit=50"))),
+            "entity-reads", List.of(
+                    new Operation("GET /api/crimes/{id}", 1, (g, r) -> g.get("/api/crimes/" + g.randomCrimeId(r)))),
+            "create-me", List.of(
+                    new Operation("POST /api/firs", 25, (g, r) -> g.post("/api/firs", firBody(r))),
+                    new Operation("POST /api/crimes", 25, (g, r) -> g.post("/api/crimes", crimeBody(r))),
+                    new Operation("GET /api/auth/me", 50, (g, r) -> g.get("/api/auth/me"))));
+
+    private static Map<String, Object> crimeBody(Random r) {
+        return Map.of("title", "Load test crime " + r.nextInt(1_000_000),
+                "location", pick(r, LOCATIONS),
+                "description", "Generated by LoadGenerator",
+                "category", pick(r, CATEGORIES),
+                "severity", pick(r, SEVERITIES),
+                "status", pick(r, STATUSES));
+    }
+
+    private static Map<String, Object> firBody(Random r) {
+        return Map.of("complainantName", "Complainant " + r.nextInt(10_000),
+                "contact", "98" + (10_000_000 + r.nextInt(89_999_999)),
+                "details", "Generated by LoadGenerator",
+                "incidentLocation", pick(r, LOCATIONS));
+    }
+
+    private static Map<String, Object> criminalBody(Random r) {
+        return Map.of("name", "Suspect " + r.nextInt(100_000),
+                "age", 18 + r.nextInt(50),
+                "gender", r.nextBoolean() ? "MALE" : "FEMALE",
+                "dangerLevel", pick(r, SEVERITIES),
+                "lastSeenLocation", pick(r, LOCATIONS));
+    }
+
+    private static String pick(Random r, String[] values) {
+        return values[r.nextInt(values.length)];
+    }
+
+    private String randomCrimeId(Random r) {
+        return crimeIds.isEmpty() ? "missing" : crimeIds.get(r.nextInt(crimeIds.size()));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        return request(path).header("Content-Type", "application/json").POST(jsonBody(body)).build();
+    }
+
+    private HttpRequest put(String path, Object body) {
+        return request(path).header("Content-Type", "application/json").PUT(jsonBody(body)).build();
+    }
+
+    private static HttpRequest.BodyPublisher jsonBody(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    // ---- Recording ----
+
+    /** Latencies for one operation, recorded by a single worker; merged after the run. */
+    private static final class Samples {
+        long[] nanos = new long[1024];
+        int size;
+        long errors;
+
+        void add(long latency) {
+            if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+            nanos[size++] = latency;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) add(other.nanos[i]);
+            errors += other.errors;
+        }
+
+        double percentileMillis(double p) {
+            if (size == 0) return 0;
+            int index = (int) Math.ceil(p / 100.0 * size) - 1;
+            return nanos[Math.max(0, Math.min(size - 1, index))] / 1e6;
+        }
+    }
+
+    private long execute(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) return -response.statusCode();
+        if (request.method().equals("POST") && request.uri().getPath().equals("/api/crimes")) {
+            JsonNode id = JSON.readTree(response.body()).get("crimeId");
+            if (id != null) crimeIds.add(id.asText());
+        }
+        return response.statusCode();
+    }
+
+    // Seeding is capped at a few concurrent writers so the server's write bulkhead doesn't shed it
+    private void seed(int count, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, 8));
+        Random random = new Random(42);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Call call = i % 5 == 4 ? (g, r) -> g.post("/api/firs", firBody(r)) : (g, r) -> g.post("/api/crimes", crimeBody(r));
+            HttpRequest request = call.build(this, random);
+            results.add(pool.submit(() -> execute(request)));
+        }
+        long failed = 0;
+        for (Future<Long> result : results) {
+            if (result.get() < 0) failed++;
+        }
+        pool.shutdown();
+        System.out.printf("Seeded %d documents (%d failed), %d crime ids available%n", count, failed, crimeIds.size());
+    }
+
+    private Map<String, Samples> run(List<Operation> mix, int threads, long warmupNanos, long durationNanos, double rate) throws Exception {
+        int totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+        long start = System.nanoTime() + warmupNanos;
+        long end = start + durationNanos;
+        // Open-loop schedule: each worker gets an equal share of the target rate
+        long intervalNanos = rate > 0 ? (long) (1e9 * threads / rate) : 0;
+        AtomicInteger seeds = new AtomicInteger();
+
+        List<Callable<Map<String, Samples>>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(() -> {
+                Random random = new Random(seeds.incrementAndGet());
+                Map<String, Samples> samples = new HashMap<>();
+                long next = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+                while (true) {
+                    if (intervalNanos > 0) {
+                        long wait = next - System.nanoTime();
+                        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    long issued = intervalNanos > 0 ? next : System.nanoTime();
+                    if (issued >= end) break;
+                    next += intervalNanos;
+
+                    Operation op = choose(mix, totalWeight, random);
+                    long status;
+                    try {
+                        status = execute(op.call().build(this, random));
+                    } catch (IOException e) {
+                        status = -1;
+                    }
+                    long latency = System.nanoTime() - issued;
+                    if (issued < start) continue; // warm-up
+                    Samples s = samples.computeIfAbsent(op.name(), k -> new Samples());
+                    if (status < 0) s.errors++;
+                    s.add(latency);
+                }
+                return samples;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Map<String, Samples> merged = new TreeMap<>();
+        for (Future<Map<String, Samples>> result : pool.invokeAll(workers)) {
+            result.get().forEach((name, s) -> merged.computeIfAbsent(name, k -> new Samples()).addAll(s));
+        }
+        pool.shutdown();
+        return merged;
+    }
+
+    private static Operation choose(List<Operation> mix, int totalWeight, Random random) {
+        int n = random.nextInt(totalWeight);
+        for (Operation op : mix) {
+            n -= op.weight();
+            if (n < 0) return op;
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private static List<Map<String, Object>> report(Map<String, Samples> results, double seconds) {
+        Samples all = new Samples();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        results.forEach((name, s) -> {
+            all.addAll(s);
+            rows.add(row(name, s, seconds));
+        });
+        rows.add(row("ALL", all, seconds));
+
+        System.out.printf("%n%-38s %9s %8s %10s %9s %9s %9s %9s%n", "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map<String, Object> row : rows) {
+            System.out.printf("%-38s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", row.get("operation"), row.get("requests"), row.get("errors"),
+                    row.get("throughput"), row.get("p50Ms"), row.get("p99Ms"), row.get("p999Ms"), row.get("maxMs"));
+        }
+        return rows;
+    }
+
+    private static Map<String, Object> row(String name, Samples s, double seconds) {
+        Arrays.sort(s.nanos, 0, s.size);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("operation", name);
+        row.put("requests", s.size);
+        row.put("errors", s.errors);
+        row.put("throughput", s.size / seconds);
+        row.put("p50Ms", s.percentileMillis(50));
+        row.put("p99Ms", s.percentileMillis(99));
+        row.put("p999Ms", s.percentileMillis(99.9));
+        row.put("maxMs", s.size == 0 ? 0.0 : s.nanos[s.size - 1] / 1e6);
+        return row;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        String mixName = options.getOrDefault("mix", "dashboard-heavy");
+        List<Operation> mix = MIXES.get(mixName);
+        if (mix == null) throw new IllegalArgumentException("Unknown mix " + mixName + ", expected one of " + MIXES.keySet());
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int seed = Integer.parseInt(options.getOrDefault("seed", "500"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+
+        LoadGenerator generator = new LoadGenerator(options.getOrDefault("url", "http://localhost:8080"),
+                options.getOrDefault("token", "local:loadgen:ADMIN:Load Generator"));
+        if (seed > 0) generator.seed(seed, threads);
+
+        System.out.printf("Running %s with %d threads for %ds (+%ds warm-up)%s%n", mixName, threads, duration, warmup,
+                rate > 0 ? String.format(" at %.0f req/s", rate) : " closed-loop");
+        Map<String, Samples> results = generator.run(mix, threads, TimeUnit.SECONDS.toNanos(warmup), TimeUnit.SECONDS.toNanos(duration), rate);
+        List<Map<String, Object>> rows = report(results, duration);
+
+        String out = options.get("out");
+        if (out != null) {
+            Map<String, Object> document = new LinkedHashMap<>();
+            document.put("mix", mixName);
+            document.put("threads", threads);
+            document.put("durationSeconds", duration);
+            document.put("targetRate", rate);
+            document.put("results", rows);
+            Files.writeString(Path.of(out), JSON.writerWithDefaultPrettyPrinter().writeValueAsString(document));
+            System.out.println("Report written to " + out);
+        }
+    }
+}
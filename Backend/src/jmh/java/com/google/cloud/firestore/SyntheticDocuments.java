@@ -0,0 +1,45 @@
+package com.google.cloud.firestore;
+
+import com.google.firestore.v1.ArrayValue;
+import com.google.firestore.v1.Document;
+import com.google.firestore.v1.Value;
+import com.google.protobuf.Timestamp;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds real {@link QueryDocumentSnapshot}s from plain maps, the same way the client does when it
+ * decodes a query response. Lives in the client's package because the factory is package-private;
+ * benchmark sources only.
+ */
+public final class SyntheticDocuments {
+
+    private static final String ROOT = "projects/benchmark/databases/(default)/documents/";
+
+    private SyntheticDocuments() {}
+
+    public static QueryDocumentSnapshot of(String collection, String id, Map<String, Object> fields) {
+        Timestamp now = Timestamp.newBuilder().setSeconds(System.currentTimeMillis() / 1000).build();
+        Document.Builder doc = Document.newBuilder()
+                .setName(ROOT + collection + "/" + id)
+                .setCreateTime(now)
+                .setUpdateTime(now);
+        fields.forEach((key, value) -> doc.putFields(key, encode(value)));
+        return QueryDocumentSnapshot.fromDocument(null, com.google.cloud.Timestamp.now(), doc.build());
+    }
+
+    private static Value encode(Object value) {
+        if (value == null) return Value.newBuilder().setNullValueValue(0).build();
+        if (value instanceof String s) return Value.newBuilder().setStringValue(s).build();
+        if (value instanceof Integer || value instanceof Long) return Value.newBuilder().setIntegerValue(((Number) value).longValue()).build();
+        if (value instanceof Double d) return Value.newBuilder().setDoubleValue(d).build();
+        if (value instanceof Boolean b) return Value.newBuilder().setBooleanValue(b).build();
+        if (value instanceof List<?> list) {
+            ArrayValue.Builder array = ArrayValue.newBuilder();
+            for (Object item : list) array.addValues(encode(item));
+            return Value.newBuilder().setArrayValue(array).build();
+        }
+        throw new IllegalArgumentException("Unsupported field type: " + value.getClass());
+    }
+}
@@ -0,0 +1,13 @@
+package com.google.firebase.auth;
+
+import java.util.Map;
+
+/** Creates decoded {@link FirebaseToken}s without a Firebase project; benchmark sources only. */
+public final class SyntheticTokens {
+
+    private SyntheticTokens() {}
+
+    public static FirebaseToken of(Map<String, Object> claims) {
+        return new FirebaseToken(claims);
+    }
+}
@@ -1,9 +1,12 @@
 package com.arya.crimeportal;
 
+import com.arya.crimeportal.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 public class Application {
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
@@ -0,0 +1,82 @@
+package com.arya.crimeportal.config;
+
+import com.arya.crimeportal.service.Bulkhead;
+import com.arya.crimeportal.service.Bulkheads;
+import com.arya.crimeportal.util.RejectionResponses;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits each /api request through the {@link Bulkheads} of its operation class, or answers 503 with
+ * Retry-After when that class is saturated. The permit is held until the response is complete, including
+ * the asynchronous part of streamed responses (CSV export, NDJSON).
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private final Bulkheads bulkheads;
+    private final ObjectMapper objectMapper;
+
+    public BulkheadFilter(Bulkheads bulkheads, ObjectMapper objectMapper) {
+        this.bulkheads = bulkheads;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Bulkhead bulkhead = bulkheads.forRequest(request.getMethod(), request.getRequestURI());
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean admitted;
+        try {
+            admitted = bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        bulkheads.recordOutcome(bulkhead, admitted);
+        if (!admitted) {
+            RejectionResponses.write(objectMapper, request, response, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Server busy, retry shortly", 1);
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) bulkhead.release();
+        };
+        Bulkheads.bind(bulkhead);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Bulkheads.unbind();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override public void onComplete(AsyncEvent event) { release.run(); }
+                    @Override public void onTimeout(AsyncEvent event) { release.run(); }
+                    @Override public void onError(AsyncEvent event) { release.run(); }
+                    @Override public void onStartAsync(AsyncEvent event) {}
+                });
+            } else {
+                release.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.arya.crimeportal.config;
+
+import com.arya.crimeportal.util.ColumnarRows;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar variant of list responses, selected with {@code Accept: application/vnd.crimeportal.columnar+json}.
+ * A list of items, or the {@code items} of a {@code {"count", "items", ...}} response, is replaced by
+ * {@code "columns"} (field names, once) and {@code "rows"} (arrays of values); other keys are kept.
+ * The JSON converter handles the media type as {@code application/*+json}, so plain JSON stays the default.
+ */
+@ControllerAdvice
+public class ColumnarResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType("application/vnd.crimeportal.columnar+json");
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (selectedContentType == null || !COLUMNAR_JSON.includes(selectedContentType)) return body;
+        if (body instanceof List<?> list && isItemList(list)) {
+            return columnar(Map.of("count", list.size()), list);
+        }
+        if (body instanceof Map<?, ?> map && map.get("items") instanceof List<?> items && isItemList(items)) {
+            Map<Object, Object> rest = new LinkedHashMap<>(map);
+            rest.remove("items");
+            return columnar(rest, items);
+        }
+        return body;
+    }
+
+    private static boolean isItemList(List<?> list) {
+        for (Object item : list) {
+            if (!(item instanceof Map<?, ?>)) return false;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> columnar(Map<?, ?> rest, List<?> items) {
+        ColumnarRows rows = ColumnarRows.of((List<? extends Map<String, ?>>) items);
+        Map<Object, Object> result = new LinkedHashMap<>(rest);
+        result.put("columns", rows.columns());
+        result.put("rows", rows);
+        return result;
+    }
+}
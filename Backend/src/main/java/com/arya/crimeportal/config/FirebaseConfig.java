@@ -1,8 +1,14 @@
 package com.arya.crimeportal.config;
 
+import com.arya.crimeportal.storage.InMemoryFirestoreRpc;
+import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.firestore.FirestoreOptions;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,9 +23,41 @@ import java.nio.file.Files;
 @Configuration
 public class FirebaseConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(FirebaseConfig.class);
+
+    private static final String LOCAL_PROJECT_ID = "crimeportal-local";
+
+    // firestore (default) or memory: an in-process stand-in for load tests and local runs
+    @Value("${storage.backend:firestore}")
+    private String storageBackend;
+
+    @Value("${storage.memory.latency-ms:0}")
+    private long memoryLatencyMs;
+
+    @Value("${storage.memory.latency-jitter-ms:0}")
+    private long memoryLatencyJitterMs;
+
+    @Value("${storage.memory.error-rate:0}")
+    private double memoryErrorRate;
+
+    @Value("${storage.memory.slow-rate:0}")
+    private double memorySlowRate;
+
+    @Value("${storage.memory.slow-latency-ms:0}")
+    private long memorySlowLatencyMs;
+
+    @Value("${storage.memory.document-write-interval-ms:0}")
+    private long memoryDocumentWriteIntervalMs;
+
+    public static boolean isInMemory(String storageBackend) {
+        return "memory".equalsIgnoreCase(storageBackend);
+    }
+
     @PostConstruct
     public void init() throws Exception {
-        if (FirebaseApp.getApps().isEmpty()) {
+        if (FirebaseApp.getApps().isEmpty() && isInMemory(storageBackend)) {
+            initInMemory();
+        } else if (FirebaseApp.getApps().isEmpty()) {
             String firebaseServiceAccount = null;
             
             // Priority 1: System environment variable (Railway, Heroku, etc.)
@@ -64,7 +102,31 @@ public class FirebaseConfig {
                     .build();
             FirebaseApp.initializeApp(options);
             
-            System.out.println("✅ Firebase initialized successfully!");
+            log.info("Firebase initialized");
         }
     }
+
+    /**
+     * Initializes Firebase against the in-memory Firestore stand-in. Nothing leaves the process and the
+     * data is gone on restart; Firebase Auth calls are not available (see LocalTokenVerifier).
+     */
+    private void initInMemory() {
+        InMemoryFirestoreRpc rpc = new InMemoryFirestoreRpc(LOCAL_PROJECT_ID, "(default)",
+                new InMemoryFirestoreRpc.Faults(memoryLatencyMs, memoryLatencyJitterMs, memoryErrorRate, memorySlowRate, memorySlowLatencyMs,
+                        memoryDocumentWriteIntervalMs));
+        FirestoreOptions firestoreOptions = FirestoreOptions.newBuilder()
+                .setProjectId(LOCAL_PROJECT_ID)
+                .setCredentials(NoCredentials.getInstance())
+                .setServiceRpcFactory(rpc.factory())
+                .build();
+        FirebaseOptions options = FirebaseOptions.builder()
+                .setCredentials(GoogleCredentials.create(new AccessToken("in-memory", null)))
+                .setProjectId(LOCAL_PROJECT_ID)
+                .setFirestoreOptions(firestoreOptions)
+                .build();
+        FirebaseApp.initializeApp(options);
+
+        log.warn("Using the in-memory Firestore backend (latency {}ms +{}ms jitter, error rate {}) - data is not persisted",
+                memoryLatencyMs, memoryLatencyJitterMs, memoryErrorRate);
+    }
 }
@@ -0,0 +1,53 @@
+package com.arya.crimeportal.config;
+
+import com.arya.crimeportal.exception.ReadBudgetExceededException;
+import com.arya.crimeportal.util.RequestUsage;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adds the request's Firestore read/write totals as response headers just before the body is written.
+ * In REJECT mode a GET that went over its read budget in a single call (e.g. one full-collection scan)
+ * is turned into a 429 here; writes are never undone, so other methods are only rejected up front by
+ * {@link RequestUsage#enforceBudget()}.
+ */
+@ControllerAdvice
+public class FirestoreUsageAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestUsage.Tally tally = RequestUsage.current();
+        if (tally == null) return body;
+        response.getHeaders().set(FirestoreUsageFilter.READS_HEADER, String.valueOf(tally.getReads()));
+        response.getHeaders().set(FirestoreUsageFilter.WRITES_HEADER, String.valueOf(tally.getWrites()));
+
+        if (tally.isReject() && tally.isOverBudget() && request.getMethod() == HttpMethod.GET
+                && MediaType.APPLICATION_JSON.isCompatibleWith(selectedContentType)) {
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            Map<String, Object> errorDetails = new HashMap<>();
+            errorDetails.put("timestamp", Instant.now().toString());
+            errorDetails.put("message", new ReadBudgetExceededException(tally.getReads(), tally.getReadBudget()).getMessage());
+            errorDetails.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+            return errorDetails;
+        }
+        return body;
+    }
+}
@@ -0,0 +1,104 @@
+package com.arya.crimeportal.config;
+
+import com.arya.crimeportal.service.FirestoreUsageReport;
+import com.arya.crimeportal.util.LogSampling;
+import com.arya.crimeportal.util.RequestDeadline;
+import com.arya.crimeportal.util.RequestUsage;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link RequestUsage} tally and binds a {@link RequestDeadline} for each API request and, when
+ * the request finishes, logs the Firestore reads and writes it caused and adds them to the
+ * {@link FirestoreUsageReport} (for a streaming response, once its body has been written). The
+ * {@code X-Firestore-Reads} / {@code X-Firestore-Writes} headers are set by {@link FirestoreUsageAdvice}
+ * before the body is written, and here as a fallback for responses without a body. Streaming responses get
+ * none: their headers go out before the body reads anything, so they could only ever say 0.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class FirestoreUsageFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(FirestoreUsageFilter.class);
+    public static final String READS_HEADER = "X-Firestore-Reads";
+    public static final String WRITES_HEADER = "X-Firestore-Writes";
+
+    private final FirestoreUsageReport report;
+
+    public FirestoreUsageFilter(FirestoreUsageReport report) {
+        this.report = report;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI();
+        RequestUsage.Tally tally = RequestUsage.begin(report.budgetFor(path), report.isRejecting());
+        RequestDeadline.begin(report.deadlineFor(path));
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestUsage.end();
+            RequestDeadline.end();
+            if (!response.isCommitted() && !request.isAsyncStarted()) {
+                response.setHeader(READS_HEADER, String.valueOf(tally.getReads()));
+                response.setHeader(WRITES_HEADER, String.valueOf(tally.getWrites()));
+            }
+            if (request.isAsyncStarted()) {
+                // A streaming body is still reading on another thread; report once it has finished
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        report(request, tally, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                report(request, tally, start);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestUsage.Tally tally, long start) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNMATCHED");
+        report.record(endpoint, tally);
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (tally.isOverBudget()) {
+            log.warn("{} read {} documents, over its budget of {} ({} writes, {} ms)",
+                    endpoint, tally.getReads(), tally.getReadBudget(), tally.getWrites(), millis);
+        } else if ((tally.getReads() > 0 || tally.getWrites() > 0) && LogSampling.debug(log)) {
+            log.debug("{} firestore reads={} writes={} ({} ms)", endpoint, tally.getReads(), tally.getWrites(), millis);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.arya.crimeportal.config;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.LayoutBase;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One JSON object per log line: timestamp, level, logger, thread, formatted message, the MDC entries
+ * (requestId, traceId, uid, ...) as top-level fields and the stack trace, if any. Used by the JSON console
+ * appender in logback-spring.xml.
+ */
+public class JsonLogLayout extends LayoutBase<ILoggingEvent> {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+
+    @Override
+    public String doLayout(ILoggingEvent event) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append('{');
+        field(sb, "timestamp", Instant.ofEpochMilli(event.getTimeStamp()).toString());
+        sb.append(',');
+        field(sb, "level", event.getLevel().toString());
+        sb.append(',');
+        field(sb, "logger", event.getLoggerName());
+        sb.append(',');
+        field(sb, "thread", event.getThreadName());
+        sb.append(',');
+        field(sb, "message", event.getFormattedMessage());
+        for (Map.Entry<String, String> e : event.getMDCPropertyMap().entrySet()) {
+            sb.append(',');
+            field(sb, e.getKey(), e.getValue());
+        }
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            sb.append(',');
+            field(sb, "exception", ThrowableProxyUtil.asString(throwable));
+        }
+        sb.append('}').append(CoreConstants.LINE_SEPARATOR);
+        return sb.toString();
+    }
+
+    private static void field(StringBuilder sb, String name, String value) {
+        sb.append('"');
+        ENCODER.quoteAsString(name, sb);
+        sb.append("\":");
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        ENCODER.quoteAsString(value, sb);
+        sb.append('"');
+    }
+}
@@ -0,0 +1,68 @@
+package com.arya.crimeportal.config;
+
+import com.arya.crimeportal.model.Activity;
+import com.arya.crimeportal.model.BulkJob;
+import com.arya.crimeportal.model.Crime;
+import com.arya.crimeportal.model.Criminal;
+import com.arya.crimeportal.model.Fir;
+import com.arya.crimeportal.model.ImportJob;
+import com.arya.crimeportal.model.ReportJob;
+import com.arya.crimeportal.model.SystemSettings;
+import com.arya.crimeportal.model.User;
+import com.arya.crimeportal.service.AdjacencyIndex;
+import com.arya.crimeportal.service.FirStageTimings;
+import com.arya.crimeportal.service.OfficerWorkload;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Hints for the native image ({@code mvn -Pnative native:compile}) covering what Spring AOT cannot see:
+ * types only reached through reflection or loaded as classpath resources at runtime. Controller request
+ * bodies and beans are registered by AOT itself; Firestore, gax and gRPC ship their own metadata.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    // Serialized by Jackson inside untyped ResponseEntity bodies (job status, profiles) and request bodies
+    private static final Class<?>[] JSON_TYPES = {
+            Activity.class, BulkJob.class, Crime.class, Criminal.class, Fir.class, ImportJob.class,
+            ImportJob.RowError.class, ReportJob.class, SystemSettings.class, User.class, AdjacencyIndex.Node.class,
+            OfficerWorkload.Workload.class, OfficerWorkload.OpenCase.class, FirStageTimings.Timings.class,
+            FirStageTimings.Percentiles.class
+    };
+
+    // google-http-client maps JSON onto @Key fields: the service account file, ID tokens and Auth responses
+    private static final String[] GOOGLE_JSON_TYPES = {
+            "com.google.api.client.json.GenericJson",
+            "com.google.api.client.json.webtoken.JsonWebToken$Header",
+            "com.google.api.client.json.webtoken.JsonWebToken$Payload",
+            "com.google.api.client.json.webtoken.JsonWebSignature$Header",
+            "com.google.api.client.auth.openidconnect.IdToken$Payload",
+            "com.google.firebase.auth.internal.GetAccountInfoResponse",
+            "com.google.firebase.auth.internal.GetAccountInfoResponse$User",
+            "com.google.firebase.auth.internal.GetAccountInfoResponse$Provider",
+            "com.google.firebase.auth.internal.DownloadAccountResponse",
+            "com.google.firebase.auth.internal.DownloadAccountResponse$User",
+            "com.google.firebase.auth.internal.AuthErrorHandler$AuthServiceErrorResponse"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+        for (String type : GOOGLE_JSON_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        // Instantiated by name from logback-spring.xml
+        hints.reflection().registerType(JsonLogLayout.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // FirebaseApp reads its SDK version from this file
+        hints.resources().registerPattern("admin_sdk.properties");
+        // Standard 14 font metrics and glyph names used by the PDF reports
+        hints.resources().registerPattern("org/apache/pdfbox/resources/afm/*");
+        hints.resources().registerPattern("org/apache/pdfbox/resources/glyphlist/*");
+    }
+}
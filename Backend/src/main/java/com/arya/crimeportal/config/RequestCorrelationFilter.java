@@ -0,0 +1,72 @@
+package com.arya.crimeportal.config;
+
+import com.arya.crimeportal.util.LogSampling;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Puts a request id and trace id into the logging MDC for the duration of each request (the
+ * authentication filter adds the caller's uid), echoes the request id in {@code X-Request-Id} and decides
+ * whether the request's debug output is sampled. An incoming {@code X-Request-Id} and W3C
+ * {@code traceparent} are reused so log lines can be joined with the caller's.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestCorrelationFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    private static final Pattern SAFE_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final Pattern TRACEPARENT = Pattern.compile("[0-9a-f]{2}-([0-9a-f]{32})-[0-9a-f]{16}-[0-9a-f]{2}");
+
+    public RequestCorrelationFilter(@Value("${logging.debug-sample-rate:1.0}") double debugSampleRate) {
+        LogSampling.setRate(debugSampleRate);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || !SAFE_REQUEST_ID.matcher(requestId).matches()) requestId = randomHex(1);
+        String traceId = null;
+        String traceparent = request.getHeader("traceparent");
+        if (traceparent != null) {
+            Matcher m = TRACEPARENT.matcher(traceparent);
+            if (m.matches()) traceId = m.group(1);
+        }
+        if (traceId == null) traceId = randomHex(2);
+
+        MDC.put("requestId", requestId);
+        MDC.put("traceId", traceId);
+        LogSampling.begin(LogSampling.decide());
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove("requestId");
+            MDC.remove("traceId");
+            MDC.remove("uid");
+            LogSampling.end();
+        }
+    }
+
+    private static String randomHex(int longs) {
+        StringBuilder sb = new StringBuilder(16 * longs);
+        for (int i = 0; i < longs; i++) {
+            String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+            sb.append("0".repeat(16 - hex.length())).append(hex);
+        }
+        return sb.toString();
+    }
+}
@@ -1,30 +1,93 @@
 package com.arya.crimeportal.config;
 
 import com.arya.crimeportal.security.FirebaseAuthenticationFilter;
+import com.arya.crimeportal.security.LocalTokenVerifier;
+import com.arya.crimeportal.security.RateLimitFilter;
+import com.arya.crimeportal.security.RateLimiter;
+import com.arya.crimeportal.service.Bulkheads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
 @Configuration
 public class SecurityConfig {
 
+    @Value("${storage.backend:firestore}")
+    private String storageBackend;
+
+    @Value("${metrics.scrape-token:}")
+    private String scrapeToken;
+
+    @Value("${management.server.port:}")
+    private String managementPort;
+
+    @Value("${server.port:8080}")
+    private String serverPort;
+
+    private final RateLimiter rateLimiter;
+    private final Bulkheads bulkheads;
+    private final ObjectMapper objectMapper;
+
+    public SecurityConfig(RateLimiter rateLimiter, Bulkheads bulkheads, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.bulkheads = bulkheads;
+        this.objectMapper = objectMapper;
+    }
+
+    // Local tokens are only ever accepted together with the in-memory backend, never against real data
+    private FirebaseAuthenticationFilter authenticationFilter() {
+        return FirebaseConfig.isInMemory(storageBackend)
+                ? new FirebaseAuthenticationFilter(new LocalTokenVerifier())
+                : new FirebaseAuthenticationFilter();
+    }
+
+    // The scrape carries no Firebase token: it is let in with the scrape token, or on a separate management
+    // port, and refused when neither is configured
+    private AuthorizationDecision scrapeDecision(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (!scrapeToken.isEmpty() && header != null && header.startsWith("Bearer ")
+                && MessageDigest.isEqual(header.substring(7).getBytes(StandardCharsets.UTF_8), scrapeToken.getBytes(StandardCharsets.UTF_8))) {
+            return new AuthorizationDecision(true);
+        }
+        boolean separatePort = !managementPort.isBlank() && !managementPort.trim().equals(serverPort.trim());
+        return new AuthorizationDecision(separatePort && Integer.toString(request.getLocalPort()).equals(managementPort.trim()));
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .cors(Customizer.withDefaults())
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                // Streaming bodies (CSV export, NDJSON) finish on an async dispatch of an already-authorized
+                // request; the token filter doesn't run again there, so don't re-check it
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/profile").permitAll()
                 .requestMatchers("/api/auth/set-my-role").authenticated()
                 .requestMatchers("/api/auth/set-role").authenticated()
                 .requestMatchers("/api/auth/me").authenticated()
                 .requestMatchers("/api/auth/users/**").authenticated() // User management endpoints
                 .requestMatchers("/api/public/**").permitAll()
+                .requestMatchers("/actuator/prometheus").access((authentication, context) -> scrapeDecision(context.getRequest()))
+                .requestMatchers("/actuator/health/readiness", "/actuator/health/liveness").permitAll() // Platform probes
                 .anyRequest().authenticated()
             )
-            .addFilterBefore(new FirebaseAuthenticationFilter(), org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(authenticationFilter(), org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class)
+            // Admission control needs the caller's identity, so it runs right after token verification
+            .addFilterAfter(new RateLimitFilter(rateLimiter, objectMapper), FirebaseAuthenticationFilter.class)
+            // Concurrency bulkheads last, so requests rejected above never hold or wait for a permit
+            .addFilterAfter(new BulkheadFilter(bulkheads, objectMapper), RateLimitFilter.class)
             .httpBasic(Customizer.withDefaults());
         return http.build();
     }
@@ -0,0 +1,131 @@
+package com.arya.crimeportal.config;
+
+import com.arya.crimeportal.controller.DashboardController;
+import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.util.DocumentMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.firestore.Firestore;
+import com.google.firebase.cloud.FirestoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms the instance up before it takes traffic, and reports whether it has as part of the readiness probe
+ * ({@code /actuator/health/readiness}, unlike {@code /api/health} which only says the process is up).
+ *
+ * Once the context is ready a background thread opens the Firestore channel (connection, TLS, token) with a
+ * single-document read, then runs the dashboard aggregations and an entity list query
+ * {@code warmup.iterations} times, serializing the results. That loads and JIT-compiles the hot paths and
+ * leaves last-known-good dashboard copies behind. Readiness is OUT_OF_SERVICE until it finishes, fails or passes
+ * {@code warmup.timeout-ms}; a failed warm-up is logged and does not keep the instance out of rotation.
+ * With {@code warmup.exit=true} the application exits after warming up, for the CDS training run.
+ */
+@Component("warmUp")
+public class StartupWarmUp implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    private final FirestoreService firestoreService;
+    private final DashboardController dashboardController;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+    private final boolean enabled;
+    private final int iterations;
+    private final long timeoutMillis;
+    private final boolean exitWhenDone;
+
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String phase = "starting";
+    private volatile String failure;
+
+    public StartupWarmUp(FirestoreService firestoreService, DashboardController dashboardController,
+                         ObjectMapper objectMapper, ConfigurableApplicationContext context,
+                         @Value("${warmup.enabled:true}") boolean enabled,
+                         @Value("${warmup.iterations:2}") int iterations,
+                         @Value("${warmup.timeout-ms:60000}") long timeoutMillis,
+                         @Value("${warmup.exit:false}") boolean exitWhenDone) {
+        this.firestoreService = firestoreService;
+        this.dashboardController = dashboardController;
+        this.objectMapper = objectMapper;
+        this.context = context;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.timeoutMillis = timeoutMillis;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        startedAt = System.nanoTime();
+        Thread t = new Thread(this::run, "warm-up");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void run() {
+        try {
+            if (enabled) warmUp();
+        } catch (Exception e) {
+            failure = e.getMessage();
+            log.warn("Warm-up failed after {} ms, accepting traffic anyway: {}", millisSince(startedAt), e.getMessage());
+        } finally {
+            phase = "done";
+            finishedAt = System.nanoTime();
+        }
+        if (failure == null) {
+            log.info("Warm-up finished in {} ms, ready {} ms after JVM start",
+                    millisSince(startedAt), ManagementFactory.getRuntimeMXBean().getUptime());
+        }
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void warmUp() throws Exception {
+        phase = "firestore-channel";
+        firestoreService.getSnapshot("settings", "_warmup");
+
+        Firestore db = FirestoreClient.getFirestore();
+        for (int i = 0; i < iterations; i++) {
+            phase = "dashboard";
+            serialize(dashboardController.getDashboardStats().getBody());
+            serialize(dashboardController.getDashboardSummary().getBody());
+            serialize(dashboardController.getRecentActivity(10).getBody());
+            phase = "entity-list";
+            serialize(DocumentMapper.toItems(firestoreService.queryCollection("crimes", db.collection("crimes").limit(20)), "crimeId"));
+        }
+    }
+
+    private void serialize(Object body) throws Exception {
+        objectMapper.writeValueAsBytes(body);
+    }
+
+    @Override
+    public Health health() {
+        if (finishedAt != 0) {
+            Health.Builder builder = Health.up().withDetail("tookMs", TimeUnit.NANOSECONDS.toMillis(finishedAt - startedAt));
+            if (failure != null) builder.withDetail("failure", failure);
+            return builder.build();
+        }
+        if (startedAt != 0 && millisSince(startedAt) > timeoutMillis) {
+            return Health.up().withDetail("timedOutInPhase", phase).build();
+        }
+        return Health.outOfService().withDetail("phase", phase).build();
+    }
+
+    private static long millisSince(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanos);
+    }
+}
@@ -1,11 +1,15 @@
 package com.arya.crimeportal.controller;
 
 import com.arya.crimeportal.model.Activity;
+import com.arya.crimeportal.service.FieldProjections;
+import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.service.NdjsonStreamService;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import com.google.firebase.cloud.FirestoreClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.*;
@@ -17,12 +21,46 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class ActivityController {
 
+    private final FirestoreService firestoreService;
+    private final NdjsonStreamService ndjsonStreamService;
+
+    public ActivityController(FirestoreService firestoreService, NdjsonStreamService ndjsonStreamService) {
+        this.firestoreService = firestoreService;
+        this.ndjsonStreamService = ndjsonStreamService;
+    }
+
     @GetMapping
     public ResponseEntity<?> getRecentActivity(
             @RequestParam(defaultValue = "20") int limit,
             @RequestParam(required = false) String userId,
-            @RequestParam(required = false) String entityType
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String fields
     ) throws ExecutionException, InterruptedException {
+        Query query = recentActivityQuery(limit, userId, entityType, fields);
+        List<QueryDocumentSnapshot> docs = firestoreService.queryCollection("activities", query);
+
+        List<Map<String, Object>> activities = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : docs) {
+            Map<String, Object> activity = doc.getData();
+            activity.put("activityId", doc.getId());
+            activities.add(activity);
+        }
+
+        return ResponseEntity.ok(activities);
+    }
+
+    // Same filters as getRecentActivity, streamed one document per line for Accept: application/x-ndjson
+    @GetMapping(produces = NdjsonStreamService.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRecentActivity(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String fields
+    ) {
+        return ndjsonStreamService.response("activities", recentActivityQuery(limit, userId, entityType, fields), "activityId");
+    }
+
+    private static Query recentActivityQuery(int limit, String userId, String entityType, String fields) {
         Firestore db = FirestoreClient.getFirestore();
         Query query = db.collection("activities")
                 .orderBy("timestamp", Query.Direction.DESCENDING)
@@ -34,24 +72,11 @@ public class ActivityController {
         if (entityType != null && !entityType.isEmpty()) {
             query = query.whereEqualTo("entityType", entityType);
         }
-
-        ApiFuture<QuerySnapshot> future = query.get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
-
-        List<Map<String, Object>> activities = new ArrayList<>();
-        for (QueryDocumentSnapshot doc : docs) {
-            Map<String, Object> activity = doc.getData();
-            activity.put("activityId", doc.getId());
-            activities.add(activity);
-        }
-
-        return ResponseEntity.ok(activities);
+        return FieldProjections.apply(query, "activities", fields);
     }
 
     @PostMapping
     public ResponseEntity<?> logActivity(@RequestBody Activity activity) throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-
         if (activity.getTimestamp() == null) {
             activity.setTimestamp(Instant.now());
         }
@@ -67,11 +92,10 @@ public class ActivityController {
         activityData.put("timestamp", activity.getTimestamp().toString());
         activityData.put("ipAddress", activity.getIpAddress());
 
-        ApiFuture<DocumentReference> future = db.collection("activities").add(activityData);
-        DocumentReference docRef = future.get();
+        String activityId = firestoreService.createDocument("activities", activityData);
 
         Map<String, Object> response = new HashMap<>();
-        response.put("activityId", docRef.getId());
+        response.put("activityId", activityId);
         response.put("message", "Activity logged successfully");
 
         return ResponseEntity.ok(response);
@@ -80,8 +104,8 @@ public class ActivityController {
     @GetMapping("/stats")
     public ResponseEntity<?> getActivityStats() throws ExecutionException, InterruptedException {
         Firestore db = FirestoreClient.getFirestore();
-        ApiFuture<QuerySnapshot> future = db.collection("activities").get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
+        ApiFuture<QuerySnapshot> future = firestoreService.queryAsync("activities", db.collection("activities"));
+        List<QueryDocumentSnapshot> docs = firestoreService.await(future).getDocuments();
 
         Map<String, Integer> actionCounts = new HashMap<>();
         Map<String, Integer> userCounts = new HashMap<>();
@@ -1,10 +1,13 @@
 package com.arya.crimeportal.controller;
 
 import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.util.LogSampling;
 import com.arya.crimeportal.util.SecurityUtil;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.UserRecord;
 import com.google.firebase.auth.ListUsersPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,6 +23,8 @@ import java.util.concurrent.ExecutionException;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final FirestoreService firestoreService;
     private final String COLLECTION = "users";
 
@@ -39,18 +44,9 @@ public class AuthController {
             String photoURL = (String) body.getOrDefault("photoURL", "");
             String role = (String) body.getOrDefault("role", "OFFICER");
 
-            System.out.println("🔵 Creating/Updating profile for UID: " + uid);
-            System.out.println("🔵 Email: " + email + ", Name: " + name);
-
             // Check if profile already exists
             Map<String, Object> existingProfile = firestoreService.getDocument(COLLECTION, uid);
             boolean isNewProfile = (existingProfile == null);
-            
-            if (isNewProfile) {
-                System.out.println("✅ New profile - creating...");
-            } else {
-                System.out.println("⚠️  Profile already exists - updating...");
-            }
 
             // Update Firebase Authentication user profile
             UserRecord.UpdateRequest request = new UserRecord.UpdateRequest(uid);
@@ -77,7 +73,6 @@ public class AuthController {
             
             claims.put("role", roleToSet);
             FirebaseAuth.getInstance().setCustomUserClaims(uid, claims);
-            System.out.println("✅ Firebase custom claims set - role: " + roleToSet);
 
             // Also save to Firestore for additional data
             Map<String, Object> data = new HashMap<>();
@@ -95,8 +90,7 @@ public class AuthController {
 
             // Use uid as document id to keep it idempotent (prevents duplicates)
             firestoreService.setDocument(COLLECTION, uid, data);
-            
-            System.out.println("✅ Profile saved successfully for UID: " + uid);
+            log.info("Profile {} for {} (role {})", isNewProfile ? "created" : "updated", uid, roleToSet);
             
             return ResponseEntity.ok(Map.of(
                 "message", isNewProfile ? "Profile created successfully" : "Profile updated successfully",
@@ -106,8 +100,7 @@ public class AuthController {
                 "isNewProfile", isNewProfile
             ));
         } catch (Exception e) {
-            System.err.println("❌ Error in createOrUpdateProfile: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to create or update profile for {}", uid, e);
             return ResponseEntity.status(500).body(Map.of("error", "Failed to update profile: " + e.getMessage()));
         }
     }
@@ -115,37 +108,28 @@ public class AuthController {
     @GetMapping("/me")
     public ResponseEntity<?> me() {
         try {
-            System.out.println("🔵 /me endpoint called");
             String uid = SecurityUtil.getUid();
-            System.out.println("🔵 UID from SecurityUtil: " + uid);
-            
             if (uid == null) {
-                System.out.println("⚠️ UID is null - returning 401");
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthenticated"));
             }
             
             String role = SecurityUtil.getRole();
-            System.out.println("🔵 Role from token: " + role);
-            
+
             // If no role in token, check Firestore and sync to token
             if (role == null || role.isEmpty()) {
-                System.out.println("⚠️ No role in token, checking Firestore...");
                 try {
                     Map<String, Object> profile = firestoreService.getDocument(COLLECTION, uid);
                     if (profile != null && profile.containsKey("role")) {
                         String firestoreRole = (String) profile.get("role");
-                        System.out.println("✅ Found role in Firestore: " + firestoreRole);
-                        
                         // Sync to Firebase custom claims
                         Map<String, Object> claims = new HashMap<>();
                         claims.put("role", firestoreRole);
                         FirebaseAuth.getInstance().setCustomUserClaims(uid, claims);
-                        System.out.println("✅ Synced role to Firebase token");
-                        
+                        log.info("Synced role {} from Firestore to the token claims of {}", firestoreRole, uid);
                         role = firestoreRole;
                     }
                 } catch (Exception ex) {
-                    System.err.println("⚠️ Failed to sync role from Firestore: " + ex.getMessage());
+                    log.warn("Failed to sync role from Firestore for {}: {}", uid, ex.getMessage());
                 }
             }
             
@@ -159,13 +143,11 @@ public class AuthController {
                     status = (String) profile.getOrDefault("status", "APPROVED");
                     name = (String) profile.get("name");
                     email = (String) profile.get("email");
-                    System.out.println("✅ Status from Firestore: " + status);
                 } else {
-                    System.out.println("⚠️ No profile found in Firestore - defaulting to APPROVED");
                     status = "APPROVED";
                 }
             } catch (Exception ex) {
-                System.err.println("⚠️ Failed to get status from Firestore: " + ex.getMessage());
+                log.warn("Failed to get status from Firestore for {}: {}", uid, ex.getMessage());
                 status = "APPROVED"; // Default for legacy accounts
             }
             
@@ -175,11 +157,11 @@ public class AuthController {
             response.put("status", status);
             if (name != null) response.put("name", name);
             if (email != null) response.put("email", email);
-            
+            if (LogSampling.debug(log)) log.debug("/me for {}: role {}, status {}", uid, response.get("role"), status);
+
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("❌ Exception in /me endpoint: " + e.getClass().getName() + " - " + e.getMessage());
-            e.printStackTrace();
+            log.error("Exception in /me endpoint", e);
             return ResponseEntity.status(500).body(Map.of("error", "Internal server error: " + e.getMessage()));
         }
     }
@@ -479,7 +461,7 @@ public class AuthController {
             
             firestoreService.updateDocument(COLLECTION, uid, updates);
             
-            System.out.println("✅ User approved: " + uid + " by " + currentUid);
+            log.info("User {} approved by {}", uid, currentUid);
             
             return ResponseEntity.ok(Map.of(
                 "message", "User approved successfully",
@@ -487,7 +469,7 @@ public class AuthController {
                 "status", "APPROVED"
             ));
         } catch (Exception e) {
-            System.err.println("❌ Error approving user: " + e.getMessage());
+            log.error("Error approving user {}: {}", uid, e.getMessage());
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
@@ -512,7 +494,7 @@ public class AuthController {
             
             firestoreService.updateDocument(COLLECTION, uid, updates);
             
-            System.out.println("⚠️ User rejected: " + uid + " by " + currentUid);
+            log.info("User {} rejected by {}", uid, currentUid);
             
             return ResponseEntity.ok(Map.of(
                 "message", "User rejected successfully",
@@ -520,7 +502,7 @@ public class AuthController {
                 "status", "REJECTED"
             ));
         } catch (Exception e) {
-            System.err.println("❌ Error rejecting user: " + e.getMessage());
+            log.error("Error rejecting user {}: {}", uid, e.getMessage());
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
@@ -540,8 +522,6 @@ public class AuthController {
         // If status field doesn't exist (legacy accounts), default to APPROVED
         String status = (String) profile.getOrDefault("status", "APPROVED");
         
-        System.out.println("✅ Profile status for " + uid + ": " + status);
-        
         return ResponseEntity.ok(Map.of(
             "userId", uid,
             "status", status,
@@ -0,0 +1,87 @@
+package com.arya.crimeportal.controller;
+
+import com.arya.crimeportal.model.BulkJob;
+import com.arya.crimeportal.service.BulkOperationService;
+import com.arya.crimeportal.util.SecurityUtil;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@Lazy
+@RequestMapping("/api/bulk")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class BulkController {
+
+    private final BulkOperationService bulkOperationService;
+
+    public BulkController(BulkOperationService bulkOperationService) {
+        this.bulkOperationService = bulkOperationService;
+    }
+
+    record BulkUpdateRequest(Map<String, Object> filter, Map<String, Object> set, boolean dryRun) {}
+
+    record BulkDeleteRequest(Map<String, Object> filter, boolean dryRun) {}
+
+    @PostMapping("/{collection}/update")
+    public ResponseEntity<?> bulkUpdate(@PathVariable String collection, @RequestBody BulkUpdateRequest req)
+            throws ExecutionException, InterruptedException {
+        String role = SecurityUtil.getRole();
+        if (role == null || (!role.equalsIgnoreCase("OFFICER") && !role.equalsIgnoreCase("ADMIN"))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Insufficient role for bulk updates"));
+        }
+        if (!bulkOperationService.supports(collection)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "collection must be crimes, firs or criminals"));
+        }
+        Map<String, Object> fields = bulkOperationService.validateUpdate(collection, req.set());
+        if (req.dryRun()) {
+            return ResponseEntity.ok(Map.of("dryRun", true, "matched", bulkOperationService.count(collection, req.filter())));
+        }
+        return submit(collection, BulkJob.Operation.UPDATE, req.filter(), fields);
+    }
+
+    @PostMapping("/{collection}/delete")
+    public ResponseEntity<?> bulkDelete(@PathVariable String collection, @RequestBody BulkDeleteRequest req)
+            throws ExecutionException, InterruptedException {
+        String role = SecurityUtil.getRole();
+        if (role == null || !role.equalsIgnoreCase("ADMIN")) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only ADMIN can bulk delete"));
+        }
+        if (!bulkOperationService.supports(collection)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "collection must be crimes, firs or criminals"));
+        }
+        if (req.dryRun()) {
+            return ResponseEntity.ok(Map.of("dryRun", true, "matched", bulkOperationService.count(collection, req.filter())));
+        }
+        return submit(collection, BulkJob.Operation.DELETE, req.filter(), null);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getBulkJob(@PathVariable String jobId) {
+        String uid = SecurityUtil.getUid();
+        String role = SecurityUtil.getRole();
+        Optional<BulkJob> job = bulkOperationService.getJob(jobId)
+                .filter(j -> "ADMIN".equalsIgnoreCase(role) || (uid != null && uid.equals(j.getRequestedBy())));
+        if (job.isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(job.get());
+    }
+
+    private ResponseEntity<?> submit(String collection, BulkJob.Operation operation, Map<String, Object> filter,
+                                     Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        try {
+            BulkJob job = bulkOperationService.submit(collection, operation, filter, fields, SecurityUtil.getUid());
+            return ResponseEntity.accepted().body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Bulk job queue is full, try again shortly"));
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.arya.crimeportal.controller;
 
+import com.arya.crimeportal.service.CollectionQueries;
+import com.arya.crimeportal.service.FieldProjections;
 import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.service.NdjsonStreamService;
+import com.arya.crimeportal.service.VersionedDocument;
+import com.arya.crimeportal.util.DocumentMapper;
+import com.arya.crimeportal.util.EntityResponses;
 import com.arya.crimeportal.util.SecurityUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -20,10 +27,12 @@ import java.util.concurrent.ExecutionException;
 public class CrimeController {
 
     private final FirestoreService firestoreService;
+    private final NdjsonStreamService ndjsonStreamService;
     private final String COLLECTION = "crimes";
 
-    public CrimeController(FirestoreService firestoreService) {
+    public CrimeController(FirestoreService firestoreService, NdjsonStreamService ndjsonStreamService) {
         this.firestoreService = firestoreService;
+        this.ndjsonStreamService = ndjsonStreamService;
     }
 
     record CreateCrimeRequest(
@@ -63,9 +72,26 @@ public class CrimeController {
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getCrime(@PathVariable String id) throws ExecutionException, InterruptedException {
-        Map<String, Object> doc = firestoreService.getDocument(COLLECTION, id);
+        VersionedDocument doc = firestoreService.getVersionedDocument(COLLECTION, id);
         if (doc == null) return ResponseEntity.notFound().build();
-        return ResponseEntity.ok(doc);
+        return EntityResponses.ok(doc, "id");
+    }
+
+    // Same filters as listCrimes, streamed one document per line for Accept: application/x-ndjson
+    @GetMapping(produces = NdjsonStreamService.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCrimes(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) String location,
+            @RequestParam(defaultValue = "200") int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        com.google.cloud.firestore.Firestore db = com.google.firebase.cloud.FirestoreClient.getFirestore();
+        com.google.cloud.firestore.Query query = CollectionQueries.crimes(db, title, status, category, severity, location).limit(limit);
+        query = FieldProjections.apply(query, COLLECTION, fields);
+        return ndjsonStreamService.response(COLLECTION, query, "id", "crimeId");
     }
 
     @GetMapping
@@ -75,40 +101,15 @@ public class CrimeController {
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String severity,
             @RequestParam(required = false) String location,
-            @RequestParam(defaultValue = "200") int limit
+            @RequestParam(defaultValue = "200") int limit,
+            @RequestParam(required = false) String fields
     ) throws ExecutionException, InterruptedException {
         com.google.cloud.firestore.Firestore db = com.google.firebase.cloud.FirestoreClient.getFirestore();
-        com.google.cloud.firestore.Query query = db.collection(COLLECTION)
-                .orderBy("createdAt", com.google.cloud.firestore.Query.Direction.DESCENDING)
-                .limit(limit);
+        com.google.cloud.firestore.Query query = CollectionQueries.crimes(db, title, status, category, severity, location).limit(limit);
+        query = FieldProjections.apply(query, COLLECTION, fields);
 
-        // Apply filters
-        if (status != null && !status.isBlank()) {
-            query = db.collection(COLLECTION).whereEqualTo("status", status).limit(limit);
-        }
-        if (category != null && !category.isBlank()) {
-            query = db.collection(COLLECTION).whereEqualTo("category", category).limit(limit);
-        }
-        if (severity != null && !severity.isBlank()) {
-            query = db.collection(COLLECTION).whereEqualTo("severity", severity).limit(limit);
-        }
-        if (location != null && !location.isBlank()) {
-            query = db.collection(COLLECTION).whereEqualTo("location", location).limit(limit);
-        }
-        if (title != null && !title.isBlank()) {
-            String end = title + "\uf8ff";
-            query = db.collection(COLLECTION).orderBy("title").startAt(title).endAt(end).limit(limit);
-        }
-
-        com.google.api.core.ApiFuture<com.google.cloud.firestore.QuerySnapshot> future = query.get();
-        java.util.List<com.google.cloud.firestore.QueryDocumentSnapshot> docs = future.get().getDocuments();
-        java.util.List<java.util.Map<String,Object>> items = new java.util.ArrayList<>();
-        for (com.google.cloud.firestore.QueryDocumentSnapshot d : docs) {
-            java.util.Map<String,Object> m = d.getData();
-            m.put("id", d.getId());
-            m.put("crimeId", d.getId());
-            items.add(m);
-        }
+        java.util.List<com.google.cloud.firestore.QueryDocumentSnapshot> docs = firestoreService.queryCollection(COLLECTION, query);
+        java.util.List<java.util.Map<String,Object>> items = DocumentMapper.toItems(docs, "crimeId");
         return ResponseEntity.ok(java.util.Map.of("count", items.size(), "items", items));
     }
 
@@ -1,12 +1,19 @@
 package com.arya.crimeportal.controller;
 
+import com.arya.crimeportal.service.CollectionQueries;
+import com.arya.crimeportal.service.FieldProjections;
 import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.service.NdjsonStreamService;
+import com.arya.crimeportal.service.VersionedDocument;
+import com.arya.crimeportal.util.DocumentMapper;
+import com.arya.crimeportal.util.EntityResponses;
 import com.arya.crimeportal.util.SecurityUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -20,10 +27,12 @@ import java.util.concurrent.ExecutionException;
 public class CriminalController {
 
     private final FirestoreService firestoreService;
+    private final NdjsonStreamService ndjsonStreamService;
     private final String COLLECTION = "criminals";
 
-    public CriminalController(FirestoreService firestoreService) {
+    public CriminalController(FirestoreService firestoreService, NdjsonStreamService ndjsonStreamService) {
         this.firestoreService = firestoreService;
+        this.ndjsonStreamService = ndjsonStreamService;
     }
 
     record CreateCriminalRequest(
@@ -36,7 +45,9 @@ public class CriminalController {
         String address,
         String identificationMarks,
         String lastSeenLocation,
-        String photoUrl
+        String photoUrl,
+        String crimeId,
+        java.util.List<String> crimeIds
     ) {}
 
     @PostMapping
@@ -57,6 +68,8 @@ public class CriminalController {
         data.put("identificationMarks", req.identificationMarks() != null ? req.identificationMarks() : "");
         data.put("lastSeenLocation", req.lastSeenLocation() != null ? req.lastSeenLocation() : "");
         data.put("photoUrl", req.photoUrl() != null ? req.photoUrl() : "");
+        if (req.crimeId() != null) data.put("crimeId", req.crimeId());
+        if (req.crimeIds() != null) data.put("crimeIds", req.crimeIds());
         data.put("createdAt", Instant.now().toString());
         data.put("updatedAt", Instant.now().toString());
         data.put("createdBy", SecurityUtil.getUid());
@@ -67,9 +80,24 @@ public class CriminalController {
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getCriminal(@PathVariable String id) throws ExecutionException, InterruptedException {
-        Map<String, Object> doc = firestoreService.getDocument(COLLECTION, id);
+        VersionedDocument doc = firestoreService.getVersionedDocument(COLLECTION, id);
         if (doc == null) return ResponseEntity.notFound().build();
-        return ResponseEntity.ok(doc);
+        return EntityResponses.ok(doc, "id");
+    }
+
+    // Same filters as listCriminals, streamed one document per line for Accept: application/x-ndjson
+    @GetMapping(produces = NdjsonStreamService.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCriminals(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String dangerLevel,
+            @RequestParam(defaultValue = "200") int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        com.google.cloud.firestore.Firestore db = com.google.firebase.cloud.FirestoreClient.getFirestore();
+        com.google.cloud.firestore.Query query = CollectionQueries.criminals(db, name, status, dangerLevel).limit(limit);
+        query = FieldProjections.apply(query, COLLECTION, fields);
+        return ndjsonStreamService.response(COLLECTION, query, "id", "criminalId");
     }
 
     @GetMapping
@@ -77,31 +105,15 @@ public class CriminalController {
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String dangerLevel,
-            @RequestParam(defaultValue = "200") int limit
+            @RequestParam(defaultValue = "200") int limit,
+            @RequestParam(required = false) String fields
     ) throws ExecutionException, InterruptedException {
         com.google.cloud.firestore.Firestore db = com.google.firebase.cloud.FirestoreClient.getFirestore();
-        com.google.cloud.firestore.Query query;
-        
-        if (status != null && !status.isBlank()) {
-            query = db.collection(COLLECTION).whereEqualTo("status", status).limit(limit);
-        } else if (dangerLevel != null && !dangerLevel.isBlank()) {
-            query = db.collection(COLLECTION).whereEqualTo("dangerLevel", dangerLevel).limit(limit);
-        } else if (name != null && !name.isBlank()) {
-            String end = name + "\uf8ff";
-            query = db.collection(COLLECTION).orderBy("name").startAt(name).endAt(end).limit(limit);
-        } else {
-            query = db.collection(COLLECTION).orderBy("createdAt", com.google.cloud.firestore.Query.Direction.DESCENDING).limit(limit);
-        }
+        com.google.cloud.firestore.Query query = CollectionQueries.criminals(db, name, status, dangerLevel).limit(limit);
+        query = FieldProjections.apply(query, COLLECTION, fields);
 
-        com.google.api.core.ApiFuture<com.google.cloud.firestore.QuerySnapshot> future = query.get();
-        java.util.List<com.google.cloud.firestore.QueryDocumentSnapshot> docs = future.get().getDocuments();
-        java.util.List<java.util.Map<String,Object>> items = new java.util.ArrayList<>();
-        for (com.google.cloud.firestore.QueryDocumentSnapshot d : docs) {
-            java.util.Map<String,Object> m = d.getData();
-            m.put("id", d.getId());
-            m.put("criminalId", d.getId());
-            items.add(m);
-        }
+        java.util.List<com.google.cloud.firestore.QueryDocumentSnapshot> docs = firestoreService.queryCollection(COLLECTION, query);
+        java.util.List<java.util.Map<String,Object>> items = DocumentMapper.toItems(docs, "criminalId");
         return ResponseEntity.ok(java.util.Map.of("count", items.size(), "items", items));
     }
 
@@ -124,6 +136,8 @@ public class CriminalController {
         if (updates.containsKey("lastSeenLocation")) allowed.put("lastSeenLocation", updates.get("lastSeenLocation"));
         if (updates.containsKey("lastSeenDate")) allowed.put("lastSeenDate", updates.get("lastSeenDate"));
         if (updates.containsKey("photoUrl")) allowed.put("photoUrl", updates.get("photoUrl"));
+        if (updates.containsKey("crimeId")) allowed.put("crimeId", updates.get("crimeId"));
+        if (updates.containsKey("crimeIds")) allowed.put("crimeIds", updates.get("crimeIds"));
         
         if (allowed.isEmpty()) return ResponseEntity.badRequest().body(Map.of("error", "No updatable fields provided"));
 
@@ -1,5 +1,8 @@
 package com.arya.crimeportal.controller;
 
+import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.service.LastKnownGood;
+import com.arya.crimeportal.service.StatsCounters;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
@@ -22,20 +25,64 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class DashboardController {
 
+    private final FirestoreService firestoreService;
+    private final LastKnownGood lastKnownGood;
+    private final StatsCounters statsCounters;
+
+    public DashboardController(FirestoreService firestoreService, LastKnownGood lastKnownGood, StatsCounters statsCounters) {
+        this.firestoreService = firestoreService;
+        this.lastKnownGood = lastKnownGood;
+        this.statsCounters = statsCounters;
+    }
+
+    // Every endpoint falls back to its last good answer (marked stale) while Firestore is unavailable.
+    // Counts come from the sharded stats counters once they are loaded, and from full scans until then
+
     @GetMapping("/stats")
     public ResponseEntity<?> getDashboardStats() throws ExecutionException, InterruptedException {
+        return ResponseEntity.ok(lastKnownGood.serve("dashboard/stats", this::loadStats));
+    }
+
+    @GetMapping("/recent-activity")
+    public ResponseEntity<?> getRecentActivity(@RequestParam(defaultValue = "10") int limit) 
+            throws ExecutionException, InterruptedException {
+        return ResponseEntity.ok(lastKnownGood.serve("dashboard/recent-activity?limit=" + limit, () -> loadRecentActivity(limit)));
+    }
+
+    @GetMapping("/charts/monthly")
+    public ResponseEntity<?> getMonthlyChartData() throws ExecutionException, InterruptedException {
+        return ResponseEntity.ok(lastKnownGood.serve("dashboard/charts/monthly", this::loadMonthlyChartData));
+    }
+
+    @GetMapping("/top-locations")
+    public ResponseEntity<?> getTopLocations(@RequestParam(defaultValue = "5") int limit) 
+            throws ExecutionException, InterruptedException {
+        return ResponseEntity.ok(lastKnownGood.serve("dashboard/top-locations?limit=" + limit, () -> loadTopLocations(limit)));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<?> getDashboardSummary() throws ExecutionException, InterruptedException {
+        return ResponseEntity.ok(lastKnownGood.serve("dashboard/summary", this::loadSummary));
+    }
+
+    private boolean useCounters() {
+        return statsCounters != null && statsCounters.isReady();
+    }
+
+    private Map<String, Object> loadStats() throws ExecutionException, InterruptedException {
+        if (useCounters()) return statsFromCounters();
         Firestore db = FirestoreClient.getFirestore();
 
         // Fetch all collections
-        ApiFuture<QuerySnapshot> crimesFuture = db.collection("crimes").get();
-        ApiFuture<QuerySnapshot> firsFuture = db.collection("firs").get();
-        ApiFuture<QuerySnapshot> criminalsFuture = db.collection("criminals").get();
-        ApiFuture<QuerySnapshot> usersFuture = db.collection("users").get();
+        ApiFuture<QuerySnapshot> crimesFuture = firestoreService.queryAsync("crimes", db.collection("crimes"));
+        ApiFuture<QuerySnapshot> firsFuture = firestoreService.queryAsync("firs", db.collection("firs"));
+        ApiFuture<QuerySnapshot> criminalsFuture = firestoreService.queryAsync("criminals", db.collection("criminals"));
+        ApiFuture<QuerySnapshot> usersFuture = firestoreService.queryAsync("users", db.collection("users"));
 
-        List<QueryDocumentSnapshot> crimesDocs = crimesFuture.get().getDocuments();
-        List<QueryDocumentSnapshot> firsDocs = firsFuture.get().getDocuments();
-        List<QueryDocumentSnapshot> criminalsDocs = criminalsFuture.get().getDocuments();
-        List<QueryDocumentSnapshot> usersDocs = usersFuture.get().getDocuments();
+        List<QueryDocumentSnapshot> crimesDocs = firestoreService.await(crimesFuture).getDocuments();
+        List<QueryDocumentSnapshot> firsDocs = firestoreService.await(firsFuture).getDocuments();
+        List<QueryDocumentSnapshot> criminalsDocs = firestoreService.await(criminalsFuture).getDocuments();
+        List<QueryDocumentSnapshot> usersDocs = firestoreService.await(usersFuture).getDocuments();
 
         // Calculate basic counts
         int totalCrimes = crimesDocs.size();
@@ -77,20 +124,59 @@ public class DashboardController {
         stats.put("crimeCategoryBreakdown", crimeCategoryBreakdown);
         stats.put("severityBreakdown", severityBreakdown);
 
-        return ResponseEntity.ok(stats);
+        return stats;
     }
 
-    @GetMapping("/recent-activity")
-    public ResponseEntity<?> getRecentActivity(@RequestParam(defaultValue = "10") int limit) 
-            throws ExecutionException, InterruptedException {
+    private Map<String, Object> statsFromCounters() throws ExecutionException, InterruptedException {
+        Map<String, Long> crimes = statsCounters.counts("crimes");
+        Map<String, Long> firs = statsCounters.counts("firs");
+        Map<String, Long> criminals = statsCounters.counts("criminals");
+        Map<String, Long> users = statsCounters.counts("users");
+
+        // Last 7 days vs the 7 before, by day of createdAt
+        List<Integer> crimeDays = new ArrayList<>(statsCounters.days("crimes", "created:", 14).values());
+        List<Integer> firDays = new ArrayList<>(statsCounters.days("firs", "created:", 14).values());
+        Map<String, Object> deltas = new HashMap<>();
+        deltas.put("crimes", calculatePercent(sum(crimeDays.subList(7, 14)), sum(crimeDays.subList(0, 7))));
+        deltas.put("firs", calculatePercent(sum(firDays.subList(7, 14)), sum(firDays.subList(0, 7))));
+        deltas.put("criminals", 0);
+
+        List<Map<String, Object>> crimeTrend = new ArrayList<>();
+        statsCounters.days("crimes", "created:", 30).forEach((date, count) -> {
+            Map<String, Object> point = new HashMap<>();
+            point.put("date", date);
+            point.put("count", count);
+            crimeTrend.add(point);
+        });
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalCrimes", crimes.getOrDefault(StatsCounters.TOTAL, 0L).intValue());
+        stats.put("openFirs", (int) (firs.getOrDefault(StatsCounters.TOTAL, 0L) - firs.getOrDefault("status:CLOSED", 0L)));
+        stats.put("knownCriminals", criminals.getOrDefault(StatsCounters.TOTAL, 0L).intValue());
+        stats.put("users", users.getOrDefault(StatsCounters.TOTAL, 0L).intValue());
+        stats.put("deltas", deltas);
+        stats.put("crimeTrend", crimeTrend);
+        stats.put("crimeStatusBreakdown", StatsCounters.breakdown(crimes, "status:"));
+        stats.put("firStatusBreakdown", StatsCounters.breakdown(firs, "status:"));
+        stats.put("crimeCategoryBreakdown", StatsCounters.breakdown(crimes, "category:"));
+        stats.put("severityBreakdown", StatsCounters.breakdown(crimes, "severity:"));
+        return stats;
+    }
+
+    private static int sum(List<Integer> counts) {
+        int total = 0;
+        for (int n : counts) total += n;
+        return total;
+    }
+
+    private List<Map<String, Object>> loadRecentActivity(int limit) throws ExecutionException, InterruptedException {
         Firestore db = FirestoreClient.getFirestore();
         
-        ApiFuture<QuerySnapshot> future = db.collection("activities")
+        ApiFuture<QuerySnapshot> future = firestoreService.queryAsync("activities", db.collection("activities")
                 .orderBy("timestamp", Query.Direction.DESCENDING)
-                .limit(limit)
-                .get();
+                .limit(limit));
         
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
+        List<QueryDocumentSnapshot> docs = firestoreService.await(future).getDocuments();
         List<Map<String, Object>> activities = new ArrayList<>();
         
         for (QueryDocumentSnapshot doc : docs) {
@@ -99,33 +185,44 @@ public class DashboardController {
             activities.add(activity);
         }
 
-        return ResponseEntity.ok(activities);
+        return activities;
     }
 
-    @GetMapping("/charts/monthly")
-    public ResponseEntity<?> getMonthlyChartData() throws ExecutionException, InterruptedException {
+    private List<Map<String, Object>> loadMonthlyChartData() throws ExecutionException, InterruptedException {
+        if (useCounters()) {
+            Map<String, Integer> crimes = StatsCounters.months(statsCounters.counts("crimes"), "created:", 6);
+            Map<String, Integer> firs = StatsCounters.months(statsCounters.counts("firs"), "created:", 6);
+            Map<String, Integer> criminals = StatsCounters.months(statsCounters.counts("criminals"), "created:", 6);
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (String month : crimes.keySet()) {
+                Map<String, Object> point = new HashMap<>();
+                point.put("month", month);
+                point.put("crimes", crimes.get(month));
+                point.put("firs", firs.get(month));
+                point.put("criminals", criminals.get(month));
+                result.add(point);
+            }
+            return result;
+        }
         Firestore db = FirestoreClient.getFirestore();
         
         // Fetch all collections in parallel
-        ApiFuture<QuerySnapshot> crimesFuture = db.collection("crimes").get();
-        ApiFuture<QuerySnapshot> firsFuture = db.collection("firs").get();
-        ApiFuture<QuerySnapshot> criminalsFuture = db.collection("criminals").get();
+        ApiFuture<QuerySnapshot> crimesFuture = firestoreService.queryAsync("crimes", db.collection("crimes"));
+        ApiFuture<QuerySnapshot> firsFuture = firestoreService.queryAsync("firs", db.collection("firs"));
+        ApiFuture<QuerySnapshot> criminalsFuture = firestoreService.queryAsync("criminals", db.collection("criminals"));
 
-        List<QueryDocumentSnapshot> crimesDocs = crimesFuture.get().getDocuments();
-        List<QueryDocumentSnapshot> firsDocs = firsFuture.get().getDocuments();
-        List<QueryDocumentSnapshot> criminalsDocs = criminalsFuture.get().getDocuments();
+        List<QueryDocumentSnapshot> crimesDocs = firestoreService.await(crimesFuture).getDocuments();
+        List<QueryDocumentSnapshot> firsDocs = firestoreService.await(firsFuture).getDocuments();
+        List<QueryDocumentSnapshot> criminalsDocs = firestoreService.await(criminalsFuture).getDocuments();
 
         // Calculate monthly trends for each collection
-        List<Map<String, Object>> monthlyData = calculateMonthlyTrends(crimesDocs, firsDocs, criminalsDocs, 6);
-        return ResponseEntity.ok(monthlyData);
+        return calculateMonthlyTrends(crimesDocs, firsDocs, criminalsDocs, 6);
     }
 
-    @GetMapping("/top-locations")
-    public ResponseEntity<?> getTopLocations(@RequestParam(defaultValue = "5") int limit) 
-            throws ExecutionException, InterruptedException {
+    private List<Map<String, Object>> loadTopLocations(int limit) throws ExecutionException, InterruptedException {
         Firestore db = FirestoreClient.getFirestore();
-        ApiFuture<QuerySnapshot> future = db.collection("crimes").get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
+        ApiFuture<QuerySnapshot> future = firestoreService.queryAsync("crimes", db.collection("crimes"));
+        List<QueryDocumentSnapshot> docs = firestoreService.await(future).getDocuments();
 
         Map<String, Integer> locationCounts = new HashMap<>();
         for (QueryDocumentSnapshot doc : docs) {
@@ -146,23 +243,33 @@ public class DashboardController {
                 })
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(topLocations);
+        return topLocations;
     }
 
-    @GetMapping("/summary")
-    public ResponseEntity<?> getDashboardSummary() throws ExecutionException, InterruptedException {
+    private Map<String, Object> loadSummary() throws ExecutionException, InterruptedException {
+        if (useCounters()) {
+            Map<String, Long> crimes = statsCounters.counts("crimes");
+            Map<String, Long> firs = statsCounters.counts("firs");
+            Map<String, Long> criminals = statsCounters.counts("criminals");
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("totalCrimes", crimes.getOrDefault(StatsCounters.TOTAL, 0L).intValue());
+            summary.put("activeFirs", (int) (firs.getOrDefault(StatsCounters.TOTAL, 0L) - firs.getOrDefault("status:CLOSED", 0L)));
+            summary.put("activeCriminals", (int) (criminals.getOrDefault("status:AT_LARGE", 0L) + criminals.getOrDefault("status:WANTED", 0L)));
+            summary.put("timestamp", Instant.now().toString());
+            return summary;
+        }
         Firestore db = FirestoreClient.getFirestore();
 
         // Quick summary for overview cards
-        ApiFuture<QuerySnapshot> crimesFuture = db.collection("crimes").get();
-        ApiFuture<QuerySnapshot> firsFuture = db.collection("firs").get();
-        ApiFuture<QuerySnapshot> criminalsFuture = db.collection("criminals").get();
+        ApiFuture<QuerySnapshot> crimesFuture = firestoreService.queryAsync("crimes", db.collection("crimes"));
+        ApiFuture<QuerySnapshot> firsFuture = firestoreService.queryAsync("firs", db.collection("firs"));
+        ApiFuture<QuerySnapshot> criminalsFuture = firestoreService.queryAsync("criminals", db.collection("criminals"));
 
-        int totalCrimes = crimesFuture.get().getDocuments().size();
-        int activeFirs = (int) firsFuture.get().getDocuments().stream()
+        int totalCrimes = firestoreService.await(crimesFuture).getDocuments().size();
+        int activeFirs = (int) firestoreService.await(firsFuture).getDocuments().stream()
                 .filter(d -> !"CLOSED".equals(d.getString("status")))
                 .count();
-        int activeCriminals = (int) criminalsFuture.get().getDocuments().stream()
+        int activeCriminals = (int) firestoreService.await(criminalsFuture).getDocuments().stream()
                 .filter(d -> {
                     String status = d.getString("status");
                     return "AT_LARGE".equals(status) || "WANTED".equals(status);
@@ -175,13 +282,13 @@ public class DashboardController {
         summary.put("activeCriminals", activeCriminals);
         summary.put("timestamp", Instant.now().toString());
 
-        return ResponseEntity.ok(summary);
+        return summary;
     }
 
-    // Helper methods
-    private Map<String, Object> calculateDeltas(List<QueryDocumentSnapshot> crimes, 
-                                                List<QueryDocumentSnapshot> firs,
-                                                List<QueryDocumentSnapshot> criminals) {
+    // Helper methods (package-private so the JMH benchmarks can call them directly)
+    Map<String, Object> calculateDeltas(List<QueryDocumentSnapshot> crimes, 
+                                        List<QueryDocumentSnapshot> firs,
+                                        List<QueryDocumentSnapshot> criminals) {
         Instant now = Instant.now();
         Instant weekAgo = now.minusSeconds(7 * 86400);
         Instant twoWeeksAgo = now.minusSeconds(14 * 86400);
@@ -200,7 +307,7 @@ public class DashboardController {
         return deltas;
     }
 
-    private int countItemsInRange(List<QueryDocumentSnapshot> docs, String field, Instant start, Instant end) {
+    int countItemsInRange(List<QueryDocumentSnapshot> docs, String field, Instant start, Instant end) {
         return (int) docs.stream().filter(d -> {
             Object dateObj = d.get(field);
             if (dateObj == null) return false;
@@ -213,12 +320,12 @@ public class DashboardController {
         }).count();
     }
 
-    private double calculatePercent(int current, int previous) {
+    double calculatePercent(int current, int previous) {
         if (previous == 0) return current > 0 ? 100.0 : 0.0;
         return ((current - previous) / (double) previous) * 100.0;
     }
 
-    private List<Map<String, Object>> calculateCrimeTrend(List<QueryDocumentSnapshot> docs, int days) {
+    List<Map<String, Object>> calculateCrimeTrend(List<QueryDocumentSnapshot> docs, int days) {
         Map<String, Integer> dailyCounts = new LinkedHashMap<>();
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd")
                 .withZone(ZoneId.systemDefault());
@@ -253,7 +360,7 @@ public class DashboardController {
         return trend;
     }
 
-    private List<Map<String, Object>> calculateMonthlyData(List<QueryDocumentSnapshot> docs, int months) {
+    List<Map<String, Object>> calculateMonthlyData(List<QueryDocumentSnapshot> docs, int months) {
         Map<String, Integer> monthlyCounts = new LinkedHashMap<>();
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM")
                 .withZone(ZoneId.systemDefault());
@@ -288,10 +395,10 @@ public class DashboardController {
         return data;
     }
 
-    private List<Map<String, Object>> calculateMonthlyTrends(List<QueryDocumentSnapshot> crimesDocs, 
-                                                              List<QueryDocumentSnapshot> firsDocs,
-                                                              List<QueryDocumentSnapshot> criminalsDocs,
-                                                              int months) {
+    List<Map<String, Object>> calculateMonthlyTrends(List<QueryDocumentSnapshot> crimesDocs, 
+                                                      List<QueryDocumentSnapshot> firsDocs,
+                                                      List<QueryDocumentSnapshot> criminalsDocs,
+                                                      int months) {
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM")
                 .withZone(ZoneId.systemDefault());
         Instant now = Instant.now();
@@ -367,7 +474,7 @@ public class DashboardController {
         return result;
     }
 
-    private Map<String, Integer> calculateStatusBreakdown(List<QueryDocumentSnapshot> docs) {
+    Map<String, Integer> calculateStatusBreakdown(List<QueryDocumentSnapshot> docs) {
         Map<String, Integer> breakdown = new HashMap<>();
         for (QueryDocumentSnapshot doc : docs) {
             String status = doc.getString("status");
@@ -378,7 +485,7 @@ public class DashboardController {
         return breakdown;
     }
 
-    private Map<String, Integer> calculateCategoryBreakdown(List<QueryDocumentSnapshot> docs) {
+    Map<String, Integer> calculateCategoryBreakdown(List<QueryDocumentSnapshot> docs) {
         Map<String, Integer> breakdown = new HashMap<>();
         for (QueryDocumentSnapshot doc : docs) {
             String category = doc.getString("category");
@@ -389,7 +496,7 @@ public class DashboardController {
         return breakdown;
     }
 
-    private Map<String, Integer> calculateSeverityBreakdown(List<QueryDocumentSnapshot> docs) {
+    Map<String, Integer> calculateSeverityBreakdown(List<QueryDocumentSnapshot> docs) {
         Map<String, Integer> breakdown = new HashMap<>();
         for (QueryDocumentSnapshot doc : docs) {
             String severity = doc.getString("severity");
@@ -0,0 +1,99 @@
+package com.arya.crimeportal.controller;
+
+import com.arya.crimeportal.exception.ForbiddenException;
+import com.arya.crimeportal.service.CollectionQueries;
+import com.arya.crimeportal.service.CsvExportService;
+import com.arya.crimeportal.util.RequestUsage;
+import com.arya.crimeportal.util.SecurityUtil;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.firebase.cloud.FirestoreClient;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@Lazy
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class ExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final CsvExportService csvExportService;
+
+    public ExportController(CsvExportService csvExportService) {
+        this.csvExportService = csvExportService;
+    }
+
+    @GetMapping("/crimes.csv")
+    public ResponseEntity<StreamingResponseBody> exportCrimes(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) String location,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        Firestore db = FirestoreClient.getFirestore();
+        return stream(CollectionQueries.CRIMES, CollectionQueries.crimes(db, title, status, category, severity, location), gzip);
+    }
+
+    @GetMapping("/firs.csv")
+    public ResponseEntity<StreamingResponseBody> exportFirs(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String complainantName,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        Firestore db = FirestoreClient.getFirestore();
+        return stream(CollectionQueries.FIRS, CollectionQueries.firs(db, status, complainantName), gzip);
+    }
+
+    @GetMapping("/criminals.csv")
+    public ResponseEntity<StreamingResponseBody> exportCriminals(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String dangerLevel,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        Firestore db = FirestoreClient.getFirestore();
+        return stream(CollectionQueries.CRIMINALS, CollectionQueries.criminals(db, name, status, dangerLevel), gzip);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String collection, Query query, boolean gzip) {
+        String role = SecurityUtil.getRole();
+        if (role == null || (!role.equalsIgnoreCase("OFFICER") && !role.equalsIgnoreCase("ADMIN"))) {
+            throw new ForbiddenException("Insufficient role to export records");
+        }
+
+        // Rows are written on the MVC async executor, page by page, straight to the response
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192, true) : out;
+            try {
+                csvExportService.export(collection, query, target);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Export interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Export failed: " + e.getMessage(), e);
+            }
+            if (target instanceof GZIPOutputStream gz) gz.finish();
+            target.flush();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + collection + ".csv\"");
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(RequestUsage.bound(body));
+    }
+}
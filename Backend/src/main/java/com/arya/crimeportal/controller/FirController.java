@@ -1,6 +1,14 @@
 package com.arya.crimeportal.controller;
 
+import com.arya.crimeportal.service.CollectionQueries;
+import com.arya.crimeportal.service.FieldProjections;
+import com.arya.crimeportal.service.FirLifecycle;
 import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.service.NdjsonStreamService;
+import com.arya.crimeportal.service.VersionedDocument;
+import com.arya.crimeportal.util.DocumentMapper;
+import com.arya.crimeportal.util.EntityResponses;
+import com.arya.crimeportal.util.LogSampling;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
@@ -9,9 +17,12 @@ import com.google.cloud.firestore.QuerySnapshot;
 import com.google.firebase.cloud.FirestoreClient;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -26,11 +37,18 @@ import java.util.concurrent.ExecutionException;
 @Validated
 public class FirController {
 
+    private static final Logger log = LoggerFactory.getLogger(FirController.class);
+
     private final FirestoreService firestoreService;
+    private final NdjsonStreamService ndjsonStreamService;
+    private final FirLifecycle firLifecycle;
     private final String COLLECTION = "firs";
 
-    public FirController(FirestoreService firestoreService) {
+    public FirController(FirestoreService firestoreService, NdjsonStreamService ndjsonStreamService,
+                         FirLifecycle firLifecycle) {
         this.firestoreService = firestoreService;
+        this.ndjsonStreamService = ndjsonStreamService;
+        this.firLifecycle = firLifecycle;
     }
 
     record CreateFirRequest(
@@ -40,13 +58,12 @@ public class FirController {
         String crimeId,
         String incidentLocation,
         String incidentDate,
-        String status
+        String status,
+        String station
     ) {}
 
     @PostMapping
     public ResponseEntity<?> createFir(@Valid @RequestBody CreateFirRequest req) throws ExecutionException, InterruptedException {
-        System.out.println("🔵 Creating FIR for complainant: " + req.complainantName());
-        
         // Generate FIR number
         String firNumber = "FIR" + System.currentTimeMillis();
         
@@ -59,15 +76,17 @@ public class FirController {
         data.put("incidentLocation", req.incidentLocation() != null ? req.incidentLocation() : "");
         data.put("incidentDate", req.incidentDate() != null ? req.incidentDate() : Instant.now().toString());
         data.put("status", req.status() != null ? req.status() : "PENDING");
-        data.put("createdAt", Instant.now().toString());
-        data.put("updatedAt", Instant.now().toString());
+        if (req.station() != null) data.put("station", req.station());
+        String now = Instant.now().toString();
+        data.put("createdAt", now);
+        data.put("updatedAt", now);
+        data.put("statusChangedAt", now);
 
-        System.out.println("🔵 FIR Data to save: " + data);
-        
         String id = firestoreService.createDocument(COLLECTION, data);
-        
-        System.out.println("✅ FIR created successfully! ID: " + id + ", FIR Number: " + firNumber);
-        
+        if (LogSampling.debug(log)) {
+            log.debug("FIR {} filed as {} (status {})", firNumber, id, data.get("status"));
+        }
+
         return ResponseEntity.ok(Map.of(
             "firId", id, 
             "firNumber", firNumber,
@@ -77,39 +96,38 @@ public class FirController {
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getFir(@PathVariable String id) throws ExecutionException, InterruptedException {
-        Map<String, Object> doc = firestoreService.getDocument(COLLECTION, id);
+        VersionedDocument doc = firestoreService.getVersionedDocument(COLLECTION, id);
         if (doc == null) return ResponseEntity.notFound().build();
-        return ResponseEntity.ok(doc);
+        return EntityResponses.ok(doc, "id");
+    }
+
+    // Same filters as listFirs, streamed one document per line for Accept: application/x-ndjson
+    @GetMapping(produces = NdjsonStreamService.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFirs(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String complainantName,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        Firestore db = FirestoreClient.getFirestore();
+        Query query = CollectionQueries.firs(db, status, complainantName).limit(limit);
+        query = FieldProjections.apply(query, COLLECTION, fields);
+        return ndjsonStreamService.response(COLLECTION, query, "id", "firId");
     }
 
     @GetMapping
     public ResponseEntity<?> listFirs(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String complainantName,
-            @RequestParam(defaultValue = "100") int limit
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String fields
     ) throws ExecutionException, InterruptedException {
         Firestore db = FirestoreClient.getFirestore();
-        Query query = db.collection(COLLECTION)
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .limit(limit);
+        Query query = CollectionQueries.firs(db, status, complainantName).limit(limit);
+        query = FieldProjections.apply(query, COLLECTION, fields);
 
-        if (status != null && !status.isBlank()) {
-            query = db.collection(COLLECTION).whereEqualTo("status", status).limit(limit);
-        }
-        if (complainantName != null && !complainantName.isBlank()) {
-            String end = complainantName + "\uf8ff";
-            query = db.collection(COLLECTION).orderBy("complainantName").startAt(complainantName).endAt(end).limit(limit);
-        }
-
-        ApiFuture<QuerySnapshot> future = query.get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
-        List<Map<String, Object>> items = new ArrayList<>();
-        for (QueryDocumentSnapshot d : docs) {
-            Map<String, Object> m = d.getData();
-            m.put("id", d.getId());
-            m.put("firId", d.getId());
-            items.add(m);
-        }
+        List<QueryDocumentSnapshot> docs = firestoreService.queryCollection(COLLECTION, query);
+        List<Map<String, Object>> items = DocumentMapper.toItems(docs, "firId");
         return ResponseEntity.ok(Map.of("count", items.size(), "items", items));
     }
 
@@ -130,15 +148,8 @@ public class FirController {
             query = db.collection(COLLECTION).orderBy("complainantName").startAt(complainantName).endAt(end);
         }
 
-        ApiFuture<QuerySnapshot> future = query.limit(100).get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
-        List<Map<String, Object>> results = new ArrayList<>();
-        for (QueryDocumentSnapshot d : docs) {
-            Map<String, Object> m = d.getData();
-            m.put("id", d.getId());
-            m.put("firId", d.getId());
-            results.add(m);
-        }
+        List<QueryDocumentSnapshot> docs = firestoreService.queryCollection(COLLECTION, query.limit(100));
+        List<Map<String, Object>> results = DocumentMapper.toItems(docs, "firId");
         return ResponseEntity.ok(Map.of("count", results.size(), "items", results));
     }
 
@@ -150,13 +161,24 @@ public class FirController {
         if (updates.containsKey("officerId")) allowed.put("officerId", updates.get("officerId"));
         if (updates.containsKey("officerName")) allowed.put("officerName", updates.get("officerName"));
         if (updates.containsKey("details")) allowed.put("details", updates.get("details"));
+        if (updates.containsKey("crimeId")) allowed.put("crimeId", updates.get("crimeId"));
+        if (updates.containsKey("station")) allowed.put("station", updates.get("station"));
         
         if (allowed.isEmpty()) {
             return ResponseEntity.badRequest().body(Map.of("error", "No updatable fields provided"));
         }
 
         allowed.put("updatedAt", Instant.now().toString());
-        firestoreService.updateDocument(COLLECTION, id, allowed);
+        if (allowed.containsKey("status")) {
+            // Status changes are recorded as transitions (statusChangedAt, statusHistory, stage timings)
+            FirLifecycle.Outcome outcome = firLifecycle.update(id, allowed);
+            if (outcome == FirLifecycle.Outcome.NOT_FOUND) return ResponseEntity.notFound().build();
+            if (outcome == FirLifecycle.Outcome.CONFLICT) {
+                return ResponseEntity.status(409).body(Map.of("error", "FIR is being changed concurrently, try again"));
+            }
+        } else {
+            firestoreService.updateDocument(COLLECTION, id, allowed);
+        }
         return ResponseEntity.ok(Map.of("updated", true, "message", "FIR updated successfully"));
     }
 
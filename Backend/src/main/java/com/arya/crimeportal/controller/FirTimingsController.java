@@ -0,0 +1,92 @@
+package com.arya.crimeportal.controller;
+
+import com.arya.crimeportal.enums.FIRStatus;
+import com.arya.crimeportal.service.FirStageTimings;
+import com.arya.crimeportal.util.SecurityUtil;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Time-in-stage and time-to-close percentiles (p50/p90/p99, in hours) for FIRs, overall or by station or
+ * officer, served from the sketches {@link FirStageTimings} keeps up to date on every status change.
+ */
+@RestController
+@RequestMapping("/api/firs/timings")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class FirTimingsController {
+
+    private final FirStageTimings timings;
+
+    public FirTimingsController(FirStageTimings timings) {
+        this.timings = timings;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getTimings(@RequestParam(required = false) String station,
+                                        @RequestParam(required = false) String officerId) {
+        ResponseEntity<?> refused = refuse();
+        if (refused != null) return refused;
+        if (station != null && officerId != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Give either station or officerId, not both"));
+        }
+        FirStageTimings.Timings result = station != null ? timings.timings(FirStageTimings.STATION, station)
+                : officerId != null ? timings.timings(FirStageTimings.OFFICER, officerId)
+                : timings.timings(FirStageTimings.ALL, null);
+        return ResponseEntity.ok(result);
+    }
+
+    // Stations or officers with the slowest p90 for a stage (or TO_CLOSE), slowest first
+    @GetMapping("/{by}")
+    public ResponseEntity<?> slowest(@PathVariable String by,
+                                     @RequestParam(defaultValue = FirStageTimings.TO_CLOSE) String stage,
+                                     @RequestParam(defaultValue = "20") int limit) {
+        ResponseEntity<?> refused = refuse();
+        if (refused != null) return refused;
+        String kind = switch (by) {
+            case "stations" -> FirStageTimings.STATION;
+            case "officers" -> FirStageTimings.OFFICER;
+            default -> null;
+        };
+        if (kind == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Breakdown must be stations or officers"));
+        }
+        String stageName = stage.toUpperCase(Locale.ROOT);
+        if (!stageName.equals(FirStageTimings.TO_CLOSE) && !isStage(stageName)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "stage must be a FIR status other than CLOSED, or TO_CLOSE"));
+        }
+        List<FirStageTimings.Timings> items = timings.slowest(kind, stageName, Math.max(1, Math.min(limit, 500)));
+        Map<String, Object> body = new HashMap<>();
+        body.put("stage", stageName);
+        body.put("count", items.size());
+        body.put("items", items);
+        return ResponseEntity.ok(body);
+    }
+
+    private ResponseEntity<?> refuse() {
+        String role = SecurityUtil.getRole();
+        if (role == null || (!role.equalsIgnoreCase("OFFICER") && !role.equalsIgnoreCase("ADMIN"))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Insufficient role to view FIR timings"));
+        }
+        if (!timings.isEnabled()) {
+            return ResponseEntity.status(404).body(Map.of("error", "FIR stage timings are disabled"));
+        }
+        if (!timings.isReady()) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "FIR stage timings are still loading"));
+        }
+        return null;
+    }
+
+    private static boolean isStage(String name) {
+        for (FIRStatus status : FIRStatus.values()) {
+            if (status != FIRStatus.CLOSED && status.name().equals(name)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,180 @@
+package com.arya.crimeportal.controller;
+
+import com.arya.crimeportal.service.AdjacencyIndex;
+import com.arya.crimeportal.service.AssociationGraph;
+import com.arya.crimeportal.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Link analysis over the in-memory association graph (criminals, crimes and FIRs, see
+ * {@link AssociationGraph}). Nodes are addressed as {@code {collection}/{id}}; responses carry
+ * {@code tookMicros}, the time spent in the traversal itself.
+ */
+@RestController
+@RequestMapping("/api/graph")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class GraphController {
+
+    private static final Set<String> COLLECTIONS = Set.of("criminals", "crimes", "firs");
+
+    private final AssociationGraph graph;
+    private final int maxHops;
+    private final int maxResults;
+
+    public GraphController(AssociationGraph graph,
+                           @Value("${graph.max-hops:6}") int maxHops,
+                           @Value("${graph.max-results:1000}") int maxResults) {
+        this.graph = graph;
+        this.maxHops = maxHops;
+        this.maxResults = maxResults;
+    }
+
+    @GetMapping("/{collection}/{id}/neighbors")
+    public ResponseEntity<?> neighbors(@PathVariable String collection, @PathVariable String id,
+                                       @RequestParam(defaultValue = "2") int hops,
+                                       @RequestParam(required = false) String type,
+                                       @RequestParam(required = false) String status,
+                                       @RequestParam(required = false) String excludeStatus,
+                                       @RequestParam(defaultValue = "200") int limit) {
+        ResponseEntity<?> refused = refuse(collection);
+        if (refused != null) return refused;
+        if (type != null && !COLLECTIONS.contains(type)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "type must be crimes, firs or criminals"));
+        }
+        long started = System.nanoTime();
+        AdjacencyIndex.Neighborhood result = graph.index().neighbors(collection + "/" + id,
+                clamp(hops, 1, maxHops), type, csv(status), csv(excludeStatus), clamp(limit, 1, maxResults));
+        if (result == null) return notInGraph(collection, id);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("count", result.nodes().size());
+        body.put("items", result.nodes());
+        body.put("visited", result.visited());
+        body.put("truncated", result.truncated());
+        body.put("tookMicros", micros(started));
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/path")
+    public ResponseEntity<?> shortestPath(@RequestParam String from, @RequestParam String to,
+                                          @RequestParam(required = false) Integer maxHops) {
+        ResponseEntity<?> refused = refuse(collectionOf(from));
+        if (refused == null) refused = refuse(collectionOf(to));
+        if (refused != null) return refused;
+        long started = System.nanoTime();
+        List<AdjacencyIndex.Node> path = graph.index().shortestPath(from, to,
+                clamp(maxHops == null ? this.maxHops : maxHops, 1, this.maxHops));
+        if (path == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Not in the association graph: " + from + " or " + to));
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("found", !path.isEmpty());
+        body.put("hops", Math.max(0, path.size() - 1));
+        body.put("items", path);
+        body.put("tookMicros", micros(started));
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/{collection}/{id}/component")
+    public ResponseEntity<?> component(@PathVariable String collection, @PathVariable String id,
+                                       @RequestParam(defaultValue = "200") int limit) {
+        ResponseEntity<?> refused = refuse(collection);
+        if (refused != null) return refused;
+        long started = System.nanoTime();
+        AdjacencyIndex.Component result = graph.index().component(collection + "/" + id, clamp(limit, 0, maxResults));
+        if (result == null) return notInGraph(collection, id);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("size", result.size());
+        body.put("byCollection", result.byCollection());
+        body.put("items", result.nodes());
+        body.put("truncated", result.truncated());
+        body.put("tookMicros", micros(started));
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<?> status() {
+        String role = SecurityUtil.getRole();
+        if (role == null || (!role.equalsIgnoreCase("OFFICER") && !role.equalsIgnoreCase("ADMIN"))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Insufficient role for link analysis"));
+        }
+        AdjacencyIndex index = graph.index();
+        Map<String, Object> body = new HashMap<>();
+        body.put("enabled", graph.isEnabled());
+        body.put("ready", index != null);
+        body.put("rebuilding", graph.isRebuilding());
+        body.put("nodes", index == null ? 0 : index.nodeCount());
+        body.put("edges", index == null ? 0 : index.edgeCount());
+        body.put("loadedAt", graph.loadedAt() == null ? null : graph.loadedAt().toString());
+        body.put("lastError", graph.lastError());
+        return ResponseEntity.ok(body);
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        String role = SecurityUtil.getRole();
+        if (role == null || !role.equalsIgnoreCase("ADMIN")) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only ADMIN can rebuild the association graph"));
+        }
+        if (!graph.isEnabled()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Association graph is disabled"));
+        }
+        if (!graph.rebuild()) {
+            return ResponseEntity.status(409).body(Map.of("error", "Association graph is already loading"));
+        }
+        return ResponseEntity.accepted().body(Map.of("rebuilding", true));
+    }
+
+    // Role, collection and readiness checks shared by the traversal endpoints; null when the request may go ahead
+    private ResponseEntity<?> refuse(String collection) {
+        String role = SecurityUtil.getRole();
+        if (role == null || (!role.equalsIgnoreCase("OFFICER") && !role.equalsIgnoreCase("ADMIN"))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Insufficient role for link analysis"));
+        }
+        if (!COLLECTIONS.contains(collection)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "collection must be crimes, firs or criminals"));
+        }
+        if (!graph.isEnabled()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Association graph is disabled"));
+        }
+        if (graph.index() == null) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Association graph is still loading"));
+        }
+        return null;
+    }
+
+    private static ResponseEntity<?> notInGraph(String collection, String id) {
+        return ResponseEntity.status(404).body(Map.of("error", "Not in the association graph: " + collection + "/" + id));
+    }
+
+    private static String collectionOf(String key) {
+        int slash = key.indexOf('/');
+        return slash < 0 ? key : key.substring(0, slash);
+    }
+
+    private static Set<String> csv(String value) {
+        if (value == null || value.isBlank()) return Set.of();
+        return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toSet());
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static long micros(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1000;
+    }
+}
@@ -0,0 +1,65 @@
+package com.arya.crimeportal.controller;
+
+import com.arya.crimeportal.model.ImportJob;
+import com.arya.crimeportal.service.ImportService;
+import com.arya.crimeportal.util.SecurityUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/import")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class ImportController {
+
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    // The CSV is sent as the raw request body so uploads are streamed to disk rather than buffered
+    @PostMapping("/{collection}")
+    public ResponseEntity<?> startImport(@PathVariable String collection, HttpServletRequest request) throws IOException {
+        String role = SecurityUtil.getRole();
+        if (role == null || (!role.equalsIgnoreCase("OFFICER") && !role.equalsIgnoreCase("ADMIN"))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Insufficient role to import data"));
+        }
+        if (!importService.supports(collection)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "collection must be crimes or criminals"));
+        }
+        ImportJob job = importService.createJob(collection, request.getInputStream(), SecurityUtil.getUid());
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId) {
+        Optional<ImportJob> job = visibleJob(jobId);
+        if (job.isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(job.get());
+    }
+
+    @PostMapping("/jobs/{jobId}/resume")
+    public ResponseEntity<?> resumeImportJob(@PathVariable String jobId) {
+        Optional<ImportJob> job = visibleJob(jobId);
+        if (job.isEmpty()) return ResponseEntity.notFound().build();
+        if (!importService.resume(job.get())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Only failed imports can be resumed", "status", job.get().getStatus()));
+        }
+        return ResponseEntity.accepted().body(job.get());
+    }
+
+    // Jobs are visible to the officer who started them and to admins
+    private Optional<ImportJob> visibleJob(String jobId) {
+        String uid = SecurityUtil.getUid();
+        String role = SecurityUtil.getRole();
+        return importService.getJob(jobId)
+                .filter(job -> "ADMIN".equalsIgnoreCase(role) || (uid != null && uid.equals(job.getRequestedBy())));
+    }
+}
@@ -0,0 +1,84 @@
+package com.arya.crimeportal.controller;
+
+import com.arya.crimeportal.service.OfficerWorkload;
+import com.arya.crimeportal.util.SecurityUtil;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Officer caseloads, served from the counters {@link OfficerWorkload} keeps up to date on every crime and FIR
+ * write. Officers see their own workload; ADMIN (supervisors) see anyone's and the ranking.
+ */
+@RestController
+@RequestMapping("/api/officers")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class OfficerController {
+
+    private final OfficerWorkload officerWorkload;
+
+    public OfficerController(OfficerWorkload officerWorkload) {
+        this.officerWorkload = officerWorkload;
+    }
+
+    @GetMapping("/{id}/workload")
+    public ResponseEntity<?> getWorkload(@PathVariable String id) {
+        String role = SecurityUtil.getRole();
+        boolean admin = role != null && role.equalsIgnoreCase("ADMIN");
+        boolean self = role != null && role.equalsIgnoreCase("OFFICER") && id.equals(SecurityUtil.getUid());
+        if (!admin && !self) {
+            return ResponseEntity.status(403).body(Map.of("error", "Officers can only view their own workload"));
+        }
+        ResponseEntity<?> unavailable = unavailable();
+        if (unavailable != null) return unavailable;
+        return ResponseEntity.ok(officerWorkload.workload(id));
+    }
+
+    // Officers ranked by open cases (crimes and FIRs), busiest first
+    @GetMapping("/workload")
+    public ResponseEntity<?> listWorkloads(@RequestParam(defaultValue = "20") int limit) {
+        String role = SecurityUtil.getRole();
+        if (role == null || !role.equalsIgnoreCase("ADMIN")) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only ADMIN can view officer workloads"));
+        }
+        ResponseEntity<?> unavailable = unavailable();
+        if (unavailable != null) return unavailable;
+        List<OfficerWorkload.Workload> items = officerWorkload.busiest(Math.max(1, Math.min(limit, 500)));
+        Map<String, Object> body = new HashMap<>();
+        body.put("count", items.size());
+        body.put("officers", officerWorkload.officerCount());
+        body.put("items", items);
+        body.put("asOf", officerWorkload.loadedAt() == null ? null : officerWorkload.loadedAt().toString());
+        return ResponseEntity.ok(body);
+    }
+
+    @PostMapping("/workload/rebuild")
+    public ResponseEntity<?> rebuildWorkloads() {
+        String role = SecurityUtil.getRole();
+        if (role == null || !role.equalsIgnoreCase("ADMIN")) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only ADMIN can rebuild officer workloads"));
+        }
+        if (!officerWorkload.isEnabled()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Officer workload tracking is disabled"));
+        }
+        if (!officerWorkload.rebuild()) {
+            return ResponseEntity.status(409).body(Map.of("error", "Officer workloads are already loading"));
+        }
+        return ResponseEntity.accepted().body(Map.of("rebuilding", true));
+    }
+
+    private ResponseEntity<?> unavailable() {
+        if (!officerWorkload.isEnabled()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Officer workload tracking is disabled"));
+        }
+        if (!officerWorkload.isReady()) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Officer workloads are still loading"));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.arya.crimeportal.controller;
+
+import com.arya.crimeportal.model.ReportJob;
+import com.arya.crimeportal.service.ReportService;
+import com.arya.crimeportal.util.SecurityUtil;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@Lazy
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    public ReportController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    record ReportRequest(String type, String id, String from, String to) {}
+
+    @PostMapping
+    public ResponseEntity<?> submitReport(@RequestBody ReportRequest req) {
+        String role = SecurityUtil.getRole();
+        if (role == null || (!role.equalsIgnoreCase("OFFICER") && !role.equalsIgnoreCase("ADMIN"))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Insufficient role to generate reports"));
+        }
+
+        ReportJob.Type type;
+        try {
+            type = ReportJob.Type.valueOf(req.type() == null ? "" : req.type().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "type must be CRIME, FIR or RANGE"));
+        }
+        if (type == ReportJob.Type.RANGE) {
+            if (!isInstant(req.from()) || !isInstant(req.to())) {
+                return ResponseEntity.badRequest().body(Map.of("error", "from and to must be ISO-8601 instants"));
+            }
+        } else if (req.id() == null || req.id().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "id is required"));
+        }
+
+        try {
+            ReportJob job = reportService.submit(type, req.id(), req.from(), req.to(), SecurityUtil.getUid());
+            return ResponseEntity.accepted().body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Report queue is full, try again shortly"));
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getReportJob(@PathVariable String jobId) {
+        Optional<ReportJob> job = visibleJob(jobId);
+        if (job.isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(job.get());
+    }
+
+    @GetMapping(path = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamReportJob(@PathVariable String jobId) {
+        Optional<ReportJob> job = visibleJob(jobId);
+        if (job.isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(reportService.subscribe(job.get()));
+    }
+
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<?> downloadReport(@PathVariable String jobId) {
+        Optional<ReportJob> job = visibleJob(jobId);
+        if (job.isEmpty()) return ResponseEntity.notFound().build();
+        ReportJob j = job.get();
+        if (j.getStatus() != ReportJob.Status.COMPLETED || j.getFile() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Report is not ready", "status", j.getStatus()));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report-" + j.getJobId() + ".pdf\"")
+                .body(new FileSystemResource(j.getFile()));
+    }
+
+    // Jobs are visible to the officer who requested them and to admins
+    private Optional<ReportJob> visibleJob(String jobId) {
+        String uid = SecurityUtil.getUid();
+        String role = SecurityUtil.getRole();
+        return reportService.getJob(jobId)
+                .filter(job -> "ADMIN".equalsIgnoreCase(role) || (uid != null && uid.equals(job.getRequestedBy())));
+    }
+
+    private static boolean isInstant(String value) {
+        if (value == null) return false;
+        try {
+            Instant.parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
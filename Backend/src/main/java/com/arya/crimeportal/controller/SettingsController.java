@@ -1,7 +1,11 @@
 package com.arya.crimeportal.controller;
 
 import com.arya.crimeportal.model.SystemSettings;
+import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.service.SettingsStore;
+import com.arya.crimeportal.util.StaleResponses;
 import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.*;
 import com.google.firebase.cloud.FirestoreClient;
 import org.springframework.http.HttpStatus;
@@ -17,53 +21,37 @@ import java.util.concurrent.ExecutionException;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class SettingsController {
 
-    @GetMapping
-    public ResponseEntity<?> getAllSettings(@RequestParam(required = false) String category) 
-            throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        Query query = db.collection("settings");
-
-        if (category != null && !category.isEmpty()) {
-            query = query.whereEqualTo("category", category);
-        }
+    // Firestore rejects batches with more than 500 writes
+    private static final int MAX_BATCH_WRITES = 500;
 
-        ApiFuture<QuerySnapshot> future = query.get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
+    private final SettingsStore settingsStore;
+    private final FirestoreService firestoreService;
 
-        List<Map<String, Object>> settings = new ArrayList<>();
-        for (QueryDocumentSnapshot doc : docs) {
-            Map<String, Object> setting = doc.getData();
-            setting.put("settingId", doc.getId());
-            settings.add(setting);
-        }
+    public SettingsController(SettingsStore settingsStore, FirestoreService firestoreService) {
+        this.settingsStore = settingsStore;
+        this.firestoreService = firestoreService;
+    }
 
-        return ResponseEntity.ok(settings);
+    @GetMapping
+    public ResponseEntity<?> getAllSettings(@RequestParam(required = false) String category) {
+        markIfStale();
+        return ResponseEntity.ok(settingsStore.list(category));
     }
 
     @GetMapping("/{key}")
-    public ResponseEntity<?> getSettingByKey(@PathVariable String key) 
-            throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        Query query = db.collection("settings").whereEqualTo("key", key);
-        ApiFuture<QuerySnapshot> future = query.get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
-
-        if (docs.isEmpty()) {
+    public ResponseEntity<?> getSettingByKey(@PathVariable String key) {
+        markIfStale();
+        Optional<Map<String, Object>> setting = settingsStore.get(key);
+        if (setting.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Setting not found"));
         }
-
-        DocumentSnapshot doc = docs.get(0);
-        Map<String, Object> setting = doc.getData();
-        setting.put("settingId", doc.getId());
-        return ResponseEntity.ok(setting);
+        return ResponseEntity.ok(setting.get());
     }
 
     @PostMapping
     public ResponseEntity<?> createSetting(@RequestBody SystemSettings setting) 
             throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        
         setting.setUpdatedAt(Instant.now());
 
         Map<String, Object> settingData = new HashMap<>();
@@ -74,11 +62,15 @@ public class SettingsController {
         settingData.put("updatedAt", setting.getUpdatedAt().toString());
         settingData.put("updatedBy", setting.getUpdatedBy());
 
-        ApiFuture<DocumentReference> future = db.collection("settings").add(settingData);
-        DocumentReference docRef = future.get();
+        // A client-chosen id, like createDocument's, but the set reports its commit time for the store
+        String settingId = FirestoreClient.getFirestore().collection("settings").document().getId();
+        Timestamp writeTime = firestoreService.setDocument("settings", settingId, settingData);
+        if (setting.getKey() != null) {
+            settingsStore.applyLocalWrite(setting.getKey(), settingId, settingData, writeTime);
+        }
 
         Map<String, Object> response = new HashMap<>();
-        response.put("settingId", docRef.getId());
+        response.put("settingId", settingId);
         response.put("message", "Setting created successfully");
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -87,20 +79,15 @@ public class SettingsController {
     @PutMapping("/{key}")
     public ResponseEntity<?> updateSetting(@PathVariable String key, @RequestBody Map<String, Object> updates) 
             throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        Query query = db.collection("settings").whereEqualTo("key", key);
-        ApiFuture<QuerySnapshot> future = query.get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
-
-        if (docs.isEmpty()) {
+        Optional<String> docId = settingsStore.documentId(key);
+        if (docId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Setting not found"));
         }
 
-        DocumentSnapshot doc = docs.get(0);
         updates.put("updatedAt", Instant.now().toString());
-        ApiFuture<WriteResult> updateFuture = db.collection("settings").document(doc.getId()).update(updates);
-        updateFuture.get();
+        Timestamp writeTime = firestoreService.updateExistingDocument("settings", docId.get(), updates);
+        settingsStore.applyLocalWrite(key, docId.get(), updates, writeTime);
 
         return ResponseEntity.ok(Map.of("message", "Setting updated successfully", "key", key));
     }
@@ -108,69 +95,105 @@ public class SettingsController {
     @DeleteMapping("/{key}")
     public ResponseEntity<?> deleteSetting(@PathVariable String key) 
             throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        Query query = db.collection("settings").whereEqualTo("key", key);
-        ApiFuture<QuerySnapshot> future = query.get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
-
-        if (docs.isEmpty()) {
+        Optional<String> docId = settingsStore.documentId(key);
+        if (docId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Setting not found"));
         }
 
-        DocumentSnapshot doc = docs.get(0);
-        ApiFuture<WriteResult> deleteFuture = db.collection("settings").document(doc.getId()).delete();
-        deleteFuture.get();
+        Timestamp writeTime = firestoreService.deleteDocument("settings", docId.get());
+        settingsStore.applyLocalDelete(key, writeTime);
 
         return ResponseEntity.ok(Map.of("message", "Setting deleted successfully", "key", key));
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<?> getCategories() throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        ApiFuture<QuerySnapshot> future = db.collection("settings").get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
-
-        Set<String> categories = new HashSet<>();
-        for (QueryDocumentSnapshot doc : docs) {
-            String category = doc.getString("category");
-            if (category != null) {
-                categories.add(category);
-            }
-        }
-
-        return ResponseEntity.ok(Map.of("categories", categories));
+    public ResponseEntity<?> getCategories() {
+        markIfStale();
+        return ResponseEntity.ok(Map.of("categories", settingsStore.categories()));
     }
 
     @PostMapping("/bulk")
     public ResponseEntity<?> bulkUpdateSettings(@RequestBody List<Map<String, Object>> settingsList) 
             throws ExecutionException, InterruptedException {
         Firestore db = FirestoreClient.getFirestore();
-        WriteBatch batch = db.batch();
-        int updated = 0;
 
+        // Resolve every key in one concurrent round trip (mostly served from the in-memory index)
+        Set<String> keys = new LinkedHashSet<>();
         for (Map<String, Object> settingUpdate : settingsList) {
-            String key = (String) settingUpdate.get("key");
-            if (key == null) continue;
-
-            Query query = db.collection("settings").whereEqualTo("key", key);
-            ApiFuture<QuerySnapshot> future = query.get();
-            List<QueryDocumentSnapshot> docs = future.get().getDocuments();
-
-            if (!docs.isEmpty()) {
-                DocumentSnapshot doc = docs.get(0);
-                settingUpdate.put("updatedAt", Instant.now().toString());
-                batch.update(db.collection("settings").document(doc.getId()), settingUpdate);
-                updated++;
+            if (settingUpdate.get("key") instanceof String key) keys.add(key);
+        }
+        Map<String, String> docIds = settingsStore.resolveDocumentIds(keys);
+
+        // Results in request order; batches remember the positions of their entries
+        List<Map<String, Object>> results = new ArrayList<>(Collections.nCopies(settingsList.size(), null));
+        List<List<Integer>> batchEntries = new ArrayList<>();
+        List<ApiFuture<List<WriteResult>>> commits = new ArrayList<>();
+        WriteBatch batch = null;
+        List<Integer> currentEntries = null;
+        String now = Instant.now().toString();
+
+        for (int i = 0; i < settingsList.size(); i++) {
+            Map<String, Object> settingUpdate = settingsList.get(i);
+            Object rawKey = settingUpdate.get("key");
+            if (!(rawKey instanceof String key)) {
+                Map<String, Object> invalid = new LinkedHashMap<>();
+                invalid.put("key", rawKey);
+                invalid.put("status", "INVALID");
+                invalid.put("error", "key is required");
+                results.set(i, invalid);
+                continue;
             }
+            String docId = docIds.get(key);
+            if (docId == null) {
+                results.set(i, Map.of("key", key, "status", "NOT_FOUND"));
+                continue;
+            }
+            if (batch == null || currentEntries.size() == MAX_BATCH_WRITES) {
+                if (batch != null) commits.add(firestoreService.commitAsync("settings", batch));
+                batch = db.batch();
+                currentEntries = new ArrayList<>();
+                batchEntries.add(currentEntries);
+            }
+            settingUpdate.put("updatedAt", now);
+            batch.update(db.collection("settings").document(docId), settingUpdate);
+            currentEntries.add(i);
         }
+        if (batch != null) commits.add(firestoreService.commitAsync("settings", batch));
 
-        ApiFuture<List<WriteResult>> batchFuture = batch.commit();
-        batchFuture.get();
+        // Batches are committed concurrently; each one succeeds or fails atomically
+        int updated = 0;
+        for (int b = 0; b < commits.size(); b++) {
+            String error = null;
+            Timestamp writeTime = null;
+            try {
+                writeTime = firestoreService.await(commits.get(b)).get(0).getUpdateTime();
+            } catch (ExecutionException e) {
+                error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            }
+            for (int i : batchEntries.get(b)) {
+                Map<String, Object> settingUpdate = settingsList.get(i);
+                String key = (String) settingUpdate.get("key");
+                if (error == null) {
+                    settingsStore.applyLocalWrite(key, docIds.get(key), settingUpdate, writeTime);
+                    results.set(i, Map.of("key", key, "status", "UPDATED"));
+                    updated++;
+                } else {
+                    results.set(i, Map.of("key", key, "status", "FAILED", "error", error));
+                }
+            }
+        }
 
         return ResponseEntity.ok(Map.of(
             "message", "Bulk update completed",
-            "updatedCount", updated
+            "updatedCount", updated,
+            "results", results
         ));
     }
+
+    // Reads come from the replicated snapshot; flag them while its listener has lost Firestore
+    private void markIfStale() {
+        long staleMillis = settingsStore.staleMillis();
+        if (staleMillis > 0) StaleResponses.mark(staleMillis);
+    }
 }
@@ -1,5 +1,8 @@
 package com.arya.crimeportal.controller;
 
+import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.service.StatsCounters;
+import com.arya.crimeportal.util.SecurityUtil;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
@@ -9,6 +12,7 @@ import com.google.firebase.cloud.FirestoreClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -26,20 +30,38 @@ import java.util.concurrent.ExecutionException;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class StatsController {
 
+    private final FirestoreService firestoreService;
+    private final StatsCounters statsCounters;
+
+    public StatsController(FirestoreService firestoreService, StatsCounters statsCounters) {
+        this.firestoreService = firestoreService;
+        this.statsCounters = statsCounters;
+    }
+
     @GetMapping
     public ResponseEntity<?> getStats() throws ExecutionException, InterruptedException {
+        if (statsCounters.isReady()) {
+            // Sharded counters, no documents read; crimesPerDay is by UTC day
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("totalCrimes", total("crimes"));
+            resp.put("openFirs", total("firs"));
+            resp.put("knownCriminals", total("criminals"));
+            resp.put("users", total("users"));
+            resp.put("crimesPerDay", statsCounters.days("crimes", "date:", 7));
+            return ResponseEntity.ok(resp);
+        }
         Firestore db = FirestoreClient.getFirestore();
 
         // Basic counts (note: for production consider aggregation queries or Cloud Functions for heavy datasets)
-        ApiFuture<QuerySnapshot> crimesFuture = db.collection("crimes").get();
-        ApiFuture<QuerySnapshot> firsFuture = db.collection("firs").get();
-        ApiFuture<QuerySnapshot> criminalsFuture = db.collection("criminals").get();
-        ApiFuture<QuerySnapshot> usersFuture = db.collection("users").get();
+        ApiFuture<QuerySnapshot> crimesFuture = firestoreService.queryAsync("crimes", db.collection("crimes"));
+        ApiFuture<QuerySnapshot> firsFuture = firestoreService.queryAsync("firs", db.collection("firs"));
+        ApiFuture<QuerySnapshot> criminalsFuture = firestoreService.queryAsync("criminals", db.collection("criminals"));
+        ApiFuture<QuerySnapshot> usersFuture = firestoreService.queryAsync("users", db.collection("users"));
 
-        List<QueryDocumentSnapshot> crimesDocs = crimesFuture.get().getDocuments();
-        List<QueryDocumentSnapshot> firsDocs = firsFuture.get().getDocuments();
-        List<QueryDocumentSnapshot> criminalsDocs = criminalsFuture.get().getDocuments();
-        List<QueryDocumentSnapshot> usersDocs = usersFuture.get().getDocuments();
+        List<QueryDocumentSnapshot> crimesDocs = firestoreService.await(crimesFuture).getDocuments();
+        List<QueryDocumentSnapshot> firsDocs = firestoreService.await(firsFuture).getDocuments();
+        List<QueryDocumentSnapshot> criminalsDocs = firestoreService.await(criminalsFuture).getDocuments();
+        List<QueryDocumentSnapshot> usersDocs = firestoreService.await(usersFuture).getDocuments();
 
         int totalCrimes = crimesDocs.size();
         int openFirs = firsDocs.size();
@@ -76,4 +98,49 @@ public class StatsController {
 
         return ResponseEntity.ok(resp);
     }
+
+    private int total(String collection) throws ExecutionException, InterruptedException {
+        return statsCounters.counts(collection).getOrDefault(StatsCounters.TOTAL, 0L).intValue();
+    }
+
+    @GetMapping("/counters")
+    public ResponseEntity<?> getCounters() throws ExecutionException, InterruptedException {
+        String role = SecurityUtil.getRole();
+        if (role == null || !role.equalsIgnoreCase("ADMIN")) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only ADMIN can view stats counters"));
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("enabled", statsCounters.isEnabled());
+        body.put("ready", statsCounters.isReady());
+        body.put("rebuilding", statsCounters.isRebuilding());
+        body.put("loadedAt", statsCounters.loadedAt() == null ? null : statsCounters.loadedAt().toString());
+        body.put("lastError", statsCounters.lastError());
+        if (statsCounters.isReady()) {
+            Map<String, Object> counters = new HashMap<>();
+            for (String collection : List.of("crimes", "firs", "criminals", "users")) {
+                Map<String, Object> counter = new HashMap<>();
+                counter.put("shards", statsCounters.counter(collection).shards());
+                counter.put("counts", statsCounters.counts(collection));
+                counters.put(collection, counter);
+            }
+            body.put("counters", counters);
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    // Recounts the collections and resets the counters, e.g. after writes another instance could not count
+    @PostMapping("/counters/rebuild")
+    public ResponseEntity<?> rebuildCounters() {
+        String role = SecurityUtil.getRole();
+        if (role == null || !role.equalsIgnoreCase("ADMIN")) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only ADMIN can rebuild stats counters"));
+        }
+        if (!statsCounters.isEnabled()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Stats counters are disabled"));
+        }
+        if (!statsCounters.rebuild()) {
+            return ResponseEntity.status(409).body(Map.of("error", "Stats counters are already loading"));
+        }
+        return ResponseEntity.accepted().body(Map.of("rebuilding", true));
+    }
 }
@@ -0,0 +1,40 @@
+package com.arya.crimeportal.controller;
+
+import com.arya.crimeportal.service.FirestoreUsageReport;
+import com.arya.crimeportal.util.SecurityUtil;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/usage")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class UsageController {
+
+    private final FirestoreUsageReport usageReport;
+
+    public UsageController(FirestoreUsageReport usageReport) {
+        this.usageReport = usageReport;
+    }
+
+    // Endpoints ranked by Firestore reads per request since startup (or the last reset)
+    @GetMapping("/firestore")
+    public ResponseEntity<?> getFirestoreUsage(@RequestParam(defaultValue = "50") int limit) {
+        String role = SecurityUtil.getRole();
+        if (role == null || !role.equalsIgnoreCase("ADMIN")) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only ADMIN can view usage reports"));
+        }
+        return ResponseEntity.ok(Map.of("endpoints", usageReport.ranking(limit)));
+    }
+
+    @DeleteMapping("/firestore")
+    public ResponseEntity<?> resetFirestoreUsage() {
+        String role = SecurityUtil.getRole();
+        if (role == null || !role.equalsIgnoreCase("ADMIN")) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only ADMIN can reset usage reports"));
+        }
+        usageReport.reset();
+        return ResponseEntity.ok(Map.of("reset", true));
+    }
+}
@@ -1,12 +1,18 @@
 package com.arya.crimeportal.controller;
 
 import com.arya.crimeportal.model.User;
+import com.arya.crimeportal.service.FieldProjections;
+import com.arya.crimeportal.service.FirestoreService;
+import com.arya.crimeportal.service.NdjsonStreamService;
+import com.arya.crimeportal.service.VersionedDocument;
+import com.arya.crimeportal.util.EntityResponses;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import com.google.firebase.cloud.FirestoreClient;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.*;
@@ -17,64 +23,82 @@ import java.util.concurrent.ExecutionException;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class UserController {
 
+    private final FirestoreService firestoreService;
+    private final NdjsonStreamService ndjsonStreamService;
+
+    public UserController(FirestoreService firestoreService, NdjsonStreamService ndjsonStreamService) {
+        this.firestoreService = firestoreService;
+        this.ndjsonStreamService = ndjsonStreamService;
+    }
+
     @GetMapping
     public ResponseEntity<?> getAllUsers(
             @RequestParam(required = false) String role,
             @RequestParam(required = false) String search,
-            @RequestParam(defaultValue = "50") int limit
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String fields
     ) throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        Query query = db.collection("users").limit(limit);
-
-        if (role != null && !role.isEmpty()) {
-            query = query.whereEqualTo("role", role);
-        }
-
-        ApiFuture<QuerySnapshot> future = query.get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
+        List<QueryDocumentSnapshot> docs = firestoreService.queryCollection("users", usersQuery(role, search, limit, fields));
 
         List<Map<String, Object>> users = new ArrayList<>();
         for (QueryDocumentSnapshot doc : docs) {
+            if (!matchesSearch(doc, search)) continue;
             Map<String, Object> userData = doc.getData();
             userData.put("userId", doc.getId());
-            
-            // Filter by search if provided
-            if (search != null && !search.isEmpty()) {
-                String name = (String) userData.get("name");
-                String email = (String) userData.get("email");
-                if ((name != null && name.toLowerCase().contains(search.toLowerCase())) ||
-                    (email != null && email.toLowerCase().contains(search.toLowerCase()))) {
-                    users.add(userData);
-                }
-            } else {
-                users.add(userData);
-            }
+            users.add(userData);
         }
 
         return ResponseEntity.ok(users);
     }
 
+    // Same filters as getAllUsers, streamed one document per line for Accept: application/x-ndjson
+    @GetMapping(produces = NdjsonStreamService.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        return ndjsonStreamService.response("users", usersQuery(role, search, limit, fields), doc -> matchesSearch(doc, search), "userId");
+    }
+
+    private static Query usersQuery(String role, String search, int limit, String fields) {
+        Firestore db = FirestoreClient.getFirestore();
+        Query query = db.collection("users").limit(limit);
+
+        if (role != null && !role.isEmpty()) {
+            query = query.whereEqualTo("role", role);
+        }
+        // matchesSearch reads name and email, so keep them in any projection
+        return search == null || search.isEmpty()
+                ? FieldProjections.apply(query, "users", fields)
+                : FieldProjections.apply(query, "users", fields, "name", "email");
+    }
+
+    // Case-insensitive substring match on name or email; no search matches everything
+    private static boolean matchesSearch(DocumentSnapshot doc, String search) {
+        if (search == null || search.isEmpty()) return true;
+        String needle = search.toLowerCase();
+        String name = doc.getString("name");
+        String email = doc.getString("email");
+        return (name != null && name.toLowerCase().contains(needle)) ||
+               (email != null && email.toLowerCase().contains(needle));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getUserById(@PathVariable String id) throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        DocumentReference docRef = db.collection("users").document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot doc = future.get();
+        VersionedDocument doc = firestoreService.getVersionedDocument("users", id);
 
-        if (!doc.exists()) {
+        if (doc == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "User not found"));
         }
 
-        Map<String, Object> userData = doc.getData();
-        userData.put("userId", doc.getId());
-        return ResponseEntity.ok(userData);
+        return EntityResponses.ok(doc, "userId");
     }
 
     @PostMapping
     public ResponseEntity<?> createUser(@RequestBody User user) throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        
         user.setCreatedAt(Instant.now());
         if (user.getRole() == null || user.getRole().isEmpty()) {
             user.setRole("USER");
@@ -87,11 +111,10 @@ public class UserController {
         userData.put("createdAt", user.getCreatedAt().toString());
         userData.put("active", true);
 
-        ApiFuture<DocumentReference> future = db.collection("users").add(userData);
-        DocumentReference docRef = future.get();
+        String userId = firestoreService.createDocument("users", userData);
 
         Map<String, Object> response = new HashMap<>();
-        response.put("userId", docRef.getId());
+        response.put("userId", userId);
         response.put("message", "User created successfully");
         response.put("user", userData);
 
@@ -101,11 +124,7 @@ public class UserController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updateUser(@PathVariable String id, @RequestBody Map<String, Object> updates) 
             throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        DocumentReference docRef = db.collection("users").document(id);
-        
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot doc = future.get();
+        DocumentSnapshot doc = firestoreService.getSnapshot("users", id);
 
         if (!doc.exists()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -113,8 +132,7 @@ public class UserController {
         }
 
         updates.put("updatedAt", Instant.now().toString());
-        ApiFuture<WriteResult> updateFuture = docRef.update(updates);
-        updateFuture.get();
+        firestoreService.updateExistingDocument("users", id, updates);
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "User updated successfully");
@@ -125,19 +143,14 @@ public class UserController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable String id) throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        DocumentReference docRef = db.collection("users").document(id);
-        
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot doc = future.get();
+        DocumentSnapshot doc = firestoreService.getSnapshot("users", id);
 
         if (!doc.exists()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "User not found"));
         }
 
-        ApiFuture<WriteResult> deleteFuture = docRef.delete();
-        deleteFuture.get();
+        firestoreService.deleteDocument("users", id);
 
         return ResponseEntity.ok(Map.of("message", "User deleted successfully", "userId", id));
     }
@@ -145,8 +158,8 @@ public class UserController {
     @GetMapping("/stats")
     public ResponseEntity<?> getUserStats() throws ExecutionException, InterruptedException {
         Firestore db = FirestoreClient.getFirestore();
-        ApiFuture<QuerySnapshot> future = db.collection("users").get();
-        List<QueryDocumentSnapshot> docs = future.get().getDocuments();
+        ApiFuture<QuerySnapshot> future = firestoreService.queryAsync("users", db.collection("users"));
+        List<QueryDocumentSnapshot> docs = firestoreService.await(future).getDocuments();
 
         Map<String, Integer> roleCounts = new HashMap<>();
         int activeUsers = 0;
@@ -174,11 +187,7 @@ public class UserController {
     @PutMapping("/{id}/role")
     public ResponseEntity<?> updateUserRole(@PathVariable String id, @RequestBody Map<String, String> request) 
             throws ExecutionException, InterruptedException {
-        Firestore db = FirestoreClient.getFirestore();
-        DocumentReference docRef = db.collection("users").document(id);
-        
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot doc = future.get();
+        DocumentSnapshot doc = firestoreService.getSnapshot("users", id);
 
         if (!doc.exists()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -195,8 +204,7 @@ public class UserController {
         updates.put("role", newRole.toUpperCase());
         updates.put("updatedAt", Instant.now().toString());
 
-        ApiFuture<WriteResult> updateFuture = docRef.update(updates);
-        updateFuture.get();
+        firestoreService.updateExistingDocument("users", id, updates);
 
         return ResponseEntity.ok(Map.of(
             "message", "User role updated successfully",
@@ -0,0 +1,14 @@
+package com.arya.crimeportal.exception;
+
+public class CircuitOpenException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public CircuitOpenException(long retryAfterSeconds) {
+        super("Firestore is unavailable; reads are paused for " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
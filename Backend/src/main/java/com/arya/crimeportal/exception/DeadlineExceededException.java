@@ -0,0 +1,7 @@
+package com.arya.crimeportal.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(long waitedMillis) {
+        super("Firestore did not respond within the request deadline (waited " + waitedMillis + " ms)");
+    }
+}
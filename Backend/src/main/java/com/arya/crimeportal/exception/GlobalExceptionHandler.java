@@ -1,5 +1,6 @@
 package com.arya.crimeportal.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -50,6 +51,56 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<?> handleForbiddenException(
+            ForbiddenException ex, WebRequest request) {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", Instant.now().toString());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("details", request.getDescription(false));
+        errorDetails.put("status", HttpStatus.FORBIDDEN.value());
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(ReadBudgetExceededException.class)
+    public ResponseEntity<?> handleReadBudgetExceededException(
+            ReadBudgetExceededException ex, WebRequest request) {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", Instant.now().toString());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("details", request.getDescription(false));
+        errorDetails.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<?> handleDeadlineExceededException(
+            DeadlineExceededException ex, WebRequest request) {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", Instant.now().toString());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("details", request.getDescription(false));
+        errorDetails.put("status", HttpStatus.GATEWAY_TIMEOUT.value());
+
+        return new ResponseEntity<>(errorDetails, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<?> handleCircuitOpenException(
+            CircuitOpenException ex, WebRequest request) {
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", Instant.now().toString());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("details", request.getDescription(false));
+        errorDetails.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
     @ExceptionHandler(ExecutionException.class)
     public ResponseEntity<?> handleExecutionException(
             ExecutionException ex, WebRequest request) {
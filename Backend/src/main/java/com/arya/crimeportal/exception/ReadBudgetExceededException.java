@@ -0,0 +1,7 @@
+package com.arya.crimeportal.exception;
+
+public class ReadBudgetExceededException extends RuntimeException {
+    public ReadBudgetExceededException(long reads, long budget) {
+        super("Firestore read budget exceeded for this endpoint (" + reads + " reads, budget " + budget + ")");
+    }
+}
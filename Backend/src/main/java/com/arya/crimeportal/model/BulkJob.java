@@ -0,0 +1,81 @@
+package com.arya.crimeportal.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** Progress of a filter-driven bulk update or delete. */
+public class BulkJob {
+    public enum Operation { UPDATE, DELETE }
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    public static final int MAX_RECORDED_ERRORS = 100;
+
+    private final String jobId;
+    private final String collection;
+    private final Operation operation;
+    private final Map<String, Object> filter;
+    private final String requestedBy;
+    private final Instant createdAt;
+    private final long matched; // count when the job was accepted; documents may change while it runs
+    private volatile Status status;
+    private volatile String error;
+    private volatile Instant finishedAt;
+    private long processed;
+    private long failed;
+    private long skipped; // edited while the job ran so that they no longer match the filter
+    private final List<String> errors = new ArrayList<>();
+
+    public BulkJob(String jobId, String collection, Operation operation, Map<String, Object> filter,
+                   String requestedBy, long matched) {
+        this.jobId = jobId;
+        this.collection = collection;
+        this.operation = operation;
+        this.filter = filter;
+        this.requestedBy = requestedBy;
+        this.matched = matched;
+        this.createdAt = Instant.now();
+        this.status = Status.QUEUED;
+    }
+
+    public synchronized void addProcessed() {
+        processed++;
+    }
+
+    public synchronized void addSkipped() {
+        skipped++;
+    }
+
+    public synchronized void addFailure(String docId, String message) {
+        failed++;
+        if (errors.size() < MAX_RECORDED_ERRORS) errors.add(docId + ": " + message);
+    }
+
+    public String getJobId() { return jobId; }
+    public String getCollection() { return collection; }
+    public Operation getOperation() { return operation; }
+    public Map<String, Object> getFilter() { return filter; }
+    public String getRequestedBy() { return requestedBy; }
+    public Instant getCreatedAt() { return createdAt; }
+    public long getMatched() { return matched; }
+
+    public synchronized long getProcessed() { return processed; }
+    public synchronized long getFailed() { return failed; }
+    public synchronized long getSkipped() { return skipped; }
+    public synchronized List<String> getErrors() { return Collections.unmodifiableList(new ArrayList<>(errors)); }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public boolean isDone() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+}
@@ -15,6 +15,9 @@ public class Fir {
     private String officerId; // Assigned investigating officer
     private String officerName;
     private String userId; // User who filed FIR
+    private String station; // Police station handling the FIR
+    private Instant statusChangedAt; // When the current status was entered
+    private Instant closedAt;
     private Instant createdAt;
     private Instant updatedAt;
 
@@ -60,6 +63,15 @@ public class Fir {
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
     
+    public String getStation() { return station; }
+    public void setStation(String station) { this.station = station; }
+    
+    public Instant getStatusChangedAt() { return statusChangedAt; }
+    public void setStatusChangedAt(Instant statusChangedAt) { this.statusChangedAt = statusChangedAt; }
+    
+    public Instant getClosedAt() { return closedAt; }
+    public void setClosedAt(Instant closedAt) { this.closedAt = closedAt; }
+    
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     
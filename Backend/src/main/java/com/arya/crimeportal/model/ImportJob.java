@@ -0,0 +1,114 @@
+package com.arya.crimeportal.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * State of a bulk CSV import. Persisted as JSON next to the uploaded file so an import can be resumed
+ * from {@code checkpointRow} after a failure or restart.
+ */
+public class ImportJob {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    public static final int MAX_RECORDED_ERRORS = 500;
+
+    private String jobId;
+    private String collection;
+    private String requestedBy;
+    private Status status;
+    private long rowsRead;
+    private long rowsWritten;
+    private long rowsFailed;
+    private long checkpointRow; // every data row up to and including this one has been written or rejected
+    private long checkpointWritten; // rowsWritten and rowsFailed as of checkpointRow
+    private long checkpointFailed;
+    private List<RowError> errors = new ArrayList<>();
+    private String error;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    public record RowError(long row, String message) {}
+
+    public ImportJob() {
+    }
+
+    public ImportJob(String jobId, String collection, String requestedBy) {
+        this.jobId = jobId;
+        this.collection = collection;
+        this.requestedBy = requestedBy;
+        this.status = Status.QUEUED;
+        this.createdAt = Instant.now();
+    }
+
+    public synchronized void addError(long row, String message) {
+        rowsFailed++;
+        if (errors.size() < MAX_RECORDED_ERRORS) errors.add(new RowError(row, message));
+    }
+
+    public synchronized void addWritten() {
+        rowsWritten++;
+    }
+
+    /** Moves the checkpoint past a chunk ending at {@code row} with {@code written} rows written and {@code rejected} rejected. */
+    public synchronized void advanceCheckpoint(long row, long written, long rejected) {
+        checkpointRow = row;
+        checkpointWritten += written;
+        checkpointFailed += rejected;
+    }
+
+    /** Forgets progress past the checkpoint before a resume re-reads those rows, so they are not counted twice. */
+    public synchronized void rewindToCheckpoint() {
+        rowsRead = checkpointRow;
+        rowsWritten = checkpointWritten;
+        rowsFailed = checkpointFailed;
+        errors.removeIf(e -> e.row() > checkpointRow);
+    }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getCollection() { return collection; }
+    public void setCollection(String collection) { this.collection = collection; }
+
+    public String getRequestedBy() { return requestedBy; }
+    public void setRequestedBy(String requestedBy) { this.requestedBy = requestedBy; }
+
+    public synchronized Status getStatus() { return status; }
+    public synchronized void setStatus(Status status) { this.status = status; }
+
+    public synchronized long getRowsRead() { return rowsRead; }
+    public synchronized void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+
+    public synchronized long getRowsWritten() { return rowsWritten; }
+    public synchronized void setRowsWritten(long rowsWritten) { this.rowsWritten = rowsWritten; }
+
+    public synchronized long getRowsFailed() { return rowsFailed; }
+    public synchronized void setRowsFailed(long rowsFailed) { this.rowsFailed = rowsFailed; }
+
+    public synchronized long getCheckpointRow() { return checkpointRow; }
+    public synchronized void setCheckpointRow(long checkpointRow) { this.checkpointRow = checkpointRow; }
+
+    public synchronized long getCheckpointWritten() { return checkpointWritten; }
+    public synchronized void setCheckpointWritten(long checkpointWritten) { this.checkpointWritten = checkpointWritten; }
+
+    public synchronized long getCheckpointFailed() { return checkpointFailed; }
+    public synchronized void setCheckpointFailed(long checkpointFailed) { this.checkpointFailed = checkpointFailed; }
+
+    public synchronized List<RowError> getErrors() { return Collections.unmodifiableList(new ArrayList<>(errors)); }
+    public synchronized void setErrors(List<RowError> errors) { this.errors = new ArrayList<>(errors); }
+
+    public synchronized String getError() { return error; }
+    public synchronized void setError(String error) { this.error = error; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public synchronized Instant getStartedAt() { return startedAt; }
+    public synchronized void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public synchronized Instant getFinishedAt() { return finishedAt; }
+    public synchronized void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
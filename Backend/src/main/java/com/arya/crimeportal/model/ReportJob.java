@@ -0,0 +1,63 @@
+package com.arya.crimeportal.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+public class ReportJob {
+    public enum Type { CRIME, FIR, RANGE }
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String jobId;
+    private final Type type;
+    private final String sourceId; // crime or FIR id (CRIME / FIR reports)
+    private final String from; // ISO-8601 range start (RANGE reports)
+    private final String to; // ISO-8601 range end, exclusive (RANGE reports)
+    private final String requestedBy;
+    private final Instant createdAt;
+    private volatile Status status;
+    private volatile boolean cached; // served from the on-disk cache without rendering
+    private volatile String error;
+    private volatile Instant finishedAt;
+    private volatile Path file;
+
+    public ReportJob(String jobId, Type type, String sourceId, String from, String to, String requestedBy) {
+        this.jobId = jobId;
+        this.type = type;
+        this.sourceId = sourceId;
+        this.from = from;
+        this.to = to;
+        this.requestedBy = requestedBy;
+        this.createdAt = Instant.now();
+        this.status = Status.QUEUED;
+    }
+
+    public String getJobId() { return jobId; }
+    public Type getType() { return type; }
+    public String getSourceId() { return sourceId; }
+    public String getFrom() { return from; }
+    public String getTo() { return to; }
+    public String getRequestedBy() { return requestedBy; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    @JsonIgnore
+    public Path getFile() { return file; }
+    public void setFile(Path file) { this.file = file; }
+
+    public boolean isDone() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+}
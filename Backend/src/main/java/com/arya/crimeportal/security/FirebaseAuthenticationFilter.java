@@ -6,6 +6,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,15 +17,32 @@ import java.io.IOException;
 // A simple filter that verifies Firebase ID tokens and stores a lightweight Authentication
 public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
 
+    /** Verifies an ID token; swapped out by benchmarks and local runs that have no Firebase project. */
+    @FunctionalInterface
+    public interface TokenVerifier {
+        FirebaseToken verify(String idToken) throws Exception;
+    }
+
+    private final TokenVerifier verifier;
+
+    public FirebaseAuthenticationFilter() {
+        this(idToken -> FirebaseAuth.getInstance().verifyIdToken(idToken));
+    }
+
+    public FirebaseAuthenticationFilter(TokenVerifier verifier) {
+        this.verifier = verifier;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String idToken = authHeader.substring(7);
             try {
-                FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
+                FirebaseToken decodedToken = verifier.verify(idToken);
                 Authentication auth = new FirebaseAuthenticationToken(decodedToken);
                 SecurityContextHolder.getContext().setAuthentication(auth);
+                MDC.put("uid", decodedToken.getUid()); // cleared by RequestCorrelationFilter
             } catch (Exception ex) {
                 // token invalid -> clear context and continue (endpoints can reject unauthorized)
                 SecurityContextHolder.clearContext();
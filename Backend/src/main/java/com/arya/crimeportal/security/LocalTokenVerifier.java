@@ -0,0 +1,41 @@
+package com.arya.crimeportal.security;
+
+import com.google.firebase.auth.FirebaseToken;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Accepts {@code local:<uid>:<ROLE>[:<name>]} bearer tokens instead of Firebase ID tokens. Installed only
+ * when the in-memory storage backend is active, so load tests and local runs can authenticate as any
+ * role without a Firebase project.
+ */
+public class LocalTokenVerifier implements FirebaseAuthenticationFilter.TokenVerifier {
+
+    private static final Constructor<FirebaseToken> TOKEN;
+
+    static {
+        try {
+            // FirebaseToken has no public constructor; the SDK builds it from the decoded claims
+            TOKEN = FirebaseToken.class.getDeclaredConstructor(Map.class);
+            TOKEN.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Unsupported firebase-admin version", e);
+        }
+    }
+
+    @Override
+    public FirebaseToken verify(String idToken) throws Exception {
+        String[] parts = idToken.split(":", 4);
+        if (parts.length < 3 || !parts[0].equals("local") || parts[1].isBlank() || parts[2].isBlank()) {
+            throw new IllegalArgumentException("Not a local token");
+        }
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", parts[1]);
+        claims.put("role", parts[2].toUpperCase());
+        claims.put("email", parts[1] + "@local");
+        claims.put("name", parts.length == 4 ? parts[3] : parts[1]);
+        return TOKEN.newInstance(claims);
+    }
+}
@@ -0,0 +1,51 @@
+package com.arya.crimeportal.security;
+
+import com.arya.crimeportal.util.RejectionResponses;
+import com.arya.crimeportal.util.SecurityUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admission control for /api: runs after {@link FirebaseAuthenticationFilter}, so the caller's uid and role
+ * are known, and turns away requests over the caller's or their role's rate with 429 and Retry-After
+ * before any Firestore work is done. Health checks are never limited.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter limiter;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter limiter, ObjectMapper objectMapper) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !limiter.isEnabled() || !path.startsWith("/api/") || path.equals("/api/health") || path.equals("/api/ping");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String uid = SecurityUtil.getUid();
+        String role = uid == null ? RateLimiter.ANONYMOUS : SecurityUtil.getRole();
+        String key = uid == null ? request.getRemoteAddr() : uid;
+
+        RateLimiter.Decision decision = limiter.admit(key, role, request.getRequestURI());
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RejectionResponses.write(objectMapper, request, response, HttpStatus.TOO_MANY_REQUESTS,
+                "Too many requests, retry after " + decision.retryAfterSeconds() + "s", decision.retryAfterSeconds());
+    }
+}
@@ -0,0 +1,148 @@
+package com.arya.crimeportal.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request admission by token buckets. Every request costs a number of tokens (by endpoint: a dashboard
+ * scan costs far more than a single-document read) and must fit in two buckets: the caller's own, sized
+ * by their role, and one shared by everyone with that role, which caps the role's total. Unauthenticated
+ * callers are keyed by client address under the ANONYMOUS role.
+ *
+ * Meters: {@code ratelimit.requests} (tagged role and outcome: allowed, rejected_user, rejected_role),
+ * {@code ratelimit.tokens} (tokens granted, tagged role) and {@code ratelimit.buckets} (live per-caller buckets).
+ */
+@Component
+public class RateLimiter {
+
+    public static final String ANONYMOUS = "ANONYMOUS";
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /** Outcome of an admission check; {@code retryAfterNanos} is 0 when the request was admitted. */
+    public record Decision(boolean allowed, long cost, long retryAfterNanos) {
+        public long retryAfterSeconds() {
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<String, TokenBucket.Limit> userLimits;
+    private final Map<String, TokenBucket> roleBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Long> costs;
+    private final long defaultCost;
+    private final ConcurrentMap<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final MeterRegistry registry;
+
+    public RateLimiter(MeterRegistry registry,
+                       @Value("${ratelimit.enabled:true}") boolean enabled,
+                       @Value("${ratelimit.user:}") String userSpec,
+                       @Value("${ratelimit.role:}") String roleSpec,
+                       @Value("${ratelimit.costs:}") String costSpec,
+                       @Value("${ratelimit.default-cost:1}") long defaultCost) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.userLimits = parseLimits(userSpec);
+        long now = System.nanoTime();
+        parseLimits(roleSpec).forEach((role, limit) -> roleBuckets.put(role, new TokenBucket(limit, now)));
+        this.costs = parseCosts(costSpec);
+        this.defaultCost = defaultCost;
+        registry.gaugeMapSize("ratelimit.buckets", Tags.empty(), userBuckets);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Token cost of a request to {@code path}: the first matching pattern in {@code ratelimit.costs}. */
+    public long costOf(String path) {
+        for (Map.Entry<String, Long> e : costs.entrySet()) {
+            if (matcher.match(e.getKey(), path)) return e.getValue();
+        }
+        return defaultCost;
+    }
+
+    /**
+     * Charges {@code path}'s cost to the caller's bucket and their role's bucket. Roles without a
+     * configured per-caller limit use USER's; roles without a shared limit have no shared cap.
+     */
+    public Decision admit(String callerKey, String role, String path) {
+        String normalizedRole = role == null ? "USER" : role.toUpperCase(Locale.ROOT);
+        long cost = costOf(path);
+        long now = System.nanoTime();
+        maybeSweep(now);
+
+        TokenBucket.Limit limit = userLimits.getOrDefault(normalizedRole, userLimits.get("USER"));
+        TokenBucket user = limit == null ? null : userBuckets.computeIfAbsent(normalizedRole + ":" + callerKey, k -> new TokenBucket(limit, now));
+        if (user != null) {
+            long wait = user.tryAcquire(cost, now);
+            if (wait > 0) return reject(normalizedRole, "rejected_user", cost, wait);
+        }
+        TokenBucket shared = roleBuckets.get(normalizedRole);
+        if (shared != null) {
+            long wait = shared.tryAcquire(cost, now);
+            if (wait > 0) {
+                if (user != null) user.refund(cost, now);
+                return reject(normalizedRole, "rejected_role", cost, wait);
+            }
+        }
+        counter(normalizedRole, "allowed").increment();
+        Counter.builder("ratelimit.tokens").tag("role", normalizedRole).register(registry).increment(cost);
+        return new Decision(true, cost, 0);
+    }
+
+    private Decision reject(String role, String outcome, long cost, long wait) {
+        counter(role, outcome).increment();
+        return new Decision(false, cost, wait);
+    }
+
+    // Full buckets are indistinguishable from new ones, so dropping them only frees memory
+    private void maybeSweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) return;
+        userBuckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    private Counter counter(String role, String outcome) {
+        return Counter.builder("ratelimit.requests").tag("role", role).tag("outcome", outcome).register(registry);
+    }
+
+    // "<ROLE>=<tokens per second>:<burst>,..."
+    private static Map<String, TokenBucket.Limit> parseLimits(String spec) {
+        Map<String, TokenBucket.Limit> limits = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            int eq = entry.indexOf('=');
+            if (eq < 0) continue;
+            String[] parts = entry.substring(eq + 1).trim().split(":");
+            double rate = Double.parseDouble(parts[0]);
+            long burst = parts.length > 1 ? Long.parseLong(parts[1]) : Math.max(1, (long) Math.ceil(rate));
+            if (rate <= 0) continue;
+            limits.put(entry.substring(0, eq).trim().toUpperCase(Locale.ROOT), new TokenBucket.Limit(rate, burst));
+        }
+        return limits;
+    }
+
+    // "<ant-pattern>=<cost>,...", first match wins
+    private static Map<String, Long> parseCosts(String spec) {
+        Map<String, Long> costs = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            int eq = entry.lastIndexOf('=');
+            if (eq < 0) continue;
+            costs.put(entry.substring(0, eq).trim(), Long.parseLong(entry.substring(eq + 1).trim()));
+        }
+        return costs;
+    }
+}
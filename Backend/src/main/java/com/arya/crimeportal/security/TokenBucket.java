@@ -0,0 +1,61 @@
+package com.arya.crimeportal.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical arrival time" (TAT), the
+ * instant at which the bucket would be full again, updated with a single compare-and-set. A bucket whose
+ * TAT is in the past is full, so idle buckets carry no state worth keeping and can be dropped.
+ */
+final class TokenBucket {
+
+    /** Refill rate and capacity; {@code nanosPerToken} is the time it takes to regain one token. */
+    record Limit(double ratePerSecond, long burst) {
+        long nanosPerToken() {
+            return (long) (1_000_000_000L / ratePerSecond);
+        }
+    }
+
+    private final Limit limit;
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong tat;
+
+    TokenBucket(Limit limit, long now) {
+        this.limit = limit;
+        this.nanosPerToken = limit.nanosPerToken();
+        this.capacityNanos = nanosPerToken * limit.burst();
+        this.tat = new AtomicLong(now);
+    }
+
+    Limit limit() {
+        return limit;
+    }
+
+    /** Takes {@code cost} tokens. Returns 0 on success, otherwise the nanoseconds until they would be available. */
+    long tryAcquire(long cost, long now) {
+        long increment = nanosPerToken * cost;
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + increment;
+            long excess = next - now - capacityNanos;
+            if (excess > 0) return excess;
+            if (tat.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    /** Gives back tokens taken by {@link #tryAcquire} when a later check rejected the request. */
+    void refund(long cost, long now) {
+        long increment = nanosPerToken * cost;
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(now, current - increment);
+            if (tat.compareAndSet(current, next)) return;
+        }
+    }
+
+    /** True when the bucket is full, i.e. it would behave the same if recreated from scratch. */
+    boolean isIdle(long now) {
+        return tat.get() <= now;
+    }
+}
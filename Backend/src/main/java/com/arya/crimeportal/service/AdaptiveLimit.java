@@ -0,0 +1,84 @@
+package com.arya.crimeportal.service;
+
+/**
+ * Concurrency limit that follows observed Firestore round-trip times, in the style of TCP Vegas: the
+ * ratio between the lowest recent RTT and the current RTT estimates how many of the in-flight requests
+ * are queued somewhere instead of being served. A small estimated queue lets the limit grow, a large
+ * one shrinks it additively, and failed or timed-out calls shrink it multiplicatively (AIMD).
+ *
+ * Samples are averaged over windows of {@value #WINDOW_SAMPLES} calls, which smooths out the jitter of
+ * individual RPCs. The no-load RTT is re-measured every {@value #PROBE_WINDOWS} windows so that a lasting
+ * change in backend latency is not mistaken for queueing forever.
+ */
+final class AdaptiveLimit {
+
+    static final int WINDOW_SAMPLES = 16;
+    static final int PROBE_WINDOWS = 100;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimate;
+    private long noLoadRttNanos;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInflight;
+    private boolean windowDropped;
+    private int windowsSinceProbe;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimate;
+    }
+
+    int get() {
+        return limit;
+    }
+
+    /**
+     * Records one call that took {@code rttNanos} while {@code inflight} requests held permits;
+     * {@code dropped} marks calls that failed because the backend was overloaded or too slow.
+     */
+    synchronized void onSample(long rttNanos, int inflight, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflight);
+        windowDropped |= dropped;
+        if (windowSamples < WINDOW_SAMPLES) return;
+
+        long rtt = windowRttSum / windowSamples;
+        boolean anyDropped = windowDropped;
+        int maxInflight = windowMaxInflight;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInflight = 0;
+        windowDropped = false;
+
+        if (++windowsSinceProbe >= PROBE_WINDOWS || noLoadRttNanos == 0) {
+            windowsSinceProbe = 0;
+            noLoadRttNanos = rtt;
+        } else if (rtt < noLoadRttNanos) {
+            noLoadRttNanos = rtt;
+        }
+
+        if (anyDropped) {
+            estimate = estimate * BACKOFF_RATIO;
+        } else {
+            double queued = estimate * (1 - (double) noLoadRttNanos / Math.max(rtt, 1));
+            double log = Math.max(1, Math.log10(estimate));
+            if (queued >= 6 * log) {
+                estimate -= log;
+            } else if (queued <= 3 * log && maxInflight * 2 >= estimate) {
+                // Only grow while the limit is actually in use, or it drifts up to the maximum when idle
+                estimate += log;
+            }
+        }
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate));
+        limit = (int) estimate;
+    }
+}
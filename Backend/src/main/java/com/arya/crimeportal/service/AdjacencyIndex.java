@@ -0,0 +1,655 @@
+package com.arya.crimeportal.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Undirected graph over {@code collection/id} keys, each node carrying the document's status.
+ *
+ * Nodes are numbered densely (numbers of removed nodes are reused) and each keeps a growable int array of
+ * neighbours, so a traversal is a walk over arrays that allocates nothing per visited node. Visit marks and
+ * queues live in scratch arrays borrowed from a pool for the duration of one traversal and reset by bumping
+ * an epoch, so there is one set per concurrent traversal rather than per thread. Queries share a read lock;
+ * mutations take the write lock.
+ *
+ * Connected components are also tracked as a union-find with per-root sizes and counts per collection,
+ * merged as edges are added. Removing an edge or node cannot be undone in a union-find, so it marks the labels
+ * stale and the next component query relabels the whole graph once; after that component sizes cost
+ * nothing until the next removal.
+ */
+public final class AdjacencyIndex {
+
+    private static final int MAGIC = 0x43504731; // "CPG1"
+    private static final int[] NO_EDGES = new int[0];
+
+    public record Node(String collection, String id, String status, int hops) {}
+
+    public record Neighborhood(List<Node> nodes, int visited, boolean truncated) {}
+
+    public record Component(int size, Map<String, Integer> byCollection, List<Node> nodes, boolean truncated) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentLinkedDeque<Scratch> scratchPool = new ConcurrentLinkedDeque<>();
+
+    // Guarded by lock
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> collections = new ArrayList<>();
+    private String[] keys = new String[1024];
+    private byte[] collectionOf = new byte[1024];
+    private String[] statuses = new String[1024];
+    private int[][] adjacency = new int[1024][];
+    private int[] degree = new int[1024];
+    private int highWater;
+    private int[] free = new int[64];
+    private int freeCount;
+    private long edges;
+    private long version;
+
+    // Component labels; written under the write lock, or under labelsLock while holding the read lock
+    private final Object labelsLock = new Object();
+    private boolean labelsValid;
+    private int[] labelParent = NO_EDGES;
+    private int[] labelSize = NO_EDGES;
+    private int[][] labelCounts = new int[0][]; // [collection][root]
+
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long edgeCount() {
+        lock.readLock().lock();
+        try {
+            return edges;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Incremented by every mutation; lets callers tell whether anything changed since they last looked. */
+    public long version() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String key) {
+        lock.readLock().lock();
+        try {
+            return ids.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Adds the node if needed and sets its status. */
+    public void setStatus(String key, String status) {
+        lock.writeLock().lock();
+        try {
+            int n = node(key); // may grow the arrays, so look them up afterwards
+            statuses[n] = status == null ? null : status.intern();
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Links {@code key} to each of {@code targets}, adding missing nodes. With {@code replace}, edges from
+     * {@code key} to nodes not in {@code targets} are removed first.
+     */
+    public void link(String key, Collection<String> targets, boolean replace) {
+        lock.writeLock().lock();
+        try {
+            int from = node(key);
+            int[] wanted = new int[targets.size()];
+            int n = 0;
+            for (String target : targets) {
+                if (!target.equals(key)) wanted[n++] = node(target);
+            }
+            if (replace) {
+                int[] current = adjacency[from];
+                for (int i = degree[from] - 1; i >= 0; i--) {
+                    int other = current[i];
+                    if (!containsInt(wanted, n, other)) {
+                        removeEntry(from, other);
+                        removeEntry(other, from);
+                        edges--;
+                        labelsValid = false;
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                int to = wanted[i];
+                if (indexOf(from, to) < 0) {
+                    addEntry(from, to);
+                    addEntry(to, from);
+                    edges++;
+                    if (labelsValid) union(from, to);
+                }
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes the node and its edges; a no-op for unknown keys. */
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            Integer boxed = ids.remove(key);
+            if (boxed == null) return;
+            int node = boxed;
+            for (int i = 0; i < degree[node]; i++) {
+                removeEntry(adjacency[node][i], node);
+            }
+            edges -= degree[node];
+            keys[node] = null;
+            statuses[node] = null;
+            adjacency[node] = NO_EDGES;
+            degree[node] = 0;
+            if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+            free[freeCount++] = node;
+            labelsValid = false;
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nodes within {@code hops} edges of {@code key}, nearest first, excluding the start node. Only nodes of
+     * {@code collection} (when not null) whose status is in {@code includedStatuses} (when not empty) and not
+     * in {@code excludedStatuses} are returned, at most {@code limit} of them; the walk still passes through
+     * the others. Null when the key is unknown.
+     */
+    public Neighborhood neighbors(String key, int hops, String collection, Set<String> includedStatuses,
+                                  Set<String> excludedStatuses, int limit) {
+        lock.readLock().lock();
+        Scratch s = borrow();
+        try {
+            Integer start = ids.get(key);
+            if (start == null) return null;
+            int wantedCollection = collection == null ? -1 : collections.indexOf(collection);
+            if (collection != null && wantedCollection < 0) return new Neighborhood(List.of(), 0, false);
+            int stamp = s.next();
+            int[] queue = s.queueA;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            s.markA[start] = stamp;
+            List<Node> out = new ArrayList<>();
+            boolean truncated = false;
+            for (int depth = 0; depth < hops && head < tail && !truncated; depth++) {
+                int levelEnd = tail;
+                while (head < levelEnd) {
+                    int n = queue[head++];
+                    int[] adj = adjacency[n];
+                    for (int i = 0, d = degree[n]; i < d; i++) {
+                        int m = adj[i];
+                        if (s.markA[m] == stamp) continue;
+                        s.markA[m] = stamp;
+                        queue[tail++] = m;
+                        if (!matches(m, wantedCollection, includedStatuses, excludedStatuses)) continue;
+                        if (out.size() >= limit) {
+                            truncated = true;
+                            break;
+                        }
+                        out.add(toNode(m, depth + 1));
+                    }
+                    if (truncated) break;
+                }
+            }
+            return new Neighborhood(out, tail - 1, truncated);
+        } finally {
+            release(s);
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A shortest path from {@code from} to {@code to} of at most {@code maxHops} edges, both ends included;
+     * empty when there is none, null when either key is unknown. Searches from both ends, expanding the
+     * smaller frontier a level at a time.
+     */
+    public List<Node> shortestPath(String from, String to, int maxHops) {
+        lock.readLock().lock();
+        Scratch s = borrow();
+        try {
+            Integer a = ids.get(from);
+            Integer b = ids.get(to);
+            if (a == null || b == null) return null;
+            if (a.intValue() == b.intValue()) return List.of(toNode(a, 0));
+            int stamp = s.next();
+            int[] qa = s.queueA;
+            int[] qb = s.queueB;
+            int headA = 0, tailA = 0, headB = 0, tailB = 0;
+            qa[tailA++] = a;
+            qb[tailB++] = b;
+            s.markA[a] = stamp;
+            s.markB[b] = stamp;
+            s.distA[a] = 0;
+            s.distB[b] = 0;
+            s.parentA[a] = -1;
+            s.parentB[b] = -1;
+            int depthA = 0;
+            int depthB = 0;
+            while (headA < tailA && headB < tailB && depthA + depthB < maxHops) {
+                boolean expandA = tailA - headA <= tailB - headB;
+                int[] queue = expandA ? qa : qb;
+                int[] mark = expandA ? s.markA : s.markB;
+                int[] otherMark = expandA ? s.markB : s.markA;
+                int[] dist = expandA ? s.distA : s.distB;
+                int[] otherDist = expandA ? s.distB : s.distA;
+                int[] parent = expandA ? s.parentA : s.parentB;
+                int head = expandA ? headA : headB;
+                int tail = expandA ? tailA : tailB;
+                int levelEnd = tail;
+                int bestMeet = -1;
+                int bestVia = -1;
+                int bestLength = Integer.MAX_VALUE;
+                while (head < levelEnd) {
+                    int n = queue[head++];
+                    int[] adj = adjacency[n];
+                    for (int i = 0, d = degree[n]; i < d; i++) {
+                        int m = adj[i];
+                        if (otherMark[m] == stamp) {
+                            int length = dist[n] + 1 + otherDist[m];
+                            if (length < bestLength) {
+                                bestLength = length;
+                                bestMeet = m;
+                                bestVia = n;
+                            }
+                        }
+                        if (mark[m] == stamp) continue;
+                        mark[m] = stamp;
+                        dist[m] = dist[n] + 1;
+                        parent[m] = n;
+                        queue[tail++] = m;
+                    }
+                }
+                if (bestMeet >= 0) {
+                    if (bestLength > maxHops) return List.of();
+                    return expandA ? joinPath(s, bestVia, bestMeet) : joinPath(s, bestMeet, bestVia);
+                }
+                if (expandA) {
+                    headA = head;
+                    tailA = tail;
+                    depthA++;
+                } else {
+                    headB = head;
+                    tailB = tail;
+                    depthB++;
+                }
+            }
+            return List.of();
+        } finally {
+            release(s);
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The connected component containing {@code key}: its size, node counts per collection, and up to
+     * {@code limit} of its nodes (nearest first). Null when the key is unknown.
+     */
+    public Component component(String key, int limit) {
+        lock.readLock().lock();
+        Scratch s = borrow();
+        try {
+            Integer start = ids.get(key);
+            if (start == null) return null;
+            int size;
+            Map<String, Integer> byCollection = new TreeMap<>();
+            synchronized (labelsLock) {
+                if (!labelsValid) relabel();
+                int root = find(start);
+                size = labelSize[root];
+                for (int c = 0; c < labelCounts.length; c++) {
+                    if (labelCounts[c][root] > 0) byCollection.put(collections.get(c), labelCounts[c][root]);
+                }
+            }
+            int stamp = s.next();
+            int[] queue = s.queueA;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            s.markA[start] = stamp;
+            List<Node> out = new ArrayList<>();
+            for (int depth = 0; head < tail && out.size() < limit; depth++) {
+                int levelEnd = tail;
+                while (head < levelEnd && out.size() < limit) {
+                    int n = queue[head++];
+                    out.add(toNode(n, depth));
+                    int[] adj = adjacency[n];
+                    for (int i = 0, d = degree[n]; i < d && tail < limit; i++) {
+                        int m = adj[i];
+                        if (s.markA[m] == stamp) continue;
+                        s.markA[m] = stamp;
+                        queue[tail++] = m;
+                    }
+                }
+            }
+            return new Component(size, byCollection, out, size > out.size());
+        } finally {
+            release(s);
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the graph: a header with {@code savedAt}, then every node's key and status, then each node's
+     * neighbours with a higher position, so every edge appears once.
+     */
+    public void writeTo(DataOutput out, long savedAt) throws IOException {
+        lock.readLock().lock();
+        try {
+            int[] position = new int[highWater];
+            int count = 0;
+            for (int n = 0; n < highWater; n++) {
+                if (keys[n] != null) position[n] = count++;
+            }
+            out.writeInt(MAGIC);
+            out.writeLong(savedAt);
+            out.writeInt(count);
+            for (int n = 0; n < highWater; n++) {
+                if (keys[n] == null) continue;
+                out.writeUTF(keys[n]);
+                out.writeUTF(statuses[n] == null ? "" : statuses[n]);
+            }
+            for (int n = 0; n < highWater; n++) {
+                if (keys[n] == null) continue;
+                int later = 0;
+                for (int i = 0; i < degree[n]; i++) {
+                    if (position[adjacency[n][i]] > position[n]) later++;
+                }
+                out.writeInt(later);
+                for (int i = 0; i < degree[n]; i++) {
+                    int p = position[adjacency[n][i]];
+                    if (p > position[n]) out.writeInt(p);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Replaces the contents with a graph written by {@link #writeTo} and returns its {@code savedAt}. */
+    public long readFrom(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not an association graph snapshot");
+        long savedAt = in.readLong();
+        int count = in.readInt();
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+            ensureCapacity(count);
+            for (int n = 0; n < count; n++) {
+                String key = in.readUTF();
+                String status = in.readUTF();
+                keys[n] = key;
+                collectionOf[n] = collectionNumber(key);
+                statuses[n] = status.isEmpty() ? null : status.intern();
+                adjacency[n] = NO_EDGES;
+                ids.put(key, n);
+            }
+            highWater = count;
+            for (int n = 0; n < count; n++) {
+                int later = in.readInt();
+                for (int i = 0; i < later; i++) {
+                    int m = in.readInt();
+                    if (m <= n || m >= count) throw new IOException("Corrupt association graph snapshot");
+                    addEntry(n, m);
+                    addEntry(m, n);
+                }
+                edges += later;
+            }
+            version++;
+            return savedAt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearLocked() {
+        ids.clear();
+        collections.clear();
+        keys = new String[1024];
+        collectionOf = new byte[1024];
+        statuses = new String[1024];
+        adjacency = new int[1024][];
+        degree = new int[1024];
+        highWater = 0;
+        freeCount = 0;
+        edges = 0;
+        labelsValid = false;
+        scratchPool.clear();
+    }
+
+    private void relabel() {
+        int capacity = keys.length;
+        labelParent = new int[capacity];
+        labelSize = new int[capacity];
+        labelCounts = new int[collections.size()][capacity];
+        for (int n = 0; n < highWater; n++) {
+            if (keys[n] == null) continue;
+            labelParent[n] = n;
+            labelSize[n] = 1;
+            labelCounts[collectionOf[n]][n] = 1;
+        }
+        labelsValid = true;
+        for (int n = 0; n < highWater; n++) {
+            int[] adj = adjacency[n];
+            for (int i = 0, d = degree[n]; i < d; i++) {
+                if (adj[i] > n) union(n, adj[i]);
+            }
+        }
+    }
+
+    private int find(int n) {
+        while (labelParent[n] != n) {
+            labelParent[n] = labelParent[labelParent[n]];
+            n = labelParent[n];
+        }
+        return n;
+    }
+
+    private void union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) return;
+        if (labelSize[ra] < labelSize[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        labelParent[rb] = ra;
+        labelSize[ra] += labelSize[rb];
+        for (int[] counts : labelCounts) counts[ra] += counts[rb];
+    }
+
+    // A new node starts as its own component; a node of a collection not seen before drops the labels instead
+    private void label(int n) {
+        if (!labelsValid) return;
+        if (n >= labelParent.length || collectionOf[n] >= labelCounts.length) {
+            labelsValid = false;
+            return;
+        }
+        labelParent[n] = n;
+        labelSize[n] = 1;
+        for (int[] counts : labelCounts) counts[n] = 0;
+        labelCounts[collectionOf[n]][n] = 1;
+    }
+
+    private int node(String key) {
+        Integer existing = ids.get(key);
+        if (existing != null) return existing;
+        int n = freeCount > 0 ? free[--freeCount] : highWater++;
+        ensureCapacity(n + 1);
+        keys[n] = key;
+        collectionOf[n] = collectionNumber(key);
+        adjacency[n] = NO_EDGES;
+        degree[n] = 0;
+        ids.put(key, n);
+        label(n);
+        return n;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= keys.length) return;
+        int capacity = Math.max(size, keys.length * 2);
+        keys = Arrays.copyOf(keys, capacity);
+        collectionOf = Arrays.copyOf(collectionOf, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        adjacency = Arrays.copyOf(adjacency, capacity);
+        degree = Arrays.copyOf(degree, capacity);
+        if (labelsValid) {
+            labelParent = Arrays.copyOf(labelParent, capacity);
+            labelSize = Arrays.copyOf(labelSize, capacity);
+            for (int c = 0; c < labelCounts.length; c++) labelCounts[c] = Arrays.copyOf(labelCounts[c], capacity);
+        }
+    }
+
+    private void addEntry(int node, int other) {
+        int[] adj = adjacency[node];
+        if (degree[node] == adj.length) {
+            adj = Arrays.copyOf(adj, Math.max(4, adj.length * 2));
+            adjacency[node] = adj;
+        }
+        adj[degree[node]++] = other;
+    }
+
+    private void removeEntry(int node, int other) {
+        int i = indexOf(node, other);
+        if (i < 0) return;
+        int[] adj = adjacency[node];
+        adj[i] = adj[--degree[node]];
+    }
+
+    private int indexOf(int node, int other) {
+        int[] adj = adjacency[node];
+        for (int i = 0, d = degree[node]; i < d; i++) {
+            if (adj[i] == other) return i;
+        }
+        return -1;
+    }
+
+    private static boolean containsInt(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private byte collectionNumber(String key) {
+        int slash = key.indexOf('/');
+        if (slash <= 0) throw new IllegalArgumentException("Graph keys are collection/id: " + key);
+        String collection = key.substring(0, slash);
+        int number = collections.indexOf(collection);
+        if (number < 0) {
+            if (collections.size() == Byte.MAX_VALUE) throw new IllegalStateException("Too many collections in the graph");
+            number = collections.size();
+            collections.add(collection);
+        }
+        return (byte) number;
+    }
+
+    private boolean matches(int n, int collection, Set<String> included, Set<String> excluded) {
+        if (collection >= 0 && collectionOf[n] != collection) return false;
+        String status = statuses[n];
+        if (!included.isEmpty() && (status == null || !included.contains(status))) return false;
+        return status == null || !excluded.contains(status);
+    }
+
+    private Node toNode(int n, int hops) {
+        String collection = collections.get(collectionOf[n]);
+        return new Node(collection, keys[n].substring(collection.length() + 1), statuses[n], hops);
+    }
+
+    // viaA was reached from the start side, viaB from the target side, and they are adjacent
+    private List<Node> joinPath(Scratch s, int viaA, int viaB) {
+        List<Integer> path = new ArrayList<>();
+        for (int n = viaA; n >= 0; n = s.parentA[n]) path.add(n);
+        Collections.reverse(path);
+        for (int n = viaB; n >= 0; n = s.parentB[n]) path.add(n);
+        List<Node> nodes = new ArrayList<>(path.size());
+        for (int i = 0; i < path.size(); i++) nodes.add(toNode(path.get(i), i));
+        return nodes;
+    }
+
+    // Called with the read lock held, so highWater cannot change while the scratch is in use
+    private Scratch borrow() {
+        Scratch s = scratchPool.pollFirst();
+        if (s == null) s = new Scratch();
+        s.ensure(highWater);
+        return s;
+    }
+
+    private void release(Scratch s) {
+        scratchPool.offerFirst(s);
+    }
+
+    private static final class Scratch {
+        int[] markA = NO_EDGES;
+        int[] markB = NO_EDGES;
+        int[] distA = NO_EDGES;
+        int[] distB = NO_EDGES;
+        int[] parentA = NO_EDGES;
+        int[] parentB = NO_EDGES;
+        int[] queueA = NO_EDGES;
+        int[] queueB = NO_EDGES;
+        int stamp;
+
+        void ensure(int size) {
+            if (markA.length >= size) return;
+            int capacity = Math.max(size, markA.length * 2);
+            markA = new int[capacity];
+            markB = new int[capacity];
+            distA = new int[capacity];
+            distB = new int[capacity];
+            parentA = new int[capacity];
+            parentB = new int[capacity];
+            queueA = new int[capacity];
+            queueB = new int[capacity];
+            stamp = 0;
+        }
+
+        int next() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(markA, 0);
+                Arrays.fill(markB, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.arya.crimeportal.service;
+
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.firebase.cloud.FirestoreClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps an {@link AdjacencyIndex} of criminals, crimes and FIRs: a criminal is linked to the crimes in its
+ * {@code crimeId} and {@code crimeIds}, a FIR to its {@code crimeId}. Traversals run against memory only.
+ *
+ * Writes made through this instance arrive as {@link DocumentWrittenEvent}s. A criminal update carrying
+ * {@code crimeIds} replaces its links; one carrying only {@code crimeId} adds that link. The index is saved
+ * to {@code graph.snapshot-path} every {@code graph.snapshot-interval-seconds} when it has changed, and on
+ * shutdown. At startup it is read back and caught up with documents whose {@code updatedAt} is later than
+ * the snapshot (less a margin for clock skew); without a usable snapshot it is built by paging through the
+ * three collections, reading only the link and status fields. Writes made by other instances, and deletes
+ * made while this one was down, are only picked up by {@link #rebuild}. Meters: {@code graph.nodes} and
+ * {@code graph.edges}.
+ */
+@Service
+@DependsOn("firebaseConfig")
+public class AssociationGraph {
+
+    private static final Logger log = LoggerFactory.getLogger(AssociationGraph.class);
+    private static final int PAGE_SIZE = 1000;
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(5);
+    private static final Duration LOAD_RETRY = Duration.ofSeconds(30);
+    private static final Map<String, String[]> FIELDS = Map.of(
+            CollectionQueries.CRIMINALS, new String[]{"status", "crimeId", "crimeIds"},
+            CollectionQueries.CRIMES, new String[]{"status"},
+            CollectionQueries.FIRS, new String[]{"status", "crimeId"});
+
+    private final FirestoreService firestoreService;
+    private final boolean enabled;
+    private final Path snapshotPath;
+    private final long snapshotIntervalSeconds;
+
+    private volatile AdjacencyIndex index;
+    private volatile Instant loadedAt;
+    private volatile String lastError;
+    private final Object saveLock = new Object();
+    private long savedVersion = -1; // guarded by saveLock
+
+    // Guarded by this: a load or rebuild in progress, and the writes it has to replay once done
+    private AdjacencyIndex building;
+    private final List<DocumentWrittenEvent> pending = new ArrayList<>();
+
+    private ScheduledExecutorService worker;
+
+    public AssociationGraph(FirestoreService firestoreService, MeterRegistry registry,
+                            @Value("${graph.enabled:true}") boolean enabled,
+                            @Value("${graph.snapshot-path:${java.io.tmpdir}/crimeportal-graph.bin}") String snapshotPath,
+                            @Value("${graph.snapshot-interval-seconds:300}") long snapshotIntervalSeconds) {
+        this.firestoreService = firestoreService;
+        this.enabled = enabled;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+        registry.gauge("graph.nodes", this, g -> g.index == null ? 0 : g.index.nodeCount());
+        registry.gauge("graph.edges", this, g -> g.index == null ? 0 : g.index.edgeCount());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "association-graph");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.execute(() -> load(true));
+        worker.scheduleWithFixedDelay(this::saveIfChanged, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (worker == null) return;
+        worker.shutdownNow();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+        saveIfChanged();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** The index to query, or null while the first load is still running (or has failed). */
+    public AdjacencyIndex index() {
+        return index;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public synchronized boolean isRebuilding() {
+        return building != null;
+    }
+
+    public String lastError() {
+        return lastError;
+    }
+
+    /**
+     * Rebuilds the index from Firestore in the background, ignoring the snapshot. The current index keeps
+     * serving until the new one is complete. Returns false when a load is already running.
+     */
+    public synchronized boolean rebuild() {
+        if (!enabled || building != null) return false;
+        building = new AdjacencyIndex();
+        pending.clear();
+        worker.execute(() -> load(false));
+        return true;
+    }
+
+    @EventListener
+    public void onWrite(DocumentWrittenEvent event) {
+        if (!enabled || !FIELDS.containsKey(event.collection())) return;
+        synchronized (this) {
+            try {
+                if (index != null) apply(index, event);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply {} of {}/{} to the association graph: {}",
+                        event.kind(), event.collection(), event.id(), e.getMessage());
+            }
+            if (building != null) pending.add(event);
+        }
+    }
+
+    private void load(boolean fromSnapshot) {
+        long started = System.nanoTime();
+        AdjacencyIndex fresh;
+        synchronized (this) {
+            if (building == null) {
+                building = new AdjacencyIndex();
+                pending.clear();
+            }
+            fresh = building;
+        }
+        try {
+            Instant savedAt = fromSnapshot ? readSnapshot(fresh) : null;
+            long read = savedAt == null ? scan(fresh, null) : scan(fresh, savedAt.minus(CATCH_UP_MARGIN));
+            synchronized (this) {
+                for (DocumentWrittenEvent event : pending) apply(fresh, event);
+                pending.clear();
+                building = null;
+                index = fresh;
+            }
+            loadedAt = Instant.now();
+            lastError = null;
+            log.info("Association graph ready in {} ms: {} nodes, {} edges ({}, {} documents read)",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), fresh.nodeCount(), fresh.edgeCount(),
+                    savedAt == null ? "full scan" : "snapshot from " + savedAt, read);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            lastError = e.getMessage();
+            synchronized (this) {
+                building = null;
+                pending.clear();
+            }
+            log.warn("Association graph load failed: {}", e.getMessage());
+            if (index == null && !worker.isShutdown()) {
+                worker.schedule(() -> load(fromSnapshot), LOAD_RETRY.toSeconds(), TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private Instant readSnapshot(AdjacencyIndex target) {
+        if (!Files.exists(snapshotPath)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16))) {
+            return Instant.ofEpochMilli(target.readFrom(in));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable association graph snapshot {}: {}", snapshotPath, e.getMessage());
+            target.clear();
+            return null;
+        }
+    }
+
+    // Pages through each collection (only documents updated after `since`, when given) and returns the number read
+    private long scan(AdjacencyIndex target, Instant since) throws Exception {
+        Firestore db = FirestoreClient.getFirestore();
+        long read = 0;
+        for (Map.Entry<String, String[]> entry : FIELDS.entrySet()) {
+            String collection = entry.getKey();
+            Query base = since == null
+                    ? db.collection(collection).select(entry.getValue())
+                    : db.collection(collection).whereGreaterThan("updatedAt", since.toString()).orderBy("updatedAt").select(entry.getValue());
+            QueryDocumentSnapshot last = null;
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+                Query page = last == null ? base.limit(PAGE_SIZE) : base.startAfter(last).limit(PAGE_SIZE);
+                List<QueryDocumentSnapshot> docs = firestoreService.queryCollection(collection, page);
+                for (QueryDocumentSnapshot doc : docs) {
+                    Map<String, Object> data = doc.getData();
+                    apply(target, new DocumentWrittenEvent(collection, doc.getId(), DocumentWrittenEvent.Kind.SET, data, null));
+                }
+                read += docs.size();
+                if (docs.size() < PAGE_SIZE) break;
+                last = docs.get(docs.size() - 1);
+            }
+        }
+        return read;
+    }
+
+    private static void apply(AdjacencyIndex target, DocumentWrittenEvent event) {
+        String key = event.collection() + "/" + event.id();
+        if (event.kind() == DocumentWrittenEvent.Kind.DELETE) {
+            target.remove(key);
+            return;
+        }
+        Map<String, Object> fields = event.fields();
+        boolean whole = event.kind() == DocumentWrittenEvent.Kind.SET;
+        if (whole || fields.containsKey("status")) {
+            Object status = fields.get("status");
+            target.setStatus(key, status == null ? null : status.toString());
+        }
+        boolean hasCrimeId = fields.containsKey("crimeId");
+        boolean hasCrimeIds = fields.containsKey("crimeIds");
+        switch (event.collection()) {
+            case CollectionQueries.CRIMINALS -> {
+                if (whole || hasCrimeIds) {
+                    target.link(key, crimeKeys(fields.get("crimeId"), fields.get("crimeIds")), true);
+                } else if (hasCrimeId) {
+                    target.link(key, crimeKeys(fields.get("crimeId"), null), false);
+                }
+            }
+            case CollectionQueries.FIRS -> {
+                if (whole || hasCrimeId) target.link(key, crimeKeys(fields.get("crimeId"), null), true);
+            }
+            default -> { }
+        }
+    }
+
+    private static Collection<String> crimeKeys(Object crimeId, Object crimeIds) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (crimeId instanceof String id && !id.isBlank()) keys.add(CollectionQueries.CRIMES + "/" + id);
+        if (crimeIds instanceof Collection<?> ids) {
+            for (Object id : ids) {
+                if (id instanceof String s && !s.isBlank()) keys.add(CollectionQueries.CRIMES + "/" + s);
+            }
+        }
+        return keys;
+    }
+
+    // Writers wait while the snapshot is written (it holds the index's read lock), so it is kept to a
+    // sequential binary dump: a few hundred milliseconds for a million edges
+    private void saveIfChanged() {
+        synchronized (saveLock) {
+            AdjacencyIndex current = index;
+            if (current == null || current.version() == savedVersion) return;
+            long version = current.version();
+            long savedAt = System.currentTimeMillis();
+            Path dir = snapshotPath.toAbsolutePath().getParent();
+            Path tmp = null;
+            try {
+                Files.createDirectories(dir);
+                tmp = Files.createTempFile(dir, "graph-", ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                    current.writeTo(out, savedAt);
+                }
+                Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                savedVersion = version;
+                log.debug("Saved association graph snapshot ({} nodes, {} edges)", current.nodeCount(), current.edgeCount());
+            } catch (IOException e) {
+                log.warn("Could not save association graph snapshot {}: {}", snapshotPath, e.getMessage());
+                try {
+                    if (tmp != null) Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // left for the next save to overwrite the snapshot; the temp file is harmless
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.enums.CrimeCategory;
+import com.arya.crimeportal.enums.CrimeStatus;
+import com.arya.crimeportal.enums.CriminalStatus;
+import com.arya.crimeportal.enums.FIRStatus;
+import com.arya.crimeportal.exception.BadRequestException;
+import com.arya.crimeportal.model.BulkJob;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.*;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.cloud.FirestoreClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Filter-driven bulk updates and deletes. Matching documents are read page by page and every write
+ * goes through a rate-limited {@link BulkWriter}, so a large change is one background job instead of
+ * thousands of individual round trips.
+ *
+ * Filters are equality matches combined with AND; updatable fields mirror the single-document PUT
+ * endpoints, with enum-valued fields checked strictly. FIR status changes are recorded as transitions like
+ * single updates ({@link FirLifecycle}): the pages then also carry each FIR's current stage. Every write is
+ * conditional on the version paged; a document edited in between is re-read and written again if it still
+ * matches the filter, and counted as skipped if it no longer does.
+ */
+@Service
+@Lazy
+public class BulkOperationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkOperationService.class);
+    private static final int PAGE_SIZE = 500;
+    private static final int CONFLICT_ATTEMPTS = 3;
+    private static final Duration JOB_RETENTION = Duration.ofHours(1);
+    private static final Set<String> LEVELS = Set.of("LOW", "MEDIUM", "HIGH", "CRITICAL");
+
+    private record Spec(Set<String> filterFields, Map<String, Predicate<Object>> updatableFields) {}
+
+    private static final Map<String, Spec> SPECS = Map.of(
+            CollectionQueries.CRIMES, new Spec(
+                    Set.of("status", "category", "severity", "location", "officerId", "reportedBy"),
+                    Map.of("title", BulkOperationService::isText,
+                            "description", BulkOperationService::isText,
+                            "location", BulkOperationService::isText,
+                            "status", v -> isEnum(CrimeStatus.values(), v),
+                            "category", v -> isEnum(CrimeCategory.values(), v),
+                            "severity", v -> v instanceof String s && LEVELS.contains(s),
+                            "officerId", BulkOperationService::isText)),
+            CollectionQueries.FIRS, new Spec(
+                    Set.of("status", "officerId", "crimeId", "complainantName"),
+                    Map.of("status", v -> isEnum(FIRStatus.values(), v),
+                            "officerId", BulkOperationService::isText,
+                            "officerName", BulkOperationService::isText,
+                            "details", BulkOperationService::isText)),
+            CollectionQueries.CRIMINALS, new Spec(
+                    Set.of("status", "dangerLevel", "gender", "lastSeenLocation", "crimeId"),
+                    Map.of("status", v -> isEnum(CriminalStatus.values(), v),
+                            "dangerLevel", v -> v instanceof String s && LEVELS.contains(s),
+                            "address", BulkOperationService::isText,
+                            "identificationMarks", BulkOperationService::isText,
+                            "lastSeenLocation", BulkOperationService::isText,
+                            "lastSeenDate", BulkOperationService::isText)));
+
+    private final FirestoreService firestoreService;
+    private final FirestoreMetrics metrics;
+    private final EntityCache cache;
+    private final ApplicationEventPublisher events;
+    private final FirStageTimings firStageTimings;
+    private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${bulk.max-ops-per-second:500}")
+    private int maxOpsPerSecond;
+
+    @Value("${bulk.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${bulk.queue-capacity:10}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor runner;
+    private ScheduledExecutorService housekeeping;
+
+    public BulkOperationService(FirestoreService firestoreService, FirestoreMetrics metrics, EntityCache cache,
+                                ApplicationEventPublisher events, FirStageTimings firStageTimings) {
+        this.firestoreService = firestoreService;
+        this.metrics = metrics;
+        this.cache = cache;
+        this.events = events;
+        this.firStageTimings = firStageTimings;
+    }
+
+    @PostConstruct
+    public void init() {
+        runner = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> daemon(r, "bulk-runner"), new ThreadPoolExecutor.AbortPolicy());
+        housekeeping = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "bulk-housekeeping"));
+        housekeeping.scheduleWithFixedDelay(this::evictExpired, 10, 10, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        housekeeping.shutdownNow();
+    }
+
+    public boolean supports(String collection) {
+        return SPECS.containsKey(collection);
+    }
+
+    /** Number of documents the filter currently matches, from an aggregation query (no documents are read). */
+    public long count(String collection, Map<String, Object> filter) throws ExecutionException, InterruptedException {
+        return firestoreService.count(collection, query(collection, filter));
+    }
+
+    /** Checks an update against the collection's updatable fields and returns the fields to write. */
+    public Map<String, Object> validateUpdate(String collection, Map<String, Object> set) {
+        if (set == null || set.isEmpty()) throw new BadRequestException("No updatable fields provided");
+        Map<String, Predicate<Object>> updatable = SPECS.get(collection).updatableFields();
+        Map<String, Object> fields = new HashMap<>();
+        for (Map.Entry<String, Object> e : set.entrySet()) {
+            Predicate<Object> check = updatable.get(e.getKey());
+            if (check == null) throw new BadRequestException("Field cannot be bulk updated: " + e.getKey());
+            if (!check.test(e.getValue())) throw new BadRequestException("Invalid value for " + e.getKey());
+            fields.put(e.getKey(), e.getValue());
+        }
+        fields.put("updatedAt", Instant.now().toString());
+        return fields;
+    }
+
+    /**
+     * Queues a bulk job. {@code fields} is the validated update, or null for a delete.
+     * Throws {@link RejectedExecutionException} when the job queue is full.
+     */
+    public BulkJob submit(String collection, BulkJob.Operation operation, Map<String, Object> filter,
+                          Map<String, Object> fields, String requestedBy) throws ExecutionException, InterruptedException {
+        long matched = count(collection, filter);
+        BulkJob job = new BulkJob(UUID.randomUUID().toString(), collection, operation, Map.copyOf(filter), requestedBy, matched);
+        // Registered first so the runner can't start, or even finish, a job that getJob doesn't know yet
+        jobs.put(job.getJobId(), job);
+        try {
+            runner.execute(() -> run(job, fields));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<BulkJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private Query query(String collection, Map<String, Object> filter) {
+        if (filter == null || filter.isEmpty()) throw new BadRequestException("At least one filter is required");
+        Set<String> allowed = SPECS.get(collection).filterFields();
+        Query query = FirestoreClient.getFirestore().collection(collection);
+        for (Map.Entry<String, Object> e : filter.entrySet()) {
+            if (!allowed.contains(e.getKey())) throw new BadRequestException("Cannot filter on field: " + e.getKey());
+            if (e.getValue() == null) throw new BadRequestException("Filter value for " + e.getKey() + " is missing");
+            query = query.whereEqualTo(e.getKey(), e.getValue());
+        }
+        return query;
+    }
+
+    private void run(BulkJob job, Map<String, Object> fields) {
+        job.setStatus(BulkJob.Status.RUNNING);
+        Firestore db = FirestoreClient.getFirestore();
+        BulkWriter writer = db.bulkWriter(BulkWriterOptions.builder()
+                .setInitialOpsPerSecond(Math.min(500, maxOpsPerSecond))
+                .setMaxOpsPerSecond(maxOpsPerSecond)
+                .build());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        // FIR status changes are recorded as transitions, which needs each FIR's current stage
+        boolean transitions = CollectionQueries.FIRS.equals(job.getCollection()) && fields != null && fields.containsKey("status");
+        Queue<String> conflicted = new ConcurrentLinkedQueue<>();
+        try {
+            // Whole documents, so each write event can carry what it replaced; documents leaving the filter
+            // as they are updated don't disturb the cursor
+            Query ids = query(job.getCollection(), job.getFilter()).limit(PAGE_SIZE);
+            DocumentSnapshot last = null;
+            while (true) {
+                Query page = last == null ? ids : ids.startAfter(last);
+                List<QueryDocumentSnapshot> docs = firestoreService.queryCollection(job.getCollection(), page);
+                for (QueryDocumentSnapshot doc : docs) {
+                    inFlight.acquire();
+                    issue(job, writer, inFlight, doc, fields, transitions, conflicted);
+                }
+                if (docs.size() < PAGE_SIZE) break;
+                last = docs.get(docs.size() - 1);
+            }
+            // Rows edited since they were paged failed their precondition: re-read them and write again if
+            // they still match the filter, up to CONFLICT_ATTEMPTS writes in all
+            for (int attempt = 2; attempt <= CONFLICT_ATTEMPTS; attempt++) {
+                writer.flush().get();
+                List<String> retry = new ArrayList<>();
+                for (String id; (id = conflicted.poll()) != null; ) retry.add(id);
+                if (retry.isEmpty()) break;
+                Queue<String> next = attempt < CONFLICT_ATTEMPTS ? conflicted : null;
+                for (String id : retry) {
+                    DocumentSnapshot current = firestoreService.getSnapshot(job.getCollection(), id);
+                    if (!matches(current, job.getFilter())) {
+                        job.addSkipped();
+                        continue;
+                    }
+                    inFlight.acquire();
+                    issue(job, writer, inFlight, current, fields, transitions, next);
+                }
+            }
+            writer.close();
+            job.setStatus(BulkJob.Status.COMPLETED);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            try {
+                writer.close();
+            } catch (Exception ignored) {
+                // already failing
+            }
+            log.warn("Bulk {} on {} failed: {}", job.getOperation(), job.getCollection(), e.getMessage());
+            job.setError(e.getMessage());
+            job.setStatus(BulkJob.Status.FAILED);
+        }
+        job.setFinishedAt(Instant.now());
+    }
+
+    /**
+     * Issues the write for one document, conditional on the version read. The caller holds an in-flight
+     * permit, which is released once the write settles. A write that loses to a concurrent edit is queued
+     * on {@code conflicted} to be retried, or recorded as a failure when {@code conflicted} is null.
+     */
+    private void issue(BulkJob job, BulkWriter writer, Semaphore inFlight, DocumentSnapshot doc,
+                       Map<String, Object> fields, boolean transitions, Queue<String> conflicted) {
+        FirLifecycle.Transition transition;
+        Map<String, Object> docFields = fields;
+        ApiFuture<WriteResult> result;
+        try {
+            transition = transitions
+                    ? FirLifecycle.transition(doc.getId(), doc.getData(), fields.get("status"), Instant.now()) : null;
+            if (transition != null) {
+                docFields = new HashMap<>(fields);
+                docFields.putAll(transition.fields());
+            }
+            // Conditional on the version read: a transition is only valid against the stage it was
+            // computed from, and the write event reports the read fields as the replaced values
+            Precondition unchanged = Precondition.updatedAt(doc.getUpdateTime());
+            result = job.getOperation() == BulkJob.Operation.DELETE
+                    ? writer.delete(doc.getReference(), unchanged)
+                    : writer.update(doc.getReference(), docFields, unchanged);
+        } catch (RuntimeException e) {
+            // Nothing was issued, so no callback will hand the permit back
+            job.addFailure(doc.getId(), e.getMessage());
+            inFlight.release();
+            return;
+        }
+        Map<String, Object> written = docFields;
+        ApiFutures.addCallback(result, new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(WriteResult writeResult) {
+                job.addProcessed();
+                metrics.countWrites(job.getCollection(), "bulk", 1);
+                cache.invalidate(job.getCollection(), doc.getId(), writeResult.getUpdateTime());
+                events.publishEvent(job.getOperation() == BulkJob.Operation.DELETE
+                        ? new DocumentWrittenEvent(job.getCollection(), doc.getId(), DocumentWrittenEvent.Kind.DELETE, Map.of(), doc.getData())
+                        : new DocumentWrittenEvent(job.getCollection(), doc.getId(), DocumentWrittenEvent.Kind.UPDATE, written, doc.getData()));
+                if (transition != null) firStageTimings.record(transition);
+                inFlight.release();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (conflicted != null && FirestoreService.isConflict(t)) {
+                    conflicted.add(doc.getId());
+                } else {
+                    job.addFailure(doc.getId(), t.getMessage());
+                }
+                inFlight.release();
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    // Whether a re-read document still exists and still matches every equality in the job's filter
+    private static boolean matches(DocumentSnapshot doc, Map<String, Object> filter) {
+        if (!doc.exists()) return false;
+        for (Map.Entry<String, Object> e : filter.entrySet()) {
+            if (!Objects.equals(doc.get(e.getKey()), e.getValue())) return false;
+        }
+        return true;
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.isDone() && job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static boolean isText(Object value) {
+        return value == null || value instanceof String;
+    }
+
+    private static <E extends Enum<E>> boolean isEnum(E[] values, Object value) {
+        if (!(value instanceof String s)) return false;
+        for (E e : values) {
+            if (e.name().equals(s)) return true;
+        }
+        return false;
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+}
@@ -0,0 +1,102 @@
+package com.arya.crimeportal.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the number of concurrent requests of one operation class at an {@link AdaptiveLimit}. A request
+ * over the limit waits, up to {@code maxWaitMillis}, in a queue of at most {@code maxQueue}; when the
+ * queue is full it is rejected at once, so a slow backend can only ever tie up a bounded number of
+ * request threads per class.
+ */
+public final class Bulkhead {
+
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final String name;
+    private final AdaptiveLimit limit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private volatile int waiting;
+
+    Bulkhead(String name, AdaptiveLimit limit, int maxQueue, long maxWaitMillis) {
+        this.name = name;
+        this.limit = limit;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return limit.get();
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public int waiting() {
+        return waiting;
+    }
+
+    /** Takes a permit without waiting. */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit.get()) return false;
+            if (inflight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * Takes a permit, queueing for one if the limit is reached. Returns false when the queue is full or
+     * no permit came free in time; a true result must be paired with {@link #release()}.
+     */
+    public boolean acquire() throws InterruptedException {
+        if (tryAcquire()) return true;
+        lock.lock();
+        try {
+            if (waiting >= maxQueue) return false;
+            waiting++;
+            try {
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (!tryAcquire()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) return false;
+                    // Short waits also pick up limit increases, which don't signal
+                    released.awaitNanos(Math.min(remaining, RECHECK_NANOS));
+                }
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        inflight.decrementAndGet();
+        if (waiting > 0) {
+            lock.lock();
+            try {
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Feeds the latency of a Firestore call made by a request holding one of this bulkhead's permits. */
+    public void onCall(long rttNanos, boolean dropped) {
+        limit.onSample(rttNanos, inflight.get(), dropped);
+    }
+}
@@ -0,0 +1,142 @@
+package com.arya.crimeportal.service;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * One {@link Bulkhead} per operation class, so that slow full-collection scans cannot take the threads
+ * that cheap entity reads and writes need. Requests are classified by method and path: anything but
+ * GET/HEAD is a {@link OperationClass#WRITE}, GETs matching {@code bulkhead.scan-paths} are
+ * {@link OperationClass#SCAN}s and all other GETs are {@link OperationClass#READ}s.
+ *
+ * The bulkhead admitting a request is bound to the request thread, and {@link FirestoreMetrics} reports
+ * the latency of every Firestore call the request makes to it, which is what moves its limit.
+ *
+ * Meters, tagged by class: {@code bulkhead.limit}, {@code bulkhead.inflight}, {@code bulkhead.waiting}
+ * and {@code bulkhead.requests} (outcome: admitted, rejected).
+ */
+@Component
+public class Bulkheads {
+
+    public enum OperationClass { SCAN, READ, WRITE }
+
+    private static final ThreadLocal<Bulkhead> CURRENT = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final Map<OperationClass, Bulkhead> bulkheads = new EnumMap<>(OperationClass.class);
+    private final List<String> scanPaths;
+    private final List<String> excludedPaths;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final MeterRegistry registry;
+
+    public Bulkheads(MeterRegistry registry,
+                     @Value("${bulkhead.enabled:true}") boolean enabled,
+                     @Value("${bulkhead.limits:}") String limitSpec,
+                     @Value("${bulkhead.max-wait-ms:250}") long maxWaitMillis,
+                     @Value("${bulkhead.scan-paths:}") String scanPaths,
+                     @Value("${bulkhead.exclude-paths:}") String excludedPaths) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.scanPaths = patterns(scanPaths);
+        this.excludedPaths = patterns(excludedPaths);
+        Map<String, int[]> limits = parseLimits(limitSpec);
+        for (OperationClass type : OperationClass.values()) {
+            int[] l = limits.getOrDefault(type.name(), new int[] {16, 1, 64, 16});
+            Bulkhead bulkhead = new Bulkhead(type.name(), new AdaptiveLimit(l[0], l[1], l[2]), l[3], maxWaitMillis);
+            bulkheads.put(type, bulkhead);
+            String tag = type.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("bulkhead.limit", bulkhead, Bulkhead::limit).tag("class", tag).register(registry);
+            Gauge.builder("bulkhead.inflight", bulkhead, Bulkhead::inflight).tag("class", tag).register(registry);
+            Gauge.builder("bulkhead.waiting", bulkhead, Bulkhead::waiting).tag("class", tag).register(registry);
+        }
+    }
+
+    /** The bulkhead for a request, or null when the request is not limited. */
+    public Bulkhead forRequest(String method, String path) {
+        if (!enabled) return null;
+        for (String pattern : excludedPaths) {
+            if (matcher.match(pattern, path)) return null;
+        }
+        return bulkheads.get(classify(method, path));
+    }
+
+    public Bulkhead get(OperationClass type) {
+        return bulkheads.get(type);
+    }
+
+    OperationClass classify(String method, String path) {
+        if (!"GET".equals(method) && !"HEAD".equals(method)) return OperationClass.WRITE;
+        for (String pattern : scanPaths) {
+            if (matcher.match(pattern, path)) return OperationClass.SCAN;
+        }
+        return OperationClass.READ;
+    }
+
+    public void recordOutcome(Bulkhead bulkhead, boolean admitted) {
+        Counter.builder("bulkhead.requests")
+                .tag("class", bulkhead.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", admitted ? "admitted" : "rejected")
+                .register(registry)
+                .increment();
+    }
+
+    public static void bind(Bulkhead bulkhead) {
+        CURRENT.set(bulkhead);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /** The bulkhead that admitted the current request, or null outside one. */
+    public static Bulkhead current() {
+        return CURRENT.get();
+    }
+
+    /** True for failures that mean Firestore is overloaded or too slow, as opposed to a bad request. */
+    public static boolean isOverload(Throwable t) {
+        Throwable cause = t instanceof ExecutionException && t.getCause() != null ? t.getCause() : t;
+        if (!(cause instanceof ApiException api)) return false;
+        StatusCode.Code code = api.getStatusCode().getCode();
+        return code == StatusCode.Code.DEADLINE_EXCEEDED
+                || code == StatusCode.Code.UNAVAILABLE
+                || code == StatusCode.Code.RESOURCE_EXHAUSTED;
+    }
+
+    private static List<String> patterns(String spec) {
+        List<String> patterns = new ArrayList<>();
+        for (String pattern : spec.split(",")) {
+            if (!pattern.isBlank()) patterns.add(pattern.trim());
+        }
+        return patterns;
+    }
+
+    // "<CLASS>=<initial>:<min>:<max>:<queue>,..."
+    private static Map<String, int[]> parseLimits(String spec) {
+        Map<String, int[]> limits = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            int eq = entry.indexOf('=');
+            if (eq < 0) continue;
+            String[] parts = entry.substring(eq + 1).trim().split(":");
+            if (parts.length != 4) throw new IllegalArgumentException("Expected <initial>:<min>:<max>:<queue> in bulkhead.limits: " + entry);
+            int[] values = new int[4];
+            for (int i = 0; i < 4; i++) values[i] = Integer.parseInt(parts[i]);
+            limits.put(entry.substring(0, eq).trim().toUpperCase(Locale.ROOT), values);
+        }
+        return limits;
+    }
+}
@@ -0,0 +1,103 @@
+package com.arya.crimeportal.service;
+
+/**
+ * Failure-rate circuit breaker. While CLOSED, outcomes of the last {@code windowSize} calls are kept and
+ * the breaker opens once at least {@code minCalls} of them are in and {@code failureRatePercent} or more
+ * failed. While OPEN every call is refused, until {@code openMillis} have passed; it is then HALF_OPEN
+ * and lets {@code probes} calls through. If they all succeed it closes again, and any failure reopens it.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minCalls;
+    private final int failureRatePercent;
+    private final long openMillis;
+    private final int probes;
+
+    // Guarded by this
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minCalls, int failureRatePercent, long openMillis, int probes) {
+        this.windowSize = windowSize;
+        this.minCalls = Math.min(minCalls, windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.openMillis = openMillis;
+        this.probes = Math.max(1, probes);
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /** The current state; an OPEN breaker whose wait is over reports HALF_OPEN. */
+    public synchronized State state() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) return State.HALF_OPEN;
+        return state;
+    }
+
+    /** Milliseconds until an open breaker lets probes through; 0 when it is not open. */
+    public synchronized long retryAfterMillis() {
+        return state == State.OPEN ? Math.max(0, openedAt + openMillis - System.currentTimeMillis()) : 0;
+    }
+
+    /** Whether a call may go ahead; a permitted call must report back via {@link #onSuccess} or {@link #onFailure}. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) return false;
+            state = State.HALF_OPEN;
+            probesIssued = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesIssued >= probes) return false;
+            probesIssued++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= probes) close();
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minCalls && failures * 100 >= failureRatePercent * recorded) open();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recorded == windowSize) {
+            if (outcomes[next]) failures--;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) failures++;
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.arya.crimeportal.service;
+
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+
+/**
+ * Builds the filtered queries behind the crime, FIR and criminal list endpoints so that every
+ * consumer of "the same filters" (list, export, ...) gets exactly the same result set.
+ * Queries are returned without a limit; callers page or limit them as needed.
+ */
+public final class CollectionQueries {
+
+    public static final String CRIMES = "crimes";
+    public static final String FIRS = "firs";
+    public static final String CRIMINALS = "criminals";
+
+    private CollectionQueries() {}
+
+    // Only one filter is applied; later filters take precedence (matches the original list endpoint)
+    public static Query crimes(Firestore db, String title, String status, String category, String severity, String location) {
+        Query query = db.collection(CRIMES).orderBy("createdAt", Query.Direction.DESCENDING);
+        if (notBlank(status)) query = db.collection(CRIMES).whereEqualTo("status", status);
+        if (notBlank(category)) query = db.collection(CRIMES).whereEqualTo("category", category);
+        if (notBlank(severity)) query = db.collection(CRIMES).whereEqualTo("severity", severity);
+        if (notBlank(location)) query = db.collection(CRIMES).whereEqualTo("location", location);
+        if (notBlank(title)) query = prefix(db, CRIMES, "title", title);
+        return query;
+    }
+
+    public static Query firs(Firestore db, String status, String complainantName) {
+        Query query = db.collection(FIRS).orderBy("createdAt", Query.Direction.DESCENDING);
+        if (notBlank(status)) query = db.collection(FIRS).whereEqualTo("status", status);
+        if (notBlank(complainantName)) query = prefix(db, FIRS, "complainantName", complainantName);
+        return query;
+    }
+
+    public static Query criminals(Firestore db, String name, String status, String dangerLevel) {
+        if (notBlank(status)) return db.collection(CRIMINALS).whereEqualTo("status", status);
+        if (notBlank(dangerLevel)) return db.collection(CRIMINALS).whereEqualTo("dangerLevel", dangerLevel);
+        if (notBlank(name)) return prefix(db, CRIMINALS, "name", name);
+        return db.collection(CRIMINALS).orderBy("createdAt", Query.Direction.DESCENDING);
+    }
+
+    private static Query prefix(Firestore db, String collection, String field, String value) {
+        return db.collection(collection).orderBy(field).startAt(value).endAt(value + "\uf8ff");
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+}
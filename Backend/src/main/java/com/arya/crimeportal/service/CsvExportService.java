@@ -0,0 +1,104 @@
+package com.arya.crimeportal.service;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.opencsv.CSVWriter;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a Firestore query to CSV one page at a time. Only the current page is held in memory,
+ * so heap use stays flat regardless of how many documents are exported.
+ */
+@Service
+@Lazy
+public class CsvExportService {
+
+    static final int PAGE_SIZE = 500;
+
+    private static final Map<String, String[]> COLUMNS = Map.of(
+        CollectionQueries.CRIMES, new String[] {
+            "title", "description", "location", "date", "category", "severity", "status",
+            "officerId", "reportedBy", "reportedByName", "createdAt", "updatedAt"
+        },
+        CollectionQueries.FIRS, new String[] {
+            "firNumber", "complainantName", "contact", "details", "incidentLocation", "incidentDate",
+            "crimeId", "status", "officerId", "officerName", "userId", "createdAt", "updatedAt"
+        },
+        CollectionQueries.CRIMINALS, new String[] {
+            "name", "alias", "gender", "age", "status", "dangerLevel", "address", "identificationMarks",
+            "lastSeenLocation", "lastSeenDate", "crimeId", "crimeIds", "photoUrl", "createdAt", "updatedAt"
+        }
+    );
+
+    private final FirestoreService firestoreService;
+
+    public CsvExportService(FirestoreService firestoreService) {
+        this.firestoreService = firestoreService;
+    }
+
+    /**
+     * Writes the header and every document matched by {@code query} to {@code out}. The query must not
+     * carry a limit; paging uses document cursors so each page is a fresh, bounded read.
+     */
+    public long export(String collection, Query query, OutputStream out) throws IOException, ExecutionException, InterruptedException {
+        String[] columns = COLUMNS.get(collection);
+        if (columns == null) throw new IllegalArgumentException("Export not supported for collection: " + collection);
+
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        CSVWriter csv = new CSVWriter(writer);
+        String[] header = new String[columns.length + 1];
+        header[0] = "id";
+        System.arraycopy(columns, 0, header, 1, columns.length);
+        csv.writeNext(header, false);
+
+        Query projected = query.select(columns);
+        String[] row = new String[columns.length + 1];
+        DocumentSnapshot cursor = null;
+        long written = 0;
+        while (true) {
+            Query page = cursor == null ? projected.limit(PAGE_SIZE) : projected.startAfter(cursor).limit(PAGE_SIZE);
+            List<QueryDocumentSnapshot> docs = firestoreService.queryCollection(collection, page);
+            for (QueryDocumentSnapshot doc : docs) {
+                row[0] = doc.getId();
+                for (int i = 0; i < columns.length; i++) {
+                    row[i + 1] = format(doc.get(columns[i]));
+                }
+                csv.writeNext(row, true);
+                written++;
+            }
+            // Push each page to the client before fetching the next one
+            csv.flush();
+            if (docs.size() < PAGE_SIZE) break;
+            cursor = docs.get(docs.size() - 1);
+        }
+        return written;
+    }
+
+    private static String format(Object value) {
+        if (value == null) return "";
+        String text = value instanceof Collection<?> c
+                ? c.stream().map(String::valueOf).collect(Collectors.joining(";"))
+                : value.toString();
+        return neutralize(text);
+    }
+
+    // Spreadsheets evaluate a cell starting with one of these as a formula; the leading quote keeps it text
+    private static String neutralize(String text) {
+        if (text.isEmpty()) return text;
+        char first = text.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' ? "'" + text : text;
+    }
+}
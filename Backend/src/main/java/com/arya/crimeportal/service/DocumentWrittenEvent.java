@@ -0,0 +1,17 @@
+package com.arya.crimeportal.service;
+
+import java.util.Map;
+
+/**
+ * Published (synchronously, on the writing thread) after a document write made by this instance has been
+ * acknowledged by Firestore. {@code fields} is the whole document for SET, only the written fields for
+ * UPDATE, and empty for DELETE. In the collections {@link StatsCounters} counts, {@code previous} is the whole
+ * document as the write found it (read in the same transaction as the write), or null when the write created the
+ * document; elsewhere it is always null. Writes by other instances are not seen; listeners that keep derived state
+ * must catch up on their own, like {@link EntityCache} does with its TTL. Listeners must not block or throw.
+ */
+public record DocumentWrittenEvent(String collection, String id, Kind kind, Map<String, Object> fields,
+                                   Map<String, Object> previous) {
+
+    public enum Kind { SET, UPDATE, DELETE }
+}
@@ -0,0 +1,126 @@
+package com.arya.crimeportal.service;
+
+import com.google.cloud.Timestamp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Short-lived cache of single documents by collection and id, used by the entity GET endpoints so a
+ * re-fetch of an unchanged document costs no Firestore read.
+ *
+ * Writes made through this instance invalidate their entry with a tombstone carrying the write's
+ * {@code updateTime}; a read that was already in flight and returns an older version is then not cached.
+ * Writes made by other instances are only picked up when the entry expires, so the TTL bounds how stale a
+ * cached document can be. Expired entries linger until a sweep makes room, and {@link #getStale} hands them
+ * out when Firestore cannot be reached. Meters: {@code entity.cache.requests} (tagged collection and hit/miss) and
+ * {@code entity.cache.size}.
+ */
+@Component
+public class EntityCache {
+
+    /** A cached document past its TTL, and how long ago it was read. */
+    public record StaleCopy(VersionedDocument doc, long ageMillis) {}
+
+    private record Entry(VersionedDocument doc, Timestamp version, long expiresAt) {
+        boolean live(long now) {
+            return expiresAt > now;
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final MeterRegistry registry;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    public EntityCache(MeterRegistry registry,
+                       @Value("${cache.entity.ttl-seconds:30}") long ttlSeconds,
+                       @Value("${cache.entity.max-entries:10000}") int maxEntries) {
+        this.registry = registry;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxEntries = maxEntries;
+        registry.gaugeMapSize("entity.cache.size", Tags.empty(), entries);
+    }
+
+    public boolean isEnabled() {
+        return ttlMillis > 0 && maxEntries > 0;
+    }
+
+    /** The cached document, or null when it is not cached, expired or invalidated by a write. */
+    public VersionedDocument get(String collection, String id) {
+        if (!isEnabled()) return null;
+        Entry entry = entries.get(key(collection, id));
+        boolean hit = entry != null && entry.doc != null && entry.live(System.currentTimeMillis());
+        counter(collection, hit ? "hit" : "miss").increment();
+        return hit ? entry.doc : null;
+    }
+
+    /** The last cached copy, expired or not, or null when there is none or a write has invalidated it. */
+    public StaleCopy getStale(String collection, String id) {
+        if (!isEnabled()) return null;
+        Entry entry = entries.get(key(collection, id));
+        if (entry == null || entry.doc == null) return null;
+        return new StaleCopy(entry.doc, System.currentTimeMillis() - (entry.expiresAt - ttlMillis));
+    }
+
+    /** Caches {@code doc} unless a newer version or a later write is already recorded for it. */
+    public void put(String collection, VersionedDocument doc) {
+        if (!isEnabled()) return;
+        long now = System.currentTimeMillis();
+        entries.compute(key(collection, doc.id()), (k, existing) ->
+                existing != null && existing.live(now) && !doc.isNewerThan(existing.version)
+                        ? existing
+                        : new Entry(doc, doc.updateTime(), now + ttlMillis));
+        if (entries.size() > maxEntries) sweep(now);
+    }
+
+    /**
+     * Drops the cached copy after a write. With the write's {@code updateTime} the entry becomes a tombstone
+     * that keeps older in-flight reads from being cached; without one it is simply removed.
+     */
+    public void invalidate(String collection, String id, Timestamp writeTime) {
+        if (!isEnabled()) return;
+        if (writeTime == null) {
+            entries.remove(key(collection, id));
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.put(key(collection, id), new Entry(null, writeTime, now + ttlMillis));
+        if (entries.size() > maxEntries) sweep(now);
+    }
+
+    // Drops expired entries first, then arbitrary ones until there is 10% headroom
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) return;
+        try {
+            entries.values().removeIf(entry -> !entry.live(now));
+            int target = maxEntries - maxEntries / 10;
+            Iterator<Entry> it = entries.values().iterator();
+            while (entries.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private Counter counter(String collection, String result) {
+        return Counter.builder("entity.cache.requests")
+                .tag("collection", collection)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static String key(String collection, String id) {
+        return collection + "/" + id;
+    }
+}
@@ -0,0 +1,71 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.exception.BadRequestException;
+import com.google.cloud.firestore.Query;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the {@code fields} parameter of the list endpoints into a Firestore {@code select()} projection,
+ * so only the requested fields are read, sent over the wire and decoded. {@code fields} is either a named
+ * view ({@value #SUMMARY}, {@value #FULL}) or a comma-separated list of top-level field names; the document
+ * id is always included by the endpoints. Absent, blank or {@value #FULL} means whole documents.
+ */
+public final class FieldProjections {
+
+    public static final String SUMMARY = "summary";
+    public static final String FULL = "full";
+
+    private static final int MAX_FIELDS = 30;
+    private static final Pattern FIELD_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{0,63}");
+
+    // Table columns of each list view; long free text (description, details, ...) is left out
+    private static final Map<String, String[]> SUMMARY_VIEWS = Map.of(
+            CollectionQueries.CRIMES, new String[] {"title", "status", "severity", "category", "location", "createdAt"},
+            CollectionQueries.FIRS, new String[] {"firNumber", "complainantName", "status", "incidentLocation", "officerName", "createdAt"},
+            CollectionQueries.CRIMINALS, new String[] {"name", "alias", "status", "dangerLevel", "lastSeenLocation", "createdAt"},
+            "users", new String[] {"name", "email", "role", "status", "createdAt"},
+            "activities", new String[] {"userName", "action", "entityType", "entityId", "timestamp"}
+    );
+
+    private FieldProjections() {}
+
+    /** The fields to select for {@code fields}, or null when whole documents are wanted. */
+    public static String[] resolve(String collection, String fields) {
+        if (fields == null || fields.isBlank() || FULL.equalsIgnoreCase(fields.trim())) return null;
+        if (SUMMARY.equalsIgnoreCase(fields.trim())) {
+            String[] view = SUMMARY_VIEWS.get(collection);
+            if (view == null) throw new IllegalArgumentException("No summary view for collection: " + collection);
+            return view;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String raw : fields.split(",")) {
+            String name = raw.trim();
+            if (name.isEmpty()) continue;
+            if (!FIELD_NAME.matcher(name).matches()) throw new BadRequestException("Invalid field name: " + name);
+            names.add(name);
+        }
+        if (names.isEmpty()) return null;
+        if (names.size() > MAX_FIELDS) throw new BadRequestException("At most " + MAX_FIELDS + " fields can be requested");
+        return names.toArray(new String[0]);
+    }
+
+    /**
+     * Applies the projection for {@code fields} to {@code query}. {@code required} names fields the endpoint
+     * itself reads from each document (e.g. for in-memory filtering); they are selected too when projecting.
+     */
+    public static Query apply(Query query, String collection, String fields, String... required) {
+        String[] selected = resolve(collection, fields);
+        if (selected == null) return query;
+        if (required.length > 0) {
+            Set<String> all = new LinkedHashSet<>(Arrays.asList(selected));
+            all.addAll(Arrays.asList(required));
+            selected = all.toArray(new String[0]);
+        }
+        return query.select(selected);
+    }
+}
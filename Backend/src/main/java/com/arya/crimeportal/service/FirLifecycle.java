@@ -0,0 +1,129 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.enums.FIRStatus;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * FIR status changes. Every change records when it happened on the FIR itself: {@code statusChangedAt}
+ * (when the current stage was entered), an entry appended to {@code statusHistory} ({@code from}, {@code to},
+ * {@code at}, {@code stageMillis}) and {@code closedAt} while CLOSED. The time spent in the stage being left,
+ * and the time from filing to closure, go to {@link FirStageTimings}.
+ *
+ * The previous status has to be read to know which stage ended, so the write is conditioned on the FIR not
+ * having changed since (see {@link FirestoreService#updateIfUnchanged}) and retried on a conflict; two
+ * concurrent changes can't both claim the same stage.
+ */
+@Service
+public class FirLifecycle {
+
+    /** Fields of the stored FIR a transition is computed from. */
+    public static final String[] TRANSITION_FIELDS = {"status", "statusChangedAt", "createdAt", "updatedAt", "officerId", "station"};
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    public enum Outcome {UPDATED, NOT_FOUND, CONFLICT}
+
+    /**
+     * A status change: the FIR left {@code from} (entered at {@code enteredAt}) for {@code to} at {@code at}.
+     * The officer and station are the ones the FIR had during the stage that ended.
+     */
+    public record Transition(String firId, FIRStatus from, FIRStatus to, Instant enteredAt, Instant at,
+                             Instant createdAt, String officerId, String station) {
+
+        public long stageMillis() {
+            return Math.max(0, Duration.between(enteredAt, at).toMillis());
+        }
+
+        /** Filing to closure, for a transition into CLOSED; -1 otherwise. */
+        public long timeToCloseMillis() {
+            return to == FIRStatus.CLOSED && createdAt != null ? Math.max(0, Duration.between(createdAt, at).toMillis()) : -1;
+        }
+
+        /** The fields recording this transition on the FIR, to be written along with the new status. */
+        public Map<String, Object> fields() {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("from", from.name());
+            entry.put("to", to.name());
+            entry.put("at", at.toString());
+            entry.put("stageMillis", stageMillis());
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("statusChangedAt", at.toString());
+            fields.put("statusHistory", FieldValue.arrayUnion(entry));
+            if (to == FIRStatus.CLOSED) {
+                fields.put("closedAt", at.toString());
+            } else if (from == FIRStatus.CLOSED) {
+                fields.put("closedAt", FieldValue.delete());
+            }
+            return fields;
+        }
+    }
+
+    private final FirestoreService firestoreService;
+    private final FirStageTimings timings;
+
+    public FirLifecycle(FirestoreService firestoreService, FirStageTimings timings) {
+        this.firestoreService = firestoreService;
+        this.timings = timings;
+    }
+
+    /**
+     * The transition that writing {@code status} to a FIR currently holding {@code current} would make,
+     * or null when the stage doesn't change. FIRs written before transitions were recorded have no
+     * {@code statusChangedAt}; their stage is taken to have started at {@code createdAt}.
+     */
+    public static Transition transition(String firId, Map<String, Object> current, Object status, Instant at) {
+        if (status == null || current == null) return null;
+        FIRStatus from = FIRStatus.fromString(text(current.get("status")));
+        FIRStatus to = FIRStatus.fromString(status.toString());
+        if (from == to) return null;
+        Instant createdAt = parseInstant(current.get("createdAt"));
+        Instant enteredAt = parseInstant(current.get("statusChangedAt"));
+        if (enteredAt == null) enteredAt = createdAt != null ? createdAt : parseInstant(current.get("updatedAt"));
+        if (enteredAt == null) enteredAt = at;
+        return new Transition(firId, from, to, enteredAt, at, createdAt, text(current.get("officerId")), text(current.get("station")));
+    }
+
+    /**
+     * Applies {@code updates} to FIR {@code id}, recording the transition when they change its status.
+     * CONFLICT means the FIR kept changing under every attempt.
+     */
+    public Outcome update(String id, Map<String, Object> updates) throws ExecutionException, InterruptedException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            DocumentSnapshot snapshot = firestoreService.getSnapshot(CollectionQueries.FIRS, id);
+            if (!snapshot.exists()) return Outcome.NOT_FOUND;
+            Transition transition = transition(id, snapshot.getData(), updates.get("status"), Instant.now());
+            Map<String, Object> fields = new HashMap<>(updates);
+            if (transition != null) fields.putAll(transition.fields());
+            if (firestoreService.updateIfUnchanged(CollectionQueries.FIRS, snapshot, fields)) {
+                if (transition != null) timings.record(transition);
+                return Outcome.UPDATED;
+            }
+        }
+        return Outcome.CONFLICT;
+    }
+
+    private static String text(Object value) {
+        return value instanceof String s && !s.isBlank() ? s : null;
+    }
+
+    private static Instant parseInstant(Object value) {
+        if (value instanceof Timestamp ts) return ts.toDate().toInstant();
+        if (value == null) return null;
+        try {
+            return Instant.parse(value.toString());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.enums.FIRStatus;
+import com.google.cloud.firestore.Blob;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.firebase.cloud.FirestoreClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time FIRs spend in each {@link FIRStatus} stage, and from filing to closure, as {@link TDigest} sketches
+ * per scope: all FIRs, each station and each officer. {@link FirLifecycle} records every transition, so
+ * percentiles are read straight from the sketches and history is never rescanned.
+ *
+ * Sketches are kept in the {@code firStageTimings} collection, one document per scope holding one serialized
+ * digest per stage. Each instance collects what it recorded since its last flush in separate delta digests
+ * and every {@code fir-timings.flush-interval-seconds} merges them into the stored ones with a conditional
+ * update, so instances never overwrite each other's samples; the merged result then replaces the scope's
+ * in-memory totals. The collection is read once at startup. Meter: {@code fir.timings.scopes}.
+ */
+@Service
+@DependsOn("firebaseConfig")
+public class FirStageTimings {
+
+    private static final Logger log = LoggerFactory.getLogger(FirStageTimings.class);
+    private static final String COLLECTION = "firStageTimings";
+    private static final int MAX_ATTEMPTS = 5;
+    private static final double MILLIS_PER_HOUR = 3_600_000d;
+
+    public static final String ALL = "all";
+    public static final String STATION = "station";
+    public static final String OFFICER = "officer";
+    /** Pseudo-stage for the time from filing to closure. */
+    public static final String TO_CLOSE = "TO_CLOSE";
+
+    /** Percentiles of one stage, in hours; null when nothing has been recorded. */
+    public record Percentiles(long count, Double p50Hours, Double p90Hours, Double p99Hours) {}
+
+    /** A scope's timings as served by the timings endpoints: one entry per stage left, plus time to close. */
+    public record Timings(String scope, String key, Map<String, Percentiles> stages, Percentiles timeToClose) {}
+
+    private static final class Scope {
+        final String kind;
+        final String key;
+        Map<String, TDigest> total = new HashMap<>();
+        Map<String, TDigest> delta = new HashMap<>();
+
+        Scope(String kind, String key) {
+            this.kind = kind;
+            this.key = key;
+        }
+    }
+
+    private final FirestoreService firestoreService;
+    private final boolean enabled;
+    private final double compression;
+    private final long flushSeconds;
+
+    // Guarded by this; keyed by document id
+    private final Map<String, Scope> scopes = new HashMap<>();
+    private boolean loaded;
+    private Instant loadedAt;
+    private String lastError;
+
+    private ScheduledExecutorService worker;
+
+    public FirStageTimings(FirestoreService firestoreService, MeterRegistry registry,
+                           @Value("${fir-timings.enabled:true}") boolean enabled,
+                           @Value("${fir-timings.compression:200}") double compression,
+                           @Value("${fir-timings.flush-interval-seconds:60}") long flushSeconds) {
+        this.firestoreService = firestoreService;
+        this.enabled = enabled;
+        this.compression = compression;
+        this.flushSeconds = flushSeconds;
+        registry.gauge("fir.timings.scopes", this, t -> t.scopeCount());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fir-stage-timings");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.execute(this::load);
+        worker.scheduleWithFixedDelay(this::flush, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker == null) return;
+        worker.shutdownNow();
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean isReady() {
+        return loaded;
+    }
+
+    public synchronized Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public synchronized String lastError() {
+        return lastError;
+    }
+
+    public synchronized int scopeCount() {
+        return scopes.size();
+    }
+
+    /** Adds a transition's stage duration (and time to close) to its FIR's scopes. */
+    public void record(FirLifecycle.Transition transition) {
+        if (!enabled) return;
+        long stage = transition.stageMillis();
+        long toClose = transition.timeToCloseMillis();
+        synchronized (this) {
+            List<Scope> targets = new ArrayList<>(3);
+            targets.add(scope(ALL, null));
+            if (transition.station() != null) targets.add(scope(STATION, transition.station()));
+            if (transition.officerId() != null) targets.add(scope(OFFICER, transition.officerId()));
+            for (Scope scope : targets) {
+                // Time spent closed before a FIR is reopened is not a stage of the pipeline
+                if (transition.from() != FIRStatus.CLOSED) add(scope, transition.from().name(), stage);
+                if (toClose >= 0) add(scope, TO_CLOSE, toClose);
+            }
+        }
+    }
+
+    /** Timings of one scope ({@code key} is ignored for {@link #ALL}); empty percentiles when nothing is recorded. */
+    public synchronized Timings timings(String kind, String key) {
+        Scope scope = scopes.get(docId(kind, key));
+        return toTimings(scope != null ? scope : new Scope(kind, ALL.equals(kind) ? null : key));
+    }
+
+    /** Stations or officers ranked by the p90 of {@code stage} (a FIRStatus name or TO_CLOSE), slowest first. */
+    public synchronized List<Timings> slowest(String kind, String stage, int limit) {
+        List<Scope> matching = new ArrayList<>();
+        for (Scope scope : scopes.values()) {
+            TDigest digest = scope.total.get(stage);
+            if (scope.kind.equals(kind) && digest != null && digest.count() > 0) matching.add(scope);
+        }
+        matching.sort(Comparator.comparingDouble((Scope s) -> s.total.get(stage).quantile(0.9)).reversed()
+                .thenComparing(s -> s.key));
+        List<Timings> out = new ArrayList<>(Math.min(limit, matching.size()));
+        for (Scope scope : matching) {
+            if (out.size() == limit) break;
+            out.add(toTimings(scope));
+        }
+        return out;
+    }
+
+    private void load() {
+        try {
+            List<QueryDocumentSnapshot> docs = firestoreService.queryCollection(COLLECTION,
+                    FirestoreClient.getFirestore().collection(COLLECTION));
+            synchronized (this) {
+                for (QueryDocumentSnapshot doc : docs) {
+                    Scope scope = scope(doc.getString("scope"), doc.getString("key"));
+                    // Samples recorded here before the load completed are still in the deltas
+                    scope.total = decode(doc);
+                    scope.delta.forEach((stage, digest) -> digestOf(scope.total, stage).merge(digest));
+                }
+                loaded = true;
+                loadedAt = Instant.now();
+                lastError = null;
+            }
+            log.info("FIR stage timings ready: {} scopes", docs.size());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            synchronized (this) {
+                lastError = e.getMessage();
+            }
+            log.warn("FIR stage timings load failed: {}", e.getMessage());
+            if (!worker.isShutdown()) worker.schedule(this::load, 30, TimeUnit.SECONDS);
+        }
+    }
+
+    // Merges each scope's deltas into its stored digests; deltas that fail to flush are kept for the next round
+    private void flush() {
+        Map<String, Scope> dirty = new HashMap<>();
+        Map<String, Map<String, TDigest>> taken = new HashMap<>();
+        synchronized (this) {
+            if (!loaded) return;
+            scopes.forEach((id, scope) -> {
+                if (scope.delta.isEmpty()) return;
+                dirty.put(id, scope);
+                taken.put(id, scope.delta);
+                scope.delta = new HashMap<>();
+            });
+        }
+        for (Map.Entry<String, Scope> entry : dirty.entrySet()) {
+            String id = entry.getKey();
+            Scope scope = entry.getValue();
+            Map<String, TDigest> delta = taken.get(id);
+            try {
+                Map<String, TDigest> stored = write(id, scope, delta);
+                synchronized (this) {
+                    // Samples recorded while the write was in flight are in the new delta
+                    scope.delta.forEach((stage, digest) -> digestOf(stored, stage).merge(digest));
+                    scope.total = stored;
+                }
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                synchronized (this) {
+                    delta.forEach((stage, digest) -> digestOf(scope.delta, stage).merge(digest));
+                    lastError = e.getMessage();
+                }
+                log.warn("Could not flush FIR stage timings for {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, TDigest> write(String id, Scope scope, Map<String, TDigest> delta) throws Exception {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            DocumentSnapshot snapshot = firestoreService.getSnapshot(COLLECTION, id);
+            Map<String, TDigest> stored = snapshot.exists() ? decode(snapshot) : new HashMap<>();
+            delta.forEach((stage, digest) -> digestOf(stored, stage).merge(digest));
+            Map<String, Object> stages = new HashMap<>();
+            stored.forEach((stage, digest) -> stages.put(stage, Blob.fromBytes(digest.toBytes())));
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("scope", scope.kind);
+            fields.put("key", scope.key);
+            fields.put("stages", stages);
+            fields.put("updatedAt", Instant.now().toString());
+            if (firestoreService.updateIfUnchanged(COLLECTION, snapshot, fields)) return stored;
+        }
+        throw new IllegalStateException("Timings document kept changing");
+    }
+
+    private Map<String, TDigest> decode(DocumentSnapshot doc) {
+        Map<String, TDigest> digests = new HashMap<>();
+        Object stages = doc.get("stages");
+        if (stages instanceof Map<?, ?> map) {
+            map.forEach((stage, value) -> {
+                if (value instanceof Blob blob) digests.put(stage.toString(), TDigest.fromBytes(blob.toBytes()));
+            });
+        }
+        return digests;
+    }
+
+    private Scope scope(String kind, String key) {
+        return scopes.computeIfAbsent(docId(kind, key), id -> new Scope(kind, ALL.equals(kind) ? null : key));
+    }
+
+    private void add(Scope scope, String stage, long millis) {
+        digestOf(scope.total, stage).add(millis);
+        digestOf(scope.delta, stage).add(millis);
+    }
+
+    private TDigest digestOf(Map<String, TDigest> digests, String stage) {
+        return digests.computeIfAbsent(stage, s -> new TDigest(compression));
+    }
+
+    // Station names and officer ids may hold characters a document id can't
+    private static String docId(String kind, String key) {
+        return ALL.equals(kind) ? ALL : kind + ":" + URLEncoder.encode(key, StandardCharsets.UTF_8);
+    }
+
+    private static Timings toTimings(Scope scope) {
+        Map<String, Percentiles> stages = new LinkedHashMap<>();
+        for (FIRStatus status : FIRStatus.values()) {
+            if (status != FIRStatus.CLOSED) stages.put(status.name(), percentiles(scope.total.get(status.name())));
+        }
+        return new Timings(scope.kind, scope.key, stages, percentiles(scope.total.get(TO_CLOSE)));
+    }
+
+    private static Percentiles percentiles(TDigest digest) {
+        if (digest == null || digest.count() == 0) return new Percentiles(0, null, null, null);
+        return new Percentiles(digest.count(), hours(digest.quantile(0.5)), hours(digest.quantile(0.9)),
+                hours(digest.quantile(0.99)));
+    }
+
+    private static Double hours(double millis) {
+        return Math.round(millis / MILLIS_PER_HOUR * 100) / 100d;
+    }
+}
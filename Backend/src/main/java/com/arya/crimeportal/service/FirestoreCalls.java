@@ -0,0 +1,381 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.exception.CircuitOpenException;
+import com.arya.crimeportal.exception.DeadlineExceededException;
+import com.arya.crimeportal.util.RequestDeadline;
+import com.arya.crimeportal.util.RequestUsage;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Deadlines, retries and hedging for Firestore calls.
+ * <ul>
+ *   <li>{@link #await} waits for a call no longer than the current {@link RequestDeadline} (or
+ *       {@code firestore.call-timeout-ms} outside a request) and cancels it when time is up.</li>
+ *   <li>{@link #retrying} re-issues a call that failed with UNAVAILABLE after a full-jitter exponential
+ *       backoff, while the deadline leaves room. Only use it for idempotent calls: reads, and writes whose
+ *       replay leaves the same document (set with a fixed id, delete).</li>
+ *   <li>{@link #hedged} sends a second copy of a read when the first has not answered within the p95
+ *       latency observed for that collection, and takes whichever answers first. Hedges are capped at
+ *       {@code firestore.hedge.max-ratio} of reads, so a slow backend is not sent twice the load.</li>
+ *   <li>{@link #guarded} puts reads behind a {@link CircuitBreaker}: once too many of them fail with
+ *       UNAVAILABLE or run past their deadline, reads are refused outright for a while instead of piling
+ *       onto the outage, and no retries are made until the breaker has closed again.</li>
+ * </ul>
+ * Meters: {@code firestore.retries} and {@code firestore.hedges} (outcome: issued, won), tagged by
+ * collection, {@code firestore.deadline.exceeded}, {@code firestore.breaker.state} (0 closed, 1 open,
+ * 2 half open) and {@code firestore.breaker.rejected}.
+ */
+@Component
+public class FirestoreCalls {
+
+    private static final int WINDOW_SIZE = 512;
+    private static final int MIN_SAMPLES = 64;
+    private static final long HEDGE_CREDIT_UNIT = 1000;
+    private static final long MAX_HEDGE_CREDIT = 20 * HEDGE_CREDIT_UNIT;
+
+    private final FirestoreMetrics metrics;
+    private final MeterRegistry registry;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong hedgeCredit = new AtomicLong(MAX_HEDGE_CREDIT);
+
+    private final long callTimeoutNanos;
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final boolean hedgeEnabled;
+    private final long minHedgeDelayNanos;
+    private final long hedgeCreditPerRead;
+    private final CircuitBreaker breaker;
+
+    public FirestoreCalls(FirestoreMetrics metrics, MeterRegistry registry,
+                          @Value("${firestore.call-timeout-ms:30000}") long callTimeoutMillis,
+                          @Value("${firestore.retry.max-attempts:3}") int maxAttempts,
+                          @Value("${firestore.retry.base-delay-ms:25}") long baseDelayMillis,
+                          @Value("${firestore.retry.max-delay-ms:400}") long maxDelayMillis,
+                          @Value("${firestore.hedge.enabled:true}") boolean hedgeEnabled,
+                          @Value("${firestore.hedge.min-delay-ms:5}") long minHedgeDelayMillis,
+                          @Value("${firestore.hedge.max-ratio:0.05}") double hedgeMaxRatio,
+                          @Value("${firestore.breaker.enabled:true}") boolean breakerEnabled,
+                          @Value("${firestore.breaker.window:20}") int breakerWindow,
+                          @Value("${firestore.breaker.min-calls:10}") int breakerMinCalls,
+                          @Value("${firestore.breaker.failure-rate:50}") int breakerFailureRate,
+                          @Value("${firestore.breaker.open-ms:5000}") long breakerOpenMillis,
+                          @Value("${firestore.breaker.probes:3}") int breakerProbes) {
+        this.metrics = metrics;
+        this.registry = registry;
+        this.callTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(callTimeoutMillis);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayNanos = TimeUnit.MILLISECONDS.toNanos(baseDelayMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.hedgeEnabled = hedgeEnabled;
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMillis);
+        this.hedgeCreditPerRead = (long) (hedgeMaxRatio * HEDGE_CREDIT_UNIT);
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "firestore-calls");
+            t.setDaemon(true);
+            return t;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.breaker = breakerEnabled
+                ? new CircuitBreaker(breakerWindow, breakerMinCalls, breakerFailureRate, breakerOpenMillis, breakerProbes)
+                : null;
+        Gauge.builder("firestore.breaker.state", this, calls -> calls.breakerState().ordinal()).register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /** Waits for {@code future} within the current deadline; on timeout cancels it and throws {@link DeadlineExceededException}. */
+    public <T> T await(ApiFuture<T> future) throws ExecutionException, InterruptedException {
+        long remaining = RequestDeadline.remainingNanos(RequestDeadline.current(), callTimeoutNanos);
+        long start = System.nanoTime();
+        try {
+            if (remaining <= 0) throw new TimeoutException();
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            Counter.builder("firestore.deadline.exceeded").register(registry).increment();
+            throw new DeadlineExceededException(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.state();
+    }
+
+    /**
+     * Issues a read through the circuit breaker, or throws {@link CircuitOpenException} (503) while it is
+     * open. Only failures that say the backend is down or too slow ({@link #isUnavailable}) count against it.
+     */
+    public <T> ApiFuture<T> guarded(Supplier<ApiFuture<T>> call) {
+        if (breaker == null) return call.get();
+        if (!breaker.tryAcquire()) {
+            Counter.builder("firestore.breaker.rejected").register(registry).increment();
+            throw new CircuitOpenException(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(breaker.retryAfterMillis() + 999)));
+        }
+        ApiFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            breaker.onSuccess(); // refused locally (e.g. read budget), says nothing about the backend
+            throw e;
+        }
+        ApiFutures.addCallback(future, new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                breaker.onSuccess();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (isUnavailable(t)) breaker.onFailure();
+                else breaker.onSuccess();
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    /**
+     * True for failures meaning Firestore is down or too slow rather than the request being wrong: an open
+     * breaker, an exceeded deadline (the call is cancelled then), or UNAVAILABLE / DEADLINE_EXCEEDED /
+     * RESOURCE_EXHAUSTED from the backend.
+     */
+    public static boolean isUnavailable(Throwable t) {
+        Throwable cause = t;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof CircuitOpenException
+                || cause instanceof DeadlineExceededException
+                || cause instanceof CancellationException
+                || Bulkheads.isOverload(cause);
+    }
+
+    /** Issues {@code call}, re-issuing it after UNAVAILABLE failures. {@code call} must be idempotent. */
+    public <T> ApiFuture<T> retrying(String collection, Supplier<ApiFuture<T>> call) {
+        Retry<T> retry = new Retry<>(collection, call, RequestDeadline.current());
+        retry.attempt(1);
+        return retry.result;
+    }
+
+    /** Like {@link #retrying}, plus a hedged second read past the collection's p95 latency. */
+    public <T> ApiFuture<T> hedged(String collection, Supplier<ApiFuture<T>> call) {
+        LatencyWindow window = latencies.computeIfAbsent(collection, k -> new LatencyWindow());
+        long start = System.nanoTime();
+        ApiFuture<T> primary = retrying(collection, call);
+        ApiFutures.addCallback(primary, new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                window.add(System.nanoTime() - start);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+            }
+        }, MoreExecutors.directExecutor());
+        earnHedgeCredit();
+
+        long delay = Math.max(window.p95(), minHedgeDelayNanos);
+        long deadline = RequestDeadline.current();
+        if (!hedgeEnabled || window.p95() == 0 || RequestDeadline.remainingNanos(deadline, Long.MAX_VALUE) <= delay) {
+            return primary;
+        }
+
+        Hedge<T> hedge = new Hedge<>(collection, primary);
+        RequestUsage.Tally tally = RequestUsage.current();
+        ScheduledFuture<?> timer = scheduler.schedule(() -> {
+            if (primary.isDone() || !takeHedgeCredit()) return;
+            if (!hedge.expect()) return;
+            metrics.countReads(collection, "hedge", 1, tally);
+            Counter.builder("firestore.hedges").tag("collection", collection).tag("outcome", "issued").register(registry).increment();
+            ApiFuture<T> backup;
+            RequestUsage.Tally previous = RequestUsage.bind(tally);
+            try {
+                backup = call.get();
+            } catch (RuntimeException e) {
+                backup = ApiFutures.immediateFailedFuture(e);
+            } finally {
+                RequestUsage.restore(previous);
+            }
+            hedge.watch(backup, true);
+        }, delay, TimeUnit.NANOSECONDS);
+        primary.addListener(() -> timer.cancel(false), MoreExecutors.directExecutor());
+        return hedge.result;
+    }
+
+    private long backoffNanos(int attempt) {
+        long ceiling = Math.min(maxDelayNanos, baseDelayNanos << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isRetryable(Throwable t) {
+        return t instanceof ApiException api && api.getStatusCode().getCode() == StatusCode.Code.UNAVAILABLE;
+    }
+
+    private void earnHedgeCredit() {
+        hedgeCredit.getAndUpdate(c -> Math.min(MAX_HEDGE_CREDIT, c + hedgeCreditPerRead));
+    }
+
+    private boolean takeHedgeCredit() {
+        while (true) {
+            long credit = hedgeCredit.get();
+            if (credit < HEDGE_CREDIT_UNIT) return false;
+            if (hedgeCredit.compareAndSet(credit, credit - HEDGE_CREDIT_UNIT)) return true;
+        }
+    }
+
+    /** One logical call and its attempts; cancelling {@code result} cancels the attempt in flight. */
+    private final class Retry<T> {
+        final SettableApiFuture<T> result = SettableApiFuture.create();
+        final String collection;
+        final Supplier<ApiFuture<T>> call;
+        final long deadline;
+        final RequestUsage.Tally tally;
+        volatile Future<T> inFlight;
+
+        Retry(String collection, Supplier<ApiFuture<T>> call, long deadline) {
+            this.collection = collection;
+            this.call = call;
+            this.deadline = deadline;
+            this.tally = RequestUsage.current();
+            result.addListener(() -> {
+                Future<T> current = inFlight;
+                if (result.isCancelled() && current != null) current.cancel(true);
+            }, MoreExecutors.directExecutor());
+        }
+
+        void attempt(int attempt) {
+            if (result.isDone()) return;
+            ApiFuture<T> future;
+            // Retries run on the scheduler thread; charge anything the call counts to the request that made it
+            RequestUsage.Tally previous = RequestUsage.bind(tally);
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                result.setException(e);
+                return;
+            } finally {
+                RequestUsage.restore(previous);
+            }
+            inFlight = future;
+            ApiFutures.addCallback(future, new ApiFutureCallback<>() {
+                @Override
+                public void onSuccess(T value) {
+                    result.set(value);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    long delay = backoffNanos(attempt);
+                    // No retries while the breaker is open or probing: they would only deepen the outage
+                    if (attempt < maxAttempts && isRetryable(t) && !result.isDone()
+                            && breakerState() == CircuitBreaker.State.CLOSED
+                            && RequestDeadline.remainingNanos(deadline, Long.MAX_VALUE) > delay) {
+                        Counter.builder("firestore.retries").tag("collection", collection).register(registry).increment();
+                        scheduler.schedule(() -> attempt(attempt + 1), delay, TimeUnit.NANOSECONDS);
+                    } else {
+                        result.setException(t);
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+        }
+    }
+
+    /** The first successful answer of a primary call and its optional backup; fails only when all fail. */
+    private final class Hedge<T> {
+        final SettableApiFuture<T> result = SettableApiFuture.create();
+        final String collection;
+        final AtomicInteger outstanding = new AtomicInteger(1);
+        final Future<T> primary;
+        volatile Future<T> backup;
+
+        Hedge(String collection, ApiFuture<T> primary) {
+            this.collection = collection;
+            this.primary = primary;
+            result.addListener(() -> {
+                primary.cancel(true);
+                Future<T> b = backup;
+                if (b != null) b.cancel(true);
+            }, MoreExecutors.directExecutor());
+            watch(primary, false);
+        }
+
+        /** Registers a backup; false if the outcome is already decided. */
+        boolean expect() {
+            while (true) {
+                int n = outstanding.get();
+                if (n == 0 || result.isDone()) return false;
+                if (outstanding.compareAndSet(n, n + 1)) return true;
+            }
+        }
+
+        void watch(ApiFuture<T> future, boolean isBackup) {
+            if (isBackup) backup = future;
+            ApiFutures.addCallback(future, new ApiFutureCallback<>() {
+                @Override
+                public void onSuccess(T value) {
+                    if (result.set(value) && isBackup) {
+                        Counter.builder("firestore.hedges").tag("collection", collection).tag("outcome", "won").register(registry).increment();
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    if (outstanding.decrementAndGet() == 0) result.setException(t);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+    }
+
+    /** Recent successful latencies of one collection's reads; p95 is recomputed every {@value #MIN_SAMPLES} samples. */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private long count;
+        private volatile long p95;
+
+        synchronized void add(long nanos) {
+            samples[(int) (count % WINDOW_SIZE)] = nanos;
+            count++;
+            if (count % MIN_SAMPLES == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, WINDOW_SIZE));
+                Arrays.sort(sorted);
+                p95 = sorted[(int) (sorted.length * 0.95)];
+            }
+        }
+
+        long p95() {
+            return p95;
+        }
+    }
+}
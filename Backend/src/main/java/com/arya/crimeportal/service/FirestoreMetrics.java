@@ -0,0 +1,138 @@
+package com.arya.crimeportal.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.arya.crimeportal.util.RequestUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToLongFunction;
+
+/**
+ * Micrometer meters for Firestore access, tagged by collection and operation:
+ * <ul>
+ *   <li>{@code firestore.operation} - latency timer (also tagged with outcome)</li>
+ *   <li>{@code firestore.documents.read} - billable document reads</li>
+ *   <li>{@code firestore.documents.written} - document writes and deletes</li>
+ * </ul>
+ * Collection names are a small fixed set, so tag cardinality stays bounded. Reads and writes are also
+ * charged to the current request's {@link RequestUsage} tally, if any, and call latencies are reported to
+ * the {@link Bulkhead} that admitted the request.
+ */
+@Component
+public class FirestoreMetrics {
+
+    private final MeterRegistry registry;
+
+    public FirestoreMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @FunctionalInterface
+    public interface FirestoreCall<T> {
+        T call() throws ExecutionException, InterruptedException;
+    }
+
+    /** Times a blocking Firestore call. */
+    public <T> T record(String collection, String operation, FirestoreCall<T> call) throws ExecutionException, InterruptedException {
+        Timer.Sample sample = Timer.start(registry);
+        Bulkhead bulkhead = Bulkheads.current();
+        Throwable failure = null;
+        try {
+            return call.call();
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            long nanos = sample.stop(timer(collection, operation, failure == null ? "success" : "error"));
+            if (bulkhead != null) bulkhead.onCall(nanos, failure != null && Bulkheads.isOverload(failure));
+        }
+    }
+
+    /**
+     * Times an asynchronous Firestore call from issue to completion and, on success, counts the reads
+     * reported by {@code reads}. The returned future completes only after the accounting is done, so a
+     * caller that waits on it always sees its reads in the request tally.
+     */
+    public <T> ApiFuture<T> recordAsync(String collection, String operation, ApiFuture<T> future, ToLongFunction<T> reads) {
+        return record(collection, operation, future, reads, 0);
+    }
+
+    /** Times an asynchronous write and, on success, counts {@code writes} documents written. */
+    public <T> ApiFuture<T> recordWritesAsync(String collection, String operation, ApiFuture<T> future, long writes) {
+        return record(collection, operation, future, null, writes);
+    }
+
+    private <T> ApiFuture<T> record(String collection, String operation, ApiFuture<T> future, ToLongFunction<T> reads, long writes) {
+        Timer.Sample sample = Timer.start(registry);
+        RequestUsage.Tally tally = RequestUsage.current();
+        // A stream's duration depends on its size and the reader, so it says nothing about backend latency
+        Bulkhead bulkhead = "stream".equals(operation) ? null : Bulkheads.current();
+        SettableApiFuture<T> accounted = SettableApiFuture.create();
+        ApiFutures.addCallback(future, new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                long nanos = sample.stop(timer(collection, operation, "success"));
+                if (bulkhead != null) bulkhead.onCall(nanos, false);
+                if (reads != null) countReads(collection, operation, reads.applyAsLong(result), tally);
+                countWrites(collection, operation, writes, tally);
+                accounted.set(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                long nanos = sample.stop(timer(collection, operation, "error"));
+                if (bulkhead != null) bulkhead.onCall(nanos, Bulkheads.isOverload(t));
+                accounted.setException(t);
+            }
+        }, MoreExecutors.directExecutor());
+        // Cancelling the accounted future (e.g. at a deadline) cancels the RPC itself
+        accounted.addListener(() -> {
+            if (accounted.isCancelled()) future.cancel(true);
+        }, MoreExecutors.directExecutor());
+        return accounted;
+    }
+
+    public void countReads(String collection, String operation, long documents) {
+        countReads(collection, operation, documents, RequestUsage.current());
+    }
+
+    public void countWrites(String collection, String operation, long documents) {
+        countWrites(collection, operation, documents, RequestUsage.current());
+    }
+
+    /** Counts reads issued off the request thread against the tally captured when the request started them. */
+    public void countReads(String collection, String operation, long documents, RequestUsage.Tally tally) {
+        if (documents <= 0) return;
+        if (tally != null) tally.addReads(documents);
+        Counter.builder("firestore.documents.read")
+                .tag("collection", collection)
+                .tag("operation", operation)
+                .register(registry)
+                .increment(documents);
+    }
+
+    private void countWrites(String collection, String operation, long documents, RequestUsage.Tally tally) {
+        if (documents <= 0) return;
+        if (tally != null) tally.addWrites(documents);
+        Counter.builder("firestore.documents.written")
+                .tag("collection", collection)
+                .tag("operation", operation)
+                .register(registry)
+                .increment(documents);
+    }
+
+    private Timer timer(String collection, String operation, String outcome) {
+        return Timer.builder("firestore.operation")
+                .tag("collection", collection)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -1,8 +1,22 @@
 package com.arya.crimeportal.service;
 
+import com.arya.crimeportal.exception.ResourceNotFoundException;
+import com.arya.crimeportal.util.LogSampling;
+import com.arya.crimeportal.util.RequestUsage;
+import com.arya.crimeportal.util.StaleResponses;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.ApiStreamObserver;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.*;
 import com.google.firebase.cloud.FirestoreClient;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
 
@@ -10,63 +24,322 @@ import javax.annotation.PostConstruct;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
 @Service
 @DependsOn("firebaseConfig")
 public class FirestoreService {
 
+    private static final Logger log = LoggerFactory.getLogger(FirestoreService.class);
+
     private Firestore db;
-    
+    private final FirestoreMetrics metrics;
+    private final EntityCache cache;
+    private final FirestoreCalls calls;
+    private final ApplicationEventPublisher events;
+    private final boolean countersEnabled;
+
+    public FirestoreService(FirestoreMetrics metrics, EntityCache cache, FirestoreCalls calls, ApplicationEventPublisher events,
+                            @Value("${counters.enabled:true}") boolean countersEnabled) {
+        this.metrics = metrics;
+        this.cache = cache;
+        this.calls = calls;
+        this.events = events;
+        this.countersEnabled = countersEnabled;
+    }
+
+    /**
+     * Waits for a call issued through this service, no longer than the request's deadline; throws
+     * {@link com.arya.crimeportal.exception.DeadlineExceededException} (504) when time runs out.
+     */
+    public <T> T await(ApiFuture<T> future) throws ExecutionException, InterruptedException {
+        return calls.await(future);
+    }
+
     @PostConstruct
     public void init() {
         this.db = FirestoreClient.getFirestore();
     }
 
     public String createDocument(String collection, Map<String, Object> data) throws ExecutionException, InterruptedException {
-        System.out.println("🔵 FirestoreService.createDocument - Collection: " + collection);
-        System.out.println("🔵 Firestore DB instance: " + (db != null ? "Initialized ✅" : "NULL ❌"));
-        
+        // The id is chosen client-side, so replaying the set after UNAVAILABLE cannot create a duplicate
         DocumentReference docRef = db.collection(collection).document();
-        System.out.println("🔵 Document reference created: " + docRef.getId());
-        
-        ApiFuture<WriteResult> future = docRef.set(data);
-        WriteResult result = future.get();
-        
-        System.out.println("✅ Document saved to Firebase! Write time: " + result.getUpdateTime());
-        System.out.println("✅ Document ID: " + docRef.getId());
-        
+        WriteResult result = metrics.record(collection, "create", () -> calls.await(calls.retrying(collection, () -> docRef.set(data))));
+        metrics.countWrites(collection, "create", 1);
+        if (LogSampling.debug(log)) {
+            log.debug("Created {}/{} at {}", collection, docRef.getId(), result.getUpdateTime());
+        }
+        events.publishEvent(new DocumentWrittenEvent(collection, docRef.getId(), DocumentWrittenEvent.Kind.SET, data, null));
         return docRef.getId();
     }
 
     public Map<String, Object> getDocument(String collection, String id) throws ExecutionException, InterruptedException {
-        DocumentSnapshot snapshot = db.collection(collection).document(id).get().get();
+        DocumentSnapshot snapshot = getSnapshot(collection, id);
         if (!snapshot.exists()) return null;
         Map<String, Object> map = snapshot.getData();
         map.put("id", snapshot.getId());
         return map;
     }
 
+    /**
+     * A document with its version, served from {@link EntityCache} when possible, so an unchanged
+     * document costs no read, or from an expired cached copy (marked stale) while Firestore is unavailable.
+     * Returns null when the document does not exist.
+     */
+    public VersionedDocument getVersionedDocument(String collection, String id) throws ExecutionException, InterruptedException {
+        VersionedDocument cached = cache.get(collection, id);
+        if (cached != null) return cached;
+        DocumentSnapshot snapshot;
+        try {
+            snapshot = getSnapshot(collection, id);
+        } catch (ExecutionException | RuntimeException e) {
+            // Firestore is down or too slow: an expired cached copy is better than an error
+            EntityCache.StaleCopy stale = FirestoreCalls.isUnavailable(e) ? cache.getStale(collection, id) : null;
+            if (stale == null) throw e;
+            StaleResponses.mark(stale.ageMillis());
+            return stale.doc();
+        }
+        if (!snapshot.exists()) return null;
+        VersionedDocument doc = new VersionedDocument(snapshot.getId(), snapshot.getData(), snapshot.getUpdateTime());
+        cache.put(collection, doc);
+        return doc;
+    }
+
+    public DocumentSnapshot getSnapshot(String collection, String id) throws ExecutionException, InterruptedException {
+        return calls.await(getSnapshotAsync(collection, id));
+    }
+
+    // A lookup is billed as one read whether or not the document exists; a hedged duplicate is billed too
+    public ApiFuture<DocumentSnapshot> getSnapshotAsync(String collection, String id) {
+        RequestUsage.enforceBudget();
+        DocumentReference docRef = db.collection(collection).document(id);
+        return calls.guarded(() -> metrics.recordAsync(collection, "get", calls.hedged(collection, docRef::get), snapshot -> 1));
+    }
+
     public List<QueryDocumentSnapshot> queryCollection(String collection, Query query) throws ExecutionException, InterruptedException {
-        QuerySnapshot snapshot = query.get().get();
-        return snapshot.getDocuments();
+        return calls.await(queryAsync(collection, query)).getDocuments();
+    }
+
+    // Queries are billed per document returned, with a minimum of one read
+    public ApiFuture<QuerySnapshot> queryAsync(String collection, Query query) {
+        RequestUsage.enforceBudget();
+        return calls.guarded(() -> metrics.recordAsync(collection, "query", calls.retrying(collection, query::get),
+                snapshot -> Math.max(1, snapshot.size())));
+    }
+
+    /**
+     * Streams the query's documents to {@code observer} as they are decoded. Callbacks run on a client
+     * thread, one at a time, and the next document is only requested once {@code onNext} returns, so a
+     * blocking observer slows the stream down instead of buffering it. Billed like {@link #queryAsync}.
+     */
+    public void streamQuery(String collection, Query query, ApiStreamObserver<DocumentSnapshot> observer) {
+        RequestUsage.enforceBudget();
+        SettableApiFuture<Long> done = SettableApiFuture.create();
+        calls.guarded(() -> metrics.recordAsync(collection, "stream", done, count -> Math.max(1, count)));
+        query.stream(new ApiStreamObserver<>() {
+            private long count;
+
+            @Override
+            public void onNext(DocumentSnapshot doc) {
+                count++;
+                observer.onNext(doc);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.setException(t);
+                observer.onError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                done.set(count);
+                observer.onCompleted();
+            }
+        });
     }
 
+    // Aggregations are billed one read per batch of up to 1000 index entries
+    public long count(String collection, Query query) throws ExecutionException, InterruptedException {
+        RequestUsage.enforceBudget();
+        AggregateQuerySnapshot snapshot = calls.await(calls.guarded(() -> metrics.recordAsync(collection, "count",
+                calls.retrying(collection, query.count()::get), result -> 1 + result.getCount() / 1000)));
+        return snapshot.getCount();
+    }
+
+    /** Updates the document, creating it with just {@code updates} when it does not exist. */
     public void updateDocument(String collection, String id, Map<String, Object> updates) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = db.collection(collection).document(id);
+        if (!capturesPrevious(collection)) {
+            DocumentReference docRef = db.collection(collection).document(id);
+            WriteResult result;
+            DocumentWrittenEvent.Kind kind = DocumentWrittenEvent.Kind.UPDATE;
+            Map<String, Object> written = updates;
+            try {
+                result = metrics.record(collection, "update", () -> calls.await(docRef.update(updates)));
+            } catch (ExecutionException e) {
+                // Only a missing document is created; after a deadline, cancellation or outage the update may
+                // still commit, and a set would replace the whole document with just these fields
+                if (!(e.getCause() instanceof ApiException api && api.getStatusCode().getCode() == StatusCode.Code.NOT_FOUND)) {
+                    throw e;
+                }
+                result = metrics.record(collection, "set", () -> calls.await(docRef.set(updates)));
+                // A SET event must carry the whole document, and another write may have landed since the set
+                DocumentSnapshot created = getSnapshot(collection, id);
+                kind = created.exists() ? DocumentWrittenEvent.Kind.SET : DocumentWrittenEvent.Kind.DELETE;
+                written = created.exists() ? created.getData() : Map.of();
+            }
+            metrics.countWrites(collection, "update", 1);
+            cache.invalidate(collection, id, result.getUpdateTime());
+            events.publishEvent(new DocumentWrittenEvent(collection, id, kind, written, null));
+            return;
+        }
+        writeInTransaction(collection, id, "update", (tx, before) -> {
+            if (before.exists()) tx.update(before.getReference(), updates);
+            else tx.set(before.getReference(), updates);
+            return true;
+        }, before -> before.exists() ? DocumentWrittenEvent.Kind.UPDATE : DocumentWrittenEvent.Kind.SET, updates);
+    }
+
+    /**
+     * Like {@link #updateDocument} but fails instead of creating the document when it does not exist (with
+     * {@link ResourceNotFoundException} in a counted collection). Updates are not retried: they may carry field
+     * transforms (increments, server timestamps) that a replay would apply twice. Returns the write's commit
+     * time, or null in a counted collection (its writes go through a transaction, which reports none).
+     */
+    public Timestamp updateExistingDocument(String collection, String id, Map<String, Object> updates) throws ExecutionException, InterruptedException {
+        if (!capturesPrevious(collection)) {
+            DocumentReference docRef = db.collection(collection).document(id);
+            WriteResult result = metrics.record(collection, "update", () -> calls.await(docRef.update(updates)));
+            metrics.countWrites(collection, "update", 1);
+            cache.invalidate(collection, id, result.getUpdateTime());
+            events.publishEvent(new DocumentWrittenEvent(collection, id, DocumentWrittenEvent.Kind.UPDATE, updates, null));
+            return result.getUpdateTime();
+        }
+        DocumentSnapshot before = writeInTransaction(collection, id, "update", (tx, found) -> {
+            if (!found.exists()) return false;
+            tx.update(found.getReference(), updates);
+            return true;
+        }, found -> DocumentWrittenEvent.Kind.UPDATE, updates);
+        if (before == null) throw new ResourceNotFoundException(collection, "id", id);
+        return null;
+    }
+
+    /**
+     * Writes {@code updates} only if the document is still as {@code seen} left it: an update conditioned on
+     * its update time, or a create when {@code seen} did not exist. Returns false without writing when another
+     * write got there first, so read-modify-write callers can re-read and try again. Not retried either.
+     */
+    public boolean updateIfUnchanged(String collection, DocumentSnapshot seen, Map<String, Object> updates) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = db.collection(collection).document(seen.getId());
+        WriteResult result;
         try {
-            docRef.update(updates).get();
-        } catch (Exception e) {
-            // if update fails (e.g., doc missing), set the document
-            docRef.set(updates).get();
+            result = seen.exists()
+                    ? metrics.record(collection, "update", () -> calls.await(docRef.update(updates, Precondition.updatedAt(seen.getUpdateTime()))))
+                    : metrics.record(collection, "create", () -> calls.await(docRef.create(updates)));
+        } catch (ExecutionException e) {
+            if (isConflict(e)) return false;
+            throw e;
+        }
+        metrics.countWrites(collection, "update", 1);
+        cache.invalidate(collection, seen.getId(), result.getUpdateTime());
+        events.publishEvent(new DocumentWrittenEvent(collection, seen.getId(),
+                seen.exists() ? DocumentWrittenEvent.Kind.UPDATE : DocumentWrittenEvent.Kind.SET, updates,
+                capturesPrevious(collection) ? previous(seen) : null));
+        return true;
+    }
+
+    /** Replaces the document; returns the write's commit time, or null in a counted collection. */
+    public Timestamp setDocument(String collection, String id, Map<String, Object> data) throws ExecutionException, InterruptedException {
+        if (!capturesPrevious(collection)) {
+            DocumentReference docRef = db.collection(collection).document(id);
+            WriteResult result = metrics.record(collection, "set", () -> calls.await(calls.retrying(collection, () -> docRef.set(data))));
+            metrics.countWrites(collection, "set", 1);
+            cache.invalidate(collection, id, result.getUpdateTime());
+            events.publishEvent(new DocumentWrittenEvent(collection, id, DocumentWrittenEvent.Kind.SET, data, null));
+            return result.getUpdateTime();
         }
+        writeInTransaction(collection, id, "set", (tx, before) -> {
+            tx.set(before.getReference(), data);
+            return true;
+        }, before -> DocumentWrittenEvent.Kind.SET, data);
+        return null;
+    }
+
+    /** Deletes the document; returns the write's commit time, or null in a counted collection. */
+    public Timestamp deleteDocument(String collection, String id) throws ExecutionException, InterruptedException {
+        if (!capturesPrevious(collection)) {
+            DocumentReference docRef = db.collection(collection).document(id);
+            WriteResult result = metrics.record(collection, "delete", () -> calls.await(calls.retrying(collection, docRef::delete)));
+            metrics.countWrites(collection, "delete", 1);
+            cache.invalidate(collection, id, result.getUpdateTime());
+            events.publishEvent(new DocumentWrittenEvent(collection, id, DocumentWrittenEvent.Kind.DELETE, Map.of(), null));
+            return result.getUpdateTime();
+        }
+        writeInTransaction(collection, id, "delete", (tx, before) -> {
+            if (!before.exists()) return false;
+            tx.delete(before.getReference());
+            return true;
+        }, before -> DocumentWrittenEvent.Kind.DELETE, Map.of());
+        return null;
+    }
+
+    // Only writes StatsCounters counts pay for reading what they replace; the rest are written blindly
+    private boolean capturesPrevious(String collection) {
+        return countersEnabled && StatsCounters.isCounted(collection);
+    }
+
+    /** The document's fields before a write, as carried by {@link DocumentWrittenEvent}; null if it did not exist. */
+    private static Map<String, Object> previous(DocumentSnapshot before) {
+        return before.exists() ? before.getData() : null;
+    }
+
+    /**
+     * True when a conditional write lost to another write: the precondition failed or the document appeared.
+     * BulkWriter reports failures as {@link BulkWriterException}, which carries a gRPC status instead.
+     */
+    public static boolean isConflict(Throwable t) {
+        Throwable cause = t instanceof ExecutionException && t.getCause() != null ? t.getCause() : t;
+        if (cause instanceof FirestoreException fe && fe.getStatus() != null) {
+            Status.Code code = fe.getStatus().getCode();
+            return code == Status.Code.FAILED_PRECONDITION || code == Status.Code.ALREADY_EXISTS;
+        }
+        return cause instanceof ApiException api
+                && (api.getStatusCode().getCode() == StatusCode.Code.FAILED_PRECONDITION
+                    || api.getStatusCode().getCode() == StatusCode.Code.ALREADY_EXISTS);
+    }
+
+    private interface TransactionalWrite {
+        /** Adds the write to {@code tx}, given the document as the transaction read it; false to write nothing. */
+        boolean write(Transaction tx, DocumentSnapshot before);
     }
 
-    public void setDocument(String collection, String id, Map<String, Object> data) throws ExecutionException, InterruptedException {
+    /**
+     * Reads the document and writes it in one transaction, so the write event can carry what the write
+     * replaced ({@link StatsCounters} counts from it; used for its collections only). Firestore runs the
+     * transaction again when another write to the document gets in between. Not retried after UNAVAILABLE:
+     * the commit may have landed. Returns the document as the write found it, or null if nothing was written.
+     */
+    private DocumentSnapshot writeInTransaction(String collection, String id, String operation, TransactionalWrite write,
+                                                Function<DocumentSnapshot, DocumentWrittenEvent.Kind> kind, Map<String, Object> fields)
+            throws ExecutionException, InterruptedException {
+        RequestUsage.enforceBudget();
         DocumentReference docRef = db.collection(collection).document(id);
-        docRef.set(data).get();
+        DocumentSnapshot before = metrics.record(collection, operation, () -> calls.await(db.runTransaction(tx -> {
+            DocumentSnapshot found = tx.get(docRef).get();
+            return write.write(tx, found) ? found : null;
+        })));
+        metrics.countReads(collection, operation, 1);
+        if (before == null) return null;
+        metrics.countWrites(collection, operation, 1);
+        // A transaction reports no write time
+        cache.invalidate(collection, id, null);
+        events.publishEvent(new DocumentWrittenEvent(collection, id, kind.apply(before), fields, previous(before)));
+        return before;
     }
 
-    public void deleteDocument(String collection, String id) throws ExecutionException, InterruptedException {
-        db.collection(collection).document(id).delete().get();
+    // Batched writes don't know their document ids here, so they bypass EntityCache invalidation and
+    // DocumentWrittenEvents. Batches may hold increments, so they are never retried
+    public ApiFuture<List<WriteResult>> commitAsync(String collection, WriteBatch batch) {
+        return metrics.recordWritesAsync(collection, "batch", batch.commit(), batch.getMutationsSize());
     }
 }
@@ -0,0 +1,123 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.util.RequestDeadline;
+import com.arya.crimeportal.util.RequestUsage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint read budgets and the running totals behind the read-amplification report.
+ *
+ * Budgets are configured as {@code firestore.budget.reads=<ant-pattern>=<reads>,...}; the first matching
+ * pattern wins and {@code firestore.budget.default-reads} applies otherwise (0 = no budget). In WARN mode
+ * an over-budget request is logged; in REJECT mode it fails with 429. Time budgets
+ * ({@code firestore.budget.deadlines}, same format, in milliseconds) become the request's {@link RequestDeadline}.
+ */
+@Component
+public class FirestoreUsageReport {
+
+    private final MeterRegistry registry;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final Map<String, Long> budgets = new LinkedHashMap<>();
+    private final Map<String, Long> deadlines = new LinkedHashMap<>();
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    @Value("${firestore.budget.default-reads:0}")
+    private long defaultReads;
+
+    @Value("${firestore.budget.mode:WARN}")
+    private String mode;
+
+    @Value("${firestore.budget.default-deadline-ms:10000}")
+    private long defaultDeadlineMillis;
+
+    public FirestoreUsageReport(MeterRegistry registry,
+                                @Value("${firestore.budget.reads:}") String budgetSpec,
+                                @Value("${firestore.budget.deadlines:}") String deadlineSpec) {
+        this.registry = registry;
+        parseBudgets(budgetSpec, budgets);
+        parseBudgets(deadlineSpec, deadlines);
+    }
+
+    private static void parseBudgets(String spec, Map<String, Long> into) {
+        for (String entry : spec.split(",")) {
+            int eq = entry.lastIndexOf('=');
+            if (eq <= 0) continue;
+            into.put(entry.substring(0, eq).trim(), Long.parseLong(entry.substring(eq + 1).trim()));
+        }
+    }
+
+    private static final class EndpointStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder reads = new LongAdder();
+        final LongAdder writes = new LongAdder();
+        final LongAdder overBudget = new LongAdder();
+        final AtomicLong maxReads = new AtomicLong();
+    }
+
+    public long budgetFor(String path) {
+        for (Map.Entry<String, Long> e : budgets.entrySet()) {
+            if (matcher.match(e.getKey(), path)) return e.getValue();
+        }
+        return defaultReads;
+    }
+
+    /** Time budget for a request to {@code path} in milliseconds, within which all its Firestore calls must finish (0 = none). */
+    public long deadlineFor(String path) {
+        for (Map.Entry<String, Long> e : deadlines.entrySet()) {
+            if (matcher.match(e.getKey(), path)) return e.getValue();
+        }
+        return defaultDeadlineMillis;
+    }
+
+    public boolean isRejecting() {
+        return "REJECT".equalsIgnoreCase(mode);
+    }
+
+    /** Adds a finished request to its endpoint's totals. {@code endpoint} is "METHOD /route/pattern". */
+    public void record(String endpoint, RequestUsage.Tally tally) {
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        stats.requests.increment();
+        stats.reads.add(tally.getReads());
+        stats.writes.add(tally.getWrites());
+        stats.maxReads.accumulateAndGet(tally.getReads(), Math::max);
+        if (tally.isOverBudget()) stats.overBudget.increment();
+
+        DistributionSummary.builder("firestore.request.reads")
+                .description("Firestore documents read per request")
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .record(tally.getReads());
+    }
+
+    /** Endpoints ranked by average reads per request, highest first. */
+    public List<Map<String, Object>> ranking(int limit) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        endpoints.forEach((endpoint, stats) -> {
+            long requests = stats.requests.sum();
+            if (requests == 0) return;
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint);
+            row.put("requests", requests);
+            row.put("readsPerRequest", (double) stats.reads.sum() / requests);
+            row.put("maxReads", stats.maxReads.get());
+            row.put("writesPerRequest", (double) stats.writes.sum() / requests);
+            row.put("overBudget", stats.overBudget.sum());
+            rows.add(row);
+        });
+        rows.sort(Comparator.comparingDouble((Map<String, Object> row) -> (double) row.get("readsPerRequest")).reversed());
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+}
@@ -0,0 +1,520 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.enums.CrimeCategory;
+import com.arya.crimeportal.enums.CrimeStatus;
+import com.arya.crimeportal.enums.CriminalStatus;
+import com.arya.crimeportal.model.ImportJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterOptions;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.cloud.FirestoreClient;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import of historical crimes and criminals from CSV.
+ *
+ * The upload is spooled to disk, then read as a stream: one thread reads raw rows in chunks, a pool
+ * validates and maps chunks in parallel (a few chunks ahead of the writer), and valid rows are written
+ * through a Firestore {@link BulkWriter} with a bounded number of writes in flight. Job state, including
+ * a checkpoint row below which every write has succeeded, is persisted next to the file so a
+ * failed import can be resumed without re-writing finished rows. Document ids are deterministic per
+ * job and row, so rows replayed after a crash overwrite rather than duplicate.
+ * Rows are created, so a first import's write events carry no previous values; a replayed row that finds
+ * its document is re-written through {@link FirestoreService#setDocument}, which reads the document first.
+ */
+@Service
+public class ImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportService.class);
+    private static final Set<String> COLLECTIONS = Set.of(CollectionQueries.CRIMES, CollectionQueries.CRIMINALS);
+    private static final Set<String> LEVELS = Set.of("LOW", "MEDIUM", "HIGH", "CRITICAL");
+    private static final int CHUNK_SIZE = 500;
+    private static final int CHUNKS_AHEAD = 4;
+    private static final long PERSIST_INTERVAL_MS = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final FirestoreService firestoreService;
+    private final FirestoreMetrics metrics;
+    private final EntityCache cache;
+    private final ApplicationEventPublisher events;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${imports.dir:${java.io.tmpdir}/crimeportal-imports}")
+    private String importDirSetting;
+
+    @Value("${imports.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${imports.initial-ops-per-second:500}")
+    private int initialOpsPerSecond;
+
+    @Value("${imports.max-ops-per-second:5000}")
+    private int maxOpsPerSecond;
+
+    private Path importDir;
+    private ExecutorService runner;
+    private ExecutorService parsers;
+    private ExecutorService replays;
+
+    public ImportService(ObjectMapper objectMapper, FirestoreService firestoreService, FirestoreMetrics metrics,
+                         EntityCache cache, ApplicationEventPublisher events) {
+        this.objectMapper = objectMapper;
+        this.firestoreService = firestoreService;
+        this.metrics = metrics;
+        this.cache = cache;
+        this.events = events;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        importDir = Paths.get(importDirSetting);
+        Files.createDirectories(importDir);
+        runner = Executors.newSingleThreadExecutor(r -> daemon(r, "import-runner"));
+        int parserThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        parsers = Executors.newFixedThreadPool(parserThreads, r -> daemon(r, "import-parser"));
+        replays = Executors.newFixedThreadPool(parserThreads, r -> daemon(r, "import-replay"));
+        loadPersistedJobs();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        parsers.shutdownNow();
+        replays.shutdownNow();
+    }
+
+    public boolean supports(String collection) {
+        return COLLECTIONS.contains(collection);
+    }
+
+    /** Spools the CSV body to disk and queues the import. */
+    public ImportJob createJob(String collection, InputStream body, String requestedBy) throws IOException {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), collection, requestedBy);
+        Files.copy(body, csvFile(job.getJobId()), StandardCopyOption.REPLACE_EXISTING);
+        jobs.put(job.getJobId(), job);
+        persist(job);
+        runner.execute(() -> run(job));
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /** Re-queues a failed import; rows up to the checkpoint are skipped, the rest (including failed writes) redone. */
+    public boolean resume(ImportJob job) {
+        synchronized (job) {
+            if (job.getStatus() != ImportJob.Status.FAILED) return false;
+            job.rewindToCheckpoint();
+            job.setStatus(ImportJob.Status.QUEUED);
+            job.setError(null);
+        }
+        persist(job);
+        runner.execute(() -> run(job));
+        return true;
+    }
+
+    // ---- Pipeline ----
+
+    private record RawRow(long row, String[] values) {}
+
+    private record MappedRow(long row, String docId, Map<String, Object> data, String error) {}
+
+    private static final class Chunk {
+        final long lastRow;
+        final List<MappedRow> rows;
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicInteger written = new AtomicInteger();
+        volatile boolean writeFailed;
+        int rejected;
+
+        Chunk(long lastRow, List<MappedRow> rows) {
+            this.lastRow = lastRow;
+            this.rows = rows;
+        }
+    }
+
+    private void run(ImportJob job) {
+        job.setStatus(ImportJob.Status.RUNNING);
+        job.setStartedAt(Instant.now());
+        persist(job);
+
+        Firestore db = FirestoreClient.getFirestore();
+        CollectionReference collection = db.collection(job.getCollection());
+        BulkWriter writer = db.bulkWriter(BulkWriterOptions.builder()
+                .setInitialOpsPerSecond(initialOpsPerSecond)
+                .setMaxOpsPerSecond(maxOpsPerSecond)
+                .build());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Deque<Chunk> unacknowledged = new ArrayDeque<>();
+        Deque<Future<Chunk>> parsing = new ArrayDeque<>();
+        long resumeAfter = job.getCheckpointRow();
+        long lastPersist = 0;
+
+        try (Reader reader = Files.newBufferedReader(csvFile(job.getJobId()), StandardCharsets.UTF_8);
+             CSVReader csv = new CSVReaderBuilder(reader).build()) {
+            String[] header = csv.readNext();
+            if (header == null) throw new IllegalArgumentException("CSV file is empty");
+            Map<String, Integer> columns = columnIndex(header);
+            Function<RawRow, MappedRow> mapper = CollectionQueries.CRIMES.equals(job.getCollection())
+                    ? raw -> mapCrime(job, columns, raw) : raw -> mapCriminal(job, columns, raw);
+
+            long row = 0;
+            List<RawRow> batch = new ArrayList<>(CHUNK_SIZE);
+            String[] values;
+            while ((values = csv.readNext()) != null) {
+                row++;
+                if (row <= resumeAfter) continue;
+                batch.add(new RawRow(row, values));
+                if (batch.size() == CHUNK_SIZE) {
+                    parsing.add(submitParse(batch, mapper));
+                    batch = new ArrayList<>(CHUNK_SIZE);
+                }
+                if (parsing.size() >= CHUNKS_AHEAD) {
+                    write(job, collection, writer, inFlight, unacknowledged, parsing.poll().get());
+                }
+                job.setRowsRead(row);
+                if (System.currentTimeMillis() - lastPersist > PERSIST_INTERVAL_MS) {
+                    advanceCheckpoint(job, unacknowledged);
+                    persist(job);
+                    lastPersist = System.currentTimeMillis();
+                }
+            }
+            if (!batch.isEmpty()) parsing.add(submitParse(batch, mapper));
+            while (!parsing.isEmpty()) {
+                write(job, collection, writer, inFlight, unacknowledged, parsing.poll().get());
+            }
+            job.setRowsRead(row);
+            writer.close();
+            // Replayed rows finish after the writer; every row holds a permit until it is done
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+            advanceCheckpoint(job, unacknowledged);
+            if (!unacknowledged.isEmpty()) {
+                throw new IllegalStateException("Some rows could not be written; resume to retry them from row "
+                        + (job.getCheckpointRow() + 1));
+            }
+            job.setStatus(ImportJob.Status.COMPLETED);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            parsing.forEach(f -> f.cancel(true));
+            try {
+                writer.close();
+            } catch (Exception ignored) {
+                // already failing; acknowledged rows are still captured below
+            }
+            advanceCheckpoint(job, unacknowledged);
+            log.warn("Import {} failed at checkpoint row {}: {}", job.getJobId(), job.getCheckpointRow(), e.getMessage());
+            job.setError(e.getMessage());
+            job.setStatus(ImportJob.Status.FAILED);
+        }
+        job.setFinishedAt(Instant.now());
+        persist(job);
+    }
+
+    private Future<Chunk> submitParse(List<RawRow> rows, Function<RawRow, MappedRow> mapper) {
+        return parsers.submit(() -> {
+            List<MappedRow> mapped = new ArrayList<>(rows.size());
+            for (RawRow raw : rows) mapped.add(mapper.apply(raw));
+            return new Chunk(rows.get(rows.size() - 1).row(), mapped);
+        });
+    }
+
+    private void write(ImportJob job, CollectionReference collection, BulkWriter writer, Semaphore inFlight,
+                       Deque<Chunk> unacknowledged, Chunk chunk) throws InterruptedException {
+        int valid = 0;
+        for (MappedRow row : chunk.rows) {
+            if (row.error() == null) valid++;
+        }
+        chunk.pending.set(valid);
+        chunk.rejected = chunk.rows.size() - valid;
+        unacknowledged.add(chunk);
+
+        for (MappedRow row : chunk.rows) {
+            if (row.error() != null) {
+                job.addError(row.row(), row.error());
+                continue;
+            }
+            inFlight.acquire();
+            // Created rather than set, so the write event needs no read of what it replaced; only a row
+            // replayed by a resume finds its document, and goes through the service's transactional set
+            ApiFuture<WriteResult> result = writer.create(collection.document(row.docId()), row.data());
+            ApiFutures.addCallback(result, new ApiFutureCallback<>() {
+                @Override
+                public void onSuccess(WriteResult writeResult) {
+                    metrics.countWrites(job.getCollection(), "import", 1);
+                    cache.invalidate(job.getCollection(), row.docId(), writeResult.getUpdateTime());
+                    events.publishEvent(new DocumentWrittenEvent(job.getCollection(), row.docId(), DocumentWrittenEvent.Kind.SET, row.data(), null));
+                    written(job, chunk, inFlight);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    if (!FirestoreService.isConflict(t)) {
+                        failed(job, chunk, inFlight, row, t);
+                        return;
+                    }
+                    replays.execute(() -> {
+                        try {
+                            firestoreService.setDocument(job.getCollection(), row.docId(), row.data());
+                            written(job, chunk, inFlight);
+                        } catch (Exception e) {
+                            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                            failed(job, chunk, inFlight, row, e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e);
+                        }
+                    });
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        advanceCheckpoint(job, unacknowledged);
+    }
+
+    private static void written(ImportJob job, Chunk chunk, Semaphore inFlight) {
+        job.addWritten();
+        chunk.written.incrementAndGet();
+        chunk.pending.decrementAndGet();
+        inFlight.release();
+    }
+
+    private static void failed(ImportJob job, Chunk chunk, Semaphore inFlight, MappedRow row, Throwable t) {
+        job.addError(row.row(), "Write failed: " + t.getMessage());
+        chunk.writeFailed = true;
+        chunk.pending.decrementAndGet();
+        inFlight.release();
+    }
+
+    // The checkpoint only moves past chunks whose writes have all succeeded; a chunk with a failed write
+    // holds it back for good, so a resume writes that chunk (and everything after it) again
+    private static void advanceCheckpoint(ImportJob job, Deque<Chunk> unacknowledged) {
+        while (!unacknowledged.isEmpty() && unacknowledged.peek().pending.get() == 0 && !unacknowledged.peek().writeFailed) {
+            Chunk chunk = unacknowledged.poll();
+            job.advanceCheckpoint(chunk.lastRow, chunk.written.get(), chunk.rejected);
+        }
+    }
+
+    // ---- Row validation and mapping ----
+
+    private MappedRow mapCrime(ImportJob job, Map<String, Integer> columns, RawRow raw) {
+        String[] v = raw.values();
+        String title = cell(columns, v, "title");
+        String location = cell(columns, v, "location");
+        if (title == null) return invalid(raw, "title is required");
+        if (location == null) return invalid(raw, "location is required");
+
+        String category = cell(columns, v, "category");
+        CrimeCategory crimeCategory = category == null ? CrimeCategory.OTHER : match(CrimeCategory.values(), category, CrimeCategory::getDisplayName);
+        if (crimeCategory == null) return invalid(raw, "unknown category: " + category);
+        String status = cell(columns, v, "status");
+        CrimeStatus crimeStatus = status == null ? CrimeStatus.REPORTED : match(CrimeStatus.values(), status, CrimeStatus::getDisplayName);
+        if (crimeStatus == null) return invalid(raw, "unknown status: " + status);
+        String severity = upper(cell(columns, v, "severity"), "MEDIUM");
+        if (!LEVELS.contains(severity)) return invalid(raw, "unknown severity: " + severity);
+
+        String now = Instant.now().toString();
+        String date = cell(columns, v, "date");
+        String createdAt = cell(columns, v, "createdAt");
+        if (date != null && !isInstant(date)) return invalid(raw, "date must be an ISO-8601 instant");
+        if (createdAt != null && !isInstant(createdAt)) return invalid(raw, "createdAt must be an ISO-8601 instant");
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("title", title);
+        data.put("location", location);
+        data.put("description", orEmpty(cell(columns, v, "description")));
+        data.put("date", date != null ? date : now);
+        data.put("category", crimeCategory.name());
+        data.put("severity", severity);
+        data.put("status", crimeStatus.name());
+        data.put("officerId", cell(columns, v, "officerId"));
+        data.put("reportedBy", cell(columns, v, "reportedBy") != null ? cell(columns, v, "reportedBy") : job.getRequestedBy());
+        data.put("reportedByName", orEmpty(cell(columns, v, "reportedByName")));
+        data.put("createdAt", createdAt != null ? createdAt : now);
+        data.put("updatedAt", now);
+        data.put("importJobId", job.getJobId());
+        return new MappedRow(raw.row(), docId(job, columns, raw), data, null);
+    }
+
+    private MappedRow mapCriminal(ImportJob job, Map<String, Integer> columns, RawRow raw) {
+        String[] v = raw.values();
+        String name = cell(columns, v, "name");
+        if (name == null) return invalid(raw, "name is required");
+
+        String status = cell(columns, v, "status");
+        CriminalStatus criminalStatus = status == null ? CriminalStatus.AT_LARGE : match(CriminalStatus.values(), status, CriminalStatus::getDisplayName);
+        if (criminalStatus == null) return invalid(raw, "unknown status: " + status);
+        String dangerLevel = upper(cell(columns, v, "dangerLevel"), "MEDIUM");
+        if (!LEVELS.contains(dangerLevel)) return invalid(raw, "unknown dangerLevel: " + dangerLevel);
+        int age = 0;
+        String ageCell = cell(columns, v, "age");
+        if (ageCell != null) {
+            try {
+                age = Integer.parseInt(ageCell);
+            } catch (NumberFormatException e) {
+                return invalid(raw, "age must be a number");
+            }
+        }
+        String lastSeenDate = cell(columns, v, "lastSeenDate");
+        if (lastSeenDate != null && !isInstant(lastSeenDate)) return invalid(raw, "lastSeenDate must be an ISO-8601 instant");
+
+        String now = Instant.now().toString();
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", name);
+        data.put("age", age);
+        data.put("gender", cell(columns, v, "gender") != null ? cell(columns, v, "gender") : "Unknown");
+        data.put("alias", orEmpty(cell(columns, v, "alias")));
+        data.put("status", criminalStatus.name());
+        data.put("dangerLevel", dangerLevel);
+        data.put("address", orEmpty(cell(columns, v, "address")));
+        data.put("identificationMarks", orEmpty(cell(columns, v, "identificationMarks")));
+        data.put("lastSeenLocation", orEmpty(cell(columns, v, "lastSeenLocation")));
+        if (lastSeenDate != null) data.put("lastSeenDate", lastSeenDate);
+        data.put("photoUrl", orEmpty(cell(columns, v, "photoUrl")));
+        String crimeId = cell(columns, v, "crimeId");
+        if (crimeId != null) data.put("crimeId", crimeId);
+        String crimeIds = cell(columns, v, "crimeIds");
+        if (crimeIds != null) {
+            List<String> ids = new ArrayList<>();
+            for (String id : crimeIds.split(";")) {
+                if (!id.isBlank()) ids.add(id.trim());
+            }
+            data.put("crimeIds", ids);
+        }
+        data.put("createdAt", now);
+        data.put("updatedAt", now);
+        data.put("createdBy", job.getRequestedBy());
+        data.put("importJobId", job.getJobId());
+        return new MappedRow(raw.row(), docId(job, columns, raw), data, null);
+    }
+
+    private static MappedRow invalid(RawRow raw, String message) {
+        return new MappedRow(raw.row(), null, null, message);
+    }
+
+    // An id column is namespaced, so an import can only ever overwrite documents earlier imports created with
+    // that id, never records created through the API (whose ids have no '-')
+    private static String docId(ImportJob job, Map<String, Integer> columns, RawRow raw) {
+        String id = cell(columns, raw.values(), "id");
+        if (id != null && !id.contains("/")) return "csv-" + id;
+        return "imp-" + job.getJobId().substring(0, 8) + "-" + raw.row();
+    }
+
+    private static Map<String, Integer> columnIndex(String[] header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            // Strip a UTF-8 BOM left by spreadsheet exports
+            String name = header[i].replace("\uFEFF", "").trim();
+            columns.putIfAbsent(name, i);
+        }
+        return columns;
+    }
+
+    private static String cell(Map<String, Integer> columns, String[] values, String name) {
+        Integer i = columns.get(name);
+        if (i == null || i >= values.length) return null;
+        String value = values[i].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Strict counterpart of the enums' fromString: unknown values are rejected instead of defaulted
+    private static <E extends Enum<E>> E match(E[] values, String input, Function<E, String> displayName) {
+        for (E e : values) {
+            if (e.name().equalsIgnoreCase(input) || displayName.apply(e).equalsIgnoreCase(input)) return e;
+        }
+        return null;
+    }
+
+    private static String upper(String value, String fallback) {
+        return value == null ? fallback : value.toUpperCase();
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static boolean isInstant(String value) {
+        try {
+            Instant.parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    // ---- Persistence ----
+
+    private Path csvFile(String jobId) {
+        return importDir.resolve(jobId + ".csv");
+    }
+
+    private Path stateFile(String jobId) {
+        return importDir.resolve(jobId + ".json");
+    }
+
+    private void persist(ImportJob job) {
+        try {
+            Path tmp = importDir.resolve(job.getJobId() + ".json.tmp");
+            objectMapper.writeValue(tmp.toFile(), job);
+            Files.move(tmp, stateFile(job.getJobId()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not persist import job {}: {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    // Jobs that were running when the process stopped become FAILED so they can be resumed
+    private void loadPersistedJobs() {
+        try (Stream<Path> files = Files.list(importDir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(".json")).forEach(p -> {
+                try {
+                    ImportJob job = objectMapper.readValue(p.toFile(), ImportJob.class);
+                    if (job.getStatus() == ImportJob.Status.RUNNING || job.getStatus() == ImportJob.Status.QUEUED) {
+                        job.setStatus(ImportJob.Status.FAILED);
+                        job.setError("Interrupted by restart");
+                        persist(job);
+                    }
+                    jobs.put(job.getJobId(), job);
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable import state {}: {}", p, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not read import directory {}: {}", importDir, e.getMessage());
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+}
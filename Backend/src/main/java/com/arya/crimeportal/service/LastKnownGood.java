@@ -0,0 +1,118 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.util.StaleResponses;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Last successfully computed value of expensive aggregate reads (the dashboard), kept so they can still be
+ * answered while Firestore is down.
+ *
+ * While the read circuit breaker is closed every call recomputes and stores the result; when that fails
+ * because Firestore is unavailable the stored value is returned instead. While the breaker is open the
+ * stored value is returned straight away without trying, and once it half-opens one background refresh per
+ * key is started, whose reads act as the breaker's probes. Stale answers are marked with
+ * {@link StaleResponses}. Keys may carry request parameters after a {@code ?}; the meter
+ * {@code firestore.stale.responses} is tagged with the part before it.
+ */
+@Component
+public class LastKnownGood {
+
+    private static final Logger log = LoggerFactory.getLogger(LastKnownGood.class);
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws ExecutionException, InterruptedException;
+    }
+
+    private record Entry(Object value, long storedAt) {}
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "last-known-good");
+        t.setDaemon(true);
+        return t;
+    });
+    private final FirestoreCalls calls;
+    private final MeterRegistry registry;
+    private final int maxEntries;
+
+    public LastKnownGood(FirestoreCalls calls, MeterRegistry registry,
+                         @Value("${firestore.stale.max-entries:256}") int maxEntries) {
+        this.calls = calls;
+        this.registry = registry;
+        this.maxEntries = maxEntries;
+        registry.gaugeMapSize("firestore.stale.entries", Tags.empty(), entries);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /** {@code loader}'s result, or the last one stored under {@code key} while Firestore is unavailable. */
+    @SuppressWarnings("unchecked")
+    public <T> T serve(String key, Loader<T> loader) throws ExecutionException, InterruptedException {
+        CircuitBreaker.State state = calls.breakerState();
+        Entry stored = entries.get(key);
+        if (stored != null && state != CircuitBreaker.State.CLOSED) {
+            if (state == CircuitBreaker.State.HALF_OPEN) refreshInBackground(key, loader);
+            return (T) stale(key, stored);
+        }
+        try {
+            T value = loader.load();
+            store(key, value);
+            return value;
+        } catch (ExecutionException | RuntimeException e) {
+            stored = entries.get(key);
+            if (stored == null || !FirestoreCalls.isUnavailable(e)) throw e;
+            return (T) stale(key, stored);
+        }
+    }
+
+    private Object stale(String key, Entry stored) {
+        int query = key.indexOf('?');
+        Counter.builder("firestore.stale.responses")
+                .tag("key", query < 0 ? key : key.substring(0, query))
+                .register(registry).increment();
+        StaleResponses.mark(System.currentTimeMillis() - stored.storedAt);
+        return stored.value;
+    }
+
+    private void store(String key, Object value) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) return;
+        entries.put(key, new Entry(value, System.currentTimeMillis()));
+    }
+
+    private void refreshInBackground(String key, Loader<?> loader) {
+        if (!refreshing.add(key)) return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    store(key, loader.load());
+                } catch (Exception e) {
+                    log.debug("Background refresh of {} failed: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+}
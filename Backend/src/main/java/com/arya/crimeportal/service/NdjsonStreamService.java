@@ -0,0 +1,133 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.util.RequestUsage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.api.gax.rpc.ApiStreamObserver;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Query;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Streams a query's documents as NDJSON (one JSON object per line) while they arrive from Firestore,
+ * without collecting them into a list first.
+ *
+ * Documents are handed from the Firestore client thread to the response thread through a small bounded
+ * queue. When the client reads slowly, the socket write blocks, the queue fills and the Firestore stream
+ * stalls until there is room again, so at most {@value #HANDOFF_CAPACITY} documents are held per request
+ * however large the result is. Output is flushed whenever the writer catches up with the stream.
+ */
+@Service
+public class NdjsonStreamService {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    static final int HANDOFF_CAPACITY = 64;
+    private static final Object END = new Object();
+
+    private record Failure(Throwable error) {}
+
+    private final FirestoreService firestoreService;
+    private final ObjectWriter writer;
+
+    public NdjsonStreamService(FirestoreService firestoreService, ObjectMapper objectMapper) {
+        this.firestoreService = firestoreService;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /** 200 with a streaming NDJSON body; each line is a document's fields plus its id under every key in {@code idKeys}. */
+    public ResponseEntity<StreamingResponseBody> response(String collection, Query query, String... idKeys) {
+        return response(collection, query, doc -> true, idKeys);
+    }
+
+    /** Like {@link #response(String, Query, String...)}, skipping documents rejected by {@code filter}. */
+    public ResponseEntity<StreamingResponseBody> response(String collection, Query query, Predicate<DocumentSnapshot> filter, String... idKeys) {
+        StreamingResponseBody body = out -> {
+            try {
+                write(collection, query, filter, out, idKeys);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Stream interrupted", e);
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(RequestUsage.bound(body));
+    }
+
+    public long write(String collection, Query query, Predicate<DocumentSnapshot> filter, OutputStream out, String... idKeys)
+            throws IOException, InterruptedException {
+        BlockingQueue<Object> handoff = new ArrayBlockingQueue<>(HANDOFF_CAPACITY);
+        AtomicBoolean abandoned = new AtomicBoolean();
+        firestoreService.streamQuery(collection, query, new ApiStreamObserver<>() {
+            @Override
+            public void onNext(DocumentSnapshot doc) {
+                put(doc);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                put(new Failure(t));
+            }
+
+            @Override
+            public void onCompleted() {
+                put(END);
+            }
+
+            // Blocks the Firestore callback while the queue is full; gives up once the response is abandoned
+            private void put(Object item) {
+                try {
+                    while (!abandoned.get() && !handoff.offer(item, 1, TimeUnit.SECONDS)) {
+                        // waiting for the response thread
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        JsonGenerator gen = writer.createGenerator(out);
+        gen.setRootValueSeparator(null);
+        long written = 0;
+        try {
+            while (true) {
+                Object next = handoff.poll();
+                if (next == null) {
+                    gen.flush();
+                    next = handoff.take();
+                }
+                if (next == END) break;
+                if (next instanceof Failure failure) {
+                    throw new IOException("Streaming " + collection + " failed: " + failure.error().getMessage(), failure.error());
+                }
+                DocumentSnapshot doc = (DocumentSnapshot) next;
+                if (!filter.test(doc)) continue;
+                Map<String, Object> item = doc.getData();
+                for (String key : idKeys) item.put(key, doc.getId());
+                writer.writeValue(gen, item);
+                gen.writeRaw('\n');
+                written++;
+            }
+            gen.flush();
+        } finally {
+            // On a client disconnect, let the Firestore stream drain without blocking
+            abandoned.set(true);
+            handoff.clear();
+        }
+        return written;
+    }
+}
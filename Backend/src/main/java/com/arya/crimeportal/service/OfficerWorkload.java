@@ -0,0 +1,372 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.enums.CrimeStatus;
+import com.arya.crimeportal.enums.FIRStatus;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.firebase.cloud.FirestoreClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-officer caseload counters: open crimes by severity, FIRs by {@link FIRStatus}, and the oldest open
+ * case, keyed by the documents' {@code officerId}. A crime is open while REPORTED or INVESTIGATING, a FIR
+ * until CLOSED.
+ *
+ * Counters move with every {@link DocumentWrittenEvent} for crimes and FIRs: the last known officer,
+ * severity, status and {@code createdAt} of each case are kept, so an update or reassignment takes the case
+ * off its old counters and adds it to the new ones. Officers are also kept ranked by open cases, so reads
+ * never walk the cases. State is built at startup by paging through both collections (projected to those
+ * four fields) and rebuilt every {@code workload.resync-interval-minutes} (15 by default) to pick up writes
+ * made by other instances. Meters: {@code workload.officers} and {@code workload.open.cases}.
+ */
+@Service
+@DependsOn("firebaseConfig")
+public class OfficerWorkload {
+
+    private static final Logger log = LoggerFactory.getLogger(OfficerWorkload.class);
+    private static final int PAGE_SIZE = 1000;
+    private static final String[] SEVERITIES = {"LOW", "MEDIUM", "HIGH", "CRITICAL"};
+    private static final FIRStatus[] FIR_STATUSES = FIRStatus.values();
+    private static final Map<String, String[]> FIELDS = Map.of(
+            CollectionQueries.CRIMES, new String[]{"officerId", "severity", "status", "createdAt"},
+            CollectionQueries.FIRS, new String[]{"officerId", "status", "createdAt"});
+
+    /** An officer's counters as served by the workload endpoints. */
+    public record Workload(String officerId, int openCases, int openCrimes, Map<String, Integer> openCrimesBySeverity,
+                           int openFirs, Map<String, Integer> firsByStatus, OpenCase oldestOpenCase) {}
+
+    public record OpenCase(String collection, String id, Instant openedAt) {}
+
+    // Last known state of one crime or FIR; bucket is the severity index for crimes, the FIRStatus ordinal for FIRs
+    private record Case(String officerId, int bucket, boolean open, Instant openedAt) {}
+
+    private static final Comparator<OpenCase> OLDEST_FIRST = Comparator.comparing(OpenCase::openedAt)
+            .thenComparing(OpenCase::collection).thenComparing(OpenCase::id);
+
+    private static final class Counters {
+        final String officerId;
+        final int[] openCrimesBySeverity = new int[SEVERITIES.length];
+        final int[] firsByStatus = new int[FIR_STATUSES.length];
+        final TreeSet<OpenCase> open = new TreeSet<>(OLDEST_FIRST);
+
+        Counters(String officerId) {
+            this.officerId = officerId;
+        }
+
+        int openCases() {
+            return open.size();
+        }
+
+        boolean isEmpty() {
+            if (!open.isEmpty()) return false;
+            for (int n : firsByStatus) if (n != 0) return false;
+            return true;
+        }
+    }
+
+    // Busiest first, then by officer id so the order is stable
+    private static final Comparator<Counters> BY_LOAD = Comparator.comparingInt(Counters::openCases).reversed()
+            .thenComparing(c -> c.officerId);
+
+    /** All counters; replaced as a whole by a rebuild. Guarded by OfficerWorkload.this. */
+    private static final class State {
+        final Map<String, Case> cases = new HashMap<>();
+        final Map<String, Counters> officers = new HashMap<>();
+        final TreeSet<Counters> ranking = new TreeSet<>(BY_LOAD);
+        int openCases;
+    }
+
+    private final FirestoreService firestoreService;
+    private final boolean enabled;
+    private final long resyncMinutes;
+
+    // Guarded by this
+    private State state;
+    private State building;
+    private final List<DocumentWrittenEvent> pending = new ArrayList<>();
+    private Instant loadedAt;
+    private String lastError;
+
+    private ScheduledExecutorService worker;
+
+    public OfficerWorkload(FirestoreService firestoreService, MeterRegistry registry,
+                           @Value("${workload.enabled:true}") boolean enabled,
+                           @Value("${workload.resync-interval-minutes:15}") long resyncMinutes) {
+        this.firestoreService = firestoreService;
+        this.enabled = enabled;
+        this.resyncMinutes = resyncMinutes;
+        registry.gauge("workload.officers", this, w -> w.sizes()[0]);
+        registry.gauge("workload.open.cases", this, w -> w.sizes()[1]);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "officer-workload");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.execute(this::load);
+        if (resyncMinutes > 0) worker.scheduleWithFixedDelay(this::rebuild, resyncMinutes, resyncMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) worker.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean isReady() {
+        return state != null;
+    }
+
+    public synchronized boolean isRebuilding() {
+        return building != null;
+    }
+
+    public synchronized Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public synchronized String lastError() {
+        return lastError;
+    }
+
+    /** The officer's counters (all zero when they have no cases), or null until the first load completes. */
+    public synchronized Workload workload(String officerId) {
+        if (state == null) return null;
+        Counters counters = state.officers.get(officerId);
+        return counters == null ? toWorkload(new Counters(officerId)) : toWorkload(counters);
+    }
+
+    /** The {@code limit} officers with the most open cases, busiest first; null until the first load completes. */
+    public synchronized List<Workload> busiest(int limit) {
+        if (state == null) return null;
+        List<Workload> out = new ArrayList<>(Math.min(limit, state.ranking.size()));
+        Iterator<Counters> it = state.ranking.iterator();
+        while (it.hasNext() && out.size() < limit) out.add(toWorkload(it.next()));
+        return out;
+    }
+
+    public synchronized int officerCount() {
+        return state == null ? 0 : state.officers.size();
+    }
+
+    /** Rebuilds the counters from Firestore in the background; the current ones keep serving until then. */
+    public synchronized boolean rebuild() {
+        if (!enabled || building != null || worker == null || worker.isShutdown()) return false;
+        building = new State();
+        pending.clear();
+        worker.execute(this::load);
+        return true;
+    }
+
+    @EventListener
+    public void onWrite(DocumentWrittenEvent event) {
+        if (!enabled || !FIELDS.containsKey(event.collection())) return;
+        synchronized (this) {
+            try {
+                if (state != null) apply(state, event);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply {} of {}/{} to officer workload: {}",
+                        event.kind(), event.collection(), event.id(), e.getMessage());
+            }
+            if (building != null) pending.add(event);
+        }
+    }
+
+    private void load() {
+        long started = System.nanoTime();
+        State fresh;
+        synchronized (this) {
+            if (building == null) {
+                building = new State();
+                pending.clear();
+            }
+            fresh = building;
+        }
+        try {
+            long read = scan(fresh);
+            synchronized (this) {
+                for (DocumentWrittenEvent event : pending) apply(fresh, event);
+                pending.clear();
+                building = null;
+                state = fresh;
+                loadedAt = Instant.now();
+                lastError = null;
+            }
+            log.info("Officer workload ready in {} ms: {} officers, {} open cases ({} documents read)",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), fresh.officers.size(), fresh.openCases, read);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            boolean retry;
+            synchronized (this) {
+                building = null;
+                pending.clear();
+                lastError = e.getMessage();
+                retry = state == null;
+            }
+            log.warn("Officer workload load failed: {}", e.getMessage());
+            if (retry && !worker.isShutdown()) worker.schedule(this::load, 30, TimeUnit.SECONDS);
+        }
+    }
+
+    private long scan(State target) throws Exception {
+        Firestore db = FirestoreClient.getFirestore();
+        long read = 0;
+        for (Map.Entry<String, String[]> entry : FIELDS.entrySet()) {
+            String collection = entry.getKey();
+            Query base = db.collection(collection).select(entry.getValue());
+            QueryDocumentSnapshot last = null;
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+                Query page = last == null ? base.limit(PAGE_SIZE) : base.startAfter(last).limit(PAGE_SIZE);
+                List<QueryDocumentSnapshot> docs = firestoreService.queryCollection(collection, page);
+                for (QueryDocumentSnapshot doc : docs) {
+                    apply(target, new DocumentWrittenEvent(collection, doc.getId(), DocumentWrittenEvent.Kind.SET, doc.getData(), null));
+                }
+                read += docs.size();
+                if (docs.size() < PAGE_SIZE) break;
+                last = docs.get(docs.size() - 1);
+            }
+        }
+        return read;
+    }
+
+    private static void apply(State target, DocumentWrittenEvent event) {
+        String key = event.collection() + "/" + event.id();
+        Case before = target.cases.get(key);
+        Case after = event.kind() == DocumentWrittenEvent.Kind.DELETE ? null
+                : merge(event.collection(), before, event.fields(), event.kind() == DocumentWrittenEvent.Kind.SET);
+        if (before != null) count(target, event.collection(), event.id(), before, -1);
+        if (after != null) {
+            target.cases.put(key, after);
+            count(target, event.collection(), event.id(), after, 1);
+        } else {
+            target.cases.remove(key);
+        }
+    }
+
+    // The case after applying a write's fields; an update only changes the fields it carries
+    private static Case merge(String collection, Case before, Map<String, Object> fields, boolean whole) {
+        boolean crime = CollectionQueries.CRIMES.equals(collection);
+        String officerId = before == null || whole ? null : before.officerId();
+        int bucket = before == null || whole ? -1 : before.bucket();
+        boolean open = before == null || whole || before.open();
+        Instant openedAt = before == null || whole ? null : before.openedAt();
+
+        if (fields.containsKey("officerId")) {
+            Object v = fields.get("officerId");
+            officerId = v instanceof String s && !s.isBlank() ? s : null;
+        }
+        if (crime && (whole || fields.containsKey("severity"))) bucket = severityIndex(fields.get("severity"));
+        if (whole || fields.containsKey("status")) {
+            Object status = fields.get("status");
+            String name = status == null ? null : status.toString();
+            if (crime) {
+                CrimeStatus s = CrimeStatus.fromString(name);
+                open = s == CrimeStatus.REPORTED || s == CrimeStatus.INVESTIGATING;
+            } else {
+                FIRStatus s = FIRStatus.fromString(name);
+                bucket = s.ordinal();
+                open = s != FIRStatus.CLOSED;
+            }
+        }
+        if (fields.containsKey("createdAt")) openedAt = parseInstant(fields.get("createdAt"));
+        if (bucket < 0) bucket = crime ? severityIndex(null) : FIRStatus.PENDING.ordinal();
+        if (openedAt == null) openedAt = Instant.now();
+        return new Case(officerId, bucket, open, openedAt);
+    }
+
+    private static void count(State target, String collection, String id, Case c, int delta) {
+        if (c.officerId() == null) return;
+        boolean crime = CollectionQueries.CRIMES.equals(collection);
+        if (crime && !c.open()) return;
+        Counters counters = target.officers.get(c.officerId());
+        if (counters == null) {
+            if (delta < 0) return;
+            counters = new Counters(c.officerId());
+            target.officers.put(c.officerId(), counters);
+        } else {
+            target.ranking.remove(counters);
+        }
+        if (crime) {
+            counters.openCrimesBySeverity[c.bucket()] += delta;
+        } else {
+            counters.firsByStatus[c.bucket()] += delta;
+        }
+        if (c.open()) {
+            OpenCase ref = new OpenCase(collection, id, c.openedAt());
+            if (delta > 0 ? counters.open.add(ref) : counters.open.remove(ref)) target.openCases += delta;
+        }
+        if (counters.isEmpty()) {
+            target.officers.remove(c.officerId());
+        } else {
+            target.ranking.add(counters);
+        }
+    }
+
+    private static Workload toWorkload(Counters c) {
+        Map<String, Integer> bySeverity = new LinkedHashMap<>();
+        int openCrimes = 0;
+        for (int i = 0; i < SEVERITIES.length; i++) {
+            bySeverity.put(SEVERITIES[i], c.openCrimesBySeverity[i]);
+            openCrimes += c.openCrimesBySeverity[i];
+        }
+        Map<String, Integer> byStatus = new LinkedHashMap<>();
+        for (FIRStatus s : FIR_STATUSES) byStatus.put(s.name(), c.firsByStatus[s.ordinal()]);
+        return new Workload(c.officerId, c.openCases(), openCrimes, bySeverity, c.openCases() - openCrimes, byStatus,
+                c.open.isEmpty() ? null : c.open.first());
+    }
+
+    private static int severityIndex(Object severity) {
+        if (severity != null) {
+            String s = severity.toString().toUpperCase(Locale.ROOT);
+            for (int i = 0; i < SEVERITIES.length; i++) if (SEVERITIES[i].equals(s)) return i;
+        }
+        return 1; // MEDIUM, the default for new crimes
+    }
+
+    private static Instant parseInstant(Object value) {
+        if (value instanceof Timestamp ts) return ts.toDate().toInstant();
+        if (value == null) return null;
+        try {
+            return Instant.parse(value.toString());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private synchronized int[] sizes() {
+        return state == null ? new int[2] : new int[]{state.officers.size(), state.openCases};
+    }
+}
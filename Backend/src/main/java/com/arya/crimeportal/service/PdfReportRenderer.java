@@ -0,0 +1,242 @@
+package com.arya.crimeportal.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lays out case reports with PDFBox. Reports are described as a {@link Report} (title plus a list of
+ * sections) and rendered with one shared page template, so every report type looks the same.
+ *
+ * The standard Type 1 fonts are used: they are immutable singletons that need no embedding, so they are
+ * shared safely by all render threads and never loaded per job.
+ */
+@Component
+@Lazy
+public class PdfReportRenderer {
+
+    private static final PDFont FONT = PDType1Font.HELVETICA;
+    private static final PDFont FONT_BOLD = PDType1Font.HELVETICA_BOLD;
+    private static final PDRectangle PAGE_SIZE = PDRectangle.A4;
+    private static final float MARGIN = 50f;
+    private static final float TITLE_SIZE = 16f;
+    private static final float HEADING_SIZE = 12f;
+    private static final float BODY_SIZE = 10f;
+    private static final float LEADING = 1.4f;
+    private static final float LABEL_WIDTH = 140f;
+
+    public record Report(String title, String subtitle, List<Section> sections) {}
+
+    public sealed interface Section permits Fields, Table, Paragraph {
+        String heading();
+    }
+
+    /** Label/value pairs, one per line. */
+    public record Fields(String heading, Map<String, String> values) implements Section {}
+
+    /** Fixed-width columns; widths are fractions of the printable width. */
+    public record Table(String heading, List<String> columns, float[] widths, List<List<String>> rows) implements Section {}
+
+    public record Paragraph(String heading, String text) implements Section {}
+
+    public void render(Report report, OutputStream out) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PageCursor cursor = new PageCursor(document, report.title());
+            cursor.text(report.title(), FONT_BOLD, TITLE_SIZE, MARGIN);
+            if (report.subtitle() != null) cursor.text(report.subtitle(), FONT, BODY_SIZE, MARGIN);
+            cursor.gap(BODY_SIZE);
+
+            for (Section section : report.sections()) {
+                cursor.text(section.heading(), FONT_BOLD, HEADING_SIZE, MARGIN);
+                cursor.rule();
+                if (section instanceof Fields fields) {
+                    renderFields(cursor, fields);
+                } else if (section instanceof Table table) {
+                    renderTable(cursor, table);
+                } else if (section instanceof Paragraph paragraph) {
+                    cursor.wrapped(paragraph.text(), FONT, BODY_SIZE, MARGIN, cursor.width());
+                }
+                cursor.gap(BODY_SIZE);
+            }
+            cursor.close();
+            document.save(out);
+        }
+    }
+
+    private void renderFields(PageCursor cursor, Fields fields) throws IOException {
+        for (Map.Entry<String, String> entry : fields.values().entrySet()) {
+            List<String> lines = wrap(entry.getValue(), FONT, BODY_SIZE, cursor.width() - LABEL_WIDTH);
+            for (int i = 0; i < lines.size(); i++) {
+                cursor.ensureSpace(BODY_SIZE * LEADING);
+                if (i == 0) cursor.show(entry.getKey(), FONT_BOLD, BODY_SIZE, MARGIN);
+                cursor.show(lines.get(i), FONT, BODY_SIZE, MARGIN + LABEL_WIDTH);
+                cursor.advance(BODY_SIZE * LEADING);
+            }
+        }
+    }
+
+    private void renderTable(PageCursor cursor, Table table) throws IOException {
+        float[] x = new float[table.columns().size()];
+        float[] w = new float[x.length];
+        float offset = MARGIN;
+        for (int i = 0; i < x.length; i++) {
+            x[i] = offset;
+            w[i] = table.widths()[i] * cursor.width();
+            offset += w[i];
+        }
+        cursor.ensureSpace(BODY_SIZE * LEADING);
+        for (int i = 0; i < x.length; i++) {
+            cursor.show(clip(table.columns().get(i), FONT_BOLD, BODY_SIZE, w[i]), FONT_BOLD, BODY_SIZE, x[i]);
+        }
+        cursor.advance(BODY_SIZE * LEADING);
+        for (List<String> row : table.rows()) {
+            cursor.ensureSpace(BODY_SIZE * LEADING);
+            for (int i = 0; i < x.length && i < row.size(); i++) {
+                cursor.show(clip(row.get(i), FONT, BODY_SIZE, w[i] - 4f), FONT, BODY_SIZE, x[i]);
+            }
+            cursor.advance(BODY_SIZE * LEADING);
+        }
+    }
+
+    // The standard fonts only cover WinAnsi; replace anything else so user text can never fail a render
+    static String sanitize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\t') sb.append(' ');
+            else if ((c >= 0x20 && c <= 0x7E) || (c >= 0xA0 && c <= 0xFF)) sb.append(c);
+            else if (c != '\r') sb.append(c == '\n' ? '\n' : '?');
+        }
+        return sb.toString();
+    }
+
+    private static float width(String text, PDFont font, float size) throws IOException {
+        return font.getStringWidth(text) / 1000f * size;
+    }
+
+    private static String clip(String text, PDFont font, float size, float maxWidth) throws IOException {
+        String s = sanitize(text).replace('\n', ' ');
+        if (width(s, font, size) <= maxWidth) return s;
+        while (!s.isEmpty() && width(s + "...", font, size) > maxWidth) {
+            s = s.substring(0, s.length() - 1);
+        }
+        return s + "...";
+    }
+
+    static List<String> wrap(String text, PDFont font, float size, float maxWidth) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : sanitize(text).split("\n", -1)) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.split(" ")) {
+                String candidate = line.length() == 0 ? word : line + " " + word;
+                if (width(candidate, font, size) <= maxWidth) {
+                    line.setLength(0);
+                    line.append(candidate);
+                    continue;
+                }
+                if (line.length() > 0) lines.add(line.toString());
+                // Hard-break words longer than a full line
+                String rest = word;
+                while (width(rest, font, size) > maxWidth && rest.length() > 1) {
+                    int cut = rest.length() - 1;
+                    while (cut > 1 && width(rest.substring(0, cut), font, size) > maxWidth) cut--;
+                    lines.add(rest.substring(0, cut));
+                    rest = rest.substring(cut);
+                }
+                line.setLength(0);
+                line.append(rest);
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /** Tracks the current page and vertical position, starting new pages (with a running header) as needed. */
+    private static final class PageCursor {
+        private final PDDocument document;
+        private final String header;
+        private PDPageContentStream stream;
+        private float y;
+        private int pageNumber;
+
+        PageCursor(PDDocument document, String header) throws IOException {
+            this.document = document;
+            this.header = sanitize(header);
+            newPage();
+        }
+
+        float width() {
+            return PAGE_SIZE.getWidth() - 2 * MARGIN;
+        }
+
+        void newPage() throws IOException {
+            if (stream != null) stream.close();
+            PDPage page = new PDPage(PAGE_SIZE);
+            document.addPage(page);
+            stream = new PDPageContentStream(document, page);
+            pageNumber++;
+            y = PAGE_SIZE.getHeight() - MARGIN;
+            if (pageNumber > 1) {
+                show(header + " (page " + pageNumber + ")", FONT, 8f, MARGIN);
+                advance(8f * LEADING * 2);
+            }
+        }
+
+        void ensureSpace(float height) throws IOException {
+            if (y - height < MARGIN) newPage();
+        }
+
+        void advance(float height) {
+            y -= height;
+        }
+
+        void gap(float height) {
+            y -= height;
+        }
+
+        void show(String text, PDFont font, float size, float x) throws IOException {
+            stream.beginText();
+            stream.setFont(font, size);
+            stream.newLineAtOffset(x, y - size);
+            stream.showText(sanitize(text));
+            stream.endText();
+        }
+
+        void text(String text, PDFont font, float size, float x) throws IOException {
+            wrapped(text, font, size, x, width() - (x - MARGIN));
+        }
+
+        void wrapped(String text, PDFont font, float size, float x, float maxWidth) throws IOException {
+            for (String line : wrap(text, font, size, maxWidth)) {
+                ensureSpace(size * LEADING);
+                show(line, font, size, x);
+                advance(size * LEADING);
+            }
+        }
+
+        void rule() throws IOException {
+            ensureSpace(6f);
+            stream.setLineWidth(0.5f);
+            stream.moveTo(MARGIN, y - 2f);
+            stream.lineTo(MARGIN + width(), y - 2f);
+            stream.stroke();
+            advance(6f);
+        }
+
+        void close() throws IOException {
+            if (stream != null) stream.close();
+        }
+    }
+}
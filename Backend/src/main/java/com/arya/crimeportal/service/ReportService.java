@@ -0,0 +1,339 @@
+package com.arya.crimeportal.service;
+
+import com.arya.crimeportal.model.ReportJob;
+import com.arya.crimeportal.service.PdfReportRenderer.Fields;
+import com.arya.crimeportal.service.PdfReportRenderer.Paragraph;
+import com.arya.crimeportal.service.PdfReportRenderer.Report;
+import com.arya.crimeportal.service.PdfReportRenderer.Section;
+import com.arya.crimeportal.service.PdfReportRenderer.Table;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.firebase.cloud.FirestoreClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Renders case reports asynchronously on a bounded worker pool.
+ *
+ * Finished PDFs are cached on local disk under a key derived from the source documents' ids and
+ * updatedAt values, so re-requesting an unchanged report completes without rendering. Request threads
+ * only enqueue jobs and read status; they never render.
+ */
+@Service
+@Lazy
+public class ReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportService.class);
+    private static final Duration JOB_RETENTION = Duration.ofHours(1);
+    private static final Duration CACHE_RETENTION = Duration.ofDays(7);
+
+    private final FirestoreService firestoreService;
+    private final PdfReportRenderer renderer;
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    @Value("${reports.workers:2}")
+    private int workers;
+
+    @Value("${reports.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${reports.range-max-rows:5000}")
+    private int rangeMaxRows;
+
+    @Value("${reports.cache-dir:${java.io.tmpdir}/crimeportal-reports}")
+    private String cacheDirSetting;
+
+    private Path cacheDir;
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService housekeeping;
+
+    public ReportService(FirestoreService firestoreService, PdfReportRenderer renderer) {
+        this.firestoreService = firestoreService;
+        this.renderer = renderer;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        cacheDir = Paths.get(cacheDirSetting);
+        Files.createDirectories(cacheDir);
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("report-render"), new ThreadPoolExecutor.AbortPolicy());
+        housekeeping = Executors.newSingleThreadScheduledExecutor(daemonThreads("report-housekeeping"));
+        housekeeping.scheduleWithFixedDelay(this::evictExpired, 10, 10, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        housekeeping.shutdownNow();
+    }
+
+    /**
+     * Enqueues a report job. Throws {@link RejectedExecutionException} when the render queue is full.
+     */
+    public ReportJob submit(ReportJob.Type type, String sourceId, String from, String to, String requestedBy) {
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), type, sourceId, from, to, requestedBy);
+        jobs.put(job.getJobId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<ReportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /** Streams status changes for a job as server-sent events; completes once the job is done. */
+    public SseEmitter subscribe(ReportJob job) {
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(10).toMillis());
+        List<SseEmitter> list = emitters.computeIfAbsent(job.getJobId(), k -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+        emitter.onCompletion(() -> list.remove(emitter));
+        emitter.onTimeout(() -> list.remove(emitter));
+        // Send the current state right away; covers jobs that finished before the client subscribed
+        publish(job);
+        return emitter;
+    }
+
+    private void run(ReportJob job) {
+        job.setStatus(ReportJob.Status.RUNNING);
+        publish(job);
+        try {
+            SourceData source = load(job);
+            Path file = cacheDir.resolve(job.getType().name().toLowerCase() + "-" + source.cacheKey() + ".pdf");
+            if (Files.exists(file)) {
+                job.setCached(true);
+                Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            } else {
+                Path tmp = Files.createTempFile(cacheDir, "render-", ".tmp");
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    renderer.render(source.report(), out);
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            job.setFile(file);
+            job.setStatus(ReportJob.Status.COMPLETED);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            log.warn("Report job {} failed: {}", job.getJobId(), e.getMessage());
+            job.setError(e.getMessage());
+            job.setStatus(ReportJob.Status.FAILED);
+        }
+        job.setFinishedAt(Instant.now());
+        publish(job);
+    }
+
+    private record SourceData(Report report, String cacheKey) {}
+
+    private SourceData load(ReportJob job) throws ExecutionException, InterruptedException {
+        switch (job.getType()) {
+            case CRIME: {
+                Map<String, Object> crime = require(firestoreService.getDocument(CollectionQueries.CRIMES, job.getSourceId()), "Crime", job.getSourceId());
+                return new SourceData(crimeReport(crime), cacheKey(List.of(crime)));
+            }
+            case FIR: {
+                Map<String, Object> fir = require(firestoreService.getDocument(CollectionQueries.FIRS, job.getSourceId()), "FIR", job.getSourceId());
+                Object crimeId = fir.get("crimeId");
+                Map<String, Object> crime = crimeId == null || crimeId.toString().isBlank()
+                        ? null : firestoreService.getDocument(CollectionQueries.CRIMES, crimeId.toString());
+                List<Map<String, Object>> sources = crime == null ? List.of(fir) : List.of(fir, crime);
+                return new SourceData(firReport(fir, crime), cacheKey(sources));
+            }
+            case RANGE: {
+                Query query = FirestoreClient.getFirestore().collection(CollectionQueries.CRIMES)
+                        .whereGreaterThanOrEqualTo("createdAt", job.getFrom())
+                        .whereLessThan("createdAt", job.getTo())
+                        .orderBy("createdAt")
+                        .limit(rangeMaxRows + 1);
+                List<QueryDocumentSnapshot> docs = firestoreService.queryCollection(CollectionQueries.CRIMES, query);
+                boolean truncated = docs.size() > rangeMaxRows;
+                List<Map<String, Object>> crimes = new ArrayList<>();
+                for (QueryDocumentSnapshot doc : docs.subList(0, Math.min(docs.size(), rangeMaxRows))) {
+                    Map<String, Object> crime = doc.getData();
+                    crime.put("id", doc.getId());
+                    crimes.add(crime);
+                }
+                String key = cacheKey(crimes) + "-" + digest(job.getFrom() + "|" + job.getTo()).substring(0, 12);
+                return new SourceData(rangeReport(job.getFrom(), job.getTo(), crimes, truncated), key);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown report type: " + job.getType());
+        }
+    }
+
+    private static Map<String, Object> require(Map<String, Object> doc, String name, String id) {
+        if (doc == null) throw new IllegalArgumentException(name + " not found: " + id);
+        return doc;
+    }
+
+    // ---- Report templates ----
+
+    private Report crimeReport(Map<String, Object> crime) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("Crime ID", str(crime.get("id")));
+        fields.put("Category", str(crime.get("category")));
+        fields.put("Severity", str(crime.get("severity")));
+        fields.put("Status", str(crime.get("status")));
+        fields.put("Location", str(crime.get("location")));
+        fields.put("Date", str(crime.get("date")));
+        fields.put("Reported by", str(crime.get("reportedByName")));
+        fields.put("Officer", str(crime.get("officerId")));
+        fields.put("Last updated", str(crime.get("updatedAt")));
+        List<Section> sections = List.of(
+            new Fields("Case details", fields),
+            new Paragraph("Description", str(crime.get("description")))
+        );
+        return new Report("Crime Report: " + str(crime.get("title")), generatedLine(), sections);
+    }
+
+    private Report firReport(Map<String, Object> fir, Map<String, Object> crime) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("FIR number", str(fir.get("firNumber")));
+        fields.put("Status", str(fir.get("status")));
+        fields.put("Complainant", str(fir.get("complainantName")));
+        fields.put("Contact", str(fir.get("contact")));
+        fields.put("Incident location", str(fir.get("incidentLocation")));
+        fields.put("Incident date", str(fir.get("incidentDate")));
+        fields.put("Officer", str(fir.get("officerName")));
+        fields.put("Filed", str(fir.get("createdAt")));
+        fields.put("Last updated", str(fir.get("updatedAt")));
+        List<Section> sections = new ArrayList<>();
+        sections.add(new Fields("FIR details", fields));
+        sections.add(new Paragraph("Statement", str(fir.get("details"))));
+        if (crime != null) {
+            Map<String, String> linked = new LinkedHashMap<>();
+            linked.put("Crime ID", str(crime.get("id")));
+            linked.put("Title", str(crime.get("title")));
+            linked.put("Category", str(crime.get("category")));
+            linked.put("Status", str(crime.get("status")));
+            sections.add(new Fields("Linked crime", linked));
+        }
+        return new Report("First Information Report " + str(fir.get("firNumber")), generatedLine(), sections);
+    }
+
+    private Report rangeReport(String from, String to, List<Map<String, Object>> crimes, boolean truncated) {
+        Map<String, Integer> byStatus = new TreeMap<>();
+        Map<String, Integer> byCategory = new TreeMap<>();
+        List<List<String>> rows = new ArrayList<>();
+        for (Map<String, Object> crime : crimes) {
+            byStatus.merge(str(crime.get("status")), 1, Integer::sum);
+            byCategory.merge(str(crime.get("category")), 1, Integer::sum);
+            rows.add(List.of(str(crime.get("createdAt")), str(crime.get("title")), str(crime.get("category")),
+                    str(crime.get("severity")), str(crime.get("status"))));
+        }
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("Period", from + " to " + to);
+        summary.put("Total crimes", truncated ? crimes.size() + "+ (truncated)" : String.valueOf(crimes.size()));
+        byStatus.forEach((k, v) -> summary.put("Status " + k, String.valueOf(v)));
+        byCategory.forEach((k, v) -> summary.put("Category " + k, String.valueOf(v)));
+        List<Section> sections = List.of(
+            new Fields("Summary", summary),
+            new Table("Crimes", List.of("Reported", "Title", "Category", "Severity", "Status"),
+                    new float[] {0.22f, 0.34f, 0.16f, 0.12f, 0.16f}, rows)
+        );
+        return new Report("Crime Report: " + from + " to " + to, generatedLine(), sections);
+    }
+
+    private static String generatedLine() {
+        return "Crime Information Management System - generated " + Instant.now();
+    }
+
+    private static String str(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    // ---- Cache keys, events and housekeeping ----
+
+    private static String cacheKey(List<Map<String, Object>> sources) {
+        StringBuilder sb = new StringBuilder("v1");
+        for (Map<String, Object> source : sources) {
+            sb.append('|').append(source.get("id")).append('@').append(source.get("updatedAt"));
+        }
+        return digest(sb.toString());
+    }
+
+    private static String digest(String input) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void publish(ReportJob job) {
+        List<SseEmitter> list = emitters.get(job.getJobId());
+        if (list == null) return;
+        for (SseEmitter emitter : list) {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(job));
+                if (job.isDone()) emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                list.remove(emitter);
+            }
+        }
+        if (job.isDone()) emitters.remove(job.getJobId());
+    }
+
+    private void evictExpired() {
+        Instant jobCutoff = Instant.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.isDone() && job.getFinishedAt() != null && job.getFinishedAt().isBefore(jobCutoff));
+
+        Instant fileCutoff = Instant.now().minus(CACHE_RETENTION);
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files.filter(p -> {
+                try {
+                    return Files.getLastModifiedTime(p).toInstant().isBefore(fileCutoff);
+                } catch (IOException e) {
+                    return false;
+                }
+            }).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {}
+            });
+        } catch (IOException e) {
+            log.warn("Report cache cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        return new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, prefix + "-" + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        };
+    }
+}
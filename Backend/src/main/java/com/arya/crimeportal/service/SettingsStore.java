@@ -0,0 +1,367 @@
+package com.arya.crimeportal.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.firebase.cloud.FirestoreClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Replicated, read-only view of the "settings" collection.
+ *
+ * The whole collection is held in an immutable {@link Snapshot} that is swapped atomically
+ * whenever the Firestore snapshot listener delivers a change, so reads are lock-free and never
+ * touch the network. Components can subscribe to typed change notifications for a single key.
+ * While the listener is broken (between an error and the next snapshot after resubscribing) reads keep
+ * being answered from the last snapshot, and {@link #staleMillis()} says for how long it has not been synced.
+ * Writes made by this instance are applied at once and kept, with their commit times, until a listener
+ * snapshot read after them arrives; an older snapshot arriving in between gets them applied on top.
+ */
+@Service
+@DependsOn("firebaseConfig")
+public class SettingsStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SettingsStore.class);
+    private static final String COLLECTION = "settings";
+    private static final long INITIAL_LOAD_TIMEOUT_SECONDS = 10;
+    private static final long RESUBSCRIBE_DELAY_SECONDS = 5;
+    private static final int WHERE_IN_LIMIT = 10;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+    private final CountDownLatch initialLoad = new CountDownLatch(1);
+    // Listener callbacks, swaps and subscriber notifications all run on this single thread
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "settings-store");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final FirestoreMetrics metrics;
+    private final FirestoreCalls calls;
+    private volatile ListenerRegistration registration;
+    private volatile boolean closed;
+    private volatile long lastSyncedAt;
+    private volatile boolean disconnected;
+
+    public SettingsStore(FirestoreMetrics metrics, FirestoreCalls calls) {
+        this.metrics = metrics;
+        this.calls = calls;
+    }
+
+    @PostConstruct
+    public void init() throws InterruptedException {
+        listen();
+        if (!initialLoad.await(INITIAL_LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Settings snapshot not received within {}s; serving empty settings until it arrives",
+                    INITIAL_LOAD_TIMEOUT_SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        ListenerRegistration reg = registration;
+        if (reg != null) reg.remove();
+        executor.shutdownNow();
+    }
+
+    private void listen() {
+        Firestore db = FirestoreClient.getFirestore();
+        registration = db.collection(COLLECTION).addSnapshotListener(executor, this::onSnapshot);
+    }
+
+    private void onSnapshot(QuerySnapshot snapshot, FirestoreException error) {
+        if (error != null) {
+            disconnected = true;
+            // The listener is terminated after an error; re-register after a short delay
+            log.warn("Settings listener failed, resubscribing in {}s: {}", RESUBSCRIBE_DELAY_SECONDS, error.getMessage());
+            if (!closed) {
+                executor.schedule(this::listen, RESUBSCRIBE_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+            return;
+        }
+        if (snapshot == null) return;
+        // Listeners are billed for the initial result set, then one read per changed document
+        metrics.countReads(COLLECTION, "listen", snapshot.getDocumentChanges().size());
+
+        Timestamp readTime = snapshot.getReadTime();
+        swap(previous -> Snapshot.from(snapshot.getDocuments()).replay(previous.pending, readTime));
+        lastSyncedAt = System.currentTimeMillis();
+        disconnected = false;
+        initialLoad.countDown();
+    }
+
+    // ---- Reads (lock-free, never hit the network) ----
+
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public Optional<Map<String, Object>> get(String key) {
+        return Optional.ofNullable(current.get().settingsByKey.get(key));
+    }
+
+    public Optional<String> documentId(String key) {
+        return Optional.ofNullable(current.get().documentIdByKey.get(key));
+    }
+
+    /**
+     * Resolves setting keys to document ids. Keys present in the snapshot are answered from the index;
+     * the rest (e.g. written by another instance moments ago) are looked up with chunked whereIn queries
+     * issued concurrently, so the cost is one round trip regardless of how many keys are missing. The lookups
+     * go through the circuit breaker and are awaited within the request's deadline.
+     */
+    public Map<String, String> resolveDocumentIds(Collection<String> keys) throws ExecutionException, InterruptedException {
+        Snapshot snapshot = current.get();
+        Map<String, String> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            String id = snapshot.documentIdByKey.get(key);
+            if (id != null) resolved.put(key, id);
+            else missing.add(key);
+        }
+        if (missing.isEmpty()) return resolved;
+
+        Firestore db = FirestoreClient.getFirestore();
+        List<ApiFuture<QuerySnapshot>> lookups = new ArrayList<>();
+        for (int i = 0; i < missing.size(); i += WHERE_IN_LIMIT) {
+            Query lookup = db.collection(COLLECTION).whereIn("key", new ArrayList<>(missing.subList(i, Math.min(i + WHERE_IN_LIMIT, missing.size()))));
+            lookups.add(calls.guarded(() -> metrics.recordAsync(COLLECTION, "query", calls.retrying(COLLECTION, lookup::get),
+                    result -> Math.max(1, result.size()))));
+        }
+        for (QuerySnapshot result : calls.await(ApiFutures.allAsList(lookups))) {
+            for (DocumentSnapshot doc : result.getDocuments()) {
+                resolved.putIfAbsent(doc.getString("key"), doc.getId());
+            }
+        }
+        return resolved;
+    }
+
+    public List<Map<String, Object>> list(String category) {
+        Collection<Map<String, Object>> all = current.get().settingsByKey.values();
+        if (category == null || category.isEmpty()) return new ArrayList<>(all);
+        List<Map<String, Object>> filtered = new ArrayList<>();
+        for (Map<String, Object> setting : all) {
+            if (category.equals(setting.get("category"))) filtered.add(setting);
+        }
+        return filtered;
+    }
+
+    public Set<String> categories() {
+        return current.get().categories;
+    }
+
+    public <T> T getValue(String key, Class<T> type, T defaultValue) {
+        Map<String, Object> setting = current.get().settingsByKey.get(key);
+        T value = setting == null ? null : convert(setting.get("value"), type);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean isLoaded() {
+        return initialLoad.getCount() == 0;
+    }
+
+    /** Milliseconds since the last listener snapshot while the listener is broken; 0 while it is healthy. */
+    public long staleMillis() {
+        return disconnected ? System.currentTimeMillis() - lastSyncedAt : 0;
+    }
+
+    // ---- Local write-through so the writing instance reads its own writes before the listener catches up ----
+    // The snapshot is swapped before these return; subscribers are still notified on the store's thread.
+    // writeTime is the write's commit time; a listener snapshot read before it doesn't undo the write
+
+    public void applyLocalWrite(String key, String documentId, Map<String, Object> fields, Timestamp writeTime) {
+        swap(previous -> {
+            Map<String, Object> merged = new HashMap<>(previous.settingsByKey.getOrDefault(key, Map.of()));
+            merged.putAll(fields);
+            merged.put("key", key);
+            merged.put("settingId", documentId);
+            return previous.apply(key, new LocalWrite(documentId, merged, writeTime));
+        });
+    }
+
+    public void applyLocalDelete(String key, Timestamp writeTime) {
+        swap(previous -> previous.apply(key, new LocalWrite(null, null, writeTime)));
+    }
+
+    private void swap(UnaryOperator<Snapshot> change) {
+        Snapshot previous;
+        Snapshot next;
+        do {
+            previous = current.get();
+            next = change.apply(previous);
+        } while (!current.compareAndSet(previous, next));
+        Snapshot before = previous;
+        Snapshot after = next;
+        executor.execute(() -> notifySubscribers(before, after));
+    }
+
+    // ---- Typed change subscriptions ----
+
+    @FunctionalInterface
+    public interface SettingChangeListener<T> {
+        void onChange(String key, T oldValue, T newValue);
+    }
+
+    /**
+     * Registers a listener for changes to a single setting value, converted to {@code type}.
+     * Listeners run on the store's notification thread and must not block.
+     * Returns a handle whose {@link Runnable#run()} removes the subscription.
+     */
+    public <T> Runnable subscribe(String key, Class<T> type, SettingChangeListener<T> listener) {
+        Subscription<T> subscription = new Subscription<>(key, type, listener);
+        subscriptions.add(subscription);
+        return () -> subscriptions.remove(subscription);
+    }
+
+    private void notifySubscribers(Snapshot previous, Snapshot next) {
+        for (Subscription<?> subscription : subscriptions) {
+            Object oldRaw = valueOf(previous, subscription.key);
+            Object newRaw = valueOf(next, subscription.key);
+            if (Objects.equals(oldRaw, newRaw)) continue;
+            try {
+                subscription.fire(oldRaw, newRaw);
+            } catch (RuntimeException e) {
+                log.warn("Settings subscriber for '{}' failed: {}", subscription.key, e.getMessage());
+            }
+        }
+    }
+
+    private static Object valueOf(Snapshot snapshot, String key) {
+        Map<String, Object> setting = snapshot.settingsByKey.get(key);
+        return setting == null ? null : setting.get("value");
+    }
+
+    private static final class Subscription<T> {
+        final String key;
+        final Class<T> type;
+        final SettingChangeListener<T> listener;
+
+        Subscription(String key, Class<T> type, SettingChangeListener<T> listener) {
+            this.key = key;
+            this.type = type;
+            this.listener = listener;
+        }
+
+        void fire(Object oldRaw, Object newRaw) {
+            listener.onChange(key, convert(oldRaw, type), convert(newRaw, type));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> T convert(Object raw, Class<T> type) {
+        if (raw == null) return null;
+        if (type.isInstance(raw)) return type.cast(raw);
+        String s = raw.toString().trim();
+        try {
+            if (type == String.class) return type.cast(s);
+            if (type == Integer.class) return type.cast(Integer.valueOf(s));
+            if (type == Long.class) return type.cast(Long.valueOf(s));
+            if (type == Double.class) return type.cast(Double.valueOf(s));
+            if (type == Boolean.class) return type.cast(Boolean.valueOf(s));
+            if (type.isEnum()) return (T) Enum.valueOf((Class<? extends Enum>) type, s.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        throw new IllegalArgumentException("Unsupported setting type: " + type.getName());
+    }
+
+    // A setting written (or deleted, with a null setting) by this instance at writeTime
+    private record LocalWrite(String documentId, Map<String, Object> setting, Timestamp writeTime) {}
+
+    /**
+     * Immutable view of all settings: key -> setting fields (including settingId), key -> document id,
+     * and the local writes the listener may not have delivered yet.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of(), Instant.EPOCH);
+
+        private final Map<String, Map<String, Object>> settingsByKey;
+        private final Map<String, String> documentIdByKey;
+        private final Map<String, LocalWrite> pending;
+        private final Set<String> categories;
+        private final Instant loadedAt;
+
+        private Snapshot(Map<String, Map<String, Object>> settingsByKey, Map<String, String> documentIdByKey,
+                         Map<String, LocalWrite> pending, Instant loadedAt) {
+            this.settingsByKey = Collections.unmodifiableMap(settingsByKey);
+            this.documentIdByKey = Collections.unmodifiableMap(documentIdByKey);
+            this.pending = Collections.unmodifiableMap(pending);
+            Set<String> cats = new TreeSet<>();
+            for (Map<String, Object> setting : settingsByKey.values()) {
+                Object category = setting.get("category");
+                if (category != null) cats.add(category.toString());
+            }
+            this.categories = Collections.unmodifiableSet(cats);
+            this.loadedAt = loadedAt;
+        }
+
+        static Snapshot from(List<? extends DocumentSnapshot> docs) {
+            Map<String, Map<String, Object>> settings = new LinkedHashMap<>();
+            Map<String, String> ids = new HashMap<>();
+            for (DocumentSnapshot doc : docs) {
+                String key = doc.getString("key");
+                // Keys are expected to be unique; keep the first document if they are not
+                if (key == null || settings.containsKey(key)) continue;
+                Map<String, Object> setting = new HashMap<>(doc.getData());
+                setting.put("settingId", doc.getId());
+                settings.put(key, Collections.unmodifiableMap(setting));
+                ids.put(key, doc.getId());
+            }
+            return new Snapshot(settings, ids, Map.of(), Instant.now());
+        }
+
+        // Applies a local write, remembered until a listener snapshot read after it (a write without a
+        // commit time is applied but not remembered)
+        Snapshot apply(String key, LocalWrite write) {
+            Map<String, Map<String, Object>> settings = new LinkedHashMap<>(settingsByKey);
+            Map<String, String> ids = new HashMap<>(documentIdByKey);
+            Map<String, LocalWrite> writes = new HashMap<>(pending);
+            if (write.setting() != null) {
+                settings.put(key, Collections.unmodifiableMap(new HashMap<>(write.setting())));
+                ids.put(key, write.documentId());
+            } else {
+                settings.remove(key);
+                ids.remove(key);
+            }
+            if (write.writeTime() != null) writes.put(key, write);
+            else writes.remove(key);
+            return new Snapshot(settings, ids, writes, Instant.now());
+        }
+
+        // Re-applies the local writes that a listener snapshot read at readTime can't contain yet
+        Snapshot replay(Map<String, LocalWrite> writes, Timestamp readTime) {
+            Snapshot next = this;
+            for (Map.Entry<String, LocalWrite> write : writes.entrySet()) {
+                if (write.getValue().writeTime().compareTo(readTime) > 0) next = next.apply(write.getKey(), write.getValue());
+            }
+            return next;
+        }
+
+        public int size() { return settingsByKey.size(); }
+        public Instant getLoadedAt() { return loadedAt; }
+    }
+}
@@ -0,0 +1,151 @@
+package com.arya.crimeportal.service;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A set of named counts spread over {@code shards} documents ({@code counters/{name}/shards/{i}}, each holding a
+ * {@code counts} map), so that a burst of writes is not limited by the sustained write rate of one document.
+ * An increment goes to a random shard as a single merge with one field increment per count; a read sums every
+ * shard document that exists, so the shard count can be raised or lowered at any time.
+ *
+ * Sums are cached for {@code cacheTtlMillis}; this instance's own increments are added to the cached sums as
+ * they succeed, so they show up at once, and other instances' increments once the cache expires. Reads go
+ * through {@link FirestoreCalls} (deadline, retries, circuit breaker) and never under the cache's lock: while
+ * one reader refreshes expired sums, the others are served the expired ones.
+ */
+public final class ShardedCounter {
+
+    static final String COLLECTION = "counters";
+
+    private record Sums(Map<String, Long> counts, long readAtNanos) {}
+
+    private final Firestore db;
+    private final FirestoreCalls calls;
+    private final FirestoreMetrics metrics;
+    private final String name;
+    private final int shards;
+    private final long cacheTtlNanos;
+    private final CollectionReference shardDocs;
+
+    // Guarded by this
+    private Sums cached;
+    private boolean refreshing;
+
+    public ShardedCounter(Firestore db, FirestoreCalls calls, FirestoreMetrics metrics, String name, int shards,
+                          long cacheTtlMillis) {
+        if (shards < 1) throw new IllegalArgumentException("A counter needs at least one shard: " + name);
+        this.db = db;
+        this.calls = calls;
+        this.metrics = metrics;
+        this.name = name;
+        this.shards = shards;
+        this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(cacheTtlMillis);
+        this.shardDocs = db.collection(COLLECTION).document(name).collection("shards");
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    /**
+     * Adds {@code deltas} (count name to amount) to one random shard as part of {@code batch}, so one write's
+     * increments to several counters commit together; call {@link #committed} once the batch has committed.
+     * Not retried: a replay would count twice.
+     */
+    public void increment(WriteBatch batch, Map<String, Long> deltas) {
+        Map<String, Object> increments = new HashMap<>();
+        deltas.forEach((count, delta) -> increments.put(count, FieldValue.increment(delta)));
+        String shard = Integer.toString(ThreadLocalRandom.current().nextInt(shards));
+        batch.set(shardDocs.document(shard), Map.of("counts", increments), SetOptions.merge());
+    }
+
+    /** Adds increments committed through {@link #increment} to the cached sums. */
+    public synchronized void committed(Map<String, Long> deltas) {
+        if (cached == null) return;
+        Map<String, Long> counts = new HashMap<>(cached.counts());
+        deltas.forEach((count, delta) -> counts.merge(count, delta, Long::sum));
+        cached = new Sums(Map.copyOf(counts), cached.readAtNanos());
+    }
+
+    /** Every count summed over the shards, from the cache while it is fresh. */
+    public Map<String, Long> read() throws ExecutionException, InterruptedException {
+        synchronized (this) {
+            if (cached != null && (refreshing || System.nanoTime() - cached.readAtNanos() <= cacheTtlNanos)) {
+                return cached.counts();
+            }
+            refreshing = true;
+        }
+        try {
+            long readAt = System.nanoTime();
+            Map<String, Long> sums = sum(readShards());
+            synchronized (this) {
+                // A reset that finished meanwhile is newer than this read
+                if (cached == null || cached.readAtNanos() < readAt) cached = new Sums(sums, readAt);
+                return cached.counts();
+            }
+        } finally {
+            synchronized (this) {
+                refreshing = false;
+            }
+        }
+    }
+
+    /** True when at least one shard document exists. */
+    public boolean exists() throws ExecutionException, InterruptedException {
+        return !calls.await(calls.guarded(() -> metrics.recordAsync(COLLECTION, "get",
+                calls.retrying(COLLECTION, shardDocs.limit(1)::get), QuerySnapshot::size))).isEmpty();
+    }
+
+    /**
+     * Replaces the counts: {@code counts} go to shard 0 and every other shard document is emptied, in one batch.
+     * Increments committed by other instances between their counting and this write are lost.
+     */
+    public void reset(Map<String, Long> counts) throws ExecutionException, InterruptedException {
+        WriteBatch batch = db.batch();
+        List<QueryDocumentSnapshot> existing = readShards();
+        for (QueryDocumentSnapshot doc : existing) {
+            if (Integer.parseInt(doc.getId()) >= shards) batch.delete(doc.getReference());
+        }
+        for (int i = 0; i < shards; i++) {
+            batch.set(shardDocs.document(Integer.toString(i)), Map.of("counts", i == 0 ? new HashMap<>(counts) : Map.of()));
+        }
+        calls.await(metrics.recordWritesAsync(COLLECTION, "reset", batch.commit(), batch.getMutationsSize()));
+        synchronized (this) {
+            cached = new Sums(Map.copyOf(counts), System.nanoTime());
+        }
+    }
+
+    private List<QueryDocumentSnapshot> readShards() throws ExecutionException, InterruptedException {
+        return calls.await(calls.guarded(() -> metrics.recordAsync(COLLECTION, "query",
+                calls.retrying(COLLECTION, shardDocs::get), QuerySnapshot::size))).getDocuments();
+    }
+
+    private static Map<String, Long> sum(List<QueryDocumentSnapshot> docs) {
+        Map<String, Long> sums = new HashMap<>();
+        for (QueryDocumentSnapshot doc : docs) {
+            if (doc.get("counts") instanceof Map<?, ?> counts) {
+                counts.forEach((count, value) -> {
+                    if (value instanceof Number n) sums.merge(count.toString(), n.longValue(), Long::sum);
+                });
+            }
+        }
+        return Map.copyOf(sums);
+    }
+}
@@ -0,0 +1,403 @@
+package com.arya.crimeportal.service;
+
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.cloud.FirestoreClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts behind /api/stats and the dashboard, kept in one {@link ShardedCounter} per collection instead of
+ * being recounted from every document on each request: {@code total}, {@code status:<value>} (crimes, FIRs,
+ * criminals), {@code category:<value>} and {@code severity:<value>} (crimes), {@code created:<month>} and, for
+ * crimes, {@code date:<month>} (UTC months of {@code createdAt} and {@code date}). Per-day counts
+ * ({@code created:<day>}, {@code date:<day>}) are kept apart, in one counter per collection and month
+ * ({@code counters/{collection}-{yyyy-MM}}), so a historical import spread over years doesn't grow the
+ * collection's shard documents by an entry per day.
+ *
+ * Every {@link DocumentWrittenEvent} becomes one batch of increments of the counts the write moved: the counts
+ * of the document it replaced (carried on the event) against those of the document it left. Nothing is kept per
+ * document, so any number of instances can write to the same counters. A counter with no shards yet is seeded
+ * at startup by paging through its collection (projected to the counted fields); {@link #rebuild} recounts
+ * every collection the same way, for counters that lost increments.
+ *
+ * Shards per counter: {@code counters.default-shards}, overridden per collection by {@code counters.shards}
+ * ({@code crimes=20,firs=10}). Sums are cached for {@code counters.cache-ttl-ms}.
+ */
+@Service
+@DependsOn("firebaseConfig")
+public class StatsCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(StatsCounters.class);
+    private static final int PAGE_SIZE = 1000;
+    public static final String TOTAL = "total";
+    private static final String[] NONE = new String[0];
+    // Prefixes of counts by date: by month in the collection's counter, by day in the month's counter
+    private static final Set<String> DATED = Set.of("created:", "date:");
+
+    // Counted fields per collection, and the prefix of their counts
+    private static final Map<String, Map<String, String>> FIELDS = Map.of(
+            CollectionQueries.CRIMES, Map.of("status", "status:", "category", "category:", "severity", "severity:",
+                    "createdAt", "created:", "date", "date:"),
+            CollectionQueries.FIRS, Map.of("status", "status:", "createdAt", "created:"),
+            CollectionQueries.CRIMINALS, Map.of("status", "status:", "createdAt", "created:"),
+            "users", Map.of());
+
+    private final FirestoreService firestoreService;
+    private final FirestoreCalls calls;
+    private final FirestoreMetrics metrics;
+    private final boolean enabled;
+    private final int defaultShards;
+    private final String shardOverrides;
+    private final long cacheTtlMillis;
+    private final Map<String, ShardedCounter> counters = new HashMap<>();
+    // Per-day counters by collection-month, created as months are written or read
+    private final Map<String, ShardedCounter> dayCounters = new ConcurrentHashMap<>();
+
+    // Count names are shared between writes instead of being allocated for each
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+    // Guarded by this
+    private boolean rebuilding;
+    private boolean ready;
+    private Instant loadedAt;
+    private String lastError;
+
+    private Firestore db;
+    private ScheduledExecutorService worker;
+
+    public StatsCounters(FirestoreService firestoreService, FirestoreCalls calls, FirestoreMetrics metrics,
+                         @Value("${counters.enabled:true}") boolean enabled,
+                         @Value("${counters.default-shards:10}") int defaultShards,
+                         @Value("${counters.shards:}") String shardOverrides,
+                         @Value("${counters.cache-ttl-ms:5000}") long cacheTtlMillis) {
+        this.firestoreService = firestoreService;
+        this.calls = calls;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.defaultShards = defaultShards;
+        this.shardOverrides = shardOverrides;
+        this.cacheTtlMillis = cacheTtlMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        Map<String, Integer> shards = new HashMap<>();
+        for (String entry : shardOverrides.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length == 2) shards.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        db = FirestoreClient.getFirestore();
+        for (String collection : FIELDS.keySet()) {
+            counters.put(collection, new ShardedCounter(db, calls, metrics, collection,
+                    shards.getOrDefault(collection, defaultShards), cacheTtlMillis));
+        }
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stats-counters");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.execute(() -> load(false));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) worker.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean isReady() {
+        return ready;
+    }
+
+    public synchronized boolean isRebuilding() {
+        return rebuilding;
+    }
+
+    public synchronized Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public synchronized String lastError() {
+        return lastError;
+    }
+
+    /** True for the collections whose writes are counted, and so must report what they replaced. */
+    public static boolean isCounted(String collection) {
+        return FIELDS.containsKey(collection);
+    }
+
+    public ShardedCounter counter(String collection) {
+        return counters.get(collection);
+    }
+
+    /** All counts of a collection's counter, summed over its shards. */
+    public Map<String, Long> counts(String collection) throws ExecutionException, InterruptedException {
+        return counters.get(collection).read();
+    }
+
+    /** The counts named {@code prefix<value>}, by value. */
+    public static Map<String, Integer> breakdown(Map<String, Long> counts, String prefix) {
+        Map<String, Integer> breakdown = new HashMap<>();
+        counts.forEach((name, n) -> {
+            if (name.startsWith(prefix) && n != 0) breakdown.put(name.substring(prefix.length()), n.intValue());
+        });
+        return breakdown;
+    }
+
+    /** The {@code prefix<day>} counts of the {@code days} days up to today (UTC), oldest first, zero-filled. */
+    public Map<String, Integer> days(String collection, String prefix, int days) throws ExecutionException, InterruptedException {
+        Map<String, Integer> series = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        Map<YearMonth, Map<String, Long>> months = new HashMap<>();
+        for (int i = days - 1; i >= 0; i--) {
+            LocalDate day = today.minusDays(i);
+            YearMonth month = YearMonth.from(day);
+            Map<String, Long> counts = months.get(month);
+            if (counts == null) {
+                counts = dayCounter(collection, month.toString()).read();
+                months.put(month, counts);
+            }
+            series.put(day.toString(), counts.getOrDefault(prefix + day, 0L).intValue());
+        }
+        return series;
+    }
+
+    /** The {@code prefix<month>} counts (yyyy-MM) of the {@code months} months up to this one (UTC), oldest first. */
+    public static Map<String, Integer> months(Map<String, Long> counts, String prefix, int months) {
+        Map<String, Integer> series = new LinkedHashMap<>();
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = months - 1; i >= 0; i--) {
+            String month = current.minusMonths(i).toString();
+            series.put(month, counts.getOrDefault(prefix + month, 0L).intValue());
+        }
+        return series;
+    }
+
+    /**
+     * Recounts every collection from Firestore in the background and resets the counters to the result.
+     * Writes made while a collection is being recounted may be counted twice or not at all.
+     */
+    public synchronized boolean rebuild() {
+        if (!enabled || rebuilding || worker == null || worker.isShutdown()) return false;
+        rebuilding = true;
+        worker.execute(() -> load(true));
+        return true;
+    }
+
+    @EventListener
+    public void onWrite(DocumentWrittenEvent event) {
+        if (!enabled || !FIELDS.containsKey(event.collection())) return;
+        Map<String, Long> deltas;
+        try {
+            deltas = deltas(event);
+        } catch (RuntimeException e) {
+            log.warn("Could not count {} of {}/{}: {}", event.kind(), event.collection(), event.id(), e.getMessage());
+            return;
+        }
+        if (deltas == null || deltas.isEmpty()) return;
+        Map<ShardedCounter, Map<String, Long>> increments = route(event.collection(), deltas);
+        if (increments.isEmpty()) return;
+        WriteBatch batch = db.batch();
+        increments.forEach((counter, counts) -> counter.increment(batch, counts));
+        // Not awaited: the write itself has succeeded, and a lost increment is repaired by a rebuild
+        ApiFutures.addCallback(metrics.recordWritesAsync(ShardedCounter.COLLECTION, "increment", batch.commit(), increments.size()),
+                new ApiFutureCallback<>() {
+                    @Override
+                    public void onSuccess(List<WriteResult> results) {
+                        increments.forEach(ShardedCounter::committed);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        // nothing was counted
+                    }
+                }, MoreExecutors.directExecutor());
+    }
+
+    // Splits counts by day into the month's count in the collection's counter and the day's in the month's counter
+    private Map<ShardedCounter, Map<String, Long>> route(String collection, Map<String, Long> counts) {
+        Map<ShardedCounter, Map<String, Long>> routed = new HashMap<>();
+        ShardedCounter main = counters.get(collection);
+        counts.forEach((name, n) -> {
+            String prefix = datedPrefix(name);
+            if (prefix == null) {
+                routed.computeIfAbsent(main, c -> new HashMap<>()).merge(name, n, Long::sum);
+                return;
+            }
+            String month = name.substring(prefix.length(), prefix.length() + 7);
+            routed.computeIfAbsent(main, c -> new HashMap<>()).merge(prefix + month, n, Long::sum);
+            routed.computeIfAbsent(dayCounter(collection, month), c -> new HashMap<>()).merge(name, n, Long::sum);
+        });
+        routed.values().forEach(deltas -> deltas.values().removeIf(n -> n == 0));
+        routed.values().removeIf(Map::isEmpty);
+        return routed;
+    }
+
+    private ShardedCounter dayCounter(String collection, String month) {
+        return dayCounters.computeIfAbsent(collection + "-" + month, name ->
+                new ShardedCounter(db, calls, metrics, name, counters.get(collection).shards(), cacheTtlMillis));
+    }
+
+    // The prefix of a count by day (prefix + yyyy-MM-dd), or null
+    private static String datedPrefix(String name) {
+        for (String prefix : DATED) {
+            if (name.startsWith(prefix) && name.length() == prefix.length() + 10) return prefix;
+        }
+        return null;
+    }
+
+    private void load(boolean reset) {
+        long started = System.nanoTime();
+        try {
+            // Counters without shards, or still holding counts by day from before they moved to the month
+            // counters, are seeded from a scan; writes until the reset are overwritten by it
+            List<String> seed = new ArrayList<>();
+            for (Map.Entry<String, ShardedCounter> entry : counters.entrySet()) {
+                if (reset || !entry.getValue().exists() || entry.getValue().read().keySet().stream().anyMatch(n -> datedPrefix(n) != null)) {
+                    seed.add(entry.getKey());
+                }
+            }
+            long read = 0;
+            for (String collection : seed) {
+                Map<String, Long> counts = new HashMap<>();
+                read += scan(collection, counts);
+                Map<ShardedCounter, Map<String, Long>> routed = route(collection, counts);
+                ShardedCounter main = counters.get(collection);
+                // Months the counter has counted before but the scan found nothing in are emptied too
+                for (String name : main.read().keySet()) {
+                    for (String prefix : DATED) {
+                        if (name.startsWith(prefix) && name.length() >= prefix.length() + 7) {
+                            routed.putIfAbsent(dayCounter(collection, name.substring(prefix.length(), prefix.length() + 7)), Map.of());
+                        }
+                    }
+                }
+                routed.putIfAbsent(main, Map.of());
+                for (Map.Entry<ShardedCounter, Map<String, Long>> entry : routed.entrySet()) {
+                    entry.getKey().reset(entry.getValue());
+                }
+            }
+            synchronized (this) {
+                rebuilding = false;
+                ready = true;
+                loadedAt = Instant.now();
+                lastError = null;
+            }
+            log.info("Stats counters ready in {} ms: {} documents read, seeded {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), read, seed);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            boolean retry;
+            synchronized (this) {
+                rebuilding = false;
+                lastError = e.getMessage();
+                retry = !ready;
+            }
+            log.warn("Stats counters load failed: {}", e.getMessage());
+            if (retry && !worker.isShutdown()) worker.schedule(() -> load(false), 30, TimeUnit.SECONDS);
+        }
+    }
+
+    // Adds the counts of every document in the collection; returns the documents read
+    private long scan(String collection, Map<String, Long> counts) throws Exception {
+        Firestore db = FirestoreClient.getFirestore();
+        Query base = db.collection(collection).select(FIELDS.get(collection).keySet().toArray(NONE));
+        QueryDocumentSnapshot last = null;
+        long read = 0;
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+            Query page = last == null ? base.limit(PAGE_SIZE) : base.startAfter(last).limit(PAGE_SIZE);
+            List<QueryDocumentSnapshot> docs = firestoreService.queryCollection(collection, page);
+            for (QueryDocumentSnapshot doc : docs) {
+                counts.merge(TOTAL, 1L, Long::sum);
+                for (String name : countsOf(collection, doc.getData())) counts.merge(name, 1L, Long::sum);
+            }
+            read += docs.size();
+            if (docs.size() < PAGE_SIZE) break;
+            last = docs.get(docs.size() - 1);
+        }
+        return read;
+    }
+
+    // The change a write makes to the counter; null when the event doesn't say what the document was
+    private Map<String, Long> deltas(DocumentWrittenEvent event) {
+        Map<String, Object> previous = event.previous();
+        Map<String, Object> after;
+        if (event.kind() == DocumentWrittenEvent.Kind.DELETE) {
+            if (previous == null) return null;
+            after = null;
+        } else if (event.kind() == DocumentWrittenEvent.Kind.SET) {
+            after = event.fields();
+        } else {
+            if (previous == null) return null;
+            after = new HashMap<>(previous);
+            after.putAll(event.fields());
+        }
+        Map<String, Long> deltas = new HashMap<>();
+        if (previous == null) deltas.put(TOTAL, 1L);
+        if (after == null) deltas.put(TOTAL, -1L);
+        if (previous != null) for (String name : countsOf(event.collection(), previous)) deltas.merge(name, -1L, Long::sum);
+        if (after != null) for (String name : countsOf(event.collection(), after)) deltas.merge(name, 1L, Long::sum);
+        deltas.values().removeIf(n -> n == 0);
+        return deltas;
+    }
+
+    // The counts a document with these fields is in, besides the total
+    private List<String> countsOf(String collection, Map<String, Object> fields) {
+        Map<String, String> prefixes = FIELDS.get(collection);
+        List<String> out = new ArrayList<>(prefixes.size());
+        for (Map.Entry<String, String> field : prefixes.entrySet()) {
+            String prefix = field.getValue();
+            String value = value(prefix, fields.get(field.getKey()));
+            if (value != null) out.add(names.computeIfAbsent(prefix + value, n -> n));
+        }
+        return out;
+    }
+
+    // Dates count by UTC day; other values as they are stored
+    private static String value(String prefix, Object value) {
+        if (value == null) return null;
+        if (!prefix.equals("created:") && !prefix.equals("date:")) {
+            return value instanceof String s && !s.isBlank() ? s : null;
+        }
+        if (value instanceof Timestamp ts) return ts.toDate().toInstant().atOffset(ZoneOffset.UTC).toLocalDate().toString();
+        try {
+            return Instant.parse(value.toString()).atOffset(ZoneOffset.UTC).toLocalDate().toString();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
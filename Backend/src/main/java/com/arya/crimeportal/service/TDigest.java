@@ -0,0 +1,209 @@
+package com.arya.crimeportal.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest (Dunning &amp; Ertl): a quantile sketch of a stream of values in a bounded number of
+ * weighted centroids, accurate at the tails and mergeable, so digests recorded separately (per instance,
+ * per period) combine into the digest of the union. Values are buffered and folded into the centroids
+ * in sorted batches using the arcsine scale function, which keeps at most about {@code compression}
+ * centroids. Not thread-safe.
+ */
+public final class TDigest {
+
+    private static final byte FORMAT = 1;
+
+    private final double compression;
+    private final int maxBuffered;
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+    private double[] bufferMeans;
+    private double[] bufferWeights;
+    private int buffered;
+    private double total;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest(double compression) {
+        this.compression = compression;
+        // Arrays start small and grow, so that the many sparse digests of a per-officer breakdown stay cheap
+        maxBuffered = ((int) Math.ceil(compression) * 2 + 10) * 5;
+        means = new double[16];
+        weights = new double[16];
+        bufferMeans = new double[16];
+        bufferWeights = new double[16];
+    }
+
+    public double compression() {
+        return compression;
+    }
+
+    /** Number of values added (including through merges). */
+    public long count() {
+        return Math.round(total + bufferedWeight());
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, double weight) {
+        if (Double.isNaN(value) || weight <= 0) return;
+        if (buffered == bufferMeans.length) makeRoom();
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** Adds everything recorded in {@code other}; {@code other} is compressed but otherwise unchanged. */
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            if (buffered == bufferMeans.length) makeRoom();
+            bufferMeans[buffered] = other.means[i];
+            bufferWeights[buffered] = other.weights[i];
+            buffered++;
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /** The estimated value at quantile {@code q} (0..1), or NaN when the digest is empty. */
+    public double quantile(double q) {
+        compress();
+        if (centroids == 0) return Double.NaN;
+        if (centroids == 1) return means[0];
+        double target = Math.max(0, Math.min(1, q)) * total;
+        // Centroid i covers [cumulative, cumulative + weight); its mean sits at its midpoint
+        double firstMid = weights[0] / 2;
+        if (target <= firstMid) {
+            return min + (means[0] - min) * (firstMid == 0 ? 0 : target / firstMid);
+        }
+        double cumulative = 0;
+        for (int i = 0; i < centroids - 1; i++) {
+            double mid = cumulative + weights[i] / 2;
+            double nextMid = cumulative + weights[i] + weights[i + 1] / 2;
+            if (target <= nextMid) {
+                double t = (target - mid) / (nextMid - mid);
+                return means[i] + t * (means[i + 1] - means[i]);
+            }
+            cumulative += weights[i];
+        }
+        double lastMid = total - weights[centroids - 1] / 2;
+        double tail = total - lastMid;
+        return means[centroids - 1] + (max - means[centroids - 1]) * (tail == 0 ? 0 : (target - lastMid) / tail);
+    }
+
+    public TDigest copy() {
+        TDigest copy = new TDigest(compression);
+        copy.merge(this);
+        return copy;
+    }
+
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 * 3 + 4 + centroids * 16);
+        buffer.put(FORMAT).putDouble(compression).putDouble(min).putDouble(max).putInt(centroids);
+        for (int i = 0; i < centroids; i++) buffer.putDouble(means[i]).putDouble(weights[i]);
+        return buffer.array();
+    }
+
+    public static TDigest fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT) throw new IllegalArgumentException("Unknown t-digest format");
+        TDigest digest = new TDigest(buffer.getDouble());
+        double min = buffer.getDouble();
+        double max = buffer.getDouble();
+        int n = buffer.getInt();
+        for (int i = 0; i < n; i++) digest.add(buffer.getDouble(), buffer.getDouble());
+        digest.min = min;
+        digest.max = max;
+        return digest;
+    }
+
+    private void makeRoom() {
+        if (bufferMeans.length < maxBuffered) {
+            bufferMeans = Arrays.copyOf(bufferMeans, Math.min(maxBuffered, bufferMeans.length * 2));
+            bufferWeights = Arrays.copyOf(bufferWeights, bufferMeans.length);
+        } else {
+            compress();
+        }
+    }
+
+    private double bufferedWeight() {
+        double w = 0;
+        for (int i = 0; i < buffered; i++) w += bufferWeights[i];
+        return w;
+    }
+
+    // Folds the buffer into the centroids: sort everything by mean, then merge neighbours while the merged
+    // centroid stays within one unit of the scale function k(q) = compression / 2pi * asin(2q - 1)
+    private void compress() {
+        if (buffered == 0) return;
+        int n = centroids + buffered;
+        double[] allMeans = new double[n];
+        double[] allWeights = new double[n];
+        System.arraycopy(means, 0, allMeans, 0, centroids);
+        System.arraycopy(weights, 0, allWeights, 0, centroids);
+        System.arraycopy(bufferMeans, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double newTotal = total + bufferedWeight();
+        int out = 0;
+        double soFar = 0;
+        double limit = newTotal * q(k(0) + 1);
+        double mean = allMeans[order[0]];
+        double weight = allWeights[order[0]];
+        for (int j = 1; j < n; j++) {
+            int i = order[j];
+            if (soFar + weight + allWeights[i] <= limit) {
+                weight += allWeights[i];
+                mean += (allMeans[i] - mean) * allWeights[i] / weight;
+            } else {
+                out = emit(out, mean, weight);
+                soFar += weight;
+                limit = newTotal * q(k(soFar / newTotal) + 1);
+                mean = allMeans[i];
+                weight = allWeights[i];
+            }
+        }
+        out = emit(out, mean, weight);
+        centroids = out;
+        total = newTotal;
+        buffered = 0;
+    }
+
+    private int emit(int at, double mean, double weight) {
+        if (at == means.length) {
+            means = Arrays.copyOf(means, at * 2);
+            weights = Arrays.copyOf(weights, at * 2);
+        }
+        means[at] = mean;
+        weights[at] = weight;
+        return at + 1;
+    }
+
+    private double k(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private double q(double k) {
+        if (k >= compression / 4) return 1;
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+}
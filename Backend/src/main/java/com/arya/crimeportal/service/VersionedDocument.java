@@ -0,0 +1,39 @@
+package com.arya.crimeportal.service;
+
+import com.google.cloud.Timestamp;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable copy of a document's fields together with its Firestore {@code updateTime}, which changes on
+ * every write and therefore serves as the document's version for caching and conditional requests.
+ */
+public record VersionedDocument(String id, Map<String, Object> data, Timestamp updateTime) {
+
+    public VersionedDocument {
+        data = Collections.unmodifiableMap(data);
+    }
+
+    /** Strong entity tag (quoted, as sent in {@code ETag}) identifying this exact version. */
+    public String etag() {
+        return "\"" + updateTime.getSeconds() + "." + String.format("%09d", updateTime.getNanos()) + "\"";
+    }
+
+    /** Epoch milliseconds for {@code Last-Modified}; HTTP dates have second precision. */
+    public long lastModified() {
+        return updateTime.getSeconds() * 1000L;
+    }
+
+    /** A mutable copy of the fields with the document id added under {@code idField}. */
+    public Map<String, Object> withId(String idField) {
+        Map<String, Object> map = new LinkedHashMap<>(data);
+        map.put(idField, id);
+        return map;
+    }
+
+    boolean isNewerThan(Timestamp other) {
+        return other == null || updateTime.compareTo(other) >= 0;
+    }
+}
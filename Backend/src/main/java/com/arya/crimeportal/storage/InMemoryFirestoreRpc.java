@@ -0,0 +1,332 @@
+package com.arya.crimeportal.storage;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.*;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.google.cloud.firestore.spi.v1.FirestoreRpc;
+import com.google.cloud.firestore.v1.FirestoreClient;
+import com.google.cloud.spi.ServiceRpcFactory;
+import com.google.firestore.v1.*;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Empty;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-process stand-in for the Firestore backend, plugged in underneath the regular SDK through
+ * {@link FirestoreOptions.Builder#setServiceRpcFactory}. Queries, batches, BulkWriter, aggregations and
+ * snapshot listeners all go through the normal client code paths, so the rest of the application runs
+ * unchanged; only the network round trip is replaced by {@link MemoryDocumentStore}.
+ *
+ * Every request can be delayed ({@code latencyMs} plus uniform jitter) and failed with UNAVAILABLE at
+ * {@code errorRate}, to approximate a real backend under load tests. A fraction {@code slowRate} of requests
+ * is delayed by {@code slowMs} instead, for the long tail that hedging and deadlines deal with. With
+ * {@code documentWriteIntervalMs}, writes to any one document are spaced at least that far apart (a commit waits
+ * for every document it touches), like Firestore's sustained write rate per document; hot documents then
+ * queue up the way they contend on the real backend.
+ */
+public class InMemoryFirestoreRpc implements FirestoreRpc {
+
+    /** Latency and error injection applied to every request. */
+    public record Faults(long latencyMs, long jitterMs, double errorRate, double slowRate, long slowMs,
+                         long documentWriteIntervalMs) {}
+
+    private static final int MAX_TRACKED_DOCUMENTS = 100_000;
+
+    private final MemoryDocumentStore store;
+    private final Faults faults;
+    private final ScheduledExecutorService executor;
+    // Listen responses are delivered in order on a single thread
+    private final ExecutorService watchExecutor;
+    private final AtomicLong transactions = new AtomicLong();
+    // Earliest time (System.nanoTime) each recently written document accepts its next write
+    private final ConcurrentHashMap<String, Long> nextWriteNanos = new ConcurrentHashMap<>();
+
+    public InMemoryFirestoreRpc(String projectId, String databaseId, Faults faults) {
+        this.store = new MemoryDocumentStore(projectId, databaseId);
+        this.faults = faults;
+        this.executor = Executors.newScheduledThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()), r -> daemon(r, "memory-firestore"));
+        this.watchExecutor = Executors.newSingleThreadExecutor(r -> daemon(r, "memory-firestore-listen"));
+    }
+
+    /** A factory handing out this instance, so every client built from the options shares one data set. */
+    public ServiceRpcFactory<FirestoreOptions> factory() {
+        return options -> this;
+    }
+
+    // ---- Fault injection ----
+
+    private long delayMillis() {
+        if (faults.slowRate() > 0 && ThreadLocalRandom.current().nextDouble() < faults.slowRate()) return faults.slowMs();
+        if (faults.jitterMs() <= 0) return faults.latencyMs();
+        return faults.latencyMs() + ThreadLocalRandom.current().nextLong(faults.jitterMs() + 1);
+    }
+
+    private boolean injectFailure() {
+        return faults.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < faults.errorRate();
+    }
+
+    private void schedule(Runnable task) {
+        schedule(task, 0);
+    }
+
+    private void schedule(Runnable task, long extraDelayMillis) {
+        long delay = delayMillis() + extraDelayMillis;
+        if (delay > 0) executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+        else executor.execute(task);
+    }
+
+    // Reserves the next write slot of every document in the commit; returns how long the commit has to wait
+    private long contentionDelayMillis(List<Write> writes) {
+        if (faults.documentWriteIntervalMs() <= 0) return 0;
+        long interval = TimeUnit.MILLISECONDS.toNanos(faults.documentWriteIntervalMs());
+        long now = System.nanoTime();
+        if (nextWriteNanos.size() > MAX_TRACKED_DOCUMENTS) nextWriteNanos.values().removeIf(next -> next - now < 0);
+        long latest = now;
+        for (Write write : writes) {
+            String name = switch (write.getOperationCase()) {
+                case UPDATE -> write.getUpdate().getName();
+                case DELETE -> write.getDelete();
+                case TRANSFORM -> write.getTransform().getDocument();
+                default -> null;
+            };
+            if (name == null) continue;
+            long next = nextWriteNanos.merge(name, now + interval, (previous, ignored) -> Math.max(previous, now) + interval);
+            latest = Math.max(latest, next - interval);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(latest - now);
+    }
+
+    private static ApiException toApiException(Throwable t) {
+        if (t instanceof ApiException api) return api;
+        Status.Code code = t instanceof MemoryDocumentStore.StoreException e ? e.code : Status.Code.INTERNAL;
+        return ApiExceptionFactory.createException(t.getMessage(), t, GrpcStatusCode.of(code), code == Status.Code.UNAVAILABLE);
+    }
+
+    private static ApiException injected() {
+        return toApiException(new MemoryDocumentStore.StoreException(Status.Code.UNAVAILABLE, "Injected failure"));
+    }
+
+    private <Q, R> UnaryCallable<Q, R> unary(Function<Q, R> handler) {
+        return unary(handler, request -> 0L);
+    }
+
+    private <Q, R> UnaryCallable<Q, R> unary(Function<Q, R> handler, Function<Q, Long> extraDelayMillis) {
+        return new UnaryCallable<>() {
+            @Override
+            public ApiFuture<R> futureCall(Q request, ApiCallContext context) {
+                SettableApiFuture<R> future = SettableApiFuture.create();
+                schedule(() -> {
+                    if (injectFailure()) {
+                        future.setException(injected());
+                        return;
+                    }
+                    try {
+                        future.set(handler.apply(request));
+                    } catch (RuntimeException e) {
+                        future.setException(toApiException(e));
+                    }
+                }, extraDelayMillis.apply(request));
+                return future;
+            }
+        };
+    }
+
+    private <Q, R> ServerStreamingCallable<Q, R> streaming(Function<Q, List<R>> handler) {
+        return new ServerStreamingCallable<>() {
+            @Override
+            public void call(Q request, ResponseObserver<R> observer, ApiCallContext context) {
+                observer.onStart(NO_FLOW_CONTROL);
+                schedule(() -> {
+                    if (injectFailure()) {
+                        observer.onError(injected());
+                        return;
+                    }
+                    List<R> responses;
+                    try {
+                        responses = handler.apply(request);
+                    } catch (RuntimeException e) {
+                        observer.onError(toApiException(e));
+                        return;
+                    }
+                    responses.forEach(observer::onResponse);
+                    observer.onComplete();
+                });
+            }
+        };
+    }
+
+    private static <Q, R> UnaryCallable<Q, R> unsupported(String method) {
+        return new UnaryCallable<>() {
+            @Override
+            public ApiFuture<R> futureCall(Q request, ApiCallContext context) {
+                return ApiFutures.immediateFailedFuture(toApiException(
+                        new MemoryDocumentStore.StoreException(Status.Code.UNIMPLEMENTED, method + " is not supported by the in-memory backend")));
+            }
+        };
+    }
+
+    private static final StreamController NO_FLOW_CONTROL = new StreamController() {
+        @Override public void cancel() {}
+        @Override public void disableAutoInboundFlowControl() {}
+        @Override public void request(int count) {}
+    };
+
+    // ---- FirestoreRpc ----
+
+    @Override
+    public UnaryCallable<CommitRequest, CommitResponse> commitCallable() {
+        return unary(request -> store.commit(request.getWritesList()), request -> contentionDelayMillis(request.getWritesList()));
+    }
+
+    @Override
+    public UnaryCallable<BatchWriteRequest, BatchWriteResponse> batchWriteCallable() {
+        return unary(request -> store.batchWrite(request.getWritesList()), request -> contentionDelayMillis(request.getWritesList()));
+    }
+
+    @Override
+    public ServerStreamingCallable<BatchGetDocumentsRequest, BatchGetDocumentsResponse> batchGetDocumentsCallable() {
+        return streaming(request -> {
+            List<BatchGetDocumentsResponse> responses = new ArrayList<>();
+            com.google.protobuf.Timestamp readTime = store.readTime();
+            for (String name : request.getDocumentsList()) {
+                Document doc = store.get(name);
+                BatchGetDocumentsResponse.Builder response = BatchGetDocumentsResponse.newBuilder().setReadTime(readTime);
+                if (doc == null) response.setMissing(name);
+                else response.setFound(request.hasMask() ? MemoryDocumentStore.mask(doc, request.getMask()) : doc);
+                responses.add(response.build());
+            }
+            return responses;
+        });
+    }
+
+    @Override
+    public ServerStreamingCallable<RunQueryRequest, RunQueryResponse> runQueryCallable() {
+        return streaming(request -> {
+            com.google.protobuf.Timestamp readTime = store.readTime();
+            List<RunQueryResponse> responses = new ArrayList<>();
+            for (Document doc : store.query(request.getParent(), request.getStructuredQuery())) {
+                responses.add(RunQueryResponse.newBuilder().setDocument(doc).setReadTime(readTime).build());
+            }
+            responses.add(RunQueryResponse.newBuilder().setReadTime(readTime).build());
+            return responses;
+        });
+    }
+
+    @Override
+    public ServerStreamingCallable<RunAggregationQueryRequest, RunAggregationQueryResponse> runAggregationQueryCallable() {
+        return streaming(request -> {
+            StructuredAggregationQuery aggregation = request.getStructuredAggregationQuery();
+            long count = store.query(request.getParent(), aggregation.getStructuredQuery()).size();
+            AggregationResult.Builder result = AggregationResult.newBuilder();
+            for (StructuredAggregationQuery.Aggregation a : aggregation.getAggregationsList()) {
+                long value = a.getCount().hasUpTo() ? Math.min(count, a.getCount().getUpTo().getValue()) : count;
+                result.putAggregateFields(a.getAlias(), Value.newBuilder().setIntegerValue(value).build());
+            }
+            return List.of(RunAggregationQueryResponse.newBuilder().setResult(result).setReadTime(store.readTime()).build());
+        });
+    }
+
+    @Override
+    public UnaryCallable<BeginTransactionRequest, BeginTransactionResponse> beginTransactionCallable() {
+        return unary(request -> BeginTransactionResponse.newBuilder()
+                .setTransaction(ByteString.copyFromUtf8(Long.toString(transactions.incrementAndGet())))
+                .build());
+    }
+
+    @Override
+    public UnaryCallable<RollbackRequest, Empty> rollbackCallable() {
+        return unary(request -> Empty.getDefaultInstance());
+    }
+
+    @Override
+    public UnaryCallable<ListCollectionIdsRequest, FirestoreClient.ListCollectionIdsPagedResponse> listCollectionIdsPagedCallable() {
+        return unsupported("listCollections");
+    }
+
+    @Override
+    public UnaryCallable<PartitionQueryRequest, FirestoreClient.PartitionQueryPagedResponse> partitionQueryPagedCallable() {
+        return unsupported("partitionQuery");
+    }
+
+    @Override
+    public UnaryCallable<ListDocumentsRequest, FirestoreClient.ListDocumentsPagedResponse> listDocumentsPagedCallable() {
+        return unsupported("listDocuments");
+    }
+
+    @Override
+    public BidiStreamingCallable<ListenRequest, ListenResponse> listenCallable() {
+        return new BidiStreamingCallable<>() {
+            @Override
+            public ClientStream<ListenRequest> internalCall(ResponseObserver<ListenResponse> observer,
+                                                            ClientStreamReadyObserver<ListenRequest> onReady,
+                                                            ApiCallContext context) {
+                List<Runnable> unsubscribes = new CopyOnWriteArrayList<>();
+                ClientStream<ListenRequest> stream = new ClientStream<>() {
+                    @Override
+                    public void send(ListenRequest request) {
+                        if (request.hasAddTarget()) {
+                            unsubscribes.add(store.watch(request.getAddTarget(),
+                                    response -> watchExecutor.execute(() -> observer.onResponse(response))));
+                        }
+                    }
+
+                    @Override
+                    public void closeSendWithError(Throwable t) {
+                        closeSend();
+                    }
+
+                    @Override
+                    public void closeSend() {
+                        unsubscribes.forEach(Runnable::run);
+                        unsubscribes.clear();
+                    }
+
+                    @Override
+                    public boolean isSendReady() {
+                        return true;
+                    }
+                };
+                observer.onStart(NO_FLOW_CONTROL);
+                onReady.onReady(stream);
+                return stream;
+            }
+        };
+    }
+
+    @Override
+    public ScheduledExecutorService getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void shutdownNow() {
+        executor.shutdownNow();
+        watchExecutor.shutdownNow();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+        watchExecutor.shutdown();
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+}
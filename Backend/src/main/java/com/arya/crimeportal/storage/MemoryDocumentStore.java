@@ -0,0 +1,548 @@
+package com.arya.crimeportal.storage;
+
+import com.google.firestore.v1.*;
+import com.google.protobuf.Timestamp;
+import io.grpc.Status;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Documents held by the in-memory Firestore stand-in, with a small query engine for the
+ * {@link StructuredQuery} protos the SDK sends: field/unary/composite filters, ordering (with the
+ * implicit document-name tie-breaker), start/end cursors, offset, limit and projections.
+ *
+ * Commits are applied atomically with respect to other writes; reads are lock-free and may observe a
+ * commit that is still being published. Transactions are accepted but not isolated. Snapshot listeners
+ * get the initial result set and then every matching change; limits are not re-applied to updates.
+ */
+final class MemoryDocumentStore {
+
+    static final String NAME_FIELD = "__name__";
+
+    /** A failed operation, reported to the SDK with the matching gRPC status. */
+    static final class StoreException extends RuntimeException {
+        final Status.Code code;
+
+        StoreException(Status.Code code, String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+
+    interface WatchSink {
+        void accept(ListenResponse response);
+    }
+
+    private final String root;
+    // Collection path relative to the documents root ("crimes", "users/u1/notes") -> documents by id
+    private final ConcurrentMap<String, ConcurrentSkipListMap<String, Document>> collections = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final AtomicLong clockMicros = new AtomicLong();
+    private final List<Watcher> watchers = new CopyOnWriteArrayList<>();
+
+    MemoryDocumentStore(String projectId, String databaseId) {
+        this.root = "projects/" + projectId + "/databases/" + databaseId + "/documents";
+    }
+
+    // ---- Time ----
+
+    /** A strictly increasing commit time, so update times order every write. */
+    private Timestamp tick() {
+        long now = nowMicros();
+        return toTimestamp(clockMicros.updateAndGet(prev -> Math.max(prev + 1, now)));
+    }
+
+    Timestamp readTime() {
+        return toTimestamp(Math.max(clockMicros.get(), nowMicros()));
+    }
+
+    private static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    private static Timestamp toTimestamp(long micros) {
+        return Timestamp.newBuilder().setSeconds(micros / 1_000_000L).setNanos((int) (micros % 1_000_000L) * 1_000).build();
+    }
+
+    // ---- Names ----
+
+    private String relative(String name) {
+        if (name.equals(root)) return "";
+        if (!name.startsWith(root + "/")) throw new StoreException(Status.Code.INVALID_ARGUMENT, "Not a document in this database: " + name);
+        return name.substring(root.length() + 1);
+    }
+
+    private static String collectionOf(String relativeName) {
+        int slash = relativeName.lastIndexOf('/');
+        return slash < 0 ? "" : relativeName.substring(0, slash);
+    }
+
+    private static String idOf(String relativeName) {
+        return relativeName.substring(relativeName.lastIndexOf('/') + 1);
+    }
+
+    private static boolean inScope(String collectionPath, String parentPath, StructuredQuery.CollectionSelector from) {
+        if (!from.getAllDescendants()) {
+            return collectionPath.equals(parentPath.isEmpty() ? from.getCollectionId() : parentPath + "/" + from.getCollectionId());
+        }
+        if (!parentPath.isEmpty() && !collectionPath.startsWith(parentPath + "/")) return false;
+        return idOf(collectionPath).equals(from.getCollectionId());
+    }
+
+    // ---- Reads ----
+
+    Document get(String name) {
+        String relativeName = relative(name);
+        ConcurrentSkipListMap<String, Document> docs = collections.get(collectionOf(relativeName));
+        return docs == null ? null : docs.get(idOf(relativeName));
+    }
+
+    List<Document> query(String parent, StructuredQuery query) {
+        String parentPath = relative(parent);
+        Predicate<Document> where = query.hasWhere() ? compile(query.getWhere()) : doc -> true;
+        List<Document> docs = new ArrayList<>();
+        for (StructuredQuery.CollectionSelector from : query.getFromList()) {
+            collections.forEach((path, byId) -> {
+                if (!inScope(path, parentPath, from)) return;
+                for (Document doc : byId.values()) {
+                    if (where.test(doc)) docs.add(doc);
+                }
+            });
+        }
+
+        List<Ordering> orders = orderings(query);
+        // Documents without a value for an ordered field are not part of the result
+        docs.removeIf(doc -> orders.stream().anyMatch(o -> fieldValue(doc, o.path) == null));
+        docs.sort((a, b) -> compareByOrders(a, b, orders));
+
+        int from = 0;
+        int to = docs.size();
+        if (query.hasStartAt()) {
+            while (from < to && !afterStart(docs.get(from), query.getStartAt(), orders)) from++;
+        }
+        if (query.hasEndAt()) {
+            while (to > from && !beforeEnd(docs.get(to - 1), query.getEndAt(), orders)) to--;
+        }
+        from = Math.min(to, from + query.getOffset());
+        if (query.hasLimit()) to = Math.min(to, from + query.getLimit().getValue());
+
+        List<Document> page = docs.subList(from, to);
+        return query.hasSelect() ? project(page, query.getSelect()) : new ArrayList<>(page);
+    }
+
+    private record Ordering(List<String> path, boolean descending) {}
+
+    private static List<Ordering> orderings(StructuredQuery query) {
+        List<Ordering> orders = new ArrayList<>();
+        for (StructuredQuery.Order order : query.getOrderByList()) {
+            orders.add(new Ordering(Values.parsePath(order.getField().getFieldPath()),
+                    order.getDirection() == StructuredQuery.Direction.DESCENDING));
+        }
+        if (orders.isEmpty()) {
+            String inequality = inequalityField(query.getWhere());
+            if (inequality != null) orders.add(new Ordering(Values.parsePath(inequality), false));
+        }
+        boolean byName = !orders.isEmpty() && orders.get(orders.size() - 1).path.equals(List.of(NAME_FIELD));
+        if (!byName) {
+            boolean descending = !orders.isEmpty() && orders.get(orders.size() - 1).descending;
+            orders.add(new Ordering(List.of(NAME_FIELD), descending));
+        }
+        return orders;
+    }
+
+    private static String inequalityField(StructuredQuery.Filter filter) {
+        if (filter.hasFieldFilter()) {
+            switch (filter.getFieldFilter().getOp()) {
+                case LESS_THAN, LESS_THAN_OR_EQUAL, GREATER_THAN, GREATER_THAN_OR_EQUAL, NOT_EQUAL, NOT_IN:
+                    return filter.getFieldFilter().getField().getFieldPath();
+                default:
+                    return null;
+            }
+        }
+        if (filter.hasCompositeFilter()) {
+            for (StructuredQuery.Filter f : filter.getCompositeFilter().getFiltersList()) {
+                String field = inequalityField(f);
+                if (field != null) return field;
+            }
+        }
+        return null;
+    }
+
+    private static int compareByOrders(Document a, Document b, List<Ordering> orders) {
+        for (Ordering order : orders) {
+            int c = Values.compare(fieldValue(a, order.path), fieldValue(b, order.path));
+            if (c != 0) return order.descending ? -c : c;
+        }
+        return 0;
+    }
+
+    private static int compareToCursor(Document doc, Cursor cursor, List<Ordering> orders) {
+        for (int i = 0; i < cursor.getValuesCount() && i < orders.size(); i++) {
+            Ordering order = orders.get(i);
+            int c = Values.compare(fieldValue(doc, order.path), cursor.getValues(i));
+            if (c != 0) return order.descending ? -c : c;
+        }
+        return 0;
+    }
+
+    // before=true is startAt (inclusive), before=false is startAfter
+    private static boolean afterStart(Document doc, Cursor start, List<Ordering> orders) {
+        int c = compareToCursor(doc, start, orders);
+        return start.getBefore() ? c >= 0 : c > 0;
+    }
+
+    // before=true is endBefore, before=false is endAt (inclusive)
+    private static boolean beforeEnd(Document doc, Cursor end, List<Ordering> orders) {
+        int c = compareToCursor(doc, end, orders);
+        return end.getBefore() ? c < 0 : c <= 0;
+    }
+
+    private static List<Document> project(List<Document> docs, StructuredQuery.Projection projection) {
+        List<List<String>> paths = new ArrayList<>();
+        for (StructuredQuery.FieldReference field : projection.getFieldsList()) {
+            if (!field.getFieldPath().equals(NAME_FIELD)) paths.add(Values.parsePath(field.getFieldPath()));
+        }
+        List<Document> projected = new ArrayList<>(docs.size());
+        for (Document doc : docs) {
+            Map<String, Value> fields = new HashMap<>();
+            for (List<String> path : paths) {
+                Value value = Values.get(doc.getFieldsMap(), path);
+                if (value != null) Values.put(fields, path, value);
+            }
+            projected.add(doc.toBuilder().clearFields().putAllFields(fields).build());
+        }
+        return projected;
+    }
+
+    static Document mask(Document doc, DocumentMask mask) {
+        return project(List.of(doc), StructuredQuery.Projection.newBuilder()
+                .addAllFields(mask.getFieldPathsList().stream()
+                        .map(p -> StructuredQuery.FieldReference.newBuilder().setFieldPath(p).build()).toList())
+                .build()).get(0);
+    }
+
+    private static Value fieldValue(Document doc, List<String> path) {
+        if (path.size() == 1 && path.get(0).equals(NAME_FIELD)) {
+            return Value.newBuilder().setReferenceValue(doc.getName()).build();
+        }
+        return Values.get(doc.getFieldsMap(), path);
+    }
+
+    // ---- Filters ----
+
+    private static Predicate<Document> compile(StructuredQuery.Filter filter) {
+        switch (filter.getFilterTypeCase()) {
+            case COMPOSITE_FILTER: {
+                List<Predicate<Document>> parts = new ArrayList<>();
+                for (StructuredQuery.Filter f : filter.getCompositeFilter().getFiltersList()) parts.add(compile(f));
+                return doc -> {
+                    for (Predicate<Document> part : parts) {
+                        if (!part.test(doc)) return false;
+                    }
+                    return true;
+                };
+            }
+            case FIELD_FILTER:
+                return compile(filter.getFieldFilter());
+            case UNARY_FILTER:
+                return compile(filter.getUnaryFilter());
+            default:
+                return doc -> true;
+        }
+    }
+
+    private static Predicate<Document> compile(StructuredQuery.FieldFilter filter) {
+        List<String> path = Values.parsePath(filter.getField().getFieldPath());
+        Value operand = filter.getValue();
+        switch (filter.getOp()) {
+            case EQUAL:
+                return doc -> matches(doc, path, v -> Values.equal(v, operand));
+            case NOT_EQUAL:
+                return doc -> matches(doc, path, v -> !isNull(v) && !Values.equal(v, operand));
+            case LESS_THAN:
+                return doc -> matches(doc, path, v -> Values.sameType(v, operand) && Values.compare(v, operand) < 0);
+            case LESS_THAN_OR_EQUAL:
+                return doc -> matches(doc, path, v -> Values.sameType(v, operand) && Values.compare(v, operand) <= 0);
+            case GREATER_THAN:
+                return doc -> matches(doc, path, v -> Values.sameType(v, operand) && Values.compare(v, operand) > 0);
+            case GREATER_THAN_OR_EQUAL:
+                return doc -> matches(doc, path, v -> Values.sameType(v, operand) && Values.compare(v, operand) >= 0);
+            case ARRAY_CONTAINS:
+                return doc -> matches(doc, path, v -> v.hasArrayValue() && Values.arrayContains(v.getArrayValue(), operand));
+            case IN:
+                return doc -> matches(doc, path, v -> Values.arrayContains(operand.getArrayValue(), v));
+            case NOT_IN:
+                return doc -> matches(doc, path, v -> !isNull(v) && !Values.arrayContains(operand.getArrayValue(), v));
+            case ARRAY_CONTAINS_ANY:
+                return doc -> matches(doc, path, v -> v.hasArrayValue()
+                        && operand.getArrayValue().getValuesList().stream().anyMatch(o -> Values.arrayContains(v.getArrayValue(), o)));
+            default:
+                throw new StoreException(Status.Code.INVALID_ARGUMENT, "Unsupported filter operator: " + filter.getOp());
+        }
+    }
+
+    private static Predicate<Document> compile(StructuredQuery.UnaryFilter filter) {
+        List<String> path = Values.parsePath(filter.getField().getFieldPath());
+        switch (filter.getOp()) {
+            case IS_NULL:
+                return doc -> matches(doc, path, MemoryDocumentStore::isNull);
+            case IS_NOT_NULL:
+                return doc -> matches(doc, path, v -> !isNull(v));
+            case IS_NAN:
+                return doc -> matches(doc, path, Values::isNaN);
+            case IS_NOT_NAN:
+                return doc -> matches(doc, path, v -> !Values.isNaN(v));
+            default:
+                throw new StoreException(Status.Code.INVALID_ARGUMENT, "Unsupported filter operator: " + filter.getOp());
+        }
+    }
+
+    // Filters never match documents that lack the field
+    private static boolean matches(Document doc, List<String> path, Predicate<Value> test) {
+        Value value = fieldValue(doc, path);
+        return value != null && test.test(value);
+    }
+
+    private static boolean isNull(Value v) {
+        return v.getValueTypeCase() == Value.ValueTypeCase.NULL_VALUE;
+    }
+
+    // ---- Writes ----
+
+    CommitResponse commit(List<Write> writes) {
+        synchronized (writeLock) {
+            Timestamp time = tick();
+            Map<String, Document> staged = new LinkedHashMap<>();
+            CommitResponse.Builder response = CommitResponse.newBuilder().setCommitTime(time);
+            for (Write write : writes) response.addWriteResults(apply(write, time, staged));
+            publish(staged, time);
+            return response.build();
+        }
+    }
+
+    /** Applies each write on its own (BulkWriter semantics): one failing write doesn't affect the others. */
+    BatchWriteResponse batchWrite(List<Write> writes) {
+        BatchWriteResponse.Builder response = BatchWriteResponse.newBuilder();
+        for (Write write : writes) {
+            synchronized (writeLock) {
+                Timestamp time = tick();
+                Map<String, Document> staged = new LinkedHashMap<>();
+                try {
+                    response.addWriteResults(apply(write, time, staged));
+                    response.addStatus(com.google.rpc.Status.newBuilder().setCode(Status.Code.OK.value()));
+                    publish(staged, time);
+                } catch (StoreException e) {
+                    response.addWriteResults(WriteResult.getDefaultInstance());
+                    response.addStatus(com.google.rpc.Status.newBuilder().setCode(e.code.value()).setMessage(e.getMessage()));
+                }
+            }
+        }
+        return response.build();
+    }
+
+    private WriteResult apply(Write write, Timestamp time, Map<String, Document> staged) {
+        String name;
+        if (write.hasDelete()) name = write.getDelete();
+        else if (write.hasUpdate()) name = write.getUpdate().getName();
+        else name = write.getTransform().getDocument();
+        Document current = staged.containsKey(name) ? staged.get(name) : get(name);
+        checkPrecondition(write, name, current);
+
+        WriteResult.Builder result = WriteResult.newBuilder().setUpdateTime(time);
+        if (write.hasDelete()) {
+            staged.put(name, null);
+            return result.build();
+        }
+
+        Map<String, Value> fields = current == null ? new HashMap<>() : new HashMap<>(current.getFieldsMap());
+        if (write.hasUpdate()) {
+            Map<String, Value> update = write.getUpdate().getFieldsMap();
+            if (write.hasUpdateMask()) {
+                for (String fieldPath : write.getUpdateMask().getFieldPathsList()) {
+                    List<String> path = Values.parsePath(fieldPath);
+                    Values.put(fields, path, Values.get(update, path));
+                }
+            } else {
+                fields = new HashMap<>(update);
+            }
+        }
+        List<DocumentTransform.FieldTransform> transforms = write.hasTransform()
+                ? write.getTransform().getFieldTransformsList()
+                : write.getUpdateTransformsList();
+        for (DocumentTransform.FieldTransform transform : transforms) {
+            List<String> path = Values.parsePath(transform.getFieldPath());
+            Value value = transform(transform, Values.get(fields, path), time);
+            Values.put(fields, path, value);
+            result.addTransformResults(value);
+        }
+
+        staged.put(name, Document.newBuilder()
+                .setName(name)
+                .putAllFields(fields)
+                .setCreateTime(current != null ? current.getCreateTime() : time)
+                .setUpdateTime(time)
+                .build());
+        return result.build();
+    }
+
+    private static void checkPrecondition(Write write, String name, Document current) {
+        if (!write.hasCurrentDocument()) return;
+        Precondition precondition = write.getCurrentDocument();
+        if (precondition.hasUpdateTime()) {
+            if (current == null || !current.getUpdateTime().equals(precondition.getUpdateTime())) {
+                throw new StoreException(Status.Code.FAILED_PRECONDITION, "Document was modified: " + name);
+            }
+        } else if (precondition.getConditionTypeCase() == Precondition.ConditionTypeCase.EXISTS) {
+            if (precondition.getExists() && current == null) {
+                throw new StoreException(Status.Code.NOT_FOUND, "No document to update: " + name);
+            }
+            if (!precondition.getExists() && current != null) {
+                throw new StoreException(Status.Code.ALREADY_EXISTS, "Document already exists: " + name);
+            }
+        }
+    }
+
+    private static Value transform(DocumentTransform.FieldTransform transform, Value existing, Timestamp time) {
+        switch (transform.getTransformTypeCase()) {
+            case SET_TO_SERVER_VALUE:
+                return Value.newBuilder().setTimestampValue(time).build();
+            case INCREMENT: {
+                Value operand = transform.getIncrement();
+                if (existing == null || !Values.isNumber(existing)) return operand;
+                if (existing.hasIntegerValue() && operand.hasIntegerValue()) {
+                    return Value.newBuilder().setIntegerValue(existing.getIntegerValue() + operand.getIntegerValue()).build();
+                }
+                return Value.newBuilder().setDoubleValue(Values.toDouble(existing) + Values.toDouble(operand)).build();
+            }
+            case MAXIMUM: {
+                Value operand = transform.getMaximum();
+                return existing != null && Values.isNumber(existing) && Values.compare(existing, operand) >= 0 ? existing : operand;
+            }
+            case MINIMUM: {
+                Value operand = transform.getMinimum();
+                return existing != null && Values.isNumber(existing) && Values.compare(existing, operand) <= 0 ? existing : operand;
+            }
+            case APPEND_MISSING_ELEMENTS: {
+                ArrayValue.Builder array = existing != null && existing.hasArrayValue()
+                        ? existing.getArrayValue().toBuilder() : ArrayValue.newBuilder();
+                for (Value element : transform.getAppendMissingElements().getValuesList()) {
+                    if (!Values.arrayContains(array.build(), element)) array.addValues(element);
+                }
+                return Value.newBuilder().setArrayValue(array).build();
+            }
+            case REMOVE_ALL_FROM_ARRAY: {
+                ArrayValue.Builder array = ArrayValue.newBuilder();
+                if (existing != null && existing.hasArrayValue()) {
+                    for (Value element : existing.getArrayValue().getValuesList()) {
+                        if (!Values.arrayContains(transform.getRemoveAllFromArray(), element)) array.addValues(element);
+                    }
+                }
+                return Value.newBuilder().setArrayValue(array).build();
+            }
+            default:
+                throw new StoreException(Status.Code.INVALID_ARGUMENT, "Unsupported transform: " + transform.getTransformTypeCase());
+        }
+    }
+
+    private void publish(Map<String, Document> staged, Timestamp time) {
+        if (staged.isEmpty()) return;
+        staged.forEach((name, doc) -> {
+            String relativeName = relative(name);
+            String collection = collectionOf(relativeName);
+            if (doc == null) {
+                ConcurrentSkipListMap<String, Document> docs = collections.get(collection);
+                if (docs != null) docs.remove(idOf(relativeName));
+            } else {
+                collections.computeIfAbsent(collection, k -> new ConcurrentSkipListMap<>(Values::compareStrings))
+                        .put(idOf(relativeName), doc);
+            }
+        });
+        for (Watcher watcher : watchers) watcher.onCommit(staged, time);
+    }
+
+    // ---- Listeners ----
+
+    private final class Watcher {
+        final int targetId;
+        final Predicate<Document> matcher;
+        final WatchSink sink;
+        final Set<String> current = new HashSet<>();
+
+        Watcher(int targetId, Predicate<Document> matcher, WatchSink sink) {
+            this.targetId = targetId;
+            this.matcher = matcher;
+            this.sink = sink;
+        }
+
+        // Runs under the write lock, so changes reach the sink in commit order
+        void onCommit(Map<String, Document> changes, Timestamp time) {
+            boolean changed = false;
+            for (Map.Entry<String, Document> change : changes.entrySet()) {
+                Document doc = change.getValue();
+                if (doc != null && matcher.test(doc)) {
+                    sink.accept(ListenResponse.newBuilder().setDocumentChange(DocumentChange.newBuilder()
+                            .setDocument(doc).addTargetIds(targetId)).build());
+                    current.add(change.getKey());
+                    changed = true;
+                } else if (current.remove(change.getKey())) {
+                    sink.accept(ListenResponse.newBuilder().setDocumentDelete(DocumentDelete.newBuilder()
+                            .setDocument(change.getKey()).addRemovedTargetIds(targetId).setReadTime(time)).build());
+                    changed = true;
+                }
+            }
+            if (changed) sink.accept(globalSnapshot(time));
+        }
+    }
+
+    /** Starts a listen target: sends the current result set, then every matching change. Returns the unsubscribe hook. */
+    Runnable watch(Target target, WatchSink sink) {
+        synchronized (writeLock) {
+            int targetId = target.getTargetId();
+            List<Document> initial = new ArrayList<>();
+            Predicate<Document> matcher;
+            if (target.hasQuery()) {
+                String parentPath = relative(target.getQuery().getParent());
+                StructuredQuery query = target.getQuery().getStructuredQuery();
+                Predicate<Document> where = query.hasWhere() ? compile(query.getWhere()) : doc -> true;
+                matcher = doc -> query.getFromList().stream()
+                        .anyMatch(from -> inScope(collectionOf(relative(doc.getName())), parentPath, from)) && where.test(doc);
+                initial.addAll(query(target.getQuery().getParent(), query));
+            } else {
+                Set<String> names = new HashSet<>(target.getDocuments().getDocumentsList());
+                matcher = doc -> names.contains(doc.getName());
+                for (String name : names) {
+                    Document doc = get(name);
+                    if (doc != null) initial.add(doc);
+                }
+            }
+
+            Watcher watcher = new Watcher(targetId, matcher, sink);
+            sink.accept(ListenResponse.newBuilder().setTargetChange(TargetChange.newBuilder()
+                    .setTargetChangeType(TargetChange.TargetChangeType.ADD).addTargetIds(targetId)).build());
+            for (Document doc : initial) {
+                sink.accept(ListenResponse.newBuilder().setDocumentChange(DocumentChange.newBuilder()
+                        .setDocument(doc).addTargetIds(targetId)).build());
+                watcher.current.add(doc.getName());
+            }
+            sink.accept(ListenResponse.newBuilder().setTargetChange(TargetChange.newBuilder()
+                    .setTargetChangeType(TargetChange.TargetChangeType.CURRENT).addTargetIds(targetId)).build());
+            sink.accept(globalSnapshot(readTime()));
+            watchers.add(watcher);
+            return () -> watchers.remove(watcher);
+        }
+    }
+
+    // A NO_CHANGE for all targets with a read time tells the SDK to raise a consistent snapshot
+    private static ListenResponse globalSnapshot(Timestamp time) {
+        return ListenResponse.newBuilder().setTargetChange(TargetChange.newBuilder()
+                .setTargetChangeType(TargetChange.TargetChangeType.NO_CHANGE).setReadTime(time)).build();
+    }
+}
@@ -0,0 +1,204 @@
+package com.arya.crimeportal.storage;
+
+import com.google.firestore.v1.ArrayValue;
+import com.google.firestore.v1.MapValue;
+import com.google.firestore.v1.Value;
+import com.google.protobuf.ByteString;
+
+import java.util.*;
+
+/**
+ * Comparison and field-path helpers for Firestore wire values, following Firestore's ordering rules:
+ * null &lt; booleans &lt; numbers &lt; timestamps &lt; strings &lt; bytes &lt; references &lt; geo points &lt; arrays &lt; maps,
+ * with integers and doubles compared numerically and strings by code point (UTF-8 byte order).
+ */
+final class Values {
+
+    private Values() {}
+
+    private static int typeOrder(Value v) {
+        switch (v.getValueTypeCase()) {
+            case NULL_VALUE: return 0;
+            case BOOLEAN_VALUE: return 1;
+            case INTEGER_VALUE:
+            case DOUBLE_VALUE: return 2;
+            case TIMESTAMP_VALUE: return 3;
+            case STRING_VALUE: return 4;
+            case BYTES_VALUE: return 5;
+            case REFERENCE_VALUE: return 6;
+            case GEO_POINT_VALUE: return 7;
+            case ARRAY_VALUE: return 8;
+            case MAP_VALUE: return 9;
+            default: return 10;
+        }
+    }
+
+    static boolean sameType(Value a, Value b) {
+        return typeOrder(a) == typeOrder(b);
+    }
+
+    static boolean equal(Value a, Value b) {
+        return sameType(a, b) && compare(a, b) == 0;
+    }
+
+    static boolean isNumber(Value v) {
+        return typeOrder(v) == 2;
+    }
+
+    static boolean isNaN(Value v) {
+        return v.getValueTypeCase() == Value.ValueTypeCase.DOUBLE_VALUE && Double.isNaN(v.getDoubleValue());
+    }
+
+    static int compare(Value a, Value b) {
+        int order = Integer.compare(typeOrder(a), typeOrder(b));
+        if (order != 0) return order;
+        switch (a.getValueTypeCase()) {
+            case NULL_VALUE:
+                return 0;
+            case BOOLEAN_VALUE:
+                return Boolean.compare(a.getBooleanValue(), b.getBooleanValue());
+            case INTEGER_VALUE:
+            case DOUBLE_VALUE:
+                return compareNumbers(a, b);
+            case TIMESTAMP_VALUE: {
+                int c = Long.compare(a.getTimestampValue().getSeconds(), b.getTimestampValue().getSeconds());
+                return c != 0 ? c : Integer.compare(a.getTimestampValue().getNanos(), b.getTimestampValue().getNanos());
+            }
+            case STRING_VALUE:
+                return compareStrings(a.getStringValue(), b.getStringValue());
+            case BYTES_VALUE:
+                return ByteString.unsignedLexicographicalComparator().compare(a.getBytesValue(), b.getBytesValue());
+            case REFERENCE_VALUE:
+                return compareResourcePaths(a.getReferenceValue(), b.getReferenceValue());
+            case GEO_POINT_VALUE: {
+                int c = Double.compare(a.getGeoPointValue().getLatitude(), b.getGeoPointValue().getLatitude());
+                return c != 0 ? c : Double.compare(a.getGeoPointValue().getLongitude(), b.getGeoPointValue().getLongitude());
+            }
+            case ARRAY_VALUE:
+                return compareArrays(a.getArrayValue(), b.getArrayValue());
+            case MAP_VALUE:
+                return compareMaps(a.getMapValue(), b.getMapValue());
+            default:
+                return 0;
+        }
+    }
+
+    private static int compareNumbers(Value a, Value b) {
+        if (a.getValueTypeCase() == Value.ValueTypeCase.INTEGER_VALUE && b.getValueTypeCase() == Value.ValueTypeCase.INTEGER_VALUE) {
+            return Long.compare(a.getIntegerValue(), b.getIntegerValue());
+        }
+        double x = toDouble(a);
+        double y = toDouble(b);
+        // NaN sorts before every other number
+        if (Double.isNaN(x)) return Double.isNaN(y) ? 0 : -1;
+        if (Double.isNaN(y)) return 1;
+        return x < y ? -1 : (x > y ? 1 : 0);
+    }
+
+    static double toDouble(Value v) {
+        return v.getValueTypeCase() == Value.ValueTypeCase.INTEGER_VALUE ? v.getIntegerValue() : v.getDoubleValue();
+    }
+
+    static int compareStrings(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(j);
+            if (x != y) return Integer.compare(x, y);
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    static int compareResourcePaths(String a, String b) {
+        String[] x = a.split("/");
+        String[] y = b.split("/");
+        for (int i = 0; i < Math.min(x.length, y.length); i++) {
+            int c = compareStrings(x[i], y[i]);
+            if (c != 0) return c;
+        }
+        return Integer.compare(x.length, y.length);
+    }
+
+    private static int compareArrays(ArrayValue a, ArrayValue b) {
+        for (int i = 0; i < Math.min(a.getValuesCount(), b.getValuesCount()); i++) {
+            int c = compare(a.getValues(i), b.getValues(i));
+            if (c != 0) return c;
+        }
+        return Integer.compare(a.getValuesCount(), b.getValuesCount());
+    }
+
+    private static int compareMaps(MapValue a, MapValue b) {
+        Iterator<Map.Entry<String, Value>> x = new TreeMap<>(a.getFieldsMap()).entrySet().iterator();
+        Iterator<Map.Entry<String, Value>> y = new TreeMap<>(b.getFieldsMap()).entrySet().iterator();
+        while (x.hasNext() && y.hasNext()) {
+            Map.Entry<String, Value> ex = x.next();
+            Map.Entry<String, Value> ey = y.next();
+            int c = compareStrings(ex.getKey(), ey.getKey());
+            if (c != 0) return c;
+            c = compare(ex.getValue(), ey.getValue());
+            if (c != 0) return c;
+        }
+        return Boolean.compare(x.hasNext(), y.hasNext());
+    }
+
+    static boolean arrayContains(ArrayValue array, Value value) {
+        for (Value element : array.getValuesList()) {
+            if (equal(element, value)) return true;
+        }
+        return false;
+    }
+
+    // ---- Field paths ----
+
+    /** Splits a field path ("a.b", "`odd.name`.c") into its segments. */
+    static List<String> parsePath(String path) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\\' && quoted && i + 1 < path.length()) {
+                current.append(path.charAt(++i));
+            } else if (c == '`') {
+                quoted = !quoted;
+            } else if (c == '.' && !quoted) {
+                segments.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        segments.add(current.toString());
+        return segments;
+    }
+
+    /** The value at {@code path}, or null when a segment is missing or not a map. */
+    static Value get(Map<String, Value> fields, List<String> path) {
+        Value value = fields.get(path.get(0));
+        for (int i = 1; i < path.size() && value != null; i++) {
+            if (value.getValueTypeCase() != Value.ValueTypeCase.MAP_VALUE) return null;
+            value = value.getMapValue().getFieldsMap().get(path.get(i));
+        }
+        return value;
+    }
+
+    /** Sets (or removes, when {@code value} is null) the value at {@code path}, creating intermediate maps. */
+    static void put(Map<String, Value> fields, List<String> path, Value value) {
+        String head = path.get(0);
+        if (path.size() == 1) {
+            if (value == null) fields.remove(head);
+            else fields.put(head, value);
+            return;
+        }
+        Value existing = fields.get(head);
+        Map<String, Value> nested = existing != null && existing.getValueTypeCase() == Value.ValueTypeCase.MAP_VALUE
+                ? new HashMap<>(existing.getMapValue().getFieldsMap())
+                : new HashMap<>();
+        if (value == null && existing == null) return;
+        put(nested, path.subList(1, path.size()), value);
+        fields.put(head, Value.newBuilder().setMapValue(MapValue.newBuilder().putAllFields(nested)).build());
+    }
+}
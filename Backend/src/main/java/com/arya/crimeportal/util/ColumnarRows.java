@@ -0,0 +1,55 @@
+package com.arya.crimeportal.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * List items in columnar form: {@link #columns()} holds every field name once (in order of first
+ * appearance) and the object itself serializes as an array of rows, each an array of values in column
+ * order with null for missing fields. Rows are written straight from the item maps, nothing is copied.
+ */
+public final class ColumnarRows extends JsonSerializable.Base {
+
+    private final List<String> columns;
+    private final List<? extends Map<String, ?>> items;
+
+    private ColumnarRows(List<String> columns, List<? extends Map<String, ?>> items) {
+        this.columns = columns;
+        this.items = items;
+    }
+
+    public static ColumnarRows of(List<? extends Map<String, ?>> items) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (Map<String, ?> item : items) columns.addAll(item.keySet());
+        return new ColumnarRows(new ArrayList<>(columns), items);
+    }
+
+    public List<String> columns() {
+        return columns;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartArray(items, items.size());
+        for (Map<String, ?> item : items) {
+            gen.writeStartArray(item, columns.size());
+            for (String column : columns) serializers.defaultSerializeValue(item.get(column), gen);
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+}
@@ -0,0 +1,26 @@
+package com.arya.crimeportal.util;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Converts Firestore documents to the JSON maps returned by the list endpoints. */
+public final class DocumentMapper {
+
+    private DocumentMapper() {}
+
+    /** Each document's fields, with its id added under "id" and every key in {@code idKeys}. */
+    public static List<Map<String, Object>> toItems(List<? extends DocumentSnapshot> docs, String... idKeys) {
+        List<Map<String, Object>> items = new ArrayList<>(docs.size());
+        for (DocumentSnapshot d : docs) {
+            Map<String, Object> m = d.getData();
+            if (m == null) continue;
+            m.put("id", d.getId());
+            for (String key : idKeys) m.put(key, d.getId());
+            items.add(m);
+        }
+        return items;
+    }
+}
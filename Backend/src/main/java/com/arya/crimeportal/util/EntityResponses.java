@@ -0,0 +1,76 @@
+package com.arya.crimeportal.util;
+
+import com.arya.crimeportal.config.ColumnarResponseAdvice;
+import com.arya.crimeportal.service.VersionedDocument;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** Responses for single-document GET endpoints. */
+public final class EntityResponses {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    // The encodings a document can be negotiated into (see API_ENDPOINTS "Response Encodings"), JSON first
+    private static final List<MediaType> REPRESENTATIONS = List.of(
+            MediaType.APPLICATION_JSON, ColumnarResponseAdvice.COLUMNAR_JSON, SMILE, MediaType.APPLICATION_CBOR);
+
+    private EntityResponses() {}
+
+    /**
+     * 200 with the document (its id added under {@code idField}), a strong {@code ETag} and
+     * {@code Last-Modified}. Spring answers a matching {@code If-None-Match} / {@code If-Modified-Since}
+     * with 304 and no body. {@code no-cache, private} lets browsers keep the copy but revalidate every time.
+     * Each encoding is a separate representation: the ETag of anything but JSON carries the encoding's
+     * subtype, and {@code Vary: Accept} keeps caches from serving one encoding for another.
+     */
+    public static ResponseEntity<Map<String, Object>> ok(VersionedDocument doc, String idField) {
+        return ResponseEntity.ok()
+                .eTag(etag(doc, representation()))
+                .lastModified(doc.lastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(doc.withId(idField));
+    }
+
+    private static String etag(VersionedDocument doc, MediaType representation) {
+        String version = doc.etag();
+        if (MediaType.APPLICATION_JSON.equals(representation)) return version;
+        return version.substring(0, version.length() - 1) + "-" + representation.getSubtype() + "\"";
+    }
+
+    // The encoding the request's Accept header will be answered in, chosen the way Spring negotiates it:
+    // most specific and preferred accepted type first, JSON when nothing more specific matches
+    private static MediaType representation() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servlet)) return MediaType.APPLICATION_JSON;
+        HttpServletRequest request = servlet.getRequest();
+        List<MediaType> accepted = new ArrayList<>();
+        try {
+            for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT))) {
+                accepted.addAll(MediaType.parseMediaTypes(header));
+            }
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) continue;
+            for (MediaType representation : REPRESENTATIONS) {
+                if (type.isCompatibleWith(representation)) return representation;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
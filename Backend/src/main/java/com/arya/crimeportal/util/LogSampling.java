@@ -0,0 +1,42 @@
+package com.arya.crimeportal.util;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampled debug output for hot paths. Whether a request is sampled is decided once by
+ * {@code RequestCorrelationFilter}, so a sampled request keeps all of its debug lines; outside requests
+ * each call is sampled on its own. The level check comes first, so with DEBUG off this costs nothing.
+ */
+public final class LogSampling {
+
+    private static final ThreadLocal<Boolean> SAMPLED = new ThreadLocal<>();
+    private static volatile double rate = 1.0;
+
+    private LogSampling() {}
+
+    public static void setRate(double sampleRate) {
+        rate = sampleRate;
+    }
+
+    public static boolean decide() {
+        double r = rate;
+        return r >= 1.0 || (r > 0 && ThreadLocalRandom.current().nextDouble() < r);
+    }
+
+    public static void begin(boolean sampled) {
+        SAMPLED.set(sampled);
+    }
+
+    public static void end() {
+        SAMPLED.remove();
+    }
+
+    /** True when DEBUG is enabled for {@code log} and the current request is sampled. */
+    public static boolean debug(Logger log) {
+        if (!log.isDebugEnabled()) return false;
+        Boolean sampled = SAMPLED.get();
+        return sampled != null ? sampled : decide();
+    }
+}
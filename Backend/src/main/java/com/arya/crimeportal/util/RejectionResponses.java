@@ -0,0 +1,37 @@
+package com.arya.crimeportal.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Error bodies for requests turned away by a filter before reaching a controller, where
+ * {@code GlobalExceptionHandler} doesn't apply. Same shape as its responses, plus Retry-After.
+ */
+public final class RejectionResponses {
+
+    private RejectionResponses() {}
+
+    public static void write(ObjectMapper objectMapper, HttpServletRequest request, HttpServletResponse response,
+                             HttpStatus status, String message, long retryAfterSeconds) throws IOException {
+        Map<String, Object> errorDetails = new LinkedHashMap<>();
+        errorDetails.put("timestamp", Instant.now().toString());
+        errorDetails.put("message", message);
+        errorDetails.put("details", "uri=" + request.getRequestURI());
+        errorDetails.put("status", status.value());
+        errorDetails.put("retryAfterSeconds", retryAfterSeconds);
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorDetails);
+    }
+}
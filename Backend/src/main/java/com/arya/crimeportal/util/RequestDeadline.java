@@ -0,0 +1,39 @@
+package com.arya.crimeportal.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of the current request, bound to the request thread by {@code FirestoreUsageFilter} from the
+ * endpoint's time budget. Every Firestore call the request waits on gets only the time that is left, so
+ * a request as a whole cannot outlive its budget however many calls it makes. Asynchronous work (retries,
+ * hedged reads) captures the deadline when it is issued.
+ */
+public final class RequestDeadline {
+
+    /** No deadline bound to the thread. */
+    public static final long NONE = 0;
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private RequestDeadline() {}
+
+    /** Binds a deadline {@code budgetMillis} from now; 0 binds none. */
+    public static void begin(long budgetMillis) {
+        if (budgetMillis > 0) CURRENT.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /** The current deadline as a {@link System#nanoTime()} instant, or {@link #NONE}. */
+    public static long current() {
+        Long deadline = CURRENT.get();
+        return deadline == null ? NONE : deadline;
+    }
+
+    /** Nanoseconds left until {@code deadline}, or {@code fallbackNanos} when there is none. May be negative. */
+    public static long remainingNanos(long deadline, long fallbackNanos) {
+        return deadline == NONE ? fallbackNanos : deadline - System.nanoTime();
+    }
+}
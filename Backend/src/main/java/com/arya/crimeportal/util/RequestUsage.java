@@ -0,0 +1,90 @@
+package com.arya.crimeportal.util;
+
+import com.arya.crimeportal.exception.ReadBudgetExceededException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request tally of Firestore documents read and written. The tally is bound to the request
+ * thread by {@code FirestoreUsageFilter}; asynchronous Firestore callbacks capture it when the call is
+ * issued, so reads completing on client threads are still charged to the right request. Work the request
+ * hands to another thread (a streaming body, a scheduled retry) re-binds it there with {@link #bind}.
+ */
+public final class RequestUsage {
+
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+
+    private RequestUsage() {}
+
+    public static final class Tally {
+        private final AtomicLong reads = new AtomicLong();
+        private final AtomicLong writes = new AtomicLong();
+        private final long readBudget; // 0 = unlimited
+        private final boolean reject;
+
+        public Tally(long readBudget, boolean reject) {
+            this.readBudget = readBudget;
+            this.reject = reject;
+        }
+
+        public void addReads(long n) { reads.addAndGet(n); }
+        public void addWrites(long n) { writes.addAndGet(n); }
+        public long getReads() { return reads.get(); }
+        public long getWrites() { return writes.get(); }
+        public long getReadBudget() { return readBudget; }
+        public boolean isReject() { return reject; }
+
+        public boolean isOverBudget() {
+            return readBudget > 0 && reads.get() > readBudget;
+        }
+    }
+
+    public static Tally begin(long readBudget, boolean reject) {
+        Tally tally = new Tally(readBudget, reject);
+        CURRENT.set(tally);
+        return tally;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /** Binds {@code tally} (may be null) to the calling thread and returns what was bound before, for {@link #restore}. */
+    public static Tally bind(Tally tally) {
+        Tally previous = CURRENT.get();
+        if (tally == null) CURRENT.remove();
+        else CURRENT.set(tally);
+        return previous;
+    }
+
+    public static void restore(Tally previous) {
+        bind(previous);
+    }
+
+    /** A streaming body that charges its reads to the request building it; call on the request thread. */
+    public static StreamingResponseBody bound(StreamingResponseBody body) {
+        Tally tally = CURRENT.get();
+        return out -> {
+            Tally previous = bind(tally);
+            try {
+                body.writeTo(out);
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /** The current request's tally, or null outside a request (background jobs, listeners). */
+    public static Tally current() {
+        return CURRENT.get();
+    }
+
+    /** Fails fast before another read once a rejecting budget has been exceeded. */
+    public static void enforceBudget() {
+        Tally tally = CURRENT.get();
+        if (tally != null && tally.reject && tally.isOverBudget()) {
+            throw new ReadBudgetExceededException(tally.getReads(), tally.readBudget);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.arya.crimeportal.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks the current response as served from a stale copy because Firestore could not be reached:
+ * {@code Warning: 110 - "Response is Stale"} plus {@code Age} in seconds. A no-op outside a request.
+ */
+public final class StaleResponses {
+
+    public static final String WARNING = "110 - \"Response is Stale\"";
+
+    private StaleResponses() {}
+
+    public static void mark(long ageMillis) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servlet)) return;
+        HttpServletResponse response = servlet.getResponse();
+        if (response == null || response.isCommitted()) return;
+        response.setHeader(HttpHeaders.WARNING, WARNING);
+        response.setHeader(HttpHeaders.AGE, Long.toString(TimeUnit.MILLISECONDS.toSeconds(Math.max(0, ageMillis))));
+    }
+}